@@ -2,6 +2,7 @@ plugins {
 	id("java")
 	id("org.springframework.boot") version "3.3.4"
 	id("io.spring.dependency-management") version "1.1.6"
+	id("me.champeau.jmh") version "0.7.2" // Microbenchmarks in src/jmh, run with ./gradlew jmh
 }
 
 group = "com.mainproject"
@@ -23,6 +24,12 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-mail")
+	implementation("org.springframework.boot:spring-boot-starter-aop")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus") // Serves /actuator/prometheus
+	// Reactive stack, only started with the "reactive" profile
+	implementation("org.springframework.boot:spring-boot-starter-webflux")
+	implementation("org.springframework.boot:spring-boot-starter-data-mongodb-reactive")
 	implementation("jakarta.validation:jakarta.validation-api:3.1.0")
 	implementation("io.jsonwebtoken:jjwt:0.9.1") // For JWT token implementation
 	implementation("javax.xml.bind:jaxb-api:2.3.1")
@@ -35,6 +42,7 @@ dependencies {
 	implementation("org.springframework.data:spring-data-mongodb")
 	// Testing dependencies
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
+	testImplementation("io.projectreactor:reactor-test")
 	testImplementation("org.mockito:mockito-core:5.4.0")
 	testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
 
@@ -45,6 +53,54 @@ dependencies {
 	implementation("org.springframework:spring-tx")
 }
 
+// Short commit id of the measured tree, so results from different commits sit side by side
+val jmhRunId = providers.exec {
+	commandLine("git", "rev-parse", "--short", "HEAD")
+	isIgnoreExitValue = true
+}.standardOutput.asText.map { it.trim().ifEmpty { "local" } }
+
+jmh {
+	profilers = listOf("gc") // Report allocation rate next to the timings
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file(jmhRunId.map { "reports/jmh/results-$it.json" })
+	// ./gradlew jmh -Pjmh.includes=JwtUtilBenchmark runs a subset
+	providers.gradleProperty("jmh.includes").orNull?.let { includes = listOf(it) }
+}
+
+// Load benchmarks in src/loadtest: they start the application themselves and need a running MongoDB
+sourceSets {
+	create("loadtest") {
+		compileClasspath += sourceSets.main.get().output
+		runtimeClasspath += sourceSets.main.get().output
+	}
+}
+configurations["loadtestImplementation"].extendsFrom(configurations.implementation.get())
+configurations["loadtestRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
+dependencies {
+	"loadtestImplementation"("org.testcontainers:mongodb") // Throwaway replica set for contentionLoadTest
+}
+
+tasks.register<JavaExec>("threadModeBenchmark") {
+	description = "Compares transfer and history throughput/p99 on platform threads and with the virtual profile"
+	group = "verification"
+	classpath = sourceSets["loadtest"].runtimeClasspath
+	mainClass = "com.mainproject.wallet.loadtest.ThreadModeBenchmark"
+	// -Pbenchmark.concurrency=800 etc. are passed on to the benchmark
+	systemProperties(project.properties.filterKeys { it.startsWith("benchmark.") })
+	systemProperty("benchmark.report-dir", layout.buildDirectory.dir("reports/thread-mode-benchmark").get().asFile.path)
+}
+
+tasks.register<JavaExec>("contentionLoadTest") {
+	description = "Drives a configurable request mix with uniform, Zipf or hot-receiver skew and checks money is conserved"
+	group = "verification"
+	classpath = sourceSets["loadtest"].runtimeClasspath
+	mainClass = "com.mainproject.wallet.loadtest.ContentionLoadGenerator"
+	// -Pload.profile=hot-merchant, -Pload.mix=transfer=80,transactions=20 etc. are passed on to the generator
+	systemProperties(project.properties.filterKeys { it.startsWith("load.") })
+	systemProperty("load.report-dir", layout.buildDirectory.dir("reports/contention-load").get().asFile.path)
+}
+
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
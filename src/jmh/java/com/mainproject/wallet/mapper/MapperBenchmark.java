@@ -0,0 +1,81 @@
+package com.mainproject.wallet.mapper;
+
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.dto.RegisterDTO;
+import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.dto.UserDTO;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO conversions on every history page and auth response. Each is a handful of field copies,
+ * so these mostly guard against a mapper growing accidental work such as reflection or formatting.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Transaction transaction;
+    private TransactionDTO transactionDTO;
+    private User user;
+    private RegisterDTO registerDTO;
+
+    @Setup
+    public void setUp() {
+        transaction = new Transaction();
+        transaction.setId("6650f1c2a4b5c6d7e8f90123");
+        transaction.setUserId("5f1d7c2e9b1e8a3f4c6d2b10");
+        transaction.setAmount(250);
+        transaction.setTimestamp(LocalDateTime.now());
+        transaction.setType(TransactionENUM.SENT);
+        transaction.setSenderId("5f1d7c2e9b1e8a3f4c6d2b10");
+        transaction.setSenderUsername("alice");
+        transaction.setReceiverId("5f1d7c2e9b1e8a3f4c6d2b11");
+        transaction.setReceiverUsername("bob");
+        transactionDTO = TransactionMapper.toDTO(transaction);
+
+        user = new User();
+        user.setId("5f1d7c2e9b1e8a3f4c6d2b10");
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setWalletBalance(1000);
+        registerDTO = new RegisterDTO("alice", "alice@example.com", "secret");
+    }
+
+    @Benchmark
+    public TransactionDTO transactionToDTO() {
+        return TransactionMapper.toDTO(transaction);
+    }
+
+    @Benchmark
+    public Transaction transactionToEntity() {
+        return TransactionMapper.toEntity(transactionDTO);
+    }
+
+    @Benchmark
+    public UserDTO userToDTO() {
+        return UserMapper.toDTO(user, "token");
+    }
+
+    @Benchmark
+    public User registerToEntity() {
+        return UserMapper.toEntity(registerDTO);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.constant.OutboxENUM;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.template.EmailTemplates;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building one notification email from an outbox message: template rendering plus the MIME message
+ * around it, as the OutboxDispatcher does before handing a batch to the SMTP pool. Nothing is sent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailServiceBenchmark {
+
+    @Param({OutboxENUM.RECHARGE, OutboxENUM.TRANSFER_RECEIVED, OutboxENUM.TRANSFER_SENT})
+    public String type;
+
+    private EmailService emailService;
+    private OutboxMessage message;
+
+    @Setup
+    public void setUp() {
+        emailService = new EmailService(new JavaMailSenderImpl(), new EmailTemplates(), null); // The pool is only used for sending
+        message = OutboxService.newMessage(type, new ResolvedAccount("u1", "alice", "alice@example.com"), "bob", 125_050);
+        message.setCashbackAmount(3_126);
+    }
+
+    @Benchmark
+    public MimeMessage prepare() {
+        return emailService.prepare(message);
+    }
+}
@@ -0,0 +1,148 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.constant.OutboxENUM;
+import com.mainproject.wallet.metrics.WalletMetrics;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.repository.TransactionRepository;
+import com.mainproject.wallet.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wires the real WalletService, TransactionService and UserService to in-memory stand-ins for
+ * MongoDB, so a benchmark measures the service code itself: account resolution, balance checks,
+ * ledger rows, aggregate updates and outbox messages are all built as in production, but kept in
+ * maps instead of being written. Spring is not involved, so there is no transaction or retry proxy.
+ */
+class InMemoryWallet {
+
+    private final Map<String, User> usersById = new ConcurrentHashMap<>();
+    private final Map<String, User> usersByName = new ConcurrentHashMap<>();
+    private long transactions;
+    private long outboxMessages;
+
+    final WalletService walletService;
+
+    InMemoryWallet(double cashbackLowerPercent, double cashbackUpperPercent) {
+        UserRepository userRepository = repository(UserRepository.class, this::userRepositoryCall);
+        TransactionRepository transactionRepository = repository(TransactionRepository.class, this::transactionRepositoryCall);
+        UserService userService = new UserService(userRepository, null); // Passwords are not used on these paths
+
+        // Build the same messages and updates as the Mongo-backed services, then drop them
+        OutboxService outboxService = new OutboxService(null) {
+            @Override
+            public void enqueueRecharge(ResolvedAccount account, long amount, long cashbackAmount) {
+                OutboxMessage message = newMessage(OutboxENUM.RECHARGE, account, null, amount);
+                message.setCashbackAmount(cashbackAmount);
+                outboxMessages++;
+            }
+
+            @Override
+            public void enqueueTransfer(ResolvedAccount sender, ResolvedAccount receiver, long amount) {
+                outboxMessages += List.of(
+                        newMessage(OutboxENUM.TRANSFER_RECEIVED, receiver, sender.username(), amount),
+                        newMessage(OutboxENUM.TRANSFER_SENT, sender, receiver.username(), amount)).size();
+            }
+        };
+        WalletAggregateService walletAggregateService = new WalletAggregateService(null) {
+            @Override
+            public void record(Transaction transaction) {
+                aggregateOf(transaction.getUserId());
+                totalsUpdate(transaction);
+            }
+        };
+
+        TransactionService transactionService = new TransactionService(transactionRepository, userService, outboxService, walletAggregateService);
+        walletService = new WalletService(userRepository, transactionService, userService, walletAggregateService,
+                new WalletMetrics(new SimpleMeterRegistry()), new IdempotencyService(null), // Benchmarks send no idempotency keys
+                new CashbackEngine(null, cashbackLowerPercent, cashbackUpperPercent));
+    }
+
+    void addUser(String username, long balance) {
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setWalletBalance(balance);
+        user.setVersion(0L);
+        usersById.put(user.getId(), user);
+        usersByName.put(username.toLowerCase(Locale.ROOT), user);
+    }
+
+    long writes() {
+        return transactions + outboxMessages;
+    }
+
+    // Only the repository methods the wallet paths call; anything else fails loudly
+    private Object userRepositoryCall(String method, Object[] args) {
+        return switch (method) {
+            case "findByUsernameIgnoreCase" -> usersByName.get(((String) args[0]).toLowerCase(Locale.ROOT));
+            case "findById" -> Optional.ofNullable(usersById.get((String) args[0]));
+            case "save" -> args[0];
+            case "debitIfSufficient" -> debitIfSufficient((String) args[0], (long) args[1]);
+            case "credit" -> credit((String) args[0], (long) args[1]);
+            default -> throw new UnsupportedOperationException("UserRepository." + method);
+        };
+    }
+
+    private Object transactionRepositoryCall(String method, Object[] args) {
+        if (!method.equals("save") && !method.equals("insertTransfer")) {
+            throw new UnsupportedOperationException("TransactionRepository." + method);
+        }
+        transactions++;
+        return args[0];
+    }
+
+    private boolean debitIfSufficient(String userId, long amount) {
+        User user = usersById.get(userId);
+        if (user == null || user.getWalletBalance() < amount) {
+            return false;
+        }
+        user.setWalletBalance(user.getWalletBalance() - amount);
+        user.setVersion(user.getVersion() + 1);
+        return true;
+    }
+
+    private User credit(String userId, long amount) {
+        User user = usersById.get(userId);
+        if (user != null) {
+            user.setWalletBalance(user.getWalletBalance() + amount);
+            user.setVersion(user.getVersion() + 1);
+        }
+        return user;
+    }
+
+    private interface Call {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T repository(Class<T> type, Call call) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(proxy, method, args);
+            }
+            return call.invoke(method.getName(), args);
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object objectMethod(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> proxy.getClass().getSimpleName();
+        };
+    }
+}
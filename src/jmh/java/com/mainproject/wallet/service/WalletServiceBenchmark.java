@@ -0,0 +1,74 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.dto.RechargeResponseDTO;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The recharge and transfer paths of WalletService against in-memory repositories (see
+ * {@link InMemoryWallet}), plus the cashback decision on its own. Database round trips dominate
+ * these calls in production; this measures what the service adds on top of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalletServiceBenchmark {
+
+    // Same bounds as application.properties
+    private static final double CASHBACK_LOWER_PERCENT = 10;
+    private static final double CASHBACK_UPPER_PERCENT = 5;
+
+    private InMemoryWallet wallet;
+    private CashbackEngine cashbackEngine;
+    private ResolvedAccount account;
+    private long amount;
+
+    @Setup
+    public void setUp() {
+        wallet = new InMemoryWallet(CASHBACK_LOWER_PERCENT, CASHBACK_UPPER_PERCENT);
+        wallet.addUser("alice", 1_000_000_000_000L); // Large enough that no run drains it
+        wallet.addUser("bob", 0);
+        cashbackEngine = new CashbackEngine(null, CASHBACK_LOWER_PERCENT, CASHBACK_UPPER_PERCENT);
+        account = new ResolvedAccount("bob-id", "bob", "bob@example.com");
+        amount = 25_000;
+    }
+
+    @TearDown
+    public void checkWrites() {
+        if (wallet.writes() == 0) {
+            throw new IllegalStateException("No ledger or outbox writes were recorded");
+        }
+    }
+
+    @Benchmark
+    public long cashback() {
+        return cashbackEngine.grant(account, amount).amount();
+    }
+
+    @Benchmark
+    public ResponseEntity<RechargeResponseDTO> recharge() {
+        return wallet.walletService.recharge("bob", amount, null);
+    }
+
+    @Benchmark
+    public User transfer() {
+        return wallet.walletService.transfer("alice", "bob", amount, null);
+    }
+}
@@ -0,0 +1,78 @@
+package com.mainproject.wallet.template;
+
+import com.mainproject.wallet.utils.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the precompiled transfer email with the string concatenation EmailService used before.
+ * Run with {@code ./gradlew jmh}; the gc profiler reports bytes allocated per rendered email.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailRenderingBenchmark {
+
+    private EmailTemplates templates;
+    private long amount;
+    private String from;
+
+    @Setup
+    public void setUp() {
+        templates = new EmailTemplates();
+        amount = 125_050;
+        from = "sender_user";
+    }
+
+    @Benchmark
+    public String precompiledTemplate() {
+        return templates.transferReceived(amount, from);
+    }
+
+    @Benchmark
+    public String stringConcatenation() {
+        return concatenated(amount, from);
+    }
+
+    // The transfer-received body as EmailService built it before templates were introduced
+    private static String concatenated(long amount, String from) {
+        return "<html>" +
+                "<head>" +
+                "<style>" +
+                "body { font-family: Arial, sans-serif; background: linear-gradient(to right, #4A90E2, #5B9BD5); padding: 20px; }" +
+                ".container { max-width: 600px; margin: auto; background: #ffffff; padding: 20px; border-radius: 8px; box-shadow: 0 0 10px rgba(0, 0, 0, 0.1); }" +
+                "h1 { color: #4A90E2; }" +
+                "p { font-size: 16px; line-height: 1.5; }" +
+                "strong { color: #333; }" +
+                ".logo { width: 50px; height: auto; max-height: 50px; vertical-align: middle; }" +
+                ".header { display: flex; align-items: center; justify-content: flex-start;  width: 100%; margin: 0; padding: 0;  }" +
+                ".header h2 { margin-left: 10px; color: #b82468; }" +
+                "</style>" +
+                "</head>" +
+                "<body>" +
+                "<div class='container'>" +
+                "<div class='header'>" +
+                "<img src='https://media.licdn.com/dms/image/v2/C560BAQH0BXGtmrAFpw/company-logo_200_200/company-logo_200_200/0/1631332095782?e=2147483647&v=beta&t=T-8IKplgMaO2uFBLNh19LEzR9Xc8hzuP4hsc8Ifik9g' alt='Logo' class='logo'>" +
+                "<h2>Tuple Pay</h2>" +
+                "</div>" +
+                "<h1>Transfer Received!</h1>" +
+                "<p>You have received <strong>₹" + Money.format(amount) + "</strong> from <strong>" + from + "</strong>.</p>" +
+                "<p>Thank you for using our service!</p>" +
+                "</div>" +
+                "</body>" +
+                "</html>";
+    }
+}
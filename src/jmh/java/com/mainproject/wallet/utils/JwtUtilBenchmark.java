@@ -0,0 +1,58 @@
+package com.mainproject.wallet.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation and verification. {@code verifyCached} is the common case of a client reusing its
+ * token; {@code verifyUncached} disables the verified-token cache, so every call parses the token
+ * and checks its signature, as for the first request with a new token.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String bearerToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        uncachedJwtUtil = new JwtUtil();
+        uncachedJwtUtil.maxCachedTokens = 0;
+        bearerToken = "Bearer " + jwtUtil.generateToken("5f1d7c2e9b1e8a3f4c6d2b10", "alice");
+        if (jwtUtil.verify(bearerToken) == null) {
+            throw new IllegalStateException("Generated token does not verify");
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("5f1d7c2e9b1e8a3f4c6d2b10", "alice");
+    }
+
+    @Benchmark
+    public JwtClaims verifyCached() {
+        return jwtUtil.verify(bearerToken);
+    }
+
+    @Benchmark
+    public JwtClaims verifyUncached() {
+        return uncachedJwtUtil.verify(bearerToken);
+    }
+}
@@ -0,0 +1,504 @@
+package com.mainproject.wallet.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mainproject.wallet.WalletApplication;
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.model.BalanceStripe;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.retry.RetryStatistics;
+import com.mainproject.wallet.utils.Money;
+import org.bson.Document;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drives login, recharge, transfer and history requests against an application started in this JVM,
+ * with a configurable mix and skew, to see how the wallet behaves when many users pay the same
+ * accounts. MongoDB is a throwaway Testcontainers replica set unless {@code load.mongo-uri} is given.
+ * <p>
+ * Senders and receivers are drawn uniformly or from a Zipf distribution over the customer accounts.
+ * In hot-receiver mode a share of all transfers goes to a few merchant accounts instead, so their
+ * balance documents see most of the write conflicts:
+ * <pre>
+ * ./gradlew contentionLoadTest -Pload.profile=hot-merchant
+ * ./gradlew contentionLoadTest -Pload.distribution=zipf -Pload.zipf-exponent=1.2 -Pload.mix=transfer=80,transactions=20
+ * </pre>
+ * Reports throughput and p50/p95/p99/p99.9 latency per operation, the write-conflict rate from
+ * {@link RetryStatistics} and errors by status and message, then checks that money was conserved:
+ * the sum of all balances must equal everything recharged plus cashback, and every Sent row must
+ * have its Received counterpart. The run fails if the check does not hold.
+ */
+public class ContentionLoadGenerator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final List<String> OPERATIONS = List.of("login", "recharge", "transfer", "transactions");
+    private static final long INITIAL_BALANCE = 1_000_000; // Paise
+
+    // Presets for the common questions; any explicit load.* property overrides them
+    private static final Map<String, Map<String, String>> PROFILES = Map.of(
+            "uniform", Map.of("distribution", "uniform", "hot-receivers", "0"),
+            "zipf", Map.of("distribution", "zipf", "hot-receivers", "0"),
+            "hot-merchant", Map.of("distribution", "uniform", "hot-receivers", "1", "hot-share", "0.9"));
+
+    private final String profile = System.getProperty("load.profile", "uniform");
+    private final String mongoUri = System.getProperty("load.mongo-uri");
+    private final int port = Integer.getInteger("load.port", 18081);
+    private final int users = Integer.getInteger("load.users", 200);
+    private final int concurrency = Integer.getInteger("load.concurrency", 200);
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10));
+    private final Duration measurement = Duration.ofSeconds(Long.getLong("load.measure-seconds", 60));
+    private final double[] mix = parseMix(System.getProperty("load.mix", "login=5,recharge=10,transfer=60,transactions=25"));
+    private final String distribution = setting("distribution");
+    private final double zipfExponent = Double.parseDouble(setting("zipf-exponent", "1.1"));
+    private final int hotReceivers = Integer.parseInt(setting("hot-receivers"));
+    private final double hotShare = Double.parseDouble(setting("hot-share", "0.9"));
+    private final Path reportDir = Path.of(System.getProperty("load.report-dir", "build/reports/contention-load"));
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        boolean conserved = new ContentionLoadGenerator().run();
+        System.exit(conserved ? 0 : 1);
+    }
+
+    boolean run() throws Exception {
+        Files.createDirectories(reportDir);
+        MongoDBContainer container = null;
+        String uri = mongoUri;
+        if (uri == null) {
+            container = new MongoDBContainer("mongo:7.0"); // Single-node replica set, so transactions work
+            container.start();
+            uri = container.getReplicaSetUrl("wallet_load");
+        }
+        try (ConfigurableApplicationContext app = start(uri)) {
+            List<Account> customers = createAccounts("customer", users);
+            List<Account> merchants = createAccounts("merchant", hotReceivers);
+            Sampler sampler = distribution.equals("zipf") ? new Sampler(zipfCdf(customers.size(), zipfExponent)) : new Sampler(null);
+
+            System.out.printf("[%s] warming up for %d s%n", profile, warmup.toSeconds());
+            drive(customers, merchants, sampler, warmup);
+            RetryStatistics retries = app.getBean(RetryStatistics.class);
+            long conflictsBefore = retries.getConflicts();
+            long giveUpsBefore = retries.getGiveUps();
+            System.out.printf("[%s] measuring for %d s with %d clients%n", profile, measurement.toSeconds(), concurrency);
+            Recorder[] recorders = drive(customers, merchants, sampler, measurement);
+            long conflicts = retries.getConflicts() - conflictsBefore;
+            long giveUps = retries.getGiveUps() - giveUpsBefore;
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("profile", profile);
+            report.put("settings", settings());
+            Map<String, Stats> operations = new LinkedHashMap<>();
+            for (int op = 0; op < OPERATIONS.size(); op++) {
+                if (mix[op] > 0) {
+                    operations.put(OPERATIONS.get(op), Stats.of(recorders, op, measurement));
+                }
+            }
+            report.put("operations", operations);
+            long writes = operations.entrySet().stream()
+                    .filter(e -> e.getKey().equals("recharge") || e.getKey().equals("transfer"))
+                    .mapToLong(e -> e.getValue().requests() + e.getValue().errors())
+                    .sum();
+            report.put("writeConflicts", conflicts);
+            report.put("conflictRate", writes == 0 ? 0 : (double) conflicts / writes); // Conflicts per write request
+            report.put("conflictGiveUps", giveUps);
+            report.put("errors", Recorder.errors(recorders));
+            Conservation conservation = Conservation.check(app.getBean(MongoTemplate.class));
+            report.put("conservation", conservation);
+
+            Path file = reportDir.resolve(profile + ".json");
+            JSON.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+            print(operations, conflicts, writes, giveUps, Recorder.errors(recorders), conservation);
+            System.out.println("Written to " + file.toAbsolutePath());
+            return conservation.holds();
+        } finally {
+            if (container != null) {
+                container.stop();
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(String uri) {
+        return new SpringApplicationBuilder(WalletApplication.class)
+                .properties(
+                        "server.port=" + port,
+                        "spring.data.mongodb.uri=" + uri,
+                        "spring.data.mongodb.database=wallet_load_" + System.currentTimeMillis(),
+                        "logging.level.com.mainproject.wallet=WARN",
+                        // Mail is not part of the measurement: leave the outbox alone and keep sign-up and login cheap
+                        "wallet.outbox.poll-interval-ms=3600000",
+                        "wallet.password.bcrypt-cost=4",
+                        "wallet.password.queue-capacity=10000")
+                .run();
+    }
+
+    private List<Account> createAccounts(String kind, int count) throws Exception {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<Future<Account>> pending = new ArrayList<>(count);
+        try (ExecutorService setup = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < count; i++) {
+                String username = kind + "_" + run + "_" + i;
+                pending.add(setup.submit(() -> createAccount(username)));
+            }
+        }
+        List<Account> accounts = new ArrayList<>(count);
+        for (Future<Account> account : pending) {
+            accounts.add(account.get());
+        }
+        return accounts;
+    }
+
+    private Account createAccount(String username) throws Exception {
+        String password = "secret-" + username;
+        expectOk(send(post("/api/auth/register", Map.of("username", username, "email", username + "@example.com", "password", password))));
+        Account account = new Account(username, password, login(username, password));
+        // Enough balance that even a Zipf-favoured sender does not run dry during the run
+        expectOk(send(withToken("/api/wallet/recharge?amount=" + INITIAL_BALANCE, account.token()).POST(HttpRequest.BodyPublishers.noBody()).build()));
+        return account;
+    }
+
+    private String login(String username, String password) throws Exception {
+        JsonNode login = JSON.readTree(expectOk(send(post("/api/auth/login", Map.of("username", username, "password", password)))));
+        return "Bearer " + login.get("token").asText();
+    }
+
+    // Closed loop: every client picks an operation from the mix, waits for the answer, and repeats
+    private Recorder[] drive(List<Account> customers, List<Account> merchants, Sampler sampler, Duration duration) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        Recorder[] recorders = new Recorder[concurrency];
+        Thread[] clients = new Thread[concurrency];
+        for (int c = 0; c < concurrency; c++) {
+            Recorder recorder = recorders[c] = new Recorder();
+            clients[c] = Thread.ofVirtual().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    int op = pick(mix, random.nextDouble());
+                    Account from = customers.get(sampler.next(random, customers.size()));
+                    HttpRequest request = switch (OPERATIONS.get(op)) {
+                        case "login" -> post("/api/auth/login", Map.of("username", from.username(), "password", from.password()));
+                        case "recharge" -> withToken("/api/wallet/recharge?amount=" + (1 + random.nextInt(500)), from.token())
+                                .POST(HttpRequest.BodyPublishers.noBody()).build();
+                        case "transfer" -> withToken("/api/wallet/transfer?toUsername=" + encode(receiver(from, customers, merchants, sampler, random).username())
+                                + "&amount=1", from.token()).POST(HttpRequest.BodyPublishers.noBody()).build();
+                        default -> withToken("/api/wallet/transactions/" + encode(from.username()) + "/page?limit=20", from.token()).GET().build();
+                    };
+                    recorder.time(op, () -> send(request));
+                }
+            });
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        return recorders;
+    }
+
+    private Account receiver(Account from, List<Account> customers, List<Account> merchants, Sampler sampler, ThreadLocalRandom random) {
+        if (!merchants.isEmpty() && random.nextDouble() < hotShare) {
+            return merchants.get(random.nextInt(merchants.size()));
+        }
+        Account to = customers.get(sampler.next(random, customers.size()));
+        // Self-transfers are rejected by the service; send to the neighbour instead
+        return to != from ? to : customers.get((customers.indexOf(from) + 1) % customers.size());
+    }
+
+    private static int pick(double[] cumulative, double draw) {
+        int op = 0;
+        while (draw >= cumulative[op]) {
+            op++;
+        }
+        return op;
+    }
+
+    // "transfer=60,transactions=40" into cumulative shares in OPERATIONS order
+    static double[] parseMix(String spec) {
+        double[] weights = new double[OPERATIONS.size()];
+        for (String part : spec.split(",")) {
+            String[] entry = part.trim().split("=");
+            int op = OPERATIONS.indexOf(entry[0].trim());
+            if (entry.length != 2 || op < 0) {
+                throw new IllegalArgumentException("Bad load.mix entry '" + part + "', expected one of " + OPERATIONS + " as name=weight");
+            }
+            weights[op] = Double.parseDouble(entry[1].trim());
+        }
+        double total = Arrays.stream(weights).sum();
+        if (total <= 0) {
+            throw new IllegalArgumentException("load.mix has no positive weight: " + spec);
+        }
+        double[] cumulative = new double[weights.length];
+        double running = 0;
+        int last = 0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i] / total;
+            cumulative[i] = weights[i] > 0 ? running : -1; // Never picked
+            last = weights[i] > 0 ? i : last;
+        }
+        cumulative[last] = 1; // No rounding gap at the top
+        return cumulative;
+    }
+
+    // Rank i (0-based) is drawn with probability proportional to 1 / (i + 1)^exponent
+    static double[] zipfCdf(int size, double exponent) {
+        double[] cdf = new double[size];
+        double running = 0;
+        for (int i = 0; i < size; i++) {
+            running += 1 / Math.pow(i + 1, exponent);
+            cdf[i] = running;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= running;
+        }
+        return cdf;
+    }
+
+    private String setting(String name) {
+        return setting(name, null);
+    }
+
+    private String setting(String name, String fallback) {
+        Map<String, String> preset = PROFILES.get(profile);
+        if (preset == null) {
+            throw new IllegalArgumentException("Unknown load.profile '" + profile + "', expected one of " + PROFILES.keySet());
+        }
+        return System.getProperty("load." + name, preset.getOrDefault(name, fallback));
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("users", users);
+        settings.put("concurrency", concurrency);
+        settings.put("measureSeconds", measurement.toSeconds());
+        settings.put("mix", System.getProperty("load.mix", "login=5,recharge=10,transfer=60,transactions=25"));
+        settings.put("distribution", distribution);
+        if (distribution.equals("zipf")) {
+            settings.put("zipfExponent", zipfExponent);
+        }
+        settings.put("hotReceivers", hotReceivers);
+        if (hotReceivers > 0) {
+            settings.put("hotShare", hotShare);
+        }
+        return settings;
+    }
+
+    private static void print(Map<String, Stats> operations, long conflicts, long writes, long giveUps,
+                              Map<String, Long> errors, Conservation conservation) {
+        System.out.printf("%n%-13s %9s %9s %8s %8s %8s %8s %8s %7s%n", "operation", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        operations.forEach((op, stats) -> System.out.printf("%-13s %9d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f %7d%n", op,
+                stats.requests(), stats.throughput(), stats.p50Millis(), stats.p95Millis(), stats.p99Millis(),
+                stats.p999Millis(), stats.maxMillis(), stats.errors()));
+        System.out.printf("%nwrite conflicts: %d (%.2f%% of %d write requests), gave up: %d%n",
+                conflicts, writes == 0 ? 0 : 100.0 * conflicts / writes, writes, giveUps);
+        errors.forEach((error, count) -> System.out.printf("  %6d  %s%n", count, error));
+        System.out.printf("%nbalances %s, recharged + cashback %s, sent %s, received %s, negative balances %d: %s%n",
+                Money.format(conservation.balances()), Money.format(conservation.credited()), Money.format(conservation.sent()),
+                Money.format(conservation.received()), conservation.negativeBalances(), conservation.holds() ? "CONSERVED" : "NOT CONSERVED");
+    }
+
+    private HttpRequest post(String path, Map<String, String> body) {
+        try {
+            return HttpRequest.newBuilder(url(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder withToken(String path, String token) {
+        return HttpRequest.newBuilder(url(path)).header("Authorization", token);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String expectOk(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(response.request().uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private record Account(String username, String password, String token) {
+    }
+
+    // Uniform when cdf is null, otherwise draws a rank by binary search over the cumulative distribution
+    private record Sampler(double[] cdf) {
+
+        int next(ThreadLocalRandom random, int size) {
+            if (cdf == null) {
+                return random.nextInt(size);
+            }
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, size - 1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        HttpResponse<String> send() throws Exception;
+    }
+
+    // Per-client latency samples and error counts, so clients never contend on a shared structure while measuring
+    private static final class Recorder {
+
+        private final long[][] samples = new long[OPERATIONS.size()][1024];
+        private final int[] counts = new int[OPERATIONS.size()];
+        private final int[] failures = new int[OPERATIONS.size()];
+        private final Map<String, Long> errors = new HashMap<>();
+
+        void time(int op, Call call) {
+            long started = System.nanoTime();
+            String error;
+            try {
+                HttpResponse<String> response = call.send();
+                error = response.statusCode() == 200 ? null : response.statusCode() + " " + message(response.body());
+            } catch (Exception e) {
+                error = e.getClass().getSimpleName();
+            }
+            long elapsed = System.nanoTime() - started;
+            if (error != null) {
+                failures[op]++;
+                errors.merge(OPERATIONS.get(op) + ": " + error, 1L, Long::sum);
+                return;
+            }
+            if (counts[op] == samples[op].length) {
+                samples[op] = Arrays.copyOf(samples[op], counts[op] * 2);
+            }
+            samples[op][counts[op]++] = elapsed;
+        }
+
+        // The ErrorResponseDTO message, so insufficient funds, conflicts and overload are told apart
+        private static String message(String body) {
+            try {
+                JsonNode message = JSON.readTree(body).get("message");
+                if (message != null) {
+                    return message.asText();
+                }
+            } catch (IOException | RuntimeException ignored) {
+                // Not an ErrorResponseDTO
+            }
+            return body.length() > 80 ? body.substring(0, 80) : body;
+        }
+
+        static Map<String, Long> errors(Recorder[] recorders) {
+            Map<String, Long> merged = new TreeMap<>();
+            for (Recorder recorder : recorders) {
+                recorder.errors.forEach((error, count) -> merged.merge(error, count, Long::sum));
+            }
+            return merged;
+        }
+    }
+
+    record Stats(long requests, long errors, double throughput, double p50Millis, double p95Millis,
+                 double p99Millis, double p999Millis, double maxMillis) {
+
+        static Stats of(Recorder[] recorders, int op, Duration duration) {
+            int total = 0;
+            long errors = 0;
+            for (Recorder recorder : recorders) {
+                total += recorder.counts[op];
+                errors += recorder.failures[op];
+            }
+            long[] all = new long[total];
+            int offset = 0;
+            for (Recorder recorder : recorders) {
+                System.arraycopy(recorder.samples[op], 0, all, offset, recorder.counts[op]);
+                offset += recorder.counts[op];
+            }
+            Arrays.sort(all);
+            return new Stats(total, errors, total / (duration.toNanos() / 1e9), percentile(all, 0.50), percentile(all, 0.95),
+                    percentile(all, 0.99), percentile(all, 0.999), total == 0 ? 0 : all[total - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    // Read straight from the database after all clients stopped, so it covers requests whose answer was lost too
+    // Amounts are paise, so the sums must match exactly
+    record Conservation(long balances, long credited, long sent, long received, long negativeBalances) {
+
+        @JsonProperty("conserved")
+        boolean holds() {
+            return balances == credited && sent == received && negativeBalances == 0;
+        }
+
+        static Conservation check(MongoTemplate mongoTemplate) {
+            long balances = 0;
+            long negative = 0;
+            for (User user : mongoTemplate.findAll(User.class)) {
+                balances += user.getWalletBalance();
+                if (user.getWalletBalance() < 0) {
+                    negative++;
+                }
+            }
+            // Hot accounts keep their balance in stripes
+            for (BalanceStripe stripe : mongoTemplate.findAll(BalanceStripe.class)) {
+                balances += stripe.getBalance();
+                if (stripe.getBalance() < 0) {
+                    negative++;
+                }
+            }
+            Map<String, Long> totals = new HashMap<>();
+            Aggregation byType = Aggregation.newAggregation(Aggregation.group("type").sum("amount").as("total"));
+            for (Document row : mongoTemplate.aggregate(byType, Transaction.class, Document.class)) {
+                totals.put(row.getString("_id"), ((Number) row.get("total")).longValue());
+            }
+            long sent = totals.getOrDefault(TransactionENUM.SENT, 0L);
+            long received = totals.getOrDefault(TransactionENUM.RECEIVED, 0L);
+            // Each TransferEntry holds a Sent and a Received leg; count each side from its own leg
+            for (TransferEntry transfer : mongoTemplate.findAll(TransferEntry.class)) {
+                sent += transfer.legOf(transfer.getSenderId()).getAmount();
+                received += transfer.legOf(transfer.getReceiverId()).getAmount();
+            }
+            long credited = totals.getOrDefault(TransactionENUM.RECHARGE, 0L) + totals.getOrDefault(TransactionENUM.CASHBACK, 0L);
+            return new Conservation(balances, credited, sent, received, negative);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.mainproject.wallet.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same closed-loop load against the wallet twice, once on platform threads and once with
+ * the {@code virtual} profile, and reports throughput and latency percentiles of the transfer and
+ * transaction-history endpoints side by side.
+ * <p>
+ * Each mode gets its own application JVM and a fresh database, so runs do not share JIT state,
+ * caches or data. Needs a MongoDB replica set (wallet operations use transactions):
+ * <pre>
+ * docker run -d -p 27017:27017 mongo:7 --replSet rs0 &amp;&amp; docker exec ... mongosh --eval "rs.initiate()"
+ * ./gradlew threadModeBenchmark -Pbenchmark.mongo-uri=mongodb://localhost:27017/?replicaSet=rs0
+ * </pre>
+ * Results are printed and written to {@code build/reports/thread-mode-benchmark/results.json};
+ * each application's log (including pinning reports in virtual mode) is kept next to it.
+ */
+public class ThreadModeBenchmark {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String mongoUri = System.getProperty("benchmark.mongo-uri", "mongodb://localhost:27017/?replicaSet=rs0");
+    private final int port = Integer.getInteger("benchmark.port", 18080);
+    private final int users = Integer.getInteger("benchmark.users", 200);
+    private final int concurrency = Integer.getInteger("benchmark.concurrency", 400); // Above Tomcat's 200 platform threads
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 15));
+    private final Duration measurement = Duration.ofSeconds(Long.getLong("benchmark.measure-seconds", 60));
+    private final Path reportDir = Path.of(System.getProperty("benchmark.report-dir", "build/reports/thread-mode-benchmark"));
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        new ThreadModeBenchmark().run();
+    }
+
+    void run() throws Exception {
+        Files.createDirectories(reportDir);
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (String mode : List.of("platform", "virtual")) {
+            results.put(mode, runMode(mode));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", users);
+        report.put("concurrency", concurrency);
+        report.put("measureSeconds", measurement.toSeconds());
+        report.put("results", results);
+        Path file = reportDir.resolve("results.json");
+        JSON.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+
+        System.out.printf("%n%-9s %-9s %10s %9s %9s %9s %7s%n", "mode", "endpoint", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        results.forEach((mode, endpoints) -> endpoints.forEach((endpoint, value) -> {
+            if (value instanceof Stats stats) {
+                System.out.printf("%-9s %-9s %10.1f %9.1f %9.1f %9.1f %7d%n", mode, endpoint,
+                        stats.throughput(), stats.p50Millis(), stats.p99Millis(), stats.maxMillis(), stats.errors());
+            }
+        }));
+        System.out.println("Written to " + file.toAbsolutePath());
+    }
+
+    private Map<String, Object> runMode(String mode) throws Exception {
+        Process app = start(mode);
+        try {
+            awaitReady(app);
+            List<Account> accounts = createAccounts();
+
+            System.out.printf("[%s] warming up for %d s%n", mode, warmup.toSeconds());
+            drive(accounts, warmup);
+            System.out.printf("[%s] measuring for %d s with %d clients%n", mode, measurement.toSeconds(), concurrency);
+            Recorder[] recorders = drive(accounts, measurement);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("transfer", Stats.of(recorders, 0, measurement));
+            result.put("history", Stats.of(recorders, 1, measurement));
+            result.put("pinnedLogLines", countPinningReports(mode));
+            return result;
+        } finally {
+            app.destroy();
+            if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                app.destroyForcibly();
+            }
+        }
+    }
+
+    private Process start(String mode) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java, "-Xms1g", "-Xmx1g",
+                "-cp", System.getProperty("java.class.path"),
+                "com.mainproject.wallet.WalletApplication",
+                "--server.port=" + port,
+                "--spring.data.mongodb.uri=" + mongoUri,
+                "--spring.data.mongodb.database=wallet_benchmark_" + mode + "_" + System.currentTimeMillis(),
+                "--logging.level.com.mainproject.wallet=INFO",
+                // Mail is not part of the measurement: leave the outbox alone and keep sign-up cheap
+                "--wallet.outbox.poll-interval-ms=3600000",
+                "--wallet.password.bcrypt-cost=4",
+                "--wallet.password.queue-capacity=10000"));
+        if (mode.equals("virtual")) {
+            command.add("--spring.profiles.active=virtual");
+        }
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(reportDir.resolve(mode + ".log").toFile())
+                .start();
+    }
+
+    private void awaitReady(Process app) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            if (!app.isAlive()) {
+                throw new IllegalStateException("Application exited during startup, see " + reportDir);
+            }
+            try {
+                http.send(HttpRequest.newBuilder(url("/api/auth/login")).GET().build(), HttpResponse.BodyHandlers.discarding());
+                return; // Any HTTP answer means the server is up
+            } catch (ConnectException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("Application did not start within 2 minutes");
+    }
+
+    private List<Account> createAccounts() throws Exception {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<Future<Account>> pending = new ArrayList<>(users);
+        try (ExecutorService setup = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < users; i++) {
+                String username = "bench_" + run + "_" + i;
+                pending.add(setup.submit(() -> createAccount(username)));
+            }
+        }
+        List<Account> accounts = new ArrayList<>(users);
+        for (Future<Account> account : pending) {
+            accounts.add(account.get());
+        }
+        return accounts;
+    }
+
+    private Account createAccount(String username) throws Exception {
+        String password = "secret-" + username;
+        expectOk(post("/api/auth/register", Map.of("username", username, "email", username + "@example.com", "password", password), null));
+        JsonNode login = JSON.readTree(expectOk(post("/api/auth/login", Map.of("username", username, "password", password), null)));
+        String token = "Bearer " + login.get("token").asText();
+        // Enough balance that transfers never run dry during the measurement
+        expectOk(send(HttpRequest.newBuilder(url("/api/wallet/recharge?amount=1000000")).header("Authorization", token)
+                .POST(HttpRequest.BodyPublishers.noBody()).build()));
+        return new Account(username, token);
+    }
+
+    // Every client alternates a transfer to a random account with a history page read, as fast as it can
+    private Recorder[] drive(List<Account> accounts, Duration duration) throws InterruptedException {
+        long end = System.nanoTime() + duration.toNanos();
+        Recorder[] recorders = new Recorder[concurrency];
+        Thread[] clients = new Thread[concurrency];
+        for (int c = 0; c < concurrency; c++) {
+            Recorder recorder = recorders[c] = new Recorder();
+            clients[c] = Thread.ofVirtual().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                boolean transfer = random.nextBoolean();
+                while (System.nanoTime() < end) {
+                    Account from = accounts.get(random.nextInt(accounts.size()));
+                    HttpRequest request;
+                    if (transfer) {
+                        Account to = accounts.get(random.nextInt(accounts.size()));
+                        request = HttpRequest.newBuilder(url("/api/wallet/transfer?toUsername=" + to.username() + "&amount=1"))
+                                .header("Authorization", from.token()).POST(HttpRequest.BodyPublishers.noBody()).build();
+                    } else {
+                        request = HttpRequest.newBuilder(url("/api/wallet/transactions/" + from.username() + "/page?limit=20"))
+                                .header("Authorization", from.token()).GET().build();
+                    }
+                    recorder.time(transfer ? 0 : 1, () -> send(request));
+                    transfer = !transfer;
+                }
+            });
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        return recorders;
+    }
+
+    private long countPinningReports(String mode) throws IOException {
+        try (var lines = Files.lines(reportDir.resolve(mode + ".log"))) {
+            return lines.filter(line -> line.contains("Virtual thread pinned")).count();
+        }
+    }
+
+    private HttpRequest post(String path, Map<String, String> body, String token) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(url(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body)));
+        if (token != null) {
+            builder.header("Authorization", token);
+        }
+        return builder.build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String expectOk(HttpRequest request) throws IOException, InterruptedException {
+        return expectOk(send(request));
+    }
+
+    private static String expectOk(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(response.request().uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private record Account(String username, String token) {
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        HttpResponse<String> send() throws Exception;
+    }
+
+    // Per-client latency samples, so clients never contend on a shared structure while measuring
+    private static final class Recorder {
+
+        private final long[][] samples = {new long[4096], new long[4096]};
+        private final int[] counts = new int[2];
+        private final int[] errors = new int[2];
+
+        void time(int endpoint, Call call) {
+            long started = System.nanoTime();
+            boolean ok;
+            try {
+                ok = call.send().statusCode() == 200;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - started;
+            if (!ok) {
+                errors[endpoint]++;
+                return;
+            }
+            if (counts[endpoint] == samples[endpoint].length) {
+                samples[endpoint] = Arrays.copyOf(samples[endpoint], counts[endpoint] * 2);
+            }
+            samples[endpoint][counts[endpoint]++] = elapsed;
+        }
+    }
+
+    record Stats(long requests, long errors, double throughput, double p50Millis, double p99Millis, double maxMillis) {
+
+        static Stats of(Recorder[] recorders, int endpoint, Duration duration) {
+            int total = 0;
+            long errors = 0;
+            for (Recorder recorder : recorders) {
+                total += recorder.counts[endpoint];
+                errors += recorder.errors[endpoint];
+            }
+            long[] all = new long[total];
+            int offset = 0;
+            for (Recorder recorder : recorders) {
+                System.arraycopy(recorder.samples[endpoint], 0, all, offset, recorder.counts[endpoint]);
+                offset += recorder.counts[endpoint];
+            }
+            Arrays.sort(all);
+            return new Stats(total, errors, total / (duration.toNanos() / 1e9),
+                    percentile(all, 0.50), percentile(all, 0.99), total == 0 ? 0 : all[total - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
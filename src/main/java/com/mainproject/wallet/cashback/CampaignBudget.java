@@ -0,0 +1,64 @@
+package com.mainproject.wallet.cashback;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One campaign's budget as seen by this instance. Grants are counted on a LongAdder, whose striped
+ * cells keep concurrent recharges from contending on one counter; the global total in Mongo is
+ * only read and advanced when the engine reconciles. The check is therefore a soft cap: recharges
+ * in flight together, and other instances' grants since their last reconcile, can overshoot the
+ * budget by a few recharges' cashback.
+ */
+public final class CampaignBudget {
+
+    private final String campaignId;
+    private final LongAdder granted = new LongAdder();
+    // Replaced as a whole so readers never see flushed and globalSpent from different reconciles
+    private volatile Reconciled reconciled;
+
+    // flushed: how much of granted is already included in globalSpent
+    private record Reconciled(long flushed, long globalSpent) {
+    }
+
+    public CampaignBudget(String campaignId, long globalSpent) {
+        this.campaignId = campaignId;
+        this.reconciled = new Reconciled(0, globalSpent);
+    }
+
+    public String campaignId() {
+        return campaignId;
+    }
+
+    // Takes up to cashback from what is left of the budget and returns the amount taken
+    public long reserve(long cashback, long budget) {
+        long taken = Math.min(cashback, Math.max(0, budget - spent()));
+        if (taken > 0) {
+            granted.add(taken);
+        }
+        return taken;
+    }
+
+    // Gives back a reservation whose recharge did not commit
+    public void release(long cashback) {
+        granted.add(-cashback);
+    }
+
+    // Best estimate of the global total: the last reconciled value plus this instance's grants since
+    public long spent() {
+        Reconciled current = reconciled;
+        return current.globalSpent() + granted.sum() - current.flushed();
+    }
+
+    // Called by the reconciler only: this instance's total, of which flushed() is already in Mongo
+    public long granted() {
+        return granted.sum();
+    }
+
+    public long flushed() {
+        return reconciled.flushed();
+    }
+
+    public void reconciled(long flushed, long globalSpent) {
+        reconciled = new Reconciled(flushed, globalSpent);
+    }
+}
@@ -0,0 +1,15 @@
+package com.mainproject.wallet.cashback;
+
+import java.time.LocalDate;
+
+/**
+ * Cashback granted to one recharge, with what it was counted against so it can be given back if
+ * the recharge fails: the campaign budget (null when unbudgeted) and the user's day (null when no
+ * daily cap applies).
+ */
+public record CashbackGrant(String userId, String campaignId, LocalDate day, long amount) {
+
+    public static CashbackGrant none(String userId) {
+        return new CashbackGrant(userId, null, null, 0);
+    }
+}
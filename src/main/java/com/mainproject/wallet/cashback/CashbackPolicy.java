@@ -0,0 +1,147 @@
+package com.mainproject.wallet.cashback;
+
+import com.mainproject.wallet.model.CashbackRuleSet;
+import com.mainproject.wallet.utils.Money;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An immutable snapshot of the cashback rules, validated and compiled once per reload and then
+ * shared by every recharge without locking. Percentages are converted to basis points and tiers
+ * sorted up front, so evaluating a recharge is a short scan and one random draw.
+ */
+public final class CashbackPolicy {
+
+    // The campaign that stands for the cashback.*.percent properties when no rule set is stored
+    public static final String DEFAULT_CAMPAIGN = "default";
+
+    private final long dailyCapPerUser;
+    private final List<Campaign> campaigns;
+    private final Set<String> budgetedCampaigns;
+
+    private CashbackPolicy(long dailyCapPerUser, List<Campaign> campaigns) {
+        this.dailyCapPerUser = dailyCapPerUser;
+        this.campaigns = List.copyOf(campaigns);
+        Set<String> budgeted = new HashSet<>();
+        for (Campaign campaign : campaigns) {
+            if (campaign.budget() > 0) {
+                budgeted.add(campaign.id());
+            }
+        }
+        this.budgetedCampaigns = Set.copyOf(budgeted);
+    }
+
+    // What one recharge earns, before the daily cap and the campaign budget are applied
+    public record Offer(String campaignId, long budget, long cashback) {
+    }
+
+    record Tier(long minAmount, long lowerBasisPoints, long upperBasisPoints, long maxCashback) {
+
+        // A rate drawn uniformly (in basis points) between the tier's percentages, applied to the amount
+        long draw(long amount) {
+            long rate = lowerBasisPoints + ThreadLocalRandom.current().nextLong(upperBasisPoints - lowerBasisPoints + 1);
+            long cashback = Math.max(0, Money.share(amount, rate));
+            return maxCashback > 0 ? Math.min(cashback, maxCashback) : cashback;
+        }
+    }
+
+    // Tiers are sorted by minAmount descending, so the first match is the highest tier reached
+    record Campaign(String id, LocalDateTime startsAt, LocalDateTime endsAt, long budget, List<Tier> tiers) {
+
+        boolean runningAt(LocalDateTime now) {
+            return (startsAt == null || !now.isBefore(startsAt)) && (endsAt == null || now.isBefore(endsAt));
+        }
+
+        Tier tierFor(long amount) {
+            for (Tier tier : tiers) {
+                if (amount >= tier.minAmount()) {
+                    return tier;
+                }
+            }
+            return null;
+        }
+    }
+
+    // One always-running campaign with a single tier, no budget and no daily cap
+    public static CashbackPolicy uniform(double lowerPercent, double upperPercent) {
+        Tier tier = tier(0, lowerPercent, upperPercent, 0);
+        return new CashbackPolicy(0, List.of(new Campaign(DEFAULT_CAMPAIGN, null, null, 0, List.of(tier))));
+    }
+
+    /**
+     * Compiles a stored rule set. Throws IllegalArgumentException for rules that cannot be applied
+     * (negative amounts, percentages outside 0-100, an empty or inverted window, duplicate ids).
+     */
+    public static CashbackPolicy of(CashbackRuleSet rules) {
+        require(rules.getDailyCapPerUser() >= 0, "dailyCapPerUser must not be negative");
+        List<CashbackRuleSet.Campaign> stored = rules.getCampaigns() != null ? rules.getCampaigns() : List.of();
+        List<Campaign> campaigns = new ArrayList<>(stored.size());
+        Set<String> ids = new HashSet<>();
+        for (CashbackRuleSet.Campaign campaign : stored) {
+            String id = campaign.getId();
+            require(id != null && !id.isBlank(), "Every campaign needs an id");
+            require(ids.add(id), "Duplicate campaign id: " + id);
+            require(campaign.getBudget() >= 0, "Campaign " + id + " has a negative budget");
+            require(campaign.getStartsAt() == null || campaign.getEndsAt() == null || campaign.getStartsAt().isBefore(campaign.getEndsAt()),
+                    "Campaign " + id + " ends before it starts");
+            require(campaign.getTiers() != null && !campaign.getTiers().isEmpty(), "Campaign " + id + " has no tiers");
+
+            List<Tier> tiers = new ArrayList<>(campaign.getTiers().size());
+            for (CashbackRuleSet.Tier tier : campaign.getTiers()) {
+                require(tier.getMinAmount() >= 0 && tier.getMaxCashback() >= 0, "Campaign " + id + " has a tier with a negative amount");
+                require(isPercent(tier.getLowerPercent()) && isPercent(tier.getUpperPercent()), "Campaign " + id + " has a tier outside 0-100 percent");
+                tiers.add(tier(tier.getMinAmount(), tier.getLowerPercent(), tier.getUpperPercent(), tier.getMaxCashback()));
+            }
+            tiers.sort(Comparator.comparingLong(Tier::minAmount).reversed());
+            campaigns.add(new Campaign(id, campaign.getStartsAt(), campaign.getEndsAt(), campaign.getBudget(), List.copyOf(tiers)));
+        }
+        return new CashbackPolicy(rules.getDailyCapPerUser(), campaigns);
+    }
+
+    // The first running campaign with a tier for the amount decides; null when none applies
+    public Offer offer(long amount, LocalDateTime now) {
+        for (Campaign campaign : campaigns) {
+            if (!campaign.runningAt(now)) {
+                continue;
+            }
+            Tier tier = campaign.tierFor(amount);
+            if (tier != null) {
+                return new Offer(campaign.id(), campaign.budget(), tier.draw(amount));
+            }
+        }
+        return null;
+    }
+
+    // Paise of cashback one user can earn per day; 0 means no cap
+    public long dailyCapPerUser() {
+        return dailyCapPerUser;
+    }
+
+    // Campaigns whose grants are counted against a global budget
+    public Set<String> budgetedCampaigns() {
+        return budgetedCampaigns;
+    }
+
+    // The configured bounds may come in either order, as cashback.lower/upper.percent always could
+    private static Tier tier(long minAmount, double lowerPercent, double upperPercent, long maxCashback) {
+        long lower = Money.basisPoints(Math.min(lowerPercent, upperPercent));
+        long upper = Money.basisPoints(Math.max(lowerPercent, upperPercent));
+        return new Tier(minAmount, lower, upper, maxCashback);
+    }
+
+    private static boolean isPercent(double percent) {
+        return percent >= 0 && percent <= 100;
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mainproject.wallet.command;
+
+import com.mainproject.wallet.service.WalletAggregateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes every user's wallet aggregate from the ledger when the application is started with
+ * --rebuild-aggregates, e.g. after a backfill or to repair drift.
+ */
+@Slf4j
+@Component
+public class AggregateRebuildCommand implements ApplicationRunner {
+
+    static final String OPTION = "rebuild-aggregates";
+
+    private final WalletAggregateService walletAggregateService;
+
+    public AggregateRebuildCommand(WalletAggregateService walletAggregateService) {
+        this.walletAggregateService = walletAggregateService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        log.info("Rebuilding wallet aggregates from the transaction ledger");
+        walletAggregateService.rebuildAll();
+    }
+}
@@ -0,0 +1,47 @@
+package com.mainproject.wallet.command;
+
+import com.mainproject.wallet.service.HotAccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves a merchant account into striped mode when the application is started with
+ * --stripe-account=&lt;username&gt; [--stripes=&lt;n&gt;], or back with --unstripe-account=&lt;username&gt;.
+ */
+@Slf4j
+@Component
+public class HotAccountCommand implements ApplicationRunner {
+
+    static final String STRIPE_OPTION = "stripe-account";
+    static final String STRIPES_OPTION = "stripes";
+    static final String UNSTRIPE_OPTION = "unstripe-account";
+    static final int DEFAULT_STRIPES = 8;
+
+    private final HotAccountService hotAccountService;
+
+    public HotAccountCommand(HotAccountService hotAccountService) {
+        this.hotAccountService = hotAccountService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(STRIPE_OPTION)) {
+            List<String> stripes = args.getOptionValues(STRIPES_OPTION);
+            int count = stripes == null || stripes.isEmpty() ? DEFAULT_STRIPES : Integer.parseInt(stripes.get(0));
+            for (String username : args.getOptionValues(STRIPE_OPTION)) {
+                log.info("Striping the balance of {} over {} documents", username, count);
+                hotAccountService.stripe(username, count);
+            }
+        }
+        if (args.containsOption(UNSTRIPE_OPTION)) {
+            for (String username : args.getOptionValues(UNSTRIPE_OPTION)) {
+                log.info("Moving the balance of {} back onto the user document", username);
+                hotAccountService.unstripe(username);
+            }
+        }
+    }
+}
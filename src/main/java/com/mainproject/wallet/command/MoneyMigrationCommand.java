@@ -0,0 +1,65 @@
+package com.mainproject.wallet.command;
+
+import com.mainproject.wallet.model.BalanceStripe;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.service.WalletAggregateService;
+import com.mainproject.wallet.utils.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Converts amounts stored as rupee doubles into NumberLong paise when the application is started
+ * with --migrate-money. Only fields still holding a double are rewritten, so the command can be run
+ * again after an interrupted run. Aggregates are rebuilt from the converted ledger afterwards.
+ * Stop the application (and let an enabled ledger engine drain its journal) before running it.
+ */
+@Slf4j
+@Component
+public class MoneyMigrationCommand implements ApplicationRunner {
+
+    static final String OPTION = "migrate-money";
+
+    private final MongoTemplate mongoTemplate;
+    private final WalletAggregateService walletAggregateService;
+
+    public MoneyMigrationCommand(MongoTemplate mongoTemplate, WalletAggregateService walletAggregateService) {
+        this.mongoTemplate = mongoTemplate;
+        this.walletAggregateService = walletAggregateService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        log.info("Converting stored amounts from rupees to paise");
+        convert(User.class, "walletBalance");
+        convert(BalanceStripe.class, "balance");
+        convert(Transaction.class, "amount");
+        convert(OutboxMessage.class, "amount");
+        convert(OutboxMessage.class, "cashbackAmount");
+        walletAggregateService.rebuildAll();
+    }
+
+    private void convert(Class<?> type, String field) {
+        String collection = mongoTemplate.getCollectionName(type);
+        long converted = mongoTemplate.getCollection(collection)
+                .updateMany(new Document(field, new Document("$type", "double")), List.of(toPaise(field)))
+                .getModifiedCount();
+        log.info("Converted {}.{} to paise in {} documents", collection, field, converted);
+    }
+
+    // Pipeline update, so each document is rewritten from its own value in a single server-side pass
+    static Document toPaise(String field) {
+        Document paise = new Document("$round", List.of(new Document("$multiply", List.of("$" + field, Money.PAISE_PER_RUPEE)), 0));
+        return new Document("$set", new Document(field, new Document("$toLong", paise)));
+    }
+}
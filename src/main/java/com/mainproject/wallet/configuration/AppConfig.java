@@ -1,9 +1,13 @@
 package com.mainproject.wallet.configuration;
 
+import com.mainproject.wallet.retry.RetryStatistics;
+import com.mainproject.wallet.retry.RetryingMongoTransactionManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -14,7 +18,14 @@ import org.springframework.data.mongodb.MongoDatabaseFactory;
 public class AppConfig {
 
     @Bean
-    public TransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
-        return new MongoTransactionManager(mongoDatabaseFactory);
+    public TransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory, RetryStatistics retryStatistics,
+                                                 @Value("${wallet.retry.max-commit-attempts:3}") int maxCommitAttempts) {
+        return new RetryingMongoTransactionManager(mongoDatabaseFactory, retryStatistics, maxCommitAttempts);
+    }
+
+    // Shared by the servlet and reactive stacks; hashing itself runs on PasswordHashingService's bounded pool, not on request threads
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${wallet.password.bcrypt-cost:10}") int cost) {
+        return new BCryptPasswordEncoder(cost);
     }
 }
@@ -0,0 +1,162 @@
+package com.mainproject.wallet.configuration;
+
+import com.mainproject.wallet.model.BalanceStripe;
+import com.mainproject.wallet.model.IdempotencyRecord;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.service.IdempotencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes the auth and wallet paths rely on and checks at startup that they exist.
+ * Every lookup on those paths is meant to be an index seek, so a missing index fails startup
+ * (or logs an error when wallet.indexes.fail-on-missing=false).
+ */
+@Slf4j
+@Component
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    // Case-insensitive comparison, matching the collation used by the username and email queries
+    public static final Collation CASE_INSENSITIVE = Collation.of("en").strength(2);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean failOnMissing;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+                                 @Value("${wallet.indexes.fail-on-missing:true}") boolean failOnMissing) {
+        this.mongoTemplate = mongoTemplate;
+        this.failOnMissing = failOnMissing;
+    }
+
+    record RequiredIndex(Class<?> entity, String name, Index definition, boolean unique) {
+    }
+
+    static List<RequiredIndex> requiredIndexes() {
+        List<RequiredIndex> indexes = new ArrayList<>();
+
+        // History is always read per user, newest first; _id breaks ties between equal timestamps
+        indexes.add(new RequiredIndex(Transaction.class, "user_timestamp_idx", new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("user_timestamp_idx"), false));
+
+        // Cashback and other per-type listings, optionally bounded by a date range
+        indexes.add(new RequiredIndex(Transaction.class, "user_type_timestamp_idx", new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("type", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("user_type_timestamp_idx"), false));
+
+        // A transfer is one document holding both legs; each party's side is read newest first
+        indexes.add(new RequiredIndex(TransferEntry.class, "transfer_sender_timestamp_idx", new Index()
+                .on("senderId", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("transfer_sender_timestamp_idx"), false));
+
+        indexes.add(new RequiredIndex(TransferEntry.class, "transfer_receiver_timestamp_idx", new Index()
+                .on("receiverId", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("transfer_receiver_timestamp_idx"), false));
+
+        indexes.add(new RequiredIndex(User.class, "username_ci_unique", new Index()
+                .on("username", Sort.Direction.ASC)
+                .unique()
+                .collation(CASE_INSENSITIVE)
+                .named("username_ci_unique"), true));
+
+        indexes.add(new RequiredIndex(User.class, "email_ci_unique", new Index()
+                .on("email", Sort.Direction.ASC)
+                .unique()
+                .collation(CASE_INSENSITIVE)
+                .named("email_ci_unique"), true));
+
+        // Reading, draining and collapsing a hot account's balance stripes
+        indexes.add(new RequiredIndex(BalanceStripe.class, "stripe_user_idx", new Index()
+                .on("userId", Sort.Direction.ASC)
+                .named("stripe_user_idx"), false));
+
+        // Outbox claiming (status, due time), backlog age, and expiry of delivered messages after a week
+        indexes.add(new RequiredIndex(OutboxMessage.class, "outbox_status_next_idx", new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("nextAttemptAt", Sort.Direction.ASC)
+                .named("outbox_status_next_idx"), false));
+
+        indexes.add(new RequiredIndex(OutboxMessage.class, "outbox_status_created_idx", new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.ASC)
+                .named("outbox_status_created_idx"), false));
+
+        indexes.add(new RequiredIndex(OutboxMessage.class, "outbox_sent_ttl", new Index()
+                .on("sentAt", Sort.Direction.ASC)
+                .expire(Duration.ofDays(7))
+                .named("outbox_sent_ttl"), false));
+
+        // Idempotency keys are looked up by _id; this only expires them once clients stop retrying
+        indexes.add(new RequiredIndex(IdempotencyRecord.class, "idempotency_created_ttl", new Index()
+                .on("createdAt", Sort.Direction.ASC)
+                .expire(IdempotencyService.RETENTION)
+                .named("idempotency_created_ttl"), false));
+
+        return indexes;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<RequiredIndex> indexes = requiredIndexes();
+        for (RequiredIndex index : indexes) {
+            try {
+                mongoTemplate.indexOps(index.entity()).ensureIndex(index.definition());
+            } catch (RuntimeException e) {
+                // Usually existing duplicates or a same-named index with different keys; reported by verify below
+                log.error("Could not create index {} on {}: {}", index.name(), index.entity().getSimpleName(), e.getMessage());
+            }
+        }
+        verify(indexes);
+    }
+
+    void verify(List<RequiredIndex> indexes) {
+        List<String> missing = new ArrayList<>();
+        for (RequiredIndex index : indexes) {
+            IndexOperations indexOps = mongoTemplate.indexOps(index.entity());
+            Map<String, IndexInfo> existing = indexOps.getIndexInfo().stream()
+                    .collect(Collectors.toMap(IndexInfo::getName, Function.identity(), (a, b) -> a));
+            IndexInfo info = existing.get(index.name());
+            if (info == null || (index.unique() && !info.isUnique())) {
+                missing.add(index.entity().getSimpleName() + "." + index.name());
+            }
+        }
+
+        if (missing.isEmpty()) {
+            log.info("Verified {} required Mongo indexes", indexes.size());
+            return;
+        }
+        String message = "Required Mongo indexes are missing: " + missing;
+        if (failOnMissing) {
+            throw new IllegalStateException(message);
+        }
+        log.error("!!! {} - auth and wallet lookups will fall back to collection scans !!!", message);
+    }
+}
@@ -0,0 +1,125 @@
+package com.mainproject.wallet.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mainproject.wallet.dto.ErrorResponseDTO;
+import com.mainproject.wallet.security.ReactiveJwtAuthenticationFilter;
+import com.mainproject.wallet.service.ReactiveUserService;
+import com.mainproject.wallet.utils.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Web and transaction setup for the {@code reactive} profile: the same rules as SecurityConfig and
+ * WebConfig (stateless bearer tokens, JSON 401, CORS for the frontend) expressed for WebFlux.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    // Same scrape credential as SecurityConfig.actuatorFilterChain
+    @Bean
+    @Order(1)
+    public SecurityWebFilterChain reactiveActuatorFilterChain(ServerHttpSecurity http, ServerAuthenticationEntryPoint unauthorizedEntryPoint,
+                                                              @Value("${wallet.actuator.scrape-username:prometheus}") String username,
+                                                              @Value("${wallet.actuator.scrape-password:}") String password) {
+        http
+                .securityMatcher(ServerWebExchangeMatchers.pathMatchers("/actuator/**"))
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .anyExchange().authenticated()
+                )
+                .httpBasic(basic -> basic
+                        .authenticationManager(scrapeAuthentication(SecurityConfig.scrapeUser(username, password)))
+                        .authenticationEntryPoint(unauthorizedEntryPoint));
+
+        return http.build();
+    }
+
+    private static ReactiveAuthenticationManager scrapeAuthentication(UserDetails scrapeUser) {
+        if (scrapeUser == null) {
+            return authentication -> Mono.error(new BadCredentialsException("Actuator scrape credential is not configured"));
+        }
+        return new UserDetailsRepositoryReactiveAuthenticationManager(new MapReactiveUserDetailsService(scrapeUser));
+    }
+
+    @Bean
+    public SecurityWebFilterChain reactiveSecurityFilterChain(ServerHttpSecurity http, JwtUtil jwtUtil, ReactiveUserService userService,
+                                                              ServerAuthenticationEntryPoint unauthorizedEntryPoint) {
+        http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .cors(Customizer.withDefaults())
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                // Stateless: the bearer token is checked on every request, nothing is kept in a WebSession
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(new ReactiveJwtAuthenticationFilter(jwtUtil, userService), SecurityWebFiltersOrder.AUTHENTICATION)
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/api/wallet/**").authenticated()
+                        .anyExchange().permitAll()
+                )
+                .exceptionHandling(exceptionHandling ->
+                        exceptionHandling.authenticationEntryPoint(unauthorizedEntryPoint)
+                );
+
+        return http.build();
+    }
+
+    // Same 401 body as the servlet entry point
+    @Bean
+    public ServerAuthenticationEntryPoint unauthorizedEntryPoint(ObjectMapper objectMapper) {
+        return (exchange, authException) -> Mono.fromCallable(() -> objectMapper.writeValueAsBytes(new ErrorResponseDTO("Unauthorized access")))
+                .flatMap(body -> {
+                    exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+                    exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+                });
+    }
+
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(List.of("http://localhost:5173")); // Same origin as WebConfig
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.addAllowedHeader("*");
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+        return source;
+    }
+
+    // Not a TransactionManager bean, so @Transactional keeps resolving to the blocking manager from AppConfig
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ReactiveMongoDatabaseFactory databaseFactory) {
+        return TransactionalOperator.create(new ReactiveMongoTransactionManager(databaseFactory));
+    }
+}
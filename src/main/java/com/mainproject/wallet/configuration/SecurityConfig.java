@@ -1,44 +1,103 @@
 package com.mainproject.wallet.configuration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mainproject.wallet.dto.ErrorResponseDTO;
+import com.mainproject.wallet.security.JwtAuthenticationFilter;
+import com.mainproject.wallet.service.UserService;
+import com.mainproject.wallet.utils.JwtUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // ReactiveSecurityConfig in the reactive profile
 public class SecurityConfig {
 
+    // Actuator endpoints are scraped by Prometheus, not called by wallet users: HTTP Basic with a dedicated scrape
+    // credential instead of a user's bearer token. Health stays open for probes.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http, AuthenticationEntryPoint unauthorizedEntryPoint,
+                                                   @Value("${wallet.actuator.scrape-username:prometheus}") String username,
+                                                   @Value("${wallet.actuator.scrape-password:}") String password) throws Exception {
+        http
+                .securityMatcher("/actuator/**")
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .anyRequest().authenticated()
+                )
+                .authenticationManager(scrapeAuthentication(scrapeUser(username, password)))
+                .httpBasic(basic -> basic.authenticationEntryPoint(unauthorizedEntryPoint));
+
+        return http.build();
+    }
+
+    // No password configured means no scrape access at all, rather than accepting an empty one
+    static UserDetails scrapeUser(String username, String password) {
+        return password == null || password.isBlank() ? null : User.withUsername(username).password("{noop}" + password).build();
+    }
+
+    private static AuthenticationManager scrapeAuthentication(UserDetails scrapeUser) {
+        if (scrapeUser == null) {
+            return authentication -> {
+                throw new BadCredentialsException("Actuator scrape credential is not configured");
+            };
+        }
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(new InMemoryUserDetailsManager(scrapeUser));
+        return new ProviderManager(provider);
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtUtil jwtUtil, UserService userService,
+                                                   AuthenticationEntryPoint unauthorizedEntryPoint) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
+                // Answer CORS preflights (which carry no token) from WebConfig's mappings before authorization
+                .cors(Customizer.withDefaults())
+                // Stateless: the bearer token is checked on every request, nothing is kept in an HTTP session
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Not a bean, so the servlet container does not register it a second time outside the chain
+                .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, userService), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/wallet/**").authenticated()
                         .anyRequest().permitAll()
                 )
                 .exceptionHandling(exceptionHandling ->
-                        exceptionHandling.authenticationEntryPoint(basicAuthenticationEntryPoint())
+                        exceptionHandling.authenticationEntryPoint(unauthorizedEntryPoint)
                 );
 
         return http.build();
     }
 
+    // Same 401 body the wallet endpoints used to return themselves
     @Bean
-    public BasicAuthenticationEntryPoint basicAuthenticationEntryPoint() {
-        BasicAuthenticationEntryPoint entryPoint = new BasicAuthenticationEntryPoint();
-        entryPoint.setRealmName("YourRealmName");
-        return entryPoint;
+    public AuthenticationEntryPoint unauthorizedEntryPoint(ObjectMapper objectMapper) {
+        return (request, response, authException) -> {
+            response.setStatus(401);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new ErrorResponseDTO("Unauthorized access"));
+        };
     }
 
 }
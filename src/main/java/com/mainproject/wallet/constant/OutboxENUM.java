@@ -0,0 +1,14 @@
+package com.mainproject.wallet.constant;
+
+public class OutboxENUM {
+    // Notification types
+    public static final String RECHARGE = "Recharge";
+    public static final String TRANSFER_SENT = "TransferSent";
+    public static final String TRANSFER_RECEIVED = "TransferReceived";
+
+    // Delivery states
+    public static final String PENDING = "Pending";       // Waiting for its next attempt
+    public static final String PROCESSING = "Processing"; // Claimed by a dispatcher
+    public static final String SENT = "Sent";
+    public static final String DEAD = "Dead";             // Gave up after the maximum number of attempts
+}
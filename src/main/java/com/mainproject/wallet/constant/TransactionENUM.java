@@ -1,8 +1,12 @@
 package com.mainproject.wallet.constant;
 
+import java.util.Set;
+
 public class TransactionENUM {
     public static final String RECHARGE = "Recharge";
     public static final String SENT = "Sent";
     public static final String RECEIVED = "Received";
     public static final String CASHBACK = "cashback";
+
+    public static final Set<String> ALL = Set.of(RECHARGE, SENT, RECEIVED, CASHBACK);
 }
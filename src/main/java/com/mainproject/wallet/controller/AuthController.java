@@ -9,12 +9,14 @@ import com.mainproject.wallet.model.User;
 import com.mainproject.wallet.service.UserService;
 import com.mainproject.wallet.utils.JwtUtil;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 @Validated
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // ReactiveAuthController in the reactive profile
 @RequestMapping("/api/auth")
 public class AuthController {
 
@@ -37,7 +39,7 @@ public class AuthController {
     public ResponseEntity<?> login(@Valid @RequestBody LoginDTO loginDTO) {
         User user = userService.login(loginDTO);
         if (user != null) {
-            String token = jwtUtil.generateToken(user.getUsername());
+            String token = jwtUtil.generateToken(user.getId(), user.getUsername());
             UserDTO userDTO = UserMapper.toDTO(user, token);
             return ResponseEntity.ok(userDTO);
         }
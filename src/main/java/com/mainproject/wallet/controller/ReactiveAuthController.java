@@ -0,0 +1,42 @@
+package com.mainproject.wallet.controller;
+
+import com.mainproject.wallet.dto.LoginDTO;
+import com.mainproject.wallet.dto.RegisterDTO;
+import com.mainproject.wallet.dto.UserDTO;
+import com.mainproject.wallet.mapper.UserMapper;
+import com.mainproject.wallet.service.ReactiveUserService;
+import com.mainproject.wallet.utils.JwtUtil;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+// Same endpoints and bodies as AuthController, served by WebFlux in the reactive profile
+@Validated
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/auth")
+public class ReactiveAuthController {
+
+    private final ReactiveUserService userService;
+    private final JwtUtil jwtUtil;
+
+    public ReactiveAuthController(ReactiveUserService userService, JwtUtil jwtUtil) {
+        this.userService = userService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<UserDTO>> register(@Valid @RequestBody RegisterDTO registerDTO) {
+        return userService.register(registerDTO).map(user -> ResponseEntity.ok(UserMapper.toDTO(user)));
+    }
+
+    // Invalid credentials surface as AuthException, answered by GlobalExceptionHandler as before
+    @PostMapping("/login")
+    public Mono<ResponseEntity<UserDTO>> login(@Valid @RequestBody LoginDTO loginDTO) {
+        return userService.login(loginDTO)
+                .map(user -> ResponseEntity.ok(UserMapper.toDTO(user, jwtUtil.generateToken(user.getId(), user.getUsername()))));
+    }
+}
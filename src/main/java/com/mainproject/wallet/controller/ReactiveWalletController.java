@@ -0,0 +1,207 @@
+package com.mainproject.wallet.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.dto.ErrorResponseDTO;
+import com.mainproject.wallet.dto.RechargeResponseDTO;
+import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.dto.TransactionPageDTO;
+import com.mainproject.wallet.dto.UserDTO;
+import com.mainproject.wallet.dto.WalletAggregateDTO;
+import com.mainproject.wallet.mapper.UserMapper;
+import com.mainproject.wallet.security.WalletPrincipal;
+import com.mainproject.wallet.service.ReactiveTransactionService;
+import com.mainproject.wallet.service.ReactiveWalletService;
+import com.mainproject.wallet.service.StatementExportService;
+import com.mainproject.wallet.utils.TransactionCursor;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * The wallet API of {@link WalletController} on WebFlux, with the same paths, parameters and
+ * response bodies. List endpoints return a {@link Flux}: rendered as a JSON array by default, or
+ * streamed row by row as NDJSON when the client sends {@code Accept: application/x-ndjson}.
+ */
+@Validated
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/wallet")
+public class ReactiveWalletController {
+
+    private final ReactiveWalletService walletService;
+    private final ReactiveTransactionService transactionService;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveWalletController(ReactiveWalletService walletService, ReactiveTransactionService transactionService,
+                                    ObjectMapper objectMapper) {
+        this.walletService = walletService;
+        this.transactionService = transactionService;
+        this.objectMapper = objectMapper;
+    }
+
+    // The principal is set by ReactiveJwtAuthenticationFilter; it is only missing outside the security chain
+    private static ResponseEntity<ErrorResponseDTO> unauthorized() {
+        return ResponseEntity.status(401).body(new ErrorResponseDTO("Unauthorized access"));
+    }
+
+    private static ResponseEntity<ErrorResponseDTO> forbidden(String what) {
+        return ResponseEntity.status(403).body(new ErrorResponseDTO("Forbidden: You are not authorized to view " + what));
+    }
+
+    @PostMapping("/recharge")
+    public Mono<ResponseEntity<?>> recharge(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @Min(value = 1, message = "Amount must be greater than zero") @RequestParam long amount) { // Paise, as are all amounts in responses
+
+        if (principal == null) {
+            return Mono.just(unauthorized());
+        }
+        return walletService.recharge(principal.username(), amount).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<?>> transfer(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestHeader("Authorization") String token, // Echoed back in the response
+            @RequestParam String toUsername, @Min(value = 1, message = "Amount must be greater than zero") @RequestParam long amount) { // Paise, as are all amounts in responses
+
+        if (principal == null) {
+            return Mono.just(unauthorized());
+        }
+        return walletService.transfer(principal.username(), toUsername, amount)
+                .map(toUser -> ResponseEntity.ok(UserMapper.toDTO(toUser, token)));
+    }
+
+    @GetMapping("/statement")
+    public Mono<ResponseEntity<?>> viewStatement(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @RequestHeader("Authorization") String token) { // Echoed back in the response
+
+        if (principal == null) {
+            return Mono.just(unauthorized());
+        }
+        return walletService.viewStatement(principal.username()).map(user -> ResponseEntity.ok(UserMapper.toDTO(user, token)));
+    }
+
+    @GetMapping(value = "/transactions/{username}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> getTransactions(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @PathVariable String username) {
+
+        if (principal == null) {
+            return unauthorized();
+        }
+        if (!principal.username().equals(username)) {
+            return forbidden("these transactions");
+        }
+        return ResponseEntity.ok(transactionService.streamByUserId(principal.userId()));
+    }
+
+    @GetMapping("/transactions/{username}/page")
+    public Mono<ResponseEntity<?>> getTransactionPage(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @PathVariable String username,
+            @RequestParam(required = false) String type, // Optional filter, e.g. "Sent"
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from, // Inclusive
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to, // Exclusive
+            @RequestParam(required = false) String cursor, // Opaque token from the previous page's nextCursor
+            @RequestParam(required = false) Integer limit) {
+
+        if (principal == null) {
+            return Mono.just(unauthorized());
+        }
+        if (!principal.username().equals(username)) {
+            return Mono.just(forbidden("these transactions"));
+        }
+        return Mono.defer(() -> transactionService.getTransactionPageByUserId(principal.userId(), type, from, to, TransactionCursor.decode(cursor), limit))
+                .map(ResponseEntity::ok);
+    }
+
+    // Rows are encoded to bytes as they arrive and written with backpressure; the body is typed as raw buffers,
+    // so the error answers are encoded here as well instead of by a message writer
+    @GetMapping("/transactions/{username}/export")
+    public ResponseEntity<Flux<DataBuffer>> exportTransactions(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @PathVariable String username,
+            @RequestParam(defaultValue = "ndjson") String format) throws JsonProcessingException { // ndjson or csv
+
+        if (principal == null) {
+            return rawError(unauthorized());
+        }
+        if (!principal.username().equals(username)) {
+            return rawError(forbidden("these transactions"));
+        }
+
+        StatementExportService.Format exportFormat = StatementExportService.Format.parse(format);
+        Flux<String> lines = exportFormat == StatementExportService.Format.CSV
+                ? transactionService.streamCsvByUserId(principal.userId())
+                : transactionService.streamNdjsonByUserId(principal.userId());
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"statement." + exportFormat.getExtension() + "\"")
+                .body(lines.map(line -> DefaultDataBufferFactory.sharedInstance.wrap(line.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> rawError(ResponseEntity<ErrorResponseDTO> error) throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(error.getBody());
+        return ResponseEntity.status(error.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+    }
+
+    @GetMapping(value = "/cashbacks/{username}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> getAllCashbacks(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @PathVariable String username) {
+
+        if (principal == null) {
+            return unauthorized();
+        }
+        if (!principal.username().equals(username)) {
+            return forbidden("cashback data");
+        }
+        return ResponseEntity.ok(transactionService.getCashbackByUserId(principal.userId()));
+    }
+
+    @GetMapping("/cashbacks/{username}/page")
+    public Mono<ResponseEntity<?>> getCashbackPage(
+            @AuthenticationPrincipal WalletPrincipal principal,
+            @PathVariable String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from, // Inclusive
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to, // Exclusive
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        if (principal == null) {
+            return Mono.just(unauthorized());
+        }
+        if (!principal.username().equals(username)) {
+            return Mono.just(forbidden("cashback data"));
+        }
+        return Mono.defer(() -> transactionService.getTransactionPageByUserId(principal.userId(), TransactionENUM.CASHBACK, from, to, TransactionCursor.decode(cursor), limit))
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/aggregates")
+    public Mono<ResponseEntity<?>> getAggregates(@AuthenticationPrincipal WalletPrincipal principal) {
+        if (principal == null) {
+            return Mono.just(unauthorized());
+        }
+        return walletService.getAggregates(principal.userId()).map(ResponseEntity::ok);
+    }
+}
@@ -1,121 +1,240 @@
 package com.mainproject.wallet.controller;
 
+import com.mainproject.wallet.constant.TransactionENUM;
 import com.mainproject.wallet.dto.ErrorResponseDTO;
 import com.mainproject.wallet.dto.RechargeResponseDTO;
 import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.dto.TransactionPageDTO;
 import com.mainproject.wallet.dto.UserDTO;
 import com.mainproject.wallet.mapper.UserMapper;
+import com.mainproject.wallet.model.IdempotencyKey;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.security.WalletPrincipal;
+import com.mainproject.wallet.service.IdempotencyService;
+import com.mainproject.wallet.service.LedgerWalletService;
+import com.mainproject.wallet.service.StatementExportService;
 import com.mainproject.wallet.service.TransactionService;
 import com.mainproject.wallet.service.WalletService;
-import com.mainproject.wallet.utils.JwtUtil;
+import com.mainproject.wallet.utils.TransactionCursor;
 import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Validated
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // ReactiveWalletController in the reactive profile
 @RequestMapping("/api/wallet")
 public class WalletController {
 
     private final WalletService walletService;
     private final TransactionService transactionService;
-    private final JwtUtil jwtUtil;
+    private final StatementExportService statementExportService;
+    private final IdempotencyService idempotencyService;
+
+    // Present only with wallet.ledger.enabled=true; recharges and transfers then bypass WalletService's transaction and retry
+    @Autowired(required = false)
+    LedgerWalletService ledgerWalletService;
 
     // Constructor injection
-    public WalletController(WalletService walletService, TransactionService transactionService, JwtUtil jwtUtil) {
+    public WalletController(WalletService walletService, TransactionService transactionService,
+                            StatementExportService statementExportService, IdempotencyService idempotencyService) {
         this.walletService = walletService;
         this.transactionService = transactionService;
-        this.jwtUtil = jwtUtil;
+        this.statementExportService = statementExportService;
+        this.idempotencyService = idempotencyService;
     }
 
-    // Helper method to validate JWT and extract the username
-    private String validateTokenAndExtractUsername(String token) {
-        String username = token.substring(7); // Remove 'Bearer ' prefix
-        if (!jwtUtil.isTokenValid(username, username)) {
-            return null;
-        }
-        return jwtUtil.extractUsername(username);
+    // The token is validated by JwtAuthenticationFilter before the request gets here; the principal is only
+    // missing if a handler is invoked outside the security chain
+    private static ResponseEntity<ErrorResponseDTO> unauthorized() {
+        return ResponseEntity.status(401).body(new ErrorResponseDTO("Unauthorized access"));
     }
 
     @PostMapping("/recharge")
     public ResponseEntity<?> recharge(
-            @RequestHeader("Authorization") String token, // Get token from header
-            @Min(value = 1, message = "Amount must be greater than zero") @RequestParam double amount) {
+            @AuthenticationPrincipal WalletPrincipal principal, // Set by JwtAuthenticationFilter
+            @RequestHeader(value = IdempotencyKey.HEADER, required = false) String idempotencyKey, // Lets a client retry safely
+            @Min(value = 1, message = "Amount must be greater than zero") @RequestParam long amount) { // Paise, as are all amounts in responses
 
-        String username = validateTokenAndExtractUsername(token); // Validate token and extract username
-        if (username == null) {
-            return ResponseEntity.status(401).body(new ErrorResponseDTO("Unauthorized access"));
+        if (principal == null) {
+            return unauthorized();
         }
 
-        return walletService.recharge(username, amount); // Directly return the service response
+        // A replayed key returns the stored response without touching the balance
+        RechargeResponseDTO response = idempotencyService.execute(IdempotencyKey.forRecharge(principal.userId(), idempotencyKey, amount),
+                RechargeResponseDTO.class, key -> recharge(principal.username(), amount, key));
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/transfer")
     public ResponseEntity<?> transfer(
-            @RequestHeader("Authorization") String token, // Get token from header
-            @RequestParam String toUsername, @Min(value = 1, message = "Amount must be greater than zero") @RequestParam double amount) {
+            @AuthenticationPrincipal WalletPrincipal principal, // Set by JwtAuthenticationFilter
+            @RequestHeader("Authorization") String token, // Echoed back in the response
+            @RequestHeader(value = IdempotencyKey.HEADER, required = false) String idempotencyKey, // Lets a client retry safely
+            @RequestParam String toUsername, @Min(value = 1, message = "Amount must be greater than zero") @RequestParam long amount) { // Paise, as are all amounts in responses
 
-        String fromUsername = validateTokenAndExtractUsername(token); // Validate token and extract sender's username
-        if (fromUsername == null) {
-            return ResponseEntity.status(401).body(new ErrorResponseDTO("Unauthorized access"));
+        if (principal == null) {
+            return unauthorized();
         }
+        String fromUsername = principal.username();
 
         // Check if the user has sufficient balance and other business logic for transfer
-        UserDTO userDTO = UserMapper.toDTO(walletService.transfer(fromUsername, toUsername, amount), token);
+        UserDTO toUser = idempotencyService.execute(IdempotencyKey.forTransfer(principal.userId(), idempotencyKey, toUsername, amount),
+                UserDTO.class, key -> UserMapper.toDTO(transfer(fromUsername, toUsername, amount, key)));
+        UserDTO userDTO = UserMapper.withToken(toUser, token);
         return userDTO != null ? ResponseEntity.ok(userDTO) : ResponseEntity.badRequest().body(new ErrorResponseDTO("Transfer failed"));
     }
 
+    private RechargeResponseDTO recharge(String username, long amount, IdempotencyKey key) {
+        return (ledgerWalletService != null
+                ? ledgerWalletService.recharge(username, amount, key)
+                : walletService.recharge(username, amount, key)).getBody();
+    }
+
+    private User transfer(String fromUsername, String toUsername, long amount, IdempotencyKey key) {
+        return ledgerWalletService != null
+                ? ledgerWalletService.transfer(fromUsername, toUsername, amount, key)
+                : walletService.transfer(fromUsername, toUsername, amount, key);
+    }
+
     @GetMapping("/statement")
     public ResponseEntity<?> viewStatement(
-            @RequestHeader("Authorization") String token) { // Get token from header
+            @AuthenticationPrincipal WalletPrincipal principal, // Set by JwtAuthenticationFilter
+            @RequestHeader("Authorization") String token) { // Echoed back in the response
 
-        String username = validateTokenAndExtractUsername(token); // Validate token and extract username
-        if (username == null) {
-            return ResponseEntity.status(401).body(new ErrorResponseDTO("Unauthorized access"));
+        if (principal == null) {
+            return unauthorized();
         }
 
-        UserDTO userDTO = UserMapper.toDTO(walletService.viewStatement(username), token);
+        UserDTO userDTO = UserMapper.toDTO(walletService.viewStatement(principal.username()), token);
         return ResponseEntity.ok(userDTO);
     }
 
     @GetMapping("/transactions/{username}")
     public ResponseEntity<?> getTransactions(
-            @RequestHeader("Authorization") String token, // Get token from header
+            @AuthenticationPrincipal WalletPrincipal principal, // Set by JwtAuthenticationFilter
             @PathVariable String username) {
 
-        String requestUsername = validateTokenAndExtractUsername(token); // Validate token and extract the requesting username
-        if (requestUsername == null) {
-            return ResponseEntity.status(401).body(new ErrorResponseDTO("Unauthorized access"));
+        if (principal == null) {
+            return unauthorized();
         }
 
         // Ensure the requestor is allowed to view the transactions of the provided username
-        if (!requestUsername.equals(username)) {
+        if (!principal.username().equals(username)) {
             return ResponseEntity.status(403).body(new ErrorResponseDTO("Forbidden: You are not authorized to view these transactions"));
         }
 
-        List<TransactionDTO> transactions = transactionService.getTransactionsByUsername(username);
+        List<TransactionDTO> transactions = transactionService.getTransactionsByUserId(principal.userId());
         return ResponseEntity.ok(transactions); // This will return 200 OK with an empty array if no transactions found
     }
 
+    @GetMapping("/transactions/{username}/page")
+    public ResponseEntity<?> getTransactionPage(
+            @AuthenticationPrincipal WalletPrincipal principal, // Set by JwtAuthenticationFilter
+            @PathVariable String username,
+            @RequestParam(required = false) String type, // Optional filter, e.g. "Sent"
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from, // Inclusive
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to, // Exclusive
+            @RequestParam(required = false) String cursor, // Opaque token from the previous page's nextCursor
+            @RequestParam(required = false) Integer limit) {
+
+        if (principal == null) {
+            return unauthorized();
+        }
+
+        // Ensure the requestor is allowed to view the transactions of the provided username
+        if (!principal.username().equals(username)) {
+            return ResponseEntity.status(403).body(new ErrorResponseDTO("Forbidden: You are not authorized to view these transactions"));
+        }
+
+        TransactionPageDTO page = transactionService.getTransactionPageByUserId(principal.userId(), type, from, to, TransactionCursor.decode(cursor), limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/transactions/{username}/export")
+    public ResponseEntity<?> exportTransactions(
+            @AuthenticationPrincipal WalletPrincipal principal, // Set by JwtAuthenticationFilter
+            @PathVariable String username,
+            @RequestParam(defaultValue = "ndjson") String format) { // ndjson or csv
+
+        if (principal == null) {
+            return unauthorized();
+        }
+
+        // Same rule as getTransactions: only the owner can export a statement
+        if (!principal.username().equals(username)) {
+            return ResponseEntity.status(403).body(new ErrorResponseDTO("Forbidden: You are not authorized to view these transactions"));
+        }
+
+        StatementExportService.Format exportFormat = StatementExportService.Format.parse(format);
+        ResolvedAccount account = statementExportService.resolveExportAccount(username);
+        StreamingResponseBody body = out -> statementExportService.export(account, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"statement." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/cashbacks/{username}")
     public ResponseEntity<?> getAllCashbacks(
-            @RequestHeader("Authorization") String token, // Get token from header
+            @AuthenticationPrincipal WalletPrincipal principal, // Set by JwtAuthenticationFilter
             @PathVariable String username) {
 
-        String requestUsername = validateTokenAndExtractUsername(token); // Validate token and extract the requesting username
-        if (requestUsername == null) {
-            return ResponseEntity.status(401).body(new ErrorResponseDTO("Unauthorized access"));
+        if (principal == null) {
+            return unauthorized();
         }
 
         // Ensure the requestor is allowed to view the cashback transactions of the provided username
-        if (!requestUsername.equals(username)) {
+        if (!principal.username().equals(username)) {
             return ResponseEntity.status(403).body(new ErrorResponseDTO("Forbidden: You are not authorized to view cashback data"));
         }
 
-        List<TransactionDTO> cashbacks = transactionService.getCashbackByUsername(username);
+        List<TransactionDTO> cashbacks = transactionService.getCashbackByUserId(principal.userId());
         return ResponseEntity.ok(cashbacks);
     }
+
+    @GetMapping("/cashbacks/{username}/page")
+    public ResponseEntity<?> getCashbackPage(
+            @AuthenticationPrincipal WalletPrincipal principal, // Set by JwtAuthenticationFilter
+            @PathVariable String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from, // Inclusive
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to, // Exclusive
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        if (principal == null) {
+            return unauthorized();
+        }
+
+        // Ensure the requestor is allowed to view the cashback transactions of the provided username
+        if (!principal.username().equals(username)) {
+            return ResponseEntity.status(403).body(new ErrorResponseDTO("Forbidden: You are not authorized to view cashback data"));
+        }
+
+        TransactionPageDTO page = transactionService.getTransactionPageByUserId(principal.userId(), TransactionENUM.CASHBACK, from, to, TransactionCursor.decode(cursor), limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/aggregates")
+    public ResponseEntity<?> getAggregates(
+            @AuthenticationPrincipal WalletPrincipal principal) { // Set by JwtAuthenticationFilter
+
+        if (principal == null) {
+            return unauthorized();
+        }
+
+        return ResponseEntity.ok(walletService.getAggregates(principal.username()));
+    }
 }
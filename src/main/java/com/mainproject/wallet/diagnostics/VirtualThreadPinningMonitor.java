@@ -0,0 +1,165 @@
+package com.mainproject.wallet.diagnostics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.EventStream;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Watches for virtual threads that block while pinned to their carrier thread, which on JDK 21
+ * happens when they wait inside a {@code synchronized} block or a native frame. A pinned virtual
+ * thread holds one of the few carrier threads for as long as it blocks, so a handful of them can
+ * stall every request. Pinning is read from the JFR {@code jdk.VirtualThreadPinned} event; each
+ * new call site is logged once with its stack, and totals are reported periodically.
+ * <p>
+ * Only active when {@code spring.threads.virtual.enabled=true} (the {@code virtual} profile).
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "wallet.diagnostics.pinning.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.mainproject.wallet.";
+
+    private final Duration threshold;
+    private final int stackDepth;
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+    private final Supplier<EventStream> streams;
+    private long reportedEvents;
+    private EventStream stream;
+
+    @Autowired
+    public VirtualThreadPinningMonitor(@Value("${wallet.diagnostics.pinning.threshold-ms:20}") long thresholdMillis,
+                                       @Value("${wallet.diagnostics.pinning.stack-depth:16}") int stackDepth) {
+        this(thresholdMillis, stackDepth, () -> recording(Duration.ofMillis(thresholdMillis)));
+    }
+
+    // Tests pass a stream they feed themselves instead of waiting for JFR to flush real events
+    VirtualThreadPinningMonitor(long thresholdMillis, int stackDepth, Supplier<EventStream> streams) {
+        this.threshold = Duration.ofMillis(thresholdMillis);
+        this.stackDepth = stackDepth;
+        this.streams = streams;
+    }
+
+    private static EventStream recording(Duration threshold) {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        return recording;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = streams.get();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Watching for virtual threads pinned longer than {} ms", threshold.toMillis());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<String> frames = new ArrayList<>();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                if (frames.size() == stackDepth) {
+                    break;
+                }
+                frames.add(describe(frame));
+            }
+        }
+        record(event.getDuration(), event.getThread() != null ? event.getThread().getJavaName() : "?", frames);
+    }
+
+    void record(Duration duration, String threadName, List<String> frames) {
+        pinnedEvents.increment();
+        pinnedNanos.add(duration.toNanos());
+        String site = site(frames);
+        LongAdder count = sites.computeIfAbsent(site, key -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1) {
+            // First time this call site pinned a carrier: the stack is what is needed to fix it
+            log.warn("Virtual thread pinned for {} ms at {} (thread {}):\n\tat {}",
+                    duration.toMillis(), site, threadName, String.join("\n\tat ", frames));
+        } else {
+            log.debug("Virtual thread pinned for {} ms at {}", duration.toMillis(), site);
+        }
+    }
+
+    // The first application frame names the culprit; otherwise the first frame outside the JDK's own parking code
+    static String site(List<String> frames) {
+        String fallback = null;
+        for (String frame : frames) {
+            if (frame.startsWith(APPLICATION_PACKAGE)) {
+                return frame;
+            }
+            if (fallback == null && !isParkingFrame(frame)) {
+                fallback = frame;
+            }
+        }
+        return fallback != null ? fallback : "unknown";
+    }
+
+    private static boolean isParkingFrame(String frame) {
+        return frame.startsWith("java.lang.VirtualThread.") || frame.startsWith("java.lang.Thread.")
+                || frame.startsWith("jdk.internal.") || frame.startsWith("java.util.concurrent.locks.LockSupport.");
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.diagnostics.pinning.report-interval-ms:60000}")
+    public void report() {
+        long total = getPinnedEvents();
+        if (total > reportedEvents) {
+            log.warn("Virtual threads pinned {} time(s) ({} new, {} ms in total); by call site: {}",
+                    total, total - reportedEvents, Duration.ofNanos(pinnedNanos.sum()).toMillis(), getPinningSites());
+            reportedEvents = total;
+        }
+    }
+
+    public long getPinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    // Call sites ordered by how often they pinned, most frequent first
+    public Map<String, Long> getPinningSites() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        sites.forEach((site, count) -> entries.add(Map.entry(site, count.sum())));
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        entries.forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        return Collections.unmodifiableMap(ordered);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
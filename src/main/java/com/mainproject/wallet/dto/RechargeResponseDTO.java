@@ -4,21 +4,21 @@ import jakarta.validation.constraints.NotNull;
 
 public class RechargeResponseDTO {
     @NotNull(message = "Cashback amount cannot be null")
-    private double cashbackAmount;
+    private long cashbackAmount; // Paise
 
     @NotNull(message = "New balance cannot be null")
-    private double newBalance;
+    private long newBalance; // Paise
 
-    public RechargeResponseDTO(double cashbackAmount, double newBalance) {
+    public RechargeResponseDTO(long cashbackAmount, long newBalance) {
         this.cashbackAmount = cashbackAmount;
         this.newBalance = newBalance;
     }
 
-    public double getCashbackAmount() {
+    public long getCashbackAmount() {
         return cashbackAmount;
     }
 
-    public double getNewBalance() {
+    public long getNewBalance() {
         return newBalance;
     }
 }
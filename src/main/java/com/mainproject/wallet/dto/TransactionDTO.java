@@ -15,7 +15,7 @@ public class TransactionDTO {
     private String userId;
 
     @NotNull(message = "Amount cannot be null")
-    private double amount;
+    private long amount; // Paise
 
     private LocalDateTime timestamp;
 
@@ -0,0 +1,15 @@
+package com.mainproject.wallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageDTO {
+    private List<TransactionDTO> transactions;
+    private String nextCursor; // Pass back as ?cursor= to fetch the next page; null on the last page
+}
@@ -24,7 +24,7 @@ public class UserDTO {
 
     @NotNull(message = "Wallet balance cannot be null")
     @Min(value = 0, message = "Wallet cannot have a balance less than 0")
-    private double walletBalance;
+    private long walletBalance; // Paise
 
     // Added token field for JWT
     private String token; // This will hold the JWT token if you want to return it upon login
@@ -0,0 +1,19 @@
+package com.mainproject.wallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletAggregateDTO {
+    private String userId;
+    private Map<String, Long> counts;
+    private Map<String, Long> sums;   // Paise
+    private long cashbackTotal;       // Paise
+    private LocalDateTime lastActivity;
+}
@@ -0,0 +1,9 @@
+package com.mainproject.wallet.exception;
+
+// The operation may or may not have been applied, e.g. the ledger engine did not confirm it in time.
+// Running it again could apply it twice, so IdempotencyService keeps answering its key with this error
+public class OutcomeUnknownException extends WalletException {
+    public OutcomeUnknownException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.mainproject.wallet.exception;
+
+// Thrown when a bounded resource is saturated; answered with 503 and a Retry-After header
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
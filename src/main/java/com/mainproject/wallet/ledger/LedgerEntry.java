@@ -0,0 +1,67 @@
+package com.mainproject.wallet.ledger;
+
+import com.mainproject.wallet.model.ResolvedAccount;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * One accepted wallet command as it is journaled: everything needed to write its ledger rows,
+ * aggregates, outbox messages and balance deltas to Mongo again after a crash.
+ * For a recharge the counterparty is the account itself. Amounts are paise.
+ */
+public record LedgerEntry(long sequence, long timestamp, Kind kind, ResolvedAccount account, ResolvedAccount counterparty,
+                          long amount, long cashback) {
+
+    public enum Kind { RECHARGE, TRANSFER }
+
+    public static LedgerEntry recharge(long sequence, ResolvedAccount account, long amount, long cashback) {
+        return new LedgerEntry(sequence, System.currentTimeMillis(), Kind.RECHARGE, account, account, amount, cashback);
+    }
+
+    public static LedgerEntry transfer(long sequence, ResolvedAccount from, ResolvedAccount to, long amount) {
+        return new LedgerEntry(sequence, System.currentTimeMillis(), Kind.TRANSFER, from, to, amount, 0);
+    }
+
+    // Recharge plus cashback, the way WalletService credits it
+    public long credited() {
+        return amount + cashback;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(sequence);
+        out.writeLong(timestamp);
+        out.writeByte(kind.ordinal());
+        writeAccount(out, account);
+        writeAccount(out, counterparty);
+        out.writeLong(amount);
+        out.writeLong(cashback);
+    }
+
+    static LedgerEntry readFrom(DataInput in) throws IOException {
+        return new LedgerEntry(in.readLong(), in.readLong(), Kind.values()[in.readByte()], readAccount(in), readAccount(in),
+                in.readLong(), in.readLong());
+    }
+
+    private static void writeAccount(DataOutput out, ResolvedAccount account) throws IOException {
+        out.writeUTF(account.id());
+        writeNullable(out, account.username());
+        writeNullable(out, account.email());
+    }
+
+    private static ResolvedAccount readAccount(DataInput in) throws IOException {
+        return new ResolvedAccount(in.readUTF(), readNullable(in), readNullable(in));
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
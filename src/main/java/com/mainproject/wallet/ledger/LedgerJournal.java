@@ -0,0 +1,193 @@
+package com.mainproject.wallet.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Sequential write-ahead journal of one ledger shard, written only by that shard's thread. Records
+ * are length-prefixed and checksummed, and each appended batch is made durable with one fsync. The
+ * journal rolls over to a new segment file once the current one reaches {@code segmentBytes};
+ * closed segments are deleted once everything in them is stored in Mongo.
+ */
+@Slf4j
+public class LedgerJournal implements Closeable {
+
+    private static final String SUFFIX = ".wal";
+
+    private final Path directory;
+    private final String name;
+    private final long segmentBytes;
+    // Closed segments with the last sequence each holds, oldest first
+    private final Deque<Segment> closed = new ArrayDeque<>();
+
+    private FileChannel current;
+    private Path currentPath;
+    private long currentNumber;
+    private long currentLastSequence;
+
+    record Segment(Path path, long lastSequence) {
+    }
+
+    public LedgerJournal(Path directory, String name, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.name = name;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        List<Path> existing = segments();
+        this.currentNumber = existing.isEmpty() ? 0 : number(existing.get(existing.size() - 1));
+    }
+
+    // All entries in append order; a record torn by a crash in the middle of a write is cut off
+    public List<LedgerEntry> read() throws IOException {
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (Path segment : segments()) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long valid = readSegment(channel, entries);
+                if (valid < channel.size()) {
+                    log.warn("Cutting {} bytes of a torn record off journal segment {}", channel.size() - valid, segment);
+                    channel.truncate(valid);
+                }
+            }
+        }
+        return entries;
+    }
+
+    public void append(List<LedgerEntry> entries) throws IOException {
+        if (current == null) {
+            openNext();
+        }
+        ByteBuffer buffer = encode(entries);
+        long start = current.size();
+        try {
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+            // One fsync for the whole batch: the group commit
+            current.force(false);
+        } catch (IOException e) {
+            // Leave no partial batch behind for the next append to follow
+            try {
+                current.truncate(start);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        currentLastSequence = entries.get(entries.size() - 1).sequence();
+        if (current.size() >= segmentBytes) {
+            current.close();
+            closed.addLast(new Segment(currentPath, currentLastSequence));
+            current = null;
+        }
+    }
+
+    // Deletes closed segments whose entries are all stored at or below the given sequence
+    public void release(long storedSequence) throws IOException {
+        while (!closed.isEmpty() && closed.peekFirst().lastSequence() <= storedSequence) {
+            Files.deleteIfExists(closed.pollFirst().path());
+        }
+    }
+
+    // Drops every segment; only called once all entries read back are stored elsewhere
+    public void reset() throws IOException {
+        close();
+        for (Path segment : segments()) {
+            Files.delete(segment);
+        }
+        closed.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
+    private void openNext() throws IOException {
+        currentNumber++;
+        currentPath = directory.resolve(String.format("%s-%06d%s", name, currentNumber, SUFFIX));
+        current = FileChannel.open(currentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(this::isSegment).sorted(Comparator.comparingLong(this::number)).toList();
+        }
+    }
+
+    private boolean isSegment(Path path) {
+        String file = path.getFileName().toString();
+        return file.startsWith(name + "-") && file.endsWith(SUFFIX)
+                && file.substring(name.length() + 1, file.length() - SUFFIX.length()).chars().allMatch(Character::isDigit);
+    }
+
+    private long number(Path path) {
+        String file = path.getFileName().toString();
+        return Long.parseLong(file.substring(name.length() + 1, file.length() - SUFFIX.length()));
+    }
+
+    // Record layout: payload length, payload, CRC32 of the payload
+    static ByteBuffer encode(List<LedgerEntry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(entries.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        for (LedgerEntry entry : entries) {
+            payload.reset();
+            entry.writeTo(new DataOutputStream(payload));
+            byte[] record = payload.toByteArray();
+            out.writeInt(record.length);
+            out.write(record);
+            out.writeInt(checksum(record));
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    // Returns the length of the intact prefix
+    private static long readSegment(FileChannel channel, List<LedgerEntry> entries) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        long size = channel.size();
+        long valid = 0;
+        while (valid + 8 <= size) {
+            int length = in.readInt();
+            if (length <= 0 || valid + 8 + length > size) {
+                break;
+            }
+            byte[] record = new byte[length];
+            in.readFully(record);
+            if (in.readInt() != checksum(record)) {
+                break;
+            }
+            entries.add(LedgerEntry.readFrom(new DataInputStream(new ByteArrayInputStream(record))));
+            valid += 8 + length;
+        }
+        return valid;
+    }
+
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+}
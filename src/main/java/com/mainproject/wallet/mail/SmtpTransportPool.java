@@ -0,0 +1,346 @@
+package com.mainproject.wallet.mail;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps a few authenticated SMTP connections open and sends batches of messages over them, so a
+ * busy outbox pays the connect, STARTTLS and AUTH handshake once per connection instead of once
+ * per email. Connections are recycled after a message cap, closed when idle, and replaced when
+ * the server drops them.
+ */
+@Slf4j
+@Component
+public class SmtpTransportPool {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxConnections;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+    private final ExecutorService senders;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Deque<PooledTransport> idle = new ArrayDeque<>(); // Most recently used first
+    private int open; // Connections idle, checked out, or being opened
+    private boolean closed;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender,
+                             @Value("${wallet.mail.pool.max-connections:3}") int maxConnections,
+                             @Value("${wallet.mail.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                             @Value("${wallet.mail.pool.idle-timeout-ms:60000}") long idleTimeoutMillis,
+                             @Value("${wallet.mail.pool.borrow-timeout-ms:10000}") long borrowTimeoutMillis,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.mailSender = mailSender;
+        this.maxConnections = maxConnections;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        if (virtualThreads) {
+            // Senders spend nearly all their time waiting on the SMTP server; parallelism is still capped by the slices
+            this.senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("smtp-sender-", 1).factory());
+        } else {
+            AtomicInteger threads = new AtomicInteger();
+            this.senders = Executors.newFixedThreadPool(maxConnections, runnable -> {
+                Thread thread = new Thread(runnable, "smtp-sender-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Sends the messages, spread over up to {@code max-connections} connections in parallel. The
+     * result has one entry per message: null when it was accepted by the server, otherwise the
+     * failure. Null messages are skipped (and reported as successes).
+     */
+    public List<MailException> sendAll(List<MimeMessage> messages) {
+        MailException[] failures = new MailException[messages.size()];
+        int slices = Math.min(maxConnections, messages.size());
+        if (slices <= 1) {
+            sendSlice(messages, 0, messages.size(), failures);
+            return Arrays.asList(failures);
+        }
+
+        int sliceSize = (messages.size() + slices - 1) / slices;
+        List<CompletableFuture<Void>> running = new ArrayList<>(slices);
+        for (int from = 0; from < messages.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(messages.size(), from + sliceSize);
+            running.add(CompletableFuture.runAsync(() -> sendSlice(messages, start, end, failures), senders));
+        }
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+        return Arrays.asList(failures);
+    }
+
+    private void sendSlice(List<MimeMessage> messages, int from, int to, MailException[] failures) {
+        PooledTransport transport = null;
+        try {
+            for (int i = from; i < to; i++) {
+                MimeMessage message = messages.get(i);
+                if (message == null) {
+                    continue;
+                }
+                try {
+                    if (transport == null) {
+                        transport = borrow();
+                    }
+                    transport.send(message);
+                    if (transport.isExhausted()) {
+                        release(transport);
+                        transport = null;
+                    }
+                } catch (MessagingException | IllegalStateException e) {
+                    if (e instanceof SendFailedException && transport.isConnected()) {
+                        // Recipients rejected; the connection itself is still fine
+                        failures[i] = new MailSendException("Recipients rejected", e);
+                        continue;
+                    }
+                    // The server dropped or broke the connection: retry this message once on a fresh one
+                    log.warn("SMTP connection failed, reconnecting: {}", e.getMessage());
+                    discard(transport);
+                    transport = null;
+                    try {
+                        transport = borrow();
+                        transport.send(message);
+                        if (transport.isExhausted()) {
+                            release(transport);
+                            transport = null;
+                        }
+                    } catch (MessagingException | IllegalStateException retryFailure) {
+                        failures[i] = new MailSendException("Failed to send email", retryFailure);
+                        if (!transport.isConnected()) {
+                            discard(transport);
+                            transport = null;
+                        }
+                    }
+                }
+            }
+        } catch (MailException e) {
+            // No connection could be obtained; nothing else in this slice can be sent either
+            for (int i = from; i < to; i++) {
+                if (failures[i] == null && messages.get(i) != null) {
+                    failures[i] = e;
+                }
+            }
+        } finally {
+            if (transport != null) {
+                release(transport);
+            }
+        }
+    }
+
+    PooledTransport borrow() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        PooledTransport candidate;
+        while ((candidate = takeIdleOrReserve(deadline)) != null) {
+            if (candidate.isReusable(System.currentTimeMillis())) {
+                return candidate;
+            }
+            discard(candidate);
+        }
+
+        // A slot is reserved; connect outside the lock, the handshake is the slow part this pool exists to avoid repeating
+        try {
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            discard(null);
+            throw new MailSendException("Could not connect to SMTP server", e);
+        }
+    }
+
+    // Returns an idle connection, or null after reserving a slot for a new one; waits while the pool is exhausted
+    private PooledTransport takeIdleOrReserve(long deadline) {
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new MailSendException("SMTP transport pool is closed");
+                }
+                PooledTransport transport = idle.pollFirst();
+                if (transport != null) {
+                    return transport;
+                }
+                if (open < maxConnections) {
+                    open++;
+                    return null;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new MailSendException("Timed out waiting for an SMTP connection");
+                }
+                released.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted waiting for an SMTP connection");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(PooledTransport transport) {
+        if (transport.isExhausted()) {
+            discard(transport);
+            return;
+        }
+        transport.lastUsed = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (!closed) {
+                idle.addFirst(transport);
+                released.signal();
+                return;
+            }
+            open--;
+        } finally {
+            lock.unlock();
+        }
+        transport.close();
+    }
+
+    // Gives up a connection slot; the transport (if any) is closed
+    private void discard(PooledTransport transport) {
+        lock.lock();
+        try {
+            open--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return new PooledTransport(transport);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.mail.pool.eviction-interval-ms:30000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        List<PooledTransport> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<PooledTransport> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                PooledTransport transport = iterator.next();
+                if (now - transport.lastUsed >= idleTimeoutMillis) {
+                    iterator.remove();
+                    evicted.add(transport);
+                    open--;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(PooledTransport::close);
+        if (!evicted.isEmpty()) {
+            log.debug("Closed {} idle SMTP connection(s)", evicted.size());
+        }
+    }
+
+    public int openConnections() {
+        lock.lock();
+        try {
+            return open;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        List<PooledTransport> remaining;
+        lock.lock();
+        try {
+            closed = true;
+            remaining = new ArrayList<>(idle);
+            open -= idle.size();
+            idle.clear();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        remaining.forEach(PooledTransport::close);
+        senders.shutdown();
+    }
+
+    final class PooledTransport {
+
+        private final Transport transport;
+        private long lastUsed = System.currentTimeMillis();
+        private int sent;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        // Throws IllegalStateException if the server has already closed the connection
+        void send(MimeMessage message) throws MessagingException {
+            // Same preparation JavaMailSenderImpl.send does before handing the message to the transport
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            String messageId = message.getMessageID();
+            message.saveChanges();
+            if (messageId != null) {
+                message.setHeader("Message-ID", messageId);
+            }
+            transport.sendMessage(message, message.getAllRecipients());
+            sent++;
+        }
+
+        private boolean isExhausted() {
+            return sent >= maxMessagesPerConnection;
+        }
+
+        // An idle connection is handed out again only while it is fresh and still under its message cap;
+        // isConnected() costs a NOOP round trip, which is why it is checked once per borrow and not per message
+        private boolean isReusable(long now) {
+            return now - lastUsed < idleTimeoutMillis && !isExhausted() && isConnected();
+        }
+
+        // SMTP reports a server hang-up mid-send as a SendFailedException too, so failures are told apart by asking
+        private boolean isConnected() {
+            return transport.isConnected();
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Error closing SMTP connection: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -20,6 +20,11 @@ public class UserMapper {
         return toDTO(user, null);
     }
 
+    // A copy carrying the token; stored idempotent responses are shared and never modified
+    public static UserDTO withToken(UserDTO dto, String token) {
+        return new UserDTO(dto.getId(), dto.getUsername(), dto.getEmail(), dto.getWalletBalance(), token);
+    }
+
     public static User toEntity(UserDTO dto) {
         User user = new User();
         user.setId(dto.getId());
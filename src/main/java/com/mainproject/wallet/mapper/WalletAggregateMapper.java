@@ -0,0 +1,23 @@
+package com.mainproject.wallet.mapper;
+
+import com.mainproject.wallet.dto.WalletAggregateDTO;
+import com.mainproject.wallet.model.WalletAggregate;
+
+import java.util.HashMap;
+
+public class WalletAggregateMapper {
+
+    public static WalletAggregateDTO toDTO(WalletAggregate aggregate) {
+        if (aggregate == null) {
+            return null;
+        }
+
+        WalletAggregateDTO dto = new WalletAggregateDTO();
+        dto.setUserId(aggregate.getUserId());
+        dto.setCounts(aggregate.getCounts() != null ? aggregate.getCounts() : new HashMap<>());
+        dto.setSums(aggregate.getSums() != null ? aggregate.getSums() : new HashMap<>());
+        dto.setCashbackTotal(aggregate.getCashbackTotal());
+        dto.setLastActivity(aggregate.getLastActivity());
+        return dto;
+    }
+}
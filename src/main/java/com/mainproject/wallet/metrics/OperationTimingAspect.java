@@ -0,0 +1,49 @@
+package com.mainproject.wallet.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times {@link TimedOperation} methods. Ordered outermost, ahead of ConflictRetryAspect and the
+ * transaction interceptor, so retries and commit are part of the measured time.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OperationTimingAspect {
+
+    private final WalletMetrics metrics;
+
+    public OperationTimingAspect(WalletMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Around(value = "@annotation(timedOperation)", argNames = "joinPoint,timedOperation")
+    public Object time(ProceedingJoinPoint joinPoint, TimedOperation timedOperation) throws Throwable {
+        String operation = timedOperation.value();
+        long started = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            metrics.recordOperation(operation, System.nanoTime() - started, e);
+            throw e;
+        }
+        if (result instanceof Mono<?> mono) {
+            // Nothing has run yet; the work happens when the caller subscribes
+            return Mono.defer(() -> {
+                long subscribed = System.nanoTime();
+                return mono
+                        .doOnSuccess(value -> metrics.recordOperation(operation, System.nanoTime() - subscribed, null))
+                        .doOnError(error -> metrics.recordOperation(operation, System.nanoTime() - subscribed, error));
+            });
+        }
+        metrics.recordOperation(operation, System.nanoTime() - started, null);
+        return result;
+    }
+}
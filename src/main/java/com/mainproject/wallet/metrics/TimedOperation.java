@@ -0,0 +1,19 @@
+package com.mainproject.wallet.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records the duration and outcome of a service call in the {@code wallet.operation} timer. The
+ * timing wraps conflict retries, so it is the latency the caller sees. Methods returning a Mono are
+ * timed from subscription until they complete.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TimedOperation {
+
+    // The "operation" tag; a fixed name, shared by the servlet and reactive variants of a call
+    String value();
+}
@@ -0,0 +1,78 @@
+package com.mainproject.wallet.metrics;
+
+import com.mainproject.wallet.exception.WalletException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters recorded from inside the wallet services. Every tag value comes from a fixed set: operation
+ * names from {@link TimedOperation} and outcomes from this application's exception types, never
+ * from usernames, amounts or other request data.
+ */
+@Component
+public class WalletMetrics {
+
+    static final String OPERATION_TIMER = "wallet.operation";
+
+    private final MeterRegistry registry;
+    private final Counter insufficientFunds;
+    private final DistributionSummary cashback;
+
+    public WalletMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.insufficientFunds = Counter.builder("wallet.transfer.insufficient.funds")
+                .description("Transfers rejected because the sender's balance did not cover the amount")
+                .register(registry);
+        this.cashback = DistributionSummary.builder("wallet.cashback.amount")
+                .description("Cashback credited per recharge")
+                .baseUnit("paise")
+                .register(registry);
+    }
+
+    public void recordOperation(String operation, long nanos, Throwable failure) {
+        Timer.builder(OPERATION_TIMER)
+                .description("Wallet service calls, including conflict retries")
+                .tag("operation", operation)
+                .tag("outcome", outcome(failure))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordInsufficientFunds() {
+        insufficientFunds.increment();
+    }
+
+    // Inside a transaction the amount is counted on commit, so a retried or rolled-back recharge is not counted twice
+    public void recordCashback(long amount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cashback.record(amount);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cashback.record(amount);
+            }
+        });
+    }
+
+    // The exception's simple name when it is one of ours (a handful of types), otherwise just "error"
+    static String outcome(Throwable failure) {
+        if (failure == null) {
+            return "success";
+        }
+        Class<?> type = failure.getClass();
+        return type.getPackageName().equals(WalletException.class.getPackageName()) ? type.getSimpleName() : "error";
+    }
+}
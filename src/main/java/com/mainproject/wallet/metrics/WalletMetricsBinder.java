@@ -0,0 +1,84 @@
+package com.mainproject.wallet.metrics;
+
+import com.mainproject.wallet.mail.SmtpTransportPool;
+import com.mainproject.wallet.retry.RetryStatistics;
+import com.mainproject.wallet.security.PasswordHashingService;
+import com.mainproject.wallet.security.PasswordHashingStatistics;
+import com.mainproject.wallet.service.OutboxDispatcher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the counters and queue sizes the application already keeps. Nothing is counted twice:
+ * the meters read RetryStatistics, PasswordHashingStatistics and the pools when they are scraped.
+ */
+@Component
+public class WalletMetricsBinder implements MeterBinder {
+
+    private final RetryStatistics retryStatistics;
+    private final PasswordHashingStatistics hashingStatistics;
+    private final PasswordHashingService passwordHashingService;
+    private final SmtpTransportPool smtpTransportPool;
+    private final OutboxDispatcher outboxDispatcher;
+
+    public WalletMetricsBinder(RetryStatistics retryStatistics, PasswordHashingStatistics hashingStatistics,
+                               PasswordHashingService passwordHashingService, SmtpTransportPool smtpTransportPool,
+                               OutboxDispatcher outboxDispatcher) {
+        this.retryStatistics = retryStatistics;
+        this.hashingStatistics = hashingStatistics;
+        this.passwordHashingService = passwordHashingService;
+        this.smtpTransportPool = smtpTransportPool;
+        this.outboxDispatcher = outboxDispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("wallet.retry.conflicts", retryStatistics, RetryStatistics::getConflicts)
+                .description("Optimistic-lock conflicts and transient transaction errors seen by wallet operations")
+                .register(registry);
+        FunctionCounter.builder("wallet.retry.retries", retryStatistics, RetryStatistics::getRetries)
+                .description("Wallet operations started again after a conflict")
+                .register(registry);
+        FunctionCounter.builder("wallet.retry.give.ups", retryStatistics, RetryStatistics::getGiveUps)
+                .description("Wallet operations that ran out of attempts or time budget")
+                .register(registry);
+        FunctionCounter.builder("wallet.retry.commit.retries", retryStatistics, RetryStatistics::getCommitRetries)
+                .description("Commits re-sent after an unknown commit result")
+                .register(registry);
+
+        FunctionCounter.builder("wallet.password.operations", hashingStatistics, PasswordHashingStatistics::getOperations)
+                .description("Password hashes and verifications run")
+                .register(registry);
+        FunctionCounter.builder("wallet.password.rejections", hashingStatistics, PasswordHashingStatistics::getRejections)
+                .description("Password operations turned away because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("wallet.password.timeouts", hashingStatistics, PasswordHashingStatistics::getTimeouts)
+                .description("Password operations that did not finish within the timeout")
+                .register(registry);
+        FunctionCounter.builder("wallet.password.queue.wait", hashingStatistics, stats -> stats.getQueueWaitMillis() / 1000.0)
+                .description("Total time password operations waited for a worker")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("wallet.password.hash.time", hashingStatistics, stats -> stats.getHashMillis() / 1000.0)
+                .description("Total time spent in bcrypt")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("wallet.password.queue.depth", passwordHashingService, PasswordHashingService::getQueueDepth)
+                .description("Password operations waiting for a hashing worker")
+                .register(registry);
+
+        Gauge.builder("wallet.mail.connections.open", smtpTransportPool, SmtpTransportPool::openConnections)
+                .description("Open pooled SMTP connections")
+                .register(registry);
+        Gauge.builder("wallet.outbox.backlog", outboxDispatcher, OutboxDispatcher::getLastBacklogSize)
+                .description("Email outbox messages pending or being sent, as of the last backlog report")
+                .register(registry);
+        Gauge.builder("wallet.outbox.oldest.pending.age", outboxDispatcher, dispatcher -> dispatcher.getLastOldestPendingAge().toMillis() / 1000.0)
+                .description("Age of the oldest undelivered email, as of the last backlog report")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.mainproject.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One slice of a hot account's balance. A striped account keeps its money in N of these instead of
+ * {@link User#getWalletBalance()}, so concurrent credits land on different documents; the balance
+ * is their sum.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceStripe {
+    @Id
+    private String id; // userId:index, so a stripe is addressed without a lookup
+    private String userId;
+    private int index;
+    private long balance; // Paise
+}
@@ -0,0 +1,21 @@
+package com.mainproject.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Cashback granted so far by one campaign, summed over all instances. Each instance counts its
+ * grants in memory and adds them here with $inc when it reconciles.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashbackBudget {
+    @Id
+    private String campaignId;
+    private long spent; // Paise
+}
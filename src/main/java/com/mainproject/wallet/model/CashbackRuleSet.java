@@ -0,0 +1,52 @@
+package com.mainproject.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The cashback rules in force, edited in Mongo and picked up by CashbackEngine without a restart.
+ * Only the document with id {@link #ACTIVE} is read; without it the cashback.*.percent properties
+ * apply to every recharge. The first campaign that is running and has a tier for the amount wins.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashbackRuleSet {
+
+    public static final String ACTIVE = "active";
+
+    @Id
+    private String id;
+    private long dailyCapPerUser; // Paise of cashback one user can earn per day; 0 means no cap
+    private List<Campaign> campaigns = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Campaign {
+        private String id;               // Also the id of its CashbackBudget
+        private LocalDateTime startsAt;  // Inclusive; null means already running
+        private LocalDateTime endsAt;    // Exclusive; null means open-ended
+        private long budget;             // Paise of cashback across all users; 0 means unlimited
+        private List<Tier> tiers = new ArrayList<>();
+    }
+
+    // Applies to recharges of at least minAmount, up to the next tier's minAmount
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tier {
+        private long minAmount;      // Paise
+        private double lowerPercent;
+        private double upperPercent;
+        private long maxCashback;    // Paise per recharge; 0 means no cap
+    }
+}
@@ -0,0 +1,34 @@
+package com.mainproject.wallet.model;
+
+import java.util.Locale;
+
+/**
+ * A client's Idempotency-Key, scoped to the caller so two users cannot collide on the same key.
+ * The fingerprint describes the request (operation, counterparty, amount); a key replayed with a
+ * different request is rejected instead of answered with the first request's result.
+ */
+public record IdempotencyKey(String id, String fingerprint) {
+
+    public static final String HEADER = "Idempotency-Key";
+    static final int MAX_LENGTH = 255;
+
+    public static IdempotencyKey forRecharge(String userId, String headerValue, long amount) {
+        return of(userId, headerValue, "recharge:" + amount);
+    }
+
+    public static IdempotencyKey forTransfer(String userId, String headerValue, String toUsername, long amount) {
+        return of(userId, headerValue, "transfer:" + toUsername.toLowerCase(Locale.ROOT) + ":" + amount);
+    }
+
+    // Null when the client sent no key, so the request runs without deduplication
+    public static IdempotencyKey of(String userId, String headerValue, String fingerprint) {
+        if (headerValue == null) {
+            return null;
+        }
+        String key = headerValue.trim();
+        if (key.isEmpty() || key.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_LENGTH + " characters");
+        }
+        return new IdempotencyKey(userId + ":" + key, fingerprint);
+    }
+}
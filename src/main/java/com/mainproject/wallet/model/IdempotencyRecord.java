@@ -0,0 +1,26 @@
+package com.mainproject.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored result of a recharge or transfer sent with an Idempotency-Key. Inserted in the same
+ * transaction as the balance change, so a committed operation always has its record and a replay
+ * never runs it twice. Removed by a TTL index once clients can no longer be retrying.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    private String id;              // IdempotencyKey.id(): userId:key
+    private String fingerprint;
+    private Object response;        // RechargeResponseDTO or UserDTO, as returned the first time
+    private LocalDateTime createdAt;
+}
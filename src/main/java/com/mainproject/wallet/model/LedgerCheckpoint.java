@@ -0,0 +1,25 @@
+package com.mainproject.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The last journal sequence of a ledger engine shard that is stored in Mongo. Written in the same
+ * transaction as the entries up to it, so recovery replays exactly the journal entries after it.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerCheckpoint {
+    @Id
+    private String id; // shard-<index>
+    private long sequence;
+
+    public static String idOf(int shard) {
+        return "shard-" + shard;
+    }
+}
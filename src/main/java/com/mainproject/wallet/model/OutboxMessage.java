@@ -0,0 +1,37 @@
+package com.mainproject.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification the wallet has committed to sending. Written in the same transaction as the ledger
+ * change that caused it and delivered later by the OutboxDispatcher.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+    @Id
+    private String id;
+    private String type;                  // OutboxENUM notification type
+    private String recipientEmail;
+    private String recipientUsername;
+    private String counterpartyUsername;  // The other side of a transfer
+    private long amount;                  // Paise
+    private long cashbackAmount;          // Paise
+
+    private String status;                // OutboxENUM delivery state
+    private int attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime claimedAt;
+    private String claimedBy;             // Dispatcher instance holding the claim
+    private LocalDateTime sentAt;
+    private String lastError;
+}
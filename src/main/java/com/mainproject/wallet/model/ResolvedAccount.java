@@ -0,0 +1,12 @@
+package com.mainproject.wallet.model;
+
+/**
+ * The parts of a user that the wallet, ledger and notification paths need, loaded once per request
+ * and passed along instead of re-querying by username.
+ */
+public record ResolvedAccount(String id, String username, String email) {
+
+    public static ResolvedAccount of(User user) {
+        return new ResolvedAccount(user.getId(), user.getUsername(), user.getEmail());
+    }
+}
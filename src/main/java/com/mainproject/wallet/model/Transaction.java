@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 
+@Document
 @Data
 @Component
 @NoArgsConstructor
@@ -15,7 +16,7 @@ public class Transaction {
     @Id
     private String id;
     private String userId;  // The ID of the user who made the transaction
-    private double amount;
+    private long amount; // Paise
     private LocalDateTime timestamp;
     private String type; // Transaction type (e.g., "Recharge", "Sent", "Received")
 
@@ -0,0 +1,37 @@
+package com.mainproject.wallet.model;
+
+import com.mainproject.wallet.constant.TransactionENUM;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transfer as one double-entry ledger document: the debit leg (sender) and the credit leg
+ * (receiver) are stored together, so a transfer is a single insert instead of a Sent and a Received
+ * Transaction. Each party's history shows it as their own Sent or Received row, see {@link #legOf}.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferEntry {
+    @Id
+    private String id;
+    private long amount; // Paise, debited from the sender and credited to the receiver
+    private LocalDateTime timestamp;
+
+    private String senderId;
+    private String senderUsername;
+    private String receiverId;
+    private String receiverUsername;
+
+    // The transfer as one party sees it: Sent for the sender, Received for the receiver
+    public Transaction legOf(String userId) {
+        String type = userId.equals(senderId) ? TransactionENUM.SENT : TransactionENUM.RECEIVED;
+        return new Transaction(id, userId, amount, timestamp, type, senderId, senderUsername, receiverId, receiverUsername);
+    }
+}
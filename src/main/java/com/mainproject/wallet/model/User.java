@@ -22,7 +22,9 @@ public class User {
     @NotNull
     private String email;
     @Min(value = 0, message = "Minimum balance to be maintained")
-    private double walletBalance;
+    private long walletBalance; // Paise, stored as NumberLong
+    // 0 for a normal account; otherwise the balance is spread over this many BalanceStripe documents and walletBalance stays 0
+    private int balanceStripes;
 
     // Optimistic Locking field
     @Version
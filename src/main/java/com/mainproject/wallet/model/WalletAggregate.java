@@ -0,0 +1,28 @@
+package com.mainproject.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running totals for one user, kept up to date with $inc on every ledger write so totals never
+ * require replaying the transaction history. Keyed by the user's id.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletAggregate {
+    @Id
+    private String userId;
+    private Map<String, Long> counts = new HashMap<>();  // Number of transactions per TransactionENUM type
+    private Map<String, Long> sums = new HashMap<>();    // Total paise per TransactionENUM type
+    private long cashbackTotal;                          // Lifetime cashback earned, in paise
+    private LocalDateTime lastActivity;                  // Timestamp of the most recent transaction
+}
@@ -0,0 +1,134 @@
+package com.mainproject.wallet.repository;
+
+import com.mainproject.wallet.model.BalanceStripe;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balance updates for striped (hot) accounts. Credits $inc one randomly chosen stripe, so N
+ * concurrent payments to the same merchant touch up to N different documents instead of all
+ * conflicting on the user. Debits are rarer and may draw from several stripes; they must run inside
+ * the caller's transaction so a partial draw is rolled back when a later stripe has changed.
+ */
+@Repository
+public class BalanceStripeRepository {
+
+    private static final String BALANCE = "balance";
+
+    private final MongoTemplate mongoTemplate;
+
+    public BalanceStripeRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // An amount to take from one stripe, conditional on the stripe still holding it
+    public record Draw(String stripeId, long amount) {
+    }
+
+    // Adds the amount to a random stripe; false when that stripe does not exist (the account was just re-striped)
+    public boolean creditAnyStripe(String userId, int stripes, long amount) {
+        Query query = stripe(stripeId(userId, ThreadLocalRandom.current().nextInt(stripes)));
+        return mongoTemplate.updateFirst(query, credit(amount), BalanceStripe.class).getMatchedCount() == 1;
+    }
+
+    // False when the stripes together hold less than the amount
+    public boolean debitIfSufficient(String userId, long amount) {
+        List<Draw> draws = plan(mongoTemplate.find(stripesOf(userId), BalanceStripe.class), amount, ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+        if (draws == null) {
+            return false;
+        }
+        for (Draw draw : draws) {
+            if (mongoTemplate.updateFirst(drawQuery(draw), credit(-draw.amount()), BalanceStripe.class).getModifiedCount() != 1) {
+                // Another debit got there first; the retry layer re-runs the whole transaction
+                throw new OptimisticLockingFailureException("Balance stripe " + draw.stripeId() + " changed during a debit");
+            }
+        }
+        return true;
+    }
+
+    public long total(String userId) {
+        return sum(mongoTemplate.find(stripesOf(userId), BalanceStripe.class));
+    }
+
+    // Spreads the amount evenly over new stripes 0..count-1; the last one takes the rounding remainder
+    public void split(String userId, int count, long amount) {
+        mongoTemplate.insertAll(slices(userId, count, amount));
+    }
+
+    // Removes all of the account's stripes and returns what they held
+    public long collapse(String userId) {
+        return sum(mongoTemplate.findAllAndRemove(stripesOf(userId), BalanceStripe.class));
+    }
+
+    /**
+     * Chooses which stripes pay the amount, or returns null when they hold too little. One stripe
+     * normally covers a payment; the search starts at {@code start} modulo the stripe count so
+     * concurrent debits spread over the stripes. Otherwise the amount is drawn from several.
+     */
+    public static List<Draw> plan(List<BalanceStripe> stripes, long amount, int start) {
+        if (stripes.isEmpty() || sum(stripes) < amount) {
+            return null;
+        }
+        for (int i = 0; i < stripes.size(); i++) {
+            BalanceStripe stripe = stripes.get((start + i) % stripes.size());
+            if (stripe.getBalance() >= amount) {
+                return List.of(new Draw(stripe.getId(), amount));
+            }
+        }
+        List<Draw> draws = new ArrayList<>();
+        long remaining = amount;
+        for (BalanceStripe stripe : stripes) {
+            long part = Math.min(stripe.getBalance(), remaining);
+            if (part > 0) {
+                draws.add(new Draw(stripe.getId(), part));
+                remaining -= part;
+            }
+            if (remaining <= 0) {
+                break;
+            }
+        }
+        return draws;
+    }
+
+    public static List<BalanceStripe> slices(String userId, int count, long amount) {
+        long share = amount / count;
+        List<BalanceStripe> stripes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long slice = i < count - 1 ? share : amount - share * (count - 1);
+            stripes.add(new BalanceStripe(stripeId(userId, i), userId, i, slice));
+        }
+        return stripes;
+    }
+
+    public static String stripeId(String userId, int index) {
+        return userId + ":" + index;
+    }
+
+    public static Query stripe(String stripeId) {
+        return new Query(Criteria.where("_id").is(stripeId));
+    }
+
+    public static Query stripesOf(String userId) {
+        return new Query(Criteria.where("userId").is(userId));
+    }
+
+    public static Query drawQuery(Draw draw) {
+        return new Query(Criteria.where("_id").is(draw.stripeId()).and(BALANCE).gte(draw.amount()));
+    }
+
+    public static Update credit(long amount) {
+        return new Update().inc(BALANCE, amount);
+    }
+
+    public static long sum(List<BalanceStripe> stripes) {
+        return stripes.stream().mapToLong(BalanceStripe::getBalance).sum();
+    }
+}
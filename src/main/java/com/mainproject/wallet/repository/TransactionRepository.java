@@ -2,13 +2,18 @@ package com.mainproject.wallet.repository;
 
 import com.mainproject.wallet.model.Transaction;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TransactionRepository extends MongoRepository<Transaction, String> {
-    List<Transaction> findByUserId(String userId);
+public interface TransactionRepository extends MongoRepository<Transaction, String>, TransactionRepositoryCustom {
+    // Type filter and projection run on the server, newest first, using user_type_timestamp_idx
+    @Query(value = "{ 'userId': ?0, 'type': ?1 }",
+            fields = "{ 'userId': 1, 'amount': 1, 'timestamp': 1, 'type': 1, 'senderId': 1, 'senderUsername': 1, 'receiverId': 1, 'receiverUsername': 1 }",
+            sort = "{ 'timestamp': -1, '_id': -1 }")
+    List<Transaction> findByUserIdAndType(String userId, String type);
     Optional<Transaction> findById(String transactionId);
 }
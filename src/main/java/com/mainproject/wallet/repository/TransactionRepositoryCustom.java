@@ -0,0 +1,32 @@
+package com.mainproject.wallet.repository;
+
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.utils.TransactionCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * A user's history is their own Transaction rows (recharges, cashback, transfers recorded before
+ * TransferEntry existed) merged with their side of each TransferEntry, newest first.
+ */
+public interface TransactionRepositoryCustom {
+
+    // Whole history, newest first
+    List<Transaction> findByUserId(String userId);
+
+    // Newest-first slice of a user's history strictly after the cursor, optionally narrowed on the server by type and
+    // a [from, to) time window; null filters are ignored, and at most limit documents are read per collection
+    List<Transaction> findPageByUserId(String userId, String type, LocalDateTime from, LocalDateTime to, TransactionCursor after, int limit);
+
+    // Whole history, newest first, pulled lazily from server cursors; the caller must close the stream
+    Stream<Transaction> streamByUserId(String userId);
+
+    // Both legs of a transfer in one insert
+    void insertTransfer(TransferEntry transfer);
+
+    Optional<TransferEntry> findTransferById(String transferId);
+}
@@ -0,0 +1,217 @@
+package com.mainproject.wallet.repository;
+
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.utils.TransactionCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Keyset pagination over the (userId, timestamp desc, _id desc) index and the matching sender and
+ * receiver indexes on TransferEntry: each page is a bounded index range scan per collection that
+ * starts where the previous one stopped, so deep pages cost the same as the first. The two sorted
+ * results are merged into one newest-first history.
+ */
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    static final String[] LISTING_FIELDS = {"userId", "amount", "timestamp", "type", "senderId", "senderUsername", "receiverId", "receiverUsername"};
+    static final String[] TRANSFER_FIELDS = {"amount", "timestamp", "senderId", "senderUsername", "receiverId", "receiverUsername"};
+
+    // Documents fetched per getMore while streaming; bounds memory regardless of history size
+    static final int STREAM_BATCH_SIZE = 500;
+
+    static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp").and(Sort.by(Sort.Direction.DESC, "id"));
+
+    // NEWEST_FIRST applied in memory; ObjectId hex strings sort like the ObjectIds themselves
+    public static final Comparator<Transaction> NEWEST_FIRST_ORDER =
+            Comparator.comparing(Transaction::getTimestamp).thenComparing(Transaction::getId).reversed();
+
+    private final MongoTemplate mongoTemplate;
+
+    public TransactionRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Transaction> findByUserId(String userId) {
+        try (Stream<Transaction> history = streamByUserId(userId)) {
+            return history.toList();
+        }
+    }
+
+    @Override
+    public List<Transaction> findPageByUserId(String userId, String type, LocalDateTime from, LocalDateTime to, TransactionCursor after, int limit) {
+        List<Transaction> rows = mongoTemplate.find(pageQuery(userId, type, from, to, after, limit), Transaction.class);
+        Query transfers = transferPageQuery(userId, type, from, to, after, limit);
+        if (transfers == null) {
+            return rows;
+        }
+        List<Transaction> legs = mongoTemplate.find(transfers, TransferEntry.class).stream()
+                .map(transfer -> transfer.legOf(userId))
+                .toList();
+        return mergeNewestFirst(rows, legs, limit);
+    }
+
+    @Override
+    public Stream<Transaction> streamByUserId(String userId) {
+        Stream<Transaction> rows = mongoTemplate.stream(historyQuery(userId), Transaction.class);
+        Stream<Transaction> legs = mongoTemplate.stream(transferHistoryQuery(userId), TransferEntry.class)
+                .map(transfer -> transfer.legOf(userId));
+        Iterator<Transaction> merged = new NewestFirstIterator(rows.iterator(), legs.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(rows::close)
+                .onClose(legs::close);
+    }
+
+    @Override
+    public void insertTransfer(TransferEntry transfer) {
+        mongoTemplate.insert(transfer);
+    }
+
+    @Override
+    public Optional<TransferEntry> findTransferById(String transferId) {
+        return Optional.ofNullable(mongoTemplate.findById(transferId, TransferEntry.class));
+    }
+
+    // Shared with the reactive services, which run the same queries on ReactiveMongoTemplate
+    public static Query pageQuery(String userId, String type, LocalDateTime from, LocalDateTime to, TransactionCursor after, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (type != null) {
+            criteria = criteria.and("type").is(type); // Served by user_type_timestamp_idx
+        }
+        Query query = new Query(narrow(criteria, from, to, after)).with(NEWEST_FIRST).limit(limit);
+        includeListingFields(query);
+        return query;
+    }
+
+    // The user's side of their transfers; null when the type filter leaves transfers out (recharges, cashback)
+    public static Query transferPageQuery(String userId, String type, LocalDateTime from, LocalDateTime to, TransactionCursor after, int limit) {
+        List<Criteria> legs = transferLegs(userId, type);
+        if (legs.isEmpty()) {
+            return null;
+        }
+        // Window and cursor go into each branch so both branches stay bounded index scans
+        legs.replaceAll(leg -> narrow(leg, from, to, after));
+        Query query = new Query(anyOf(legs)).with(NEWEST_FIRST).limit(limit);
+        query.fields().include(TRANSFER_FIELDS);
+        return query;
+    }
+
+    // A user's whole history, newest first, fetched in bounded batches
+    public static Query historyQuery(String userId) {
+        Query query = new Query(Criteria.where("userId").is(userId)).with(NEWEST_FIRST).cursorBatchSize(STREAM_BATCH_SIZE);
+        includeListingFields(query);
+        return query;
+    }
+
+    public static Query transferHistoryQuery(String userId) {
+        Query query = new Query(anyOf(transferLegs(userId, null))).with(NEWEST_FIRST).cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include(TRANSFER_FIELDS);
+        return query;
+    }
+
+    // Both lists must already be newest first; keeps at most limit rows
+    public static List<Transaction> mergeNewestFirst(List<Transaction> rows, List<Transaction> legs, int limit) {
+        List<Transaction> merged = new ArrayList<>(Math.min(limit, rows.size() + legs.size()));
+        Iterator<Transaction> iterator = new NewestFirstIterator(rows.iterator(), legs.iterator());
+        while (merged.size() < limit && iterator.hasNext()) {
+            merged.add(iterator.next());
+        }
+        return merged;
+    }
+
+    // Sent rows come from transfer_sender_timestamp_idx, Received rows from transfer_receiver_timestamp_idx
+    static List<Criteria> transferLegs(String userId, String type) {
+        List<Criteria> legs = new ArrayList<>(2);
+        if (type == null || TransactionENUM.SENT.equals(type)) {
+            legs.add(Criteria.where("senderId").is(userId));
+        }
+        if (type == null || TransactionENUM.RECEIVED.equals(type)) {
+            legs.add(Criteria.where("receiverId").is(userId));
+        }
+        return legs;
+    }
+
+    private static Criteria anyOf(List<Criteria> legs) {
+        return legs.size() == 1 ? legs.get(0) : new Criteria().orOperator(legs);
+    }
+
+    private static Criteria narrow(Criteria criteria, LocalDateTime from, LocalDateTime to, TransactionCursor after) {
+        if (from != null || to != null) {
+            Criteria window = criteria.and("timestamp");
+            if (from != null) {
+                window.gte(from);
+            }
+            if (to != null) {
+                window.lt(to);
+            }
+        }
+        if (after != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("timestamp").lt(after.timestamp()),
+                    Criteria.where("timestamp").is(after.timestamp()).and("id").lt(after.id()));
+        }
+        return criteria;
+    }
+
+    // Only the fields TransactionDTO exposes; leaves out _class and anything added to the document later
+    static void includeListingFields(Query query) {
+        query.fields().include(LISTING_FIELDS);
+    }
+
+    // Merges two newest-first iterators without buffering either
+    private static final class NewestFirstIterator implements Iterator<Transaction> {
+
+        private final Iterator<Transaction> first;
+        private final Iterator<Transaction> second;
+        private Transaction nextFirst;
+        private Transaction nextSecond;
+
+        NewestFirstIterator(Iterator<Transaction> first, Iterator<Transaction> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextFirst == null && first.hasNext()) {
+                nextFirst = first.next();
+            }
+            if (nextSecond == null && second.hasNext()) {
+                nextSecond = second.next();
+            }
+            return nextFirst != null || nextSecond != null;
+        }
+
+        @Override
+        public Transaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transaction next;
+            if (nextSecond == null || (nextFirst != null && NEWEST_FIRST_ORDER.compare(nextFirst, nextSecond) <= 0)) {
+                next = nextFirst;
+                nextFirst = null;
+            } else {
+                next = nextSecond;
+                nextSecond = null;
+            }
+            return next;
+        }
+    }
+}
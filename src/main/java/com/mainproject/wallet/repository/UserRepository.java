@@ -2,10 +2,15 @@ package com.mainproject.wallet.repository;
 
 import com.mainproject.wallet.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
-    User findByUsernameIgnoreCase(String username); // Existing method
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
+    // Exact match under a case-insensitive collation so the query can use the username_ci_unique index
+    @Query(value = "{ 'username': ?0 }", collation = "{ 'locale': 'en', 'strength': 2 }")
+    User findByUsernameIgnoreCase(String username);
+
+    @Query(value = "{ 'email': ?0 }", collation = "{ 'locale': 'en', 'strength': 2 }")
     User findByEmail(String email); // New method for checking email
 }
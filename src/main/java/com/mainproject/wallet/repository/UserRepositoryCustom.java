@@ -0,0 +1,18 @@
+package com.mainproject.wallet.repository;
+
+import com.mainproject.wallet.model.User;
+
+public interface UserRepositoryCustom {
+
+    // Atomically subtracts the amount only when the current balance covers it; returns false otherwise
+    boolean debitIfSufficient(String userId, long amount);
+
+    // Atomically adds the amount and returns the updated user, or null when the user does not exist
+    User credit(String userId, long amount);
+
+    // Fills walletBalance from the stripes of a striped account; other users are returned unchanged
+    User withCurrentBalance(User user);
+
+    // Replaces the password hash only if it is still the one the caller verified against; returns false otherwise
+    boolean replacePasswordHash(String userId, String expectedHash, String newHash);
+}
@@ -0,0 +1,90 @@
+package com.mainproject.wallet.repository;
+
+import com.mainproject.wallet.model.User;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Server-side balance updates. Each call is a single conditional $inc, so the balance is never
+ * read into the application and concurrent writers cannot overwrite each other's changes.
+ * Striped (hot) accounts keep their balance in {@link BalanceStripeRepository} instead; the $inc on
+ * the user only matches unstriped accounts, and a miss falls through to the stripes.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String BALANCE = "walletBalance";
+    private static final String VERSION = "version";
+    private static final String STRIPES = "balanceStripes";
+
+    private final MongoTemplate mongoTemplate;
+    private final BalanceStripeRepository balanceStripeRepository;
+
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate, BalanceStripeRepository balanceStripeRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.balanceStripeRepository = balanceStripeRepository;
+    }
+
+    @Override
+    public boolean debitIfSufficient(String userId, long amount) {
+        Query query = new Query(unstriped(userId).and(BALANCE).gte(amount));
+        // Bump the version as well so any full-document save based on a stale copy still fails
+        Update update = new Update().inc(BALANCE, -amount).inc(VERSION, 1);
+        if (mongoTemplate.updateFirst(query, update, User.class).getModifiedCount() == 1) {
+            return true;
+        }
+        return stripeCount(userId) > 0 && balanceStripeRepository.debitIfSufficient(userId, amount);
+    }
+
+    @Override
+    public User credit(String userId, long amount) {
+        Query query = new Query(unstriped(userId));
+        Update update = new Update().inc(BALANCE, amount).inc(VERSION, 1);
+        User user = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), User.class);
+        if (user != null) {
+            return user;
+        }
+        // Either no such user or a striped one; the user document itself is not written for the latter
+        user = mongoTemplate.findById(userId, User.class);
+        if (user == null) {
+            return null;
+        }
+        if (user.getBalanceStripes() == 0 || !balanceStripeRepository.creditAnyStripe(userId, user.getBalanceStripes(), amount)) {
+            // Striped or unstriped by HotAccountService in between; the retry layer runs the operation again
+            throw new OptimisticLockingFailureException("Balance layout of user " + userId + " changed during a credit");
+        }
+        return withCurrentBalance(user);
+    }
+
+    @Override
+    public User withCurrentBalance(User user) {
+        if (user != null && user.getBalanceStripes() > 0) {
+            user.setWalletBalance(balanceStripeRepository.total(user.getId()));
+        }
+        return user;
+    }
+
+    @Override
+    public boolean replacePasswordHash(String userId, String expectedHash, String newHash) {
+        // Touches only the password field, so a rehash on login never races with balance updates
+        Query query = new Query(Criteria.where("id").is(userId).and("password").is(expectedHash));
+        Update update = new Update().set("password", newHash);
+        return mongoTemplate.updateFirst(query, update, User.class).getModifiedCount() == 1;
+    }
+
+    // 0 for an unstriped account and -1 when the user does not exist
+    private int stripeCount(String userId) {
+        Query query = new Query(Criteria.where("id").is(userId));
+        query.fields().include(STRIPES);
+        User user = mongoTemplate.findOne(query, User.class);
+        return user != null ? user.getBalanceStripes() : -1;
+    }
+
+    // Matches the user only while the balance lives on the document itself (balanceStripes absent or 0)
+    public static Criteria unstriped(String userId) {
+        return Criteria.where("id").is(userId).and(STRIPES).not().gt(0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.mainproject.wallet.retry;
+
+import com.mainproject.wallet.exception.WalletException;
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-runs {@link RetryOnConflict} methods with bounded attempts, jittered exponential backoff and a
+ * per-operation time budget. Ordered ahead of the transaction interceptor so each attempt gets its own
+ * transaction instead of retrying inside one that has already been aborted, and just inside
+ * OperationTimingAspect so the operation timer includes every attempt.
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConflictRetryAspect {
+
+    static final String CONFLICT_MESSAGE = "Concurrency conflict occurred while updating the balance. Please try again.";
+
+    private final RetryStatistics statistics;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long budgetMillis;
+
+    public ConflictRetryAspect(RetryStatistics statistics,
+                               @Value("${wallet.retry.max-attempts:4}") int maxAttempts,
+                               @Value("${wallet.retry.initial-backoff-ms:10}") long initialBackoffMillis,
+                               @Value("${wallet.retry.max-backoff-ms:200}") long maxBackoffMillis,
+                               @Value("${wallet.retry.budget-ms:1000}") long budgetMillis) {
+        this.statistics = statistics;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(1, initialBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+        this.budgetMillis = budgetMillis;
+    }
+
+    @Around("@annotation(com.mainproject.wallet.retry.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                statistics.recordConflict();
+
+                long backoff = backoffMillis(attempt);
+                if (attempt >= maxAttempts || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) > deadline) {
+                    statistics.recordGiveUp();
+                    log.warn("Giving up on {} after {} attempt(s): {}", operation, attempt, e.getMessage());
+                    throw new WalletException(CONFLICT_MESSAGE);
+                }
+
+                statistics.recordRetry();
+                log.debug("Retrying {} in {} ms after attempt {} failed: {}", operation, backoff, attempt, e.getMessage());
+                pause(backoff);
+            }
+        }
+    }
+
+    // Equal jitter: half of the exponential step is fixed, the other half random, so retries spread out but never collapse to zero
+    long backoffMillis(int attempt) {
+        long ceiling = initialBackoffMillis << Math.min(attempt - 1, 20);
+        ceiling = Math.min(ceiling, maxBackoffMillis);
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    static boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException) {
+                return true;
+            }
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletException(CONFLICT_MESSAGE);
+        }
+    }
+}
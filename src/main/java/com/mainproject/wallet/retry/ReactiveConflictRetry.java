@@ -0,0 +1,55 @@
+package com.mainproject.wallet.retry;
+
+import com.mainproject.wallet.exception.WalletException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * The reactive counterpart of {@link ConflictRetryAspect}: same settings, same retryable failures and
+ * same statistics, but the backoff is a timer instead of a sleeping thread. Apply it outside the
+ * transactional operator so every attempt resubscribes to a fresh transaction. The attempt cap and
+ * the backoff ceiling bound the total delay; {@code wallet.retry.budget-ms} is not used here.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConflictRetry {
+
+    private final RetryStatistics statistics;
+    private final Retry spec;
+
+    public ReactiveConflictRetry(RetryStatistics statistics,
+                                 @Value("${wallet.retry.max-attempts:4}") int maxAttempts,
+                                 @Value("${wallet.retry.initial-backoff-ms:10}") long initialBackoffMillis,
+                                 @Value("${wallet.retry.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.statistics = statistics;
+        long initial = Math.max(1, initialBackoffMillis);
+        this.spec = Retry.backoff(Math.max(1, maxAttempts) - 1, Duration.ofMillis(initial))
+                .maxBackoff(Duration.ofMillis(Math.max(initial, maxBackoffMillis)))
+                .jitter(0.5) // Equal jitter, as in the blocking aspect
+                .filter(ConflictRetryAspect::isRetryable)
+                .doBeforeRetry(signal -> {
+                    statistics.recordConflict();
+                    statistics.recordRetry();
+                    log.debug("Retrying after attempt {} failed: {}", signal.totalRetries() + 1, signal.failure().getMessage());
+                })
+                .onRetryExhaustedThrow((retrySpec, signal) -> giveUp(signal.failure()));
+    }
+
+    public <T> Mono<T> apply(Mono<T> operation) {
+        return operation.retryWhen(spec);
+    }
+
+    private WalletException giveUp(Throwable failure) {
+        statistics.recordConflict();
+        statistics.recordGiveUp();
+        log.warn("Giving up on wallet operation: {}", failure.getMessage());
+        return new WalletException(ConflictRetryAspect.CONFLICT_MESSAGE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.mainproject.wallet.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional wallet operation that is re-run from the start when it fails on an
+ * optimistic-lock conflict or a transient Mongo transaction error. The retry wraps the whole
+ * transaction, so every attempt starts a fresh one.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,46 @@
+package com.mainproject.wallet.retry;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class RetryStatistics {
+
+    private final LongAdder conflicts = new LongAdder();   // retryable failures seen
+    private final LongAdder retries = new LongAdder();     // attempts started again after a failure
+    private final LongAdder giveUps = new LongAdder();     // operations that ran out of attempts or budget
+    private final LongAdder commitRetries = new LongAdder(); // commits re-sent after an unknown commit result
+
+    public void recordConflict() {
+        conflicts.increment();
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    public void recordGiveUp() {
+        giveUps.increment();
+    }
+
+    public void recordCommitRetry() {
+        commitRetries.increment();
+    }
+
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getGiveUps() {
+        return giveUps.sum();
+    }
+
+    public long getCommitRetries() {
+        return commitRetries.sum();
+    }
+}
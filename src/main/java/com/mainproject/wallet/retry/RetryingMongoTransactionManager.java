@@ -0,0 +1,40 @@
+package com.mainproject.wallet.retry;
+
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Re-sends the commit when the server reports UnknownTransactionCommitResult. Only the commit is
+ * retried: re-running the whole wallet operation could apply a transfer twice if the first commit
+ * actually went through.
+ */
+@Slf4j
+public class RetryingMongoTransactionManager extends MongoTransactionManager {
+
+    private final RetryStatistics statistics;
+    private final int maxCommitAttempts;
+
+    public RetryingMongoTransactionManager(MongoDatabaseFactory databaseFactory, RetryStatistics statistics, int maxCommitAttempts) {
+        super(databaseFactory);
+        this.statistics = statistics;
+        this.maxCommitAttempts = Math.max(1, maxCommitAttempts);
+    }
+
+    @Override
+    protected void doCommit(MongoTransactionObject transactionObject) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionObject.commitTransaction();
+                return;
+            } catch (MongoException e) {
+                if (attempt >= maxCommitAttempts || !e.hasErrorLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)) {
+                    throw e;
+                }
+                statistics.recordCommitRetry();
+                log.warn("Commit result unknown, retrying commit (attempt {}): {}", attempt + 1, e.getMessage());
+            }
+        }
+    }
+}
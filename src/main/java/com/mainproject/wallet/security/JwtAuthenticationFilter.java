@@ -0,0 +1,68 @@
+package com.mainproject.wallet.security;
+
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.service.UserService;
+import com.mainproject.wallet.utils.JwtClaims;
+import com.mainproject.wallet.utils.JwtUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates wallet API requests from the bearer token, once per request and before Spring MVC
+ * runs. A valid token becomes a {@link WalletPrincipal} in the SecurityContext; anything else leaves
+ * the request unauthenticated, and the security chain answers 401 without reaching a controller.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final UserService userService;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService) {
+        this.jwtUtil = jwtUtil;
+        this.userService = userService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            WalletPrincipal principal = authenticate(jwtUtil.verify(header));
+            if (principal != null) {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+                SecurityContextHolder.setContext(context);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Tokens issued before the user id claim existed fall back to a (request-memoised) user lookup
+    private WalletPrincipal authenticate(JwtClaims claims) {
+        if (claims == null || claims.username() == null) {
+            return null;
+        }
+        if (claims.userId() != null) {
+            return new WalletPrincipal(claims.userId(), claims.username());
+        }
+        ResolvedAccount account = userService.resolveAccount(claims.username());
+        return account == null ? null : new WalletPrincipal(account.id(), claims.username());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/wallet/");
+    }
+}
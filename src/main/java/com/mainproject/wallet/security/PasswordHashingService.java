@@ -0,0 +1,184 @@
+package com.mainproject.wallet.security;
+
+import com.mainproject.wallet.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs bcrypt on a small dedicated pool instead of on request threads. At most one hash runs per
+ * worker and only {@code queue-capacity} more may wait; anything beyond that is rejected at once
+ * with a 503, so a login storm cannot occupy every Tomcat thread and starve wallet requests.
+ * <p>
+ * The workers stay platform threads in the {@code virtual} profile too: bcrypt is pure CPU work, and
+ * running it on virtual threads would let it monopolise the carrier threads that serve requests.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+    private static final String BUSY_MESSAGE = "Too many login attempts in progress, please retry shortly";
+
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingStatistics statistics;
+    private final ThreadPoolExecutor executor;
+    private final int cost;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, PasswordHashingStatistics statistics,
+                                  @Value("${wallet.password.threads:0}") int threads, // 0 = one per CPU
+                                  @Value("${wallet.password.queue-capacity:64}") int queueCapacity,
+                                  @Value("${wallet.password.timeout-ms:5000}") long timeoutMillis,
+                                  @Value("${wallet.password.retry-after-seconds:1}") long retryAfterSeconds,
+                                  @Value("${wallet.password.bcrypt-cost:10}") int cost) {
+        this.passwordEncoder = passwordEncoder;
+        this.statistics = statistics;
+        this.cost = cost;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "password-hash-" + count.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // Non-blocking variants for the reactive API: the same pool, queue bound and timeout, but the caller is never parked
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return submitAsync(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String encodedPassword) {
+        return submitAsync(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // True when the hash was made with a different bcrypt cost than the one configured now
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    // Hashes without making the caller wait; used for rehashing, which can simply be skipped when the pool is busy
+    public CompletableFuture<String> encodeInBackground(String rawPassword) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(timed(() -> passwordEncoder.encode(rawPassword), System.nanoTime()));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            statistics.recordRejection();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private <T> Future<T> submit(Callable<T> work) {
+        long submitted = System.nanoTime();
+        try {
+            return executor.submit(() -> timed(work, submitted));
+        } catch (RejectedExecutionException e) {
+            statistics.recordRejection();
+            throw new ServiceUnavailableException(BUSY_MESSAGE, retryAfterSeconds);
+        }
+    }
+
+    private <T> CompletableFuture<T> submitAsync(Callable<T> work) {
+        long submitted = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(timed(work, submitted));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            statistics.recordRejection();
+            return CompletableFuture.failedFuture(new ServiceUnavailableException(BUSY_MESSAGE, retryAfterSeconds));
+        }
+        return result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).exceptionallyCompose(error -> {
+            if (error instanceof TimeoutException || error.getCause() instanceof TimeoutException) {
+                task.cancel(true);
+                statistics.recordTimeout();
+                return CompletableFuture.failedFuture(new ServiceUnavailableException(BUSY_MESSAGE, retryAfterSeconds));
+            }
+            return CompletableFuture.failedFuture(error);
+        });
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            statistics.recordTimeout();
+            throw new ServiceUnavailableException(BUSY_MESSAGE, retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(BUSY_MESSAGE, retryAfterSeconds);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException; // e.g. IllegalArgumentException for a null password, as before
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private <T> T timed(Callable<T> work, long submitted) throws Exception {
+        long started = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            statistics.recordOperation(started - submitted, System.nanoTime() - started);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,50 @@
+package com.mainproject.wallet.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class PasswordHashingStatistics {
+
+    private final LongAdder operations = new LongAdder();     // hashes and verifications run
+    private final LongAdder rejections = new LongAdder();     // turned away because the queue was full
+    private final LongAdder timeouts = new LongAdder();       // waited longer than the timeout for a result
+    private final LongAdder queueWaitNanos = new LongAdder(); // time between submission and a worker picking it up
+    private final LongAdder hashNanos = new LongAdder();      // time spent in bcrypt itself
+
+    public void recordOperation(long queueWait, long hashTime) {
+        operations.increment();
+        queueWaitNanos.add(queueWait);
+        hashNanos.add(hashTime);
+    }
+
+    public void recordRejection() {
+        rejections.increment();
+    }
+
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    public long getOperations() {
+        return operations.sum();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getQueueWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.sum());
+    }
+
+    public long getHashMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(hashNanos.sum());
+    }
+}
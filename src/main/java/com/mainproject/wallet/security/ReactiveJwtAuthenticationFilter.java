@@ -0,0 +1,57 @@
+package com.mainproject.wallet.security;
+
+import com.mainproject.wallet.service.ReactiveUserService;
+import com.mainproject.wallet.utils.JwtClaims;
+import com.mainproject.wallet.utils.JwtUtil;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * WebFlux version of {@link JwtAuthenticationFilter}: a valid bearer token on a wallet API request
+ * puts a {@link WalletPrincipal} into the reactive security context; anything else continues
+ * unauthenticated and the security chain answers 401.
+ */
+public class ReactiveJwtAuthenticationFilter implements WebFilter {
+
+    private final JwtUtil jwtUtil;
+    private final ReactiveUserService userService;
+
+    public ReactiveJwtAuthenticationFilter(JwtUtil jwtUtil, ReactiveUserService userService) {
+        this.jwtUtil = jwtUtil;
+        this.userService = userService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (!exchange.getRequest().getPath().pathWithinApplication().value().startsWith("/api/wallet/")
+                || header == null || !header.startsWith(JwtAuthenticationFilter.BEARER_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        return authenticate(jwtUtil.verify(header))
+                .flatMap(principal -> chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                                new UsernamePasswordAuthenticationToken(principal, null, List.of())))
+                        .thenReturn(true))
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(false)))
+                .then();
+    }
+
+    // Tokens issued before the user id claim existed fall back to a user lookup
+    private Mono<WalletPrincipal> authenticate(JwtClaims claims) {
+        if (claims == null || claims.username() == null) {
+            return Mono.empty();
+        }
+        if (claims.userId() != null) {
+            return Mono.just(new WalletPrincipal(claims.userId(), claims.username()));
+        }
+        return userService.resolveAccount(claims.username()).map(account -> new WalletPrincipal(account.id(), claims.username()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.mainproject.wallet.security;
+
+/**
+ * The authenticated caller, put in the SecurityContext by {@link JwtAuthenticationFilter}.
+ * Controllers receive it with {@code @AuthenticationPrincipal}.
+ */
+public record WalletPrincipal(String userId, String username) {
+}
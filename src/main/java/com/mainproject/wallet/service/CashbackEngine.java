@@ -0,0 +1,276 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.cashback.CampaignBudget;
+import com.mainproject.wallet.cashback.CashbackGrant;
+import com.mainproject.wallet.cashback.CashbackPolicy;
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.model.CashbackBudget;
+import com.mainproject.wallet.model.CashbackRuleSet;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides the cashback for a recharge from an in-memory {@link CashbackPolicy} snapshot, before the
+ * balance update, so the recharge and its cashback still land in one $inc and the hot path reads
+ * nothing from Mongo. The rules come from the CashbackRuleSet document and are reloaded on a
+ * schedule; a reload swaps the whole snapshot, so a recharge sees either the old rules or the new.
+ * <p>
+ * Per-user daily caps are counted per instance, seeded once per user and day from the user's
+ * cashback rows. Campaign budgets are global: each instance counts its grants on a striped
+ * {@link CampaignBudget} and adds them to CashbackBudget with $inc when it reconciles.
+ */
+@Slf4j
+@Service
+public class CashbackEngine {
+
+    private final MongoTemplate mongoTemplate;
+    // Used when no rule set is stored: the cashback.*.percent range for every recharge
+    private final CashbackPolicy fallback;
+    private volatile CashbackPolicy policy;
+    private CashbackRuleSet loadedRules;
+    private final Map<String, CampaignBudget> budgets = new ConcurrentHashMap<>();
+    // Cashback granted today by user id; only kept while a daily cap is configured
+    private final Map<String, DailyUsage> usage = new ConcurrentHashMap<>();
+
+    @Value("${wallet.cashback.tracked-users:100000}")
+    int maxTrackedUsers = 100000;
+
+    public CashbackEngine(MongoTemplate mongoTemplate,
+                          @Value("${cashback.lower.percent}") double lowerPercent,
+                          @Value("${cashback.upper.percent}") double upperPercent) {
+        this.mongoTemplate = mongoTemplate;
+        this.fallback = CashbackPolicy.uniform(lowerPercent, upperPercent);
+        this.policy = fallback;
+    }
+
+    private record DailyUsage(LocalDate day, AtomicLong granted) {
+
+        // Takes up to cashback from what is left of the cap and returns the amount taken
+        long reserve(long cashback, long cap) {
+            while (true) {
+                long current = granted.get();
+                long taken = Math.min(cashback, Math.max(0, cap - current));
+                if (taken == 0 || granted.compareAndSet(current, current + taken)) {
+                    return taken;
+                }
+            }
+        }
+    }
+
+    /**
+     * The cashback for a recharge, already counted against the user's daily cap and the campaign
+     * budget. Inside a transaction the grant is given back automatically if it does not commit;
+     * otherwise the caller must {@link #release} it when the recharge fails.
+     */
+    public CashbackGrant grant(ResolvedAccount account, long amount) {
+        CashbackPolicy current = policy;
+        LocalDateTime now = LocalDateTime.now();
+        CashbackPolicy.Offer offer = current.offer(amount, now);
+        if (offer == null || offer.cashback() <= 0) {
+            return CashbackGrant.none(account.id());
+        }
+
+        long cashback = offer.cashback();
+        LocalDate day = null;
+        DailyUsage daily = null;
+        if (current.dailyCapPerUser() > 0) {
+            day = now.toLocalDate();
+            daily = usageOf(account.id(), day);
+            cashback = daily.reserve(cashback, current.dailyCapPerUser());
+        }
+
+        String campaignId = null;
+        CampaignBudget budget = offer.budget() > 0 ? budgets.get(offer.campaignId()) : null;
+        if (budget != null && cashback > 0) {
+            campaignId = offer.campaignId();
+            long reserved = budget.reserve(cashback, offer.budget());
+            if (daily != null && reserved < cashback) {
+                daily.granted().addAndGet(reserved - cashback);
+            }
+            cashback = reserved;
+        }
+        if (cashback == 0) {
+            return CashbackGrant.none(account.id());
+        }
+
+        CashbackGrant grant = new CashbackGrant(account.id(), campaignId, day, cashback);
+        releaseOnRollback(grant);
+        return grant;
+    }
+
+    public void release(CashbackGrant grant) {
+        if (grant.amount() == 0) {
+            return;
+        }
+        if (grant.campaignId() != null) {
+            CampaignBudget budget = budgets.get(grant.campaignId());
+            if (budget != null) {
+                budget.release(grant.amount());
+            }
+        }
+        if (grant.day() != null) {
+            DailyUsage daily = usage.get(grant.userId());
+            if (daily != null && daily.day().equals(grant.day())) {
+                daily.granted().addAndGet(-grant.amount());
+            }
+        }
+    }
+
+    /**
+     * Picks up the active rule set. Budgets of new campaigns are loaded before the snapshot is
+     * published, so no recharge sees a budgeted campaign without its counter. Invalid rules are
+     * logged and the current snapshot stays in force.
+     */
+    @Scheduled(fixedDelayString = "${wallet.cashback.reload-interval-ms:30000}")
+    public synchronized void reload() {
+        CashbackRuleSet rules;
+        try {
+            rules = mongoTemplate.findById(CashbackRuleSet.ACTIVE, CashbackRuleSet.class);
+        } catch (RuntimeException e) {
+            log.warn("Could not read the cashback rules, keeping the current ones: {}", e.getMessage());
+            return;
+        }
+        if (Objects.equals(rules, loadedRules)) {
+            return; // Unchanged; loadedRules is null exactly while the fallback is in force
+        }
+
+        CashbackPolicy next;
+        try {
+            next = rules != null ? CashbackPolicy.of(rules) : fallback;
+        } catch (IllegalArgumentException e) {
+            log.error("Ignoring invalid cashback rules, keeping the current ones: {}", e.getMessage());
+            return;
+        }
+        for (String campaignId : next.budgetedCampaigns()) {
+            budgets.computeIfAbsent(campaignId, id -> new CampaignBudget(id, storedSpent(id)));
+        }
+        policy = next;
+        loadedRules = rules;
+        if (next.dailyCapPerUser() == 0) {
+            usage.clear();
+        }
+        log.info("Cashback rules {}: {} budgeted campaign(s), daily cap {} paise",
+                rules != null ? "loaded" : "removed, using the configured percentages",
+                next.budgetedCampaigns().size(), next.dailyCapPerUser());
+    }
+
+    /**
+     * Adds this instance's grants since the last run to each campaign's CashbackBudget and reads
+     * back the global total. A failed write leaves the grants unflushed for the next run.
+     */
+    @Scheduled(fixedDelayString = "${wallet.cashback.reconcile-interval-ms:5000}")
+    public synchronized void reconcile() {
+        for (CampaignBudget budget : budgets.values()) {
+            try {
+                reconcile(budget);
+            } catch (RuntimeException e) {
+                log.warn("Could not reconcile the budget of campaign {}: {}", budget.campaignId(), e.getMessage());
+            }
+        }
+        // Campaigns dropped from the rules are forgotten once everything they granted is stored
+        budgets.values().removeIf(budget -> !policy.budgetedCampaigns().contains(budget.campaignId())
+                && budget.granted() == budget.flushed());
+    }
+
+    @PreDestroy
+    public void flush() {
+        reconcile();
+    }
+
+    private void reconcile(CampaignBudget budget) {
+        long granted = budget.granted();
+        long delta = granted - budget.flushed();
+        CashbackBudget stored;
+        if (delta == 0) {
+            stored = mongoTemplate.findById(budget.campaignId(), CashbackBudget.class);
+        } else {
+            stored = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(budget.campaignId())),
+                    new Update().inc("spent", delta),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    CashbackBudget.class);
+        }
+        budget.reconciled(granted, stored != null ? stored.getSpent() : 0);
+    }
+
+    private long storedSpent(String campaignId) {
+        CashbackBudget stored = mongoTemplate.findById(campaignId, CashbackBudget.class);
+        return stored != null ? stored.getSpent() : 0;
+    }
+
+    private DailyUsage usageOf(String userId, LocalDate day) {
+        DailyUsage current = usage.get(userId);
+        if (current != null && current.day().equals(day)) {
+            return current;
+        }
+        makeRoom(day);
+        DailyUsage seeded = new DailyUsage(day, new AtomicLong(earnedOn(userId, day)));
+        return usage.merge(userId, seeded, (existing, fresh) -> existing.day().equals(day) ? existing : fresh);
+    }
+
+    // Cashback already committed for the user that day, e.g. before a restart or on another instance; served by user_type_timestamp_idx
+    private long earnedOn(String userId, LocalDate day) {
+        Aggregation earned = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)
+                        .and("type").is(TransactionENUM.CASHBACK)
+                        .and("timestamp").gte(day.atStartOfDay()).lt(day.plusDays(1).atStartOfDay())),
+                Aggregation.group().sum("amount").as("total"));
+        Document row = mongoTemplate.aggregate(earned, Transaction.class, Document.class).getUniqueMappedResult();
+        return row != null ? ((Number) row.get("total")).longValue() : 0;
+    }
+
+    // Drop earlier days first; if the map is still full, drop arbitrary users, who are seeded again on their next recharge
+    private void makeRoom(LocalDate today) {
+        if (usage.size() < maxTrackedUsers) {
+            return;
+        }
+        usage.values().removeIf(daily -> daily.day().isBefore(today));
+        Iterator<DailyUsage> entries = usage.values().iterator();
+        int excess = usage.size() - maxTrackedUsers * 9 / 10;
+        while (excess > 0 && entries.hasNext()) {
+            entries.next();
+            entries.remove();
+            excess--;
+        }
+    }
+
+    private void releaseOnRollback(CashbackGrant grant) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(grant);
+                }
+            }
+        });
+    }
+
+    CashbackPolicy policy() {
+        return policy;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.exception.UserNotFoundException;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.repository.BalanceStripeRepository;
+import com.mainproject.wallet.repository.UserRepository;
+import com.mainproject.wallet.retry.RetryOnConflict;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Moves an account into and out of striped mode. Each move is one transaction that rewrites the
+ * stripes and saves the user with its version check, so a payment racing with the migration
+ * conflicts on one of those documents and is retried against the new layout.
+ */
+@Slf4j
+@Service
+public class HotAccountService {
+
+    private final UserRepository userRepository;
+    private final BalanceStripeRepository balanceStripeRepository;
+
+    public HotAccountService(UserRepository userRepository, BalanceStripeRepository balanceStripeRepository) {
+        this.userRepository = userRepository;
+        this.balanceStripeRepository = balanceStripeRepository;
+    }
+
+    // Also re-stripes an already striped account to a different count
+    @RetryOnConflict
+    @Transactional
+    public User stripe(String username, int stripes) {
+        if (stripes < 2) {
+            throw new WalletException("A hot account needs at least 2 balance stripes");
+        }
+        User user = requireUser(username);
+        long balance = user.getBalanceStripes() > 0 ? balanceStripeRepository.collapse(user.getId()) : user.getWalletBalance();
+        balanceStripeRepository.split(user.getId(), stripes, balance);
+
+        user.setWalletBalance(0);
+        user.setBalanceStripes(stripes);
+        userRepository.save(user);
+        log.info("Spread balance {} of user {} over {} stripes", balance, user.getId(), stripes);
+        user.setWalletBalance(balance);
+        return user;
+    }
+
+    @RetryOnConflict
+    @Transactional
+    public User unstripe(String username) {
+        User user = requireUser(username);
+        if (user.getBalanceStripes() == 0) {
+            return user;
+        }
+        long balance = balanceStripeRepository.collapse(user.getId());
+
+        user.setWalletBalance(balance);
+        user.setBalanceStripes(0);
+        log.info("Collected balance {} of user {} back onto the user document", balance, user.getId());
+        return userRepository.save(user);
+    }
+
+    private User requireUser(String username) {
+        User user = userRepository.findByUsernameIgnoreCase(username);
+        if (user == null) {
+            throw new UserNotFoundException("No user found for username: " + username);
+        }
+        return user;
+    }
+}
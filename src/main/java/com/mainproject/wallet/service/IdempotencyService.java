@@ -0,0 +1,182 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.exception.OutcomeUnknownException;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.model.IdempotencyKey;
+import com.mainproject.wallet.model.IdempotencyRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Deduplicates recharges and transfers sent with an Idempotency-Key. A bounded in-memory map holds
+ * the outcome of recent keys: a duplicate that arrives while the first request is still running
+ * waits for its result instead of running the transaction again, and a later retry is answered
+ * from memory. Behind it, the IdempotencyRecord collection covers restarts and other instances;
+ * the record is inserted inside the operation's transaction, so when two instances race on one
+ * key the second insert fails and its whole transaction, balance change included, rolls back.
+ * An operation whose outcome is unknown ({@link OutcomeUnknownException}) keeps its key: until the
+ * key expires, duplicates get the same error instead of running the operation again.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    // How long a key is honoured; the TTL index on IdempotencyRecord.createdAt uses the same period
+    public static final Duration RETENTION = Duration.ofHours(24);
+
+    static final String REUSED_KEY_MESSAGE = "Idempotency-Key was already used for a different request";
+    static final String PENDING_MESSAGE = "A request with this Idempotency-Key is still being processed; retry shortly";
+
+    private final MongoTemplate mongoTemplate;
+    // Completed and in-flight outcomes by key id
+    private final Map<String, CompletableFuture<Outcome>> outcomes = new ConcurrentHashMap<>();
+
+    @Value("${wallet.idempotency.cache.max-entries:10000}")
+    int maxCachedKeys = 10000;
+
+    @Value("${wallet.idempotency.wait-ms:10000}")
+    long waitMillis = 10000;
+
+    public IdempotencyService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // unknown is set instead of response when the operation may or may not have been applied
+    private record Outcome(String fingerprint, Object response, long createdAt, OutcomeUnknownException unknown) {
+    }
+
+    /**
+     * Runs the operation once per key and returns its response, or the response stored for the key.
+     * The operation receives the key and must pass it to {@link #remember} inside its transaction.
+     * Without a key the operation simply runs.
+     */
+    public <T> T execute(IdempotencyKey key, Class<T> type, Function<IdempotencyKey, T> operation) {
+        if (key == null) {
+            return operation.apply(null);
+        }
+        CompletableFuture<Outcome> mine = new CompletableFuture<>();
+        CompletableFuture<Outcome> first = outcomes.putIfAbsent(key.id(), mine);
+        if (first != null) {
+            Outcome outcome = await(first);
+            if (System.currentTimeMillis() - outcome.createdAt() < RETENTION.toMillis()) {
+                return replay(key, type, outcome);
+            }
+            // Expired in memory as it would have in Mongo; run as a new request
+            outcomes.remove(key.id(), first);
+            return execute(key, type, operation);
+        }
+        makeRoom();
+
+        Outcome outcome;
+        try {
+            IdempotencyRecord stored = mongoTemplate.findById(key.id(), IdempotencyRecord.class);
+            outcome = stored != null ? outcomeOf(stored) : run(key, operation);
+        } catch (OutcomeUnknownException e) {
+            // Possibly applied, so the key must not be freed for the client's retry
+            mine.complete(new Outcome(key.fingerprint(), null, System.currentTimeMillis(), e));
+            throw e;
+        } catch (RuntimeException e) {
+            // Nothing was committed, so the key stays free for the client's next attempt
+            outcomes.remove(key.id(), mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        mine.complete(outcome);
+        return replay(key, type, outcome);
+    }
+
+    // Called by the operation inside its transaction; a no-op without a key
+    public void remember(IdempotencyKey key, Object response) {
+        if (key == null) {
+            return;
+        }
+        mongoTemplate.insert(new IdempotencyRecord(key.id(), key.fingerprint(), response, LocalDateTime.now()));
+    }
+
+    int cachedKeyCount() {
+        return outcomes.size();
+    }
+
+    private <T> Outcome run(IdempotencyKey key, Function<IdempotencyKey, T> operation) {
+        try {
+            return new Outcome(key.fingerprint(), operation.apply(key), System.currentTimeMillis(), null);
+        } catch (DuplicateKeyException e) {
+            // Another instance committed the same key first and our transaction rolled back
+            IdempotencyRecord stored = mongoTemplate.findById(key.id(), IdempotencyRecord.class);
+            if (stored == null) {
+                throw e;
+            }
+            log.info("Idempotency key {} was completed concurrently elsewhere; replaying its result", key.id());
+            return outcomeOf(stored);
+        }
+    }
+
+    private static <T> T replay(IdempotencyKey key, Class<T> type, Outcome outcome) {
+        if (!outcome.fingerprint().equals(key.fingerprint())) {
+            throw new WalletException(REUSED_KEY_MESSAGE);
+        }
+        if (outcome.unknown() != null) {
+            throw outcome.unknown();
+        }
+        if (!type.isInstance(outcome.response())) {
+            throw new WalletException(REUSED_KEY_MESSAGE);
+        }
+        return type.cast(outcome.response());
+    }
+
+    private static Outcome outcomeOf(IdempotencyRecord stored) {
+        long createdAt = stored.getCreatedAt() != null
+                ? stored.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        return new Outcome(stored.getFingerprint(), stored.getResponse(), createdAt, null);
+    }
+
+    private Outcome await(CompletableFuture<Outcome> first) {
+        try {
+            return first.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new WalletException(PENDING_MESSAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletException(PENDING_MESSAGE);
+        } catch (ExecutionException e) {
+            // The first request failed; its duplicates report the same failure
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Drop expired outcomes first; if the map is still full, drop arbitrary completed ones. In-flight keys are kept
+    private void makeRoom() {
+        if (outcomes.size() <= maxCachedKeys) {
+            return;
+        }
+        long expiredBefore = System.currentTimeMillis() - RETENTION.toMillis();
+        outcomes.values().removeIf(future -> future.isDone() && (future.isCompletedExceptionally() || future.join().createdAt() < expiredBefore));
+        Iterator<CompletableFuture<Outcome>> futures = outcomes.values().iterator();
+        int excess = outcomes.size() - maxCachedKeys * 9 / 10;
+        while (excess > 0 && futures.hasNext()) {
+            if (futures.next().isDone()) {
+                futures.remove();
+                excess--;
+            }
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.exception.OutcomeUnknownException;
+import com.mainproject.wallet.exception.ServiceUnavailableException;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.ledger.LedgerEntry;
+import com.mainproject.wallet.ledger.LedgerJournal;
+import com.mainproject.wallet.metrics.WalletMetrics;
+import com.mainproject.wallet.model.ResolvedAccount;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional ledger engine for peak events ({@code wallet.ledger.enabled=true}). Accounts are
+ * partitioned by id over single-threaded shards that keep balances in memory and apply recharges and
+ * transfers without locks or Mongo round trips. A shard appends each batch of accepted commands to
+ * its own write-ahead journal with one fsync before answering, and its flusher thread then writes
+ * the batch to Mongo through {@link LedgerStore} in one transaction, together with the shard's
+ * checkpoint. On startup every journal entry past the checkpoint is stored again, so Mongo plus the
+ * journal tail is the snapshot the engine recovers from.
+ * <p>
+ * A transfer is decided by the sender's shard. A receiver on another shard sees the credit in memory
+ * only once it is stored, so an in-memory balance never exceeds what Mongo will hold. While enabled
+ * the engine owns the balances: every balance change must go through LedgerWalletService.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "wallet.ledger.enabled", havingValue = "true")
+public class LedgerEngine {
+
+    private static final String BUSY_MESSAGE = "The ledger is busy, please retry shortly";
+    private static final String UNCONFIRMED_MESSAGE = "The ledger did not confirm the operation in time; check the statement before retrying";
+
+    private final LedgerStore store;
+    private final WalletMetrics walletMetrics;
+    private final Shard[] shards;
+    // Every account the engine has touched, loaded from Mongo once
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final int maxBatch;
+    private final int flushBatch;
+    private final int queueCapacity;
+    private final long maxUnflushed;
+    private final long timeoutMillis;
+    private volatile boolean running;
+
+    public LedgerEngine(LedgerStore store, WalletMetrics walletMetrics,
+                        @Value("${wallet.ledger.shards:0}") int shards, // 0 = one per CPU
+                        @Value("${wallet.ledger.journal-dir:ledger-journal}") String journalDir,
+                        @Value("${wallet.ledger.segment-bytes:67108864}") long segmentBytes,
+                        @Value("${wallet.ledger.max-batch:512}") int maxBatch,
+                        @Value("${wallet.ledger.flush-batch:2048}") int flushBatch,
+                        @Value("${wallet.ledger.queue-capacity:10000}") int queueCapacity,
+                        @Value("${wallet.ledger.max-unflushed:50000}") long maxUnflushed,
+                        @Value("${wallet.ledger.timeout-ms:10000}") long timeoutMillis) throws IOException {
+        this.store = store;
+        this.walletMetrics = walletMetrics;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.flushBatch = Math.max(this.maxBatch, flushBatch);
+        this.queueCapacity = queueCapacity;
+        this.maxUnflushed = maxUnflushed;
+        this.timeoutMillis = timeoutMillis;
+        int count = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            this.shards[i] = new Shard(i, new LedgerJournal(Path.of(journalDir), "shard-" + i, segmentBytes));
+        }
+    }
+
+    // The balances right after the command; the counterparty's may not yet include credits still being stored
+    public record Result(long balance, long counterpartyBalance) {
+    }
+
+    private sealed interface Command permits Recharge, Transfer, Credit {
+    }
+
+    private record Recharge(ResolvedAccount account, long amount, long cashback, CompletableFuture<Result> result) implements Command {
+    }
+
+    private record Transfer(ResolvedAccount from, ResolvedAccount to, long amount, CompletableFuture<Result> result) implements Command {
+    }
+
+    // The receiving side of a stored cross-shard transfer; already journaled by the sender's shard
+    private record Credit(String userId, long amount) implements Command {
+    }
+
+    private static final class Account {
+        final int shard;
+        // Written only by the owning shard's sequencer; volatile so request threads read the current value
+        volatile long balance;
+
+        Account(int shard, long balance) {
+            this.shard = shard;
+            this.balance = balance;
+        }
+
+        void add(long amount) {
+            balance += amount; // Single writer, so the read-modify-write cannot lose an update
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        for (Shard shard : shards) {
+            shard.recover();
+        }
+        running = true;
+        for (Shard shard : shards) {
+            shard.start();
+        }
+        log.info("Ledger engine started with {} shards", shards.length);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        running = false;
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    public Result recharge(ResolvedAccount account, long amount, long cashback) {
+        Account target = account(account.id());
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        submit(shards[target.shard], new Recharge(account, amount, cashback, result));
+        return await(result);
+    }
+
+    public Result transfer(ResolvedAccount from, ResolvedAccount to, long amount) {
+        Account sender = account(from.id());
+        account(to.id());
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        submit(shards[sender.shard], new Transfer(from, to, amount, result));
+        return await(result);
+    }
+
+    // Ahead of Mongo, which the flushers update a few milliseconds later
+    public long balanceOf(String userId) {
+        return account(userId).balance;
+    }
+
+    // Loaded before the first command that touches the account, so no stored delta is counted twice
+    private Account account(String userId) {
+        return accounts.computeIfAbsent(userId, id -> new Account(shardOf(id), store.loadBalance(id)));
+    }
+
+    private int shardOf(String userId) {
+        return Math.floorMod(userId.hashCode(), shards.length);
+    }
+
+    private void submit(Shard shard, Command command) {
+        // Bounds both the queue in front of the shard and the journal tail a crash would have to replay
+        if (!running || shard.inbox.size() >= queueCapacity || shard.journaledSequence - shard.storedSequence > maxUnflushed) {
+            throw new ServiceUnavailableException(BUSY_MESSAGE, 1);
+        }
+        shard.inbox.add(command);
+    }
+
+    private Result await(CompletableFuture<Result> result) {
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The command may still be applied, so this must not read as a plain retryable failure
+            throw new OutcomeUnknownException(UNCONFIRMED_MESSAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutcomeUnknownException(UNCONFIRMED_MESSAGE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private final class Shard {
+        final int index;
+        final LedgerJournal journal;
+        final BlockingQueue<Command> inbox = new LinkedBlockingQueue<>();
+        // Journaled batches waiting for the flusher
+        final BlockingQueue<List<LedgerEntry>> journaled = new LinkedBlockingQueue<>();
+        long sequence; // Sequencer thread only
+        volatile long journaledSequence;
+        volatile long storedSequence;
+        Thread sequencer;
+        Thread flusher;
+
+        Shard(int index, LedgerJournal journal) {
+            this.index = index;
+            this.journal = journal;
+        }
+
+        void recover() throws IOException {
+            long checkpoint = store.checkpoint(index);
+            List<LedgerEntry> entries = journal.read();
+            List<LedgerEntry> pending = entries.stream().filter(entry -> entry.sequence() > checkpoint).toList();
+            if (!pending.isEmpty()) {
+                log.warn("Replaying {} journaled entries of ledger shard {} after checkpoint {}", pending.size(), index, checkpoint);
+                for (int from = 0; from < pending.size(); from += flushBatch) {
+                    store.write(index, pending.subList(from, Math.min(pending.size(), from + flushBatch)));
+                }
+            }
+            sequence = entries.isEmpty() ? checkpoint : Math.max(checkpoint, entries.get(entries.size() - 1).sequence());
+            journaledSequence = sequence;
+            storedSequence = sequence;
+            journal.reset();
+        }
+
+        void start() {
+            sequencer = new Thread(this::sequence, "ledger-shard-" + index);
+            flusher = new Thread(this::flush, "ledger-flush-" + index);
+            sequencer.start();
+            flusher.start();
+        }
+
+        void stop() throws IOException {
+            try {
+                // Threads are missing when start() failed or never ran, e.g. recovery of another shard threw
+                if (sequencer != null) {
+                    sequencer.join();
+                }
+                if (flusher != null) {
+                    flusher.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            journal.close();
+        }
+
+        private void sequence() {
+            List<Command> batch = new ArrayList<>(maxBatch);
+            while (running || !inbox.isEmpty()) {
+                Command first;
+                try {
+                    first = inbox.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                inbox.drainTo(batch, maxBatch - 1);
+                apply(batch);
+                batch.clear();
+                try {
+                    journal.release(storedSequence);
+                } catch (IOException e) {
+                    log.warn("Could not delete stored journal segments of ledger shard {}: {}", index, e.getMessage());
+                }
+            }
+        }
+
+        private void apply(List<Command> batch) {
+            List<LedgerEntry> entries = new ArrayList<>();
+            List<Runnable> replies = new ArrayList<>();
+            List<CompletableFuture<Result>> journaledReplies = new ArrayList<>();
+            for (Command command : batch) {
+                switch (command) {
+                    case Credit credit -> accounts.get(credit.userId()).add(credit.amount());
+                    case Recharge recharge -> {
+                        LedgerEntry entry = LedgerEntry.recharge(++sequence, recharge.account(), recharge.amount(), recharge.cashback());
+                        Account account = accounts.get(recharge.account().id());
+                        account.add(entry.credited());
+                        entries.add(entry);
+                        journaledReplies.add(recharge.result());
+                        Result result = new Result(account.balance, account.balance);
+                        replies.add(() -> recharge.result().complete(result));
+                    }
+                    case Transfer transfer -> {
+                        Account from = accounts.get(transfer.from().id());
+                        Account to = accounts.get(transfer.to().id());
+                        if (from.balance < transfer.amount()) {
+                            walletMetrics.recordInsufficientFunds();
+                            replies.add(() -> transfer.result().completeExceptionally(new WalletException("Insufficient funds in the account")));
+                            continue;
+                        }
+                        entries.add(LedgerEntry.transfer(++sequence, transfer.from(), transfer.to(), transfer.amount()));
+                        from.add(-transfer.amount());
+                        if (to.shard == index) {
+                            to.add(transfer.amount());
+                        }
+                        journaledReplies.add(transfer.result());
+                        Result result = new Result(from.balance, to.balance);
+                        replies.add(() -> transfer.result().complete(result));
+                    }
+                }
+            }
+
+            if (!entries.isEmpty()) {
+                try {
+                    journal.append(entries);
+                } catch (IOException e) {
+                    log.error("Ledger shard {} could not write its journal: {}", index, e.getMessage());
+                    for (int i = entries.size() - 1; i >= 0; i--) {
+                        undo(entries.get(i));
+                    }
+                    sequence -= entries.size();
+                    // Completing first makes the success replies queued below no-ops
+                    journaledReplies.forEach(result -> result.completeExceptionally(new ServiceUnavailableException(BUSY_MESSAGE, 1)));
+                    replies.forEach(Runnable::run);
+                    return;
+                }
+                journaledSequence = sequence;
+                journaled.add(entries);
+            }
+            replies.forEach(Runnable::run);
+        }
+
+        private void undo(LedgerEntry entry) {
+            if (entry.kind() == LedgerEntry.Kind.RECHARGE) {
+                accounts.get(entry.account().id()).add(-entry.credited());
+                return;
+            }
+            accounts.get(entry.account().id()).add(entry.amount());
+            Account to = accounts.get(entry.counterparty().id());
+            if (to.shard == index) {
+                to.add(-entry.amount());
+            }
+        }
+
+        private void flush() {
+            List<LedgerEntry> pending = new ArrayList<>(flushBatch);
+            while (sequencer.isAlive() || !journaled.isEmpty()) {
+                List<LedgerEntry> first;
+                try {
+                    first = journaled.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (first == null) {
+                    continue;
+                }
+                // Group commit: everything journaled meanwhile goes into the same Mongo transaction
+                pending.addAll(first);
+                while (pending.size() < flushBatch && !journaled.isEmpty()) {
+                    pending.addAll(journaled.poll());
+                }
+                if (!storeUntilDone(pending)) {
+                    return; // Interrupted; the journal still holds the batch for the next start
+                }
+                storedSequence = pending.get(pending.size() - 1).sequence();
+                for (LedgerEntry entry : pending) {
+                    if (entry.kind() == LedgerEntry.Kind.TRANSFER) {
+                        int receiver = shardOf(entry.counterparty().id());
+                        if (receiver != index) {
+                            shards[receiver].inbox.add(new Credit(entry.counterparty().id(), entry.amount()));
+                        }
+                    }
+                }
+                pending.clear();
+            }
+        }
+
+        // The entries are already durable in the journal, so a failed write is retried rather than dropped
+        private boolean storeUntilDone(List<LedgerEntry> entries) {
+            long backoffMillis = 10;
+            while (true) {
+                try {
+                    store.write(index, entries);
+                    return true;
+                } catch (RuntimeException e) {
+                    log.warn("Storing {} ledger entries of shard {} failed, retrying in {} ms: {}", entries.size(), index, backoffMillis, e.getMessage());
+                }
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 5000);
+            }
+        }
+    }
+}
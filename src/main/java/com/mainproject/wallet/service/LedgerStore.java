@@ -0,0 +1,137 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.constant.OutboxENUM;
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.ledger.LedgerEntry;
+import com.mainproject.wallet.model.LedgerCheckpoint;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.model.WalletAggregate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mongo side of the {@link LedgerEngine}: loads starting balances and writes journaled batches. A
+ * batch becomes the same ledger rows, transfer entries, aggregate totals and outbox messages
+ * WalletService writes per operation, plus one $inc per touched user, all in a single transaction
+ * with the shard's checkpoint. Entries the checkpoint already covers are skipped, so a batch that
+ * committed but was reported as failed is not applied twice when the flusher retries it.
+ */
+@Service
+@ConditionalOnProperty(name = "wallet.ledger.enabled", havingValue = "true")
+public class LedgerStore {
+
+    private final MongoTemplate mongoTemplate;
+
+    public LedgerStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public long loadBalance(String userId) {
+        Query query = new Query(Criteria.where("id").is(userId));
+        query.fields().include("walletBalance", "balanceStripes");
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user == null) {
+            throw new WalletException("No user found for userId: " + userId);
+        }
+        if (user.getBalanceStripes() > 0) {
+            // Hot accounts are what the engine replaces; unstripe them before enabling it
+            throw new WalletException("Striped account " + userId + " cannot be used while the ledger engine is enabled");
+        }
+        return user.getWalletBalance();
+    }
+
+    // 0 when the shard has never stored anything
+    public long checkpoint(int shard) {
+        LedgerCheckpoint checkpoint = mongoTemplate.findById(LedgerCheckpoint.idOf(shard), LedgerCheckpoint.class);
+        return checkpoint != null ? checkpoint.getSequence() : 0;
+    }
+
+    @Transactional
+    public void write(int shard, List<LedgerEntry> entries) {
+        // Read in the same transaction: a concurrent commit of this checkpoint makes the write below conflict
+        long stored = checkpoint(shard);
+        List<LedgerEntry> pending = entries.stream().filter(entry -> entry.sequence() > stored).toList();
+        if (pending.isEmpty()) {
+            return; // Already stored by an earlier attempt whose outcome was lost
+        }
+
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        List<Transaction> rows = new ArrayList<>();
+        List<TransferEntry> transfers = new ArrayList<>();
+        List<OutboxMessage> messages = new ArrayList<>();
+        for (LedgerEntry entry : pending) {
+            if (entry.kind() == LedgerEntry.Kind.RECHARGE) {
+                deltas.merge(entry.account().id(), entry.credited(), Long::sum);
+                if (entry.cashback() > 0) {
+                    rows.add(row(entry, entry.cashback(), TransactionENUM.CASHBACK));
+                }
+                rows.add(row(entry, entry.amount(), TransactionENUM.RECHARGE));
+                OutboxMessage message = OutboxService.newMessage(OutboxENUM.RECHARGE, entry.account(), null, entry.amount());
+                message.setCashbackAmount(entry.cashback());
+                messages.add(message);
+            } else {
+                deltas.merge(entry.account().id(), -entry.amount(), Long::sum);
+                deltas.merge(entry.counterparty().id(), entry.amount(), Long::sum);
+                transfers.add(transfer(entry));
+                messages.add(OutboxService.newMessage(OutboxENUM.TRANSFER_RECEIVED, entry.counterparty(), entry.account().username(), entry.amount()));
+                messages.add(OutboxService.newMessage(OutboxENUM.TRANSFER_SENT, entry.account(), entry.counterparty().username(), entry.amount()));
+            }
+        }
+
+        // One $inc per user for the whole batch; the version bump fails any save based on a stale copy
+        BulkOperations balances = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        deltas.forEach((userId, delta) -> balances.updateOne(new Query(Criteria.where("id").is(userId)),
+                new Update().inc("walletBalance", delta).inc("version", 1)));
+        balances.execute();
+
+        mongoTemplate.insertAll(rows);
+        mongoTemplate.insertAll(transfers);
+        BulkOperations aggregates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WalletAggregate.class);
+        rows.forEach(row -> aggregates.upsert(WalletAggregateService.aggregateOf(row.getUserId()), WalletAggregateService.totalsUpdate(row)));
+        for (TransferEntry transfer : transfers) {
+            for (String party : List.of(transfer.getSenderId(), transfer.getReceiverId())) {
+                aggregates.upsert(WalletAggregateService.aggregateOf(party), WalletAggregateService.totalsUpdate(transfer.legOf(party)));
+            }
+        }
+        aggregates.execute();
+        mongoTemplate.insertAll(messages);
+
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(LedgerCheckpoint.idOf(shard))),
+                new Update().set("sequence", pending.get(pending.size() - 1).sequence()), LedgerCheckpoint.class);
+    }
+
+    // Stamped with the time the command was accepted, not the time of the flush
+    private static Transaction row(LedgerEntry entry, long amount, String type) {
+        Transaction transaction = TransactionService.createTransaction(entry.account(), amount, type, entry.counterparty());
+        transaction.setTimestamp(acceptedAt(entry));
+        return transaction;
+    }
+
+    private static TransferEntry transfer(LedgerEntry entry) {
+        TransferEntry transfer = TransactionService.createTransfer(entry.account(), entry.counterparty(), entry.amount());
+        transfer.setTimestamp(acceptedAt(entry));
+        return transfer;
+    }
+
+    private static LocalDateTime acceptedAt(LedgerEntry entry) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timestamp()), ZoneId.systemDefault());
+    }
+}
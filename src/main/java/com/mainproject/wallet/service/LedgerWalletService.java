@@ -0,0 +1,106 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.cashback.CashbackGrant;
+import com.mainproject.wallet.dto.RechargeResponseDTO;
+import com.mainproject.wallet.exception.OutcomeUnknownException;
+import com.mainproject.wallet.exception.UserNotFoundException;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.mapper.UserMapper;
+import com.mainproject.wallet.metrics.TimedOperation;
+import com.mainproject.wallet.metrics.WalletMetrics;
+import com.mainproject.wallet.model.IdempotencyKey;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recharges and transfers while the {@link LedgerEngine} is enabled. The engine journals and stores
+ * each command itself and would apply a repeated command again, so these deliberately run outside
+ * the Mongo transaction and conflict retry that wrap WalletService. When the engine does not
+ * confirm a command in time it throws {@link OutcomeUnknownException}, which IdempotencyService
+ * keeps answering for the key rather than running the command a second time.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "wallet.ledger.enabled", havingValue = "true")
+public class LedgerWalletService {
+
+    private final LedgerEngine ledgerEngine;
+    private final UserService userService;
+    private final WalletMetrics walletMetrics;
+    private final IdempotencyService idempotencyService;
+    private final CashbackEngine cashbackEngine;
+
+    public LedgerWalletService(LedgerEngine ledgerEngine, UserService userService, WalletMetrics walletMetrics,
+                               IdempotencyService idempotencyService, CashbackEngine cashbackEngine) {
+        this.ledgerEngine = ledgerEngine;
+        this.userService = userService;
+        this.walletMetrics = walletMetrics;
+        this.idempotencyService = idempotencyService;
+        this.cashbackEngine = cashbackEngine;
+    }
+
+    @TimedOperation("recharge")
+    public ResponseEntity<RechargeResponseDTO> recharge(String username, long amount, IdempotencyKey idempotencyKey) {
+        ResolvedAccount account = userService.resolveAccount(username);
+        if (account == null) {
+            throw new WalletException("No user found for username: " + username);
+        }
+
+        // No transaction to roll back here, so the grant is given back explicitly when the engine rejects the recharge
+        CashbackGrant grant = cashbackEngine.grant(account, amount);
+        LedgerEngine.Result result;
+        try {
+            // The engine journals the recharge and writes its ledger rows and notification itself
+            result = ledgerEngine.recharge(account, amount, grant.amount());
+        } catch (OutcomeUnknownException e) {
+            throw e; // The engine may still apply it, cashback included
+        } catch (RuntimeException e) {
+            cashbackEngine.release(grant);
+            throw e;
+        }
+        if (grant.amount() > 0) {
+            walletMetrics.recordCashback(grant.amount());
+        }
+
+        RechargeResponseDTO responseDTO = new RechargeResponseDTO(grant.amount(), result.balance());
+        remember(idempotencyKey, responseDTO);
+        return ResponseEntity.ok(responseDTO);
+    }
+
+    @TimedOperation("transfer")
+    public User transfer(String fromUsername, String toUsername, long amount, IdempotencyKey idempotencyKey) {
+        if (fromUsername.equals(toUsername)) {
+            throw new WalletException("Cannot transfer money to yourself");
+        }
+        ResolvedAccount fromAccount = userService.resolveAccount(fromUsername);
+        ResolvedAccount toAccount = userService.resolveAccount(toUsername);
+        if (fromAccount == null || toAccount == null) {
+            throw new UserNotFoundException("Wallet not found for username " + toUsername);
+        }
+
+        LedgerEngine.Result result = ledgerEngine.transfer(fromAccount, toAccount, amount);
+        log.info("Transfer of {} paise from {} to {} journaled by the ledger engine", amount, fromAccount.id(), toAccount.id());
+        User toUser = new User();
+        toUser.setId(toAccount.id());
+        toUser.setUsername(toAccount.username());
+        toUser.setEmail(toAccount.email());
+        toUser.setWalletBalance(result.counterpartyBalance());
+
+        remember(idempotencyKey, UserMapper.toDTO(toUser));
+        return toUser;
+    }
+
+    // The command is already applied; failing here would free the key for a second run. Without the stored
+    // record this instance still answers the key from memory, only other instances would not see it
+    private void remember(IdempotencyKey idempotencyKey, Object response) {
+        try {
+            idempotencyService.remember(idempotencyKey, response);
+        } catch (RuntimeException e) {
+            log.warn("Could not store idempotency key {}: {}", idempotencyKey.id(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.constant.OutboxENUM;
+import com.mainproject.wallet.model.OutboxMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delivers outbox messages in the background. Messages are claimed one findAndModify at a time, so
+ * several application instances can dispatch concurrently without sending anything twice; a claim
+ * that is not settled within the lease (crashed instance) becomes claimable again.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private final MongoTemplate mongoTemplate;
+    private final EmailService emailService;
+    private final OutboxService outboxService;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Last values seen by reportBacklog, published as gauges without querying on every scrape
+    private volatile long lastBacklogSize;
+    private volatile Duration lastOldestPendingAge = Duration.ZERO;
+
+    @Value("${wallet.outbox.batch-size:50}")
+    int batchSize;
+
+    @Value("${wallet.outbox.max-attempts:8}")
+    int maxAttempts;
+
+    @Value("${wallet.outbox.initial-backoff-ms:1000}")
+    long initialBackoffMillis;
+
+    @Value("${wallet.outbox.max-backoff-ms:600000}")
+    long maxBackoffMillis;
+
+    @Value("${wallet.outbox.lease-ms:60000}")
+    long leaseMillis;
+
+    public OutboxDispatcher(MongoTemplate mongoTemplate, EmailService emailService, OutboxService outboxService) {
+        this.mongoTemplate = mongoTemplate;
+        this.emailService = emailService;
+        this.outboxService = outboxService;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.outbox.poll-interval-ms:500}")
+    public int dispatch() {
+        List<OutboxMessage> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<RuntimeException> failures = emailService.deliverAll(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            if (failures.get(i) == null) {
+                markSent(batch.get(i));
+            } else {
+                markFailed(batch.get(i), failures.get(i));
+            }
+        }
+        return batch.size();
+    }
+
+    List<OutboxMessage> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        Query claimable = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(OutboxENUM.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(OutboxENUM.PROCESSING).and("claimedAt").lt(now.minus(Duration.ofMillis(leaseMillis)))))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+        Update claim = new Update()
+                .set("status", OutboxENUM.PROCESSING)
+                .set("claimedAt", now)
+                .set("claimedBy", instanceId)
+                .inc("attempts", 1);
+
+        List<OutboxMessage> batch = new ArrayList<>();
+        while (batch.size() < batchSize) {
+            OutboxMessage message = mongoTemplate.findAndModify(claimable, claim, FindAndModifyOptions.options().returnNew(true), OutboxMessage.class);
+            if (message == null) {
+                break;
+            }
+            batch.add(message);
+        }
+        return batch;
+    }
+
+    private void markSent(OutboxMessage message) {
+        mongoTemplate.updateFirst(claimedByMe(message), new Update()
+                .set("status", OutboxENUM.SENT)
+                .set("sentAt", LocalDateTime.now())
+                .unset("lastError"), OutboxMessage.class);
+    }
+
+    private void markFailed(OutboxMessage message, RuntimeException e) {
+        Update update = new Update().set("lastError", String.valueOf(e.getMessage()));
+        if (message.getAttempts() >= maxAttempts) {
+            update.set("status", OutboxENUM.DEAD);
+            log.error("Giving up on {} email to {} after {} attempts: {}", message.getType(), message.getRecipientEmail(), message.getAttempts(), e.getMessage());
+        } else {
+            long backoff = backoffMillis(message.getAttempts());
+            update.set("status", OutboxENUM.PENDING).set("nextAttemptAt", LocalDateTime.now().plus(Duration.ofMillis(backoff)));
+            log.warn("Email {} to {} failed (attempt {}), retrying in {} ms: {}", message.getType(), message.getRecipientEmail(), message.getAttempts(), backoff, e.getMessage());
+        }
+        mongoTemplate.updateFirst(claimedByMe(message), update, OutboxMessage.class);
+    }
+
+    // Exponential backoff with up to 20% jitter so a mail-server outage does not end in a synchronized retry storm
+    long backoffMillis(int attempts) {
+        long base = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(Math.max(attempts - 1, 0), 20));
+        return base + ThreadLocalRandom.current().nextLong(base / 5 + 1);
+    }
+
+    // Settling only succeeds while the claim is still ours; a message reclaimed after lease expiry is left alone
+    private Query claimedByMe(OutboxMessage message) {
+        return new Query(Criteria.where("_id").is(message.getId()).and("claimedBy").is(instanceId).and("status").is(OutboxENUM.PROCESSING));
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.outbox.report-interval-ms:60000}")
+    public void reportBacklog() {
+        long backlog = outboxService.backlogSize();
+        Duration oldest = backlog > 0 ? outboxService.oldestPendingAge() : Duration.ZERO;
+        lastBacklogSize = backlog;
+        lastOldestPendingAge = oldest;
+        if (backlog > 0) {
+            log.info("Email outbox backlog: {} message(s), oldest waiting {} s", backlog, oldest.toSeconds());
+        }
+    }
+
+    public long getLastBacklogSize() {
+        return lastBacklogSize;
+    }
+
+    public Duration getLastOldestPendingAge() {
+        return lastOldestPendingAge;
+    }
+}
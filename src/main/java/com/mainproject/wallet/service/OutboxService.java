@@ -0,0 +1,72 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.constant.OutboxENUM;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.model.ResolvedAccount;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Write side of the email outbox. Inserts join the caller's wallet transaction, so a notification
+ * exists exactly when the recharge or transfer that caused it has committed.
+ */
+@Service
+public class OutboxService {
+
+    private final MongoTemplate mongoTemplate;
+
+    public OutboxService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void enqueueRecharge(ResolvedAccount account, long amount, long cashbackAmount) {
+        OutboxMessage message = newMessage(OutboxENUM.RECHARGE, account, null, amount);
+        message.setCashbackAmount(cashbackAmount);
+        mongoTemplate.insert(message);
+    }
+
+    public void enqueueTransfer(ResolvedAccount sender, ResolvedAccount receiver, long amount) {
+        mongoTemplate.insertAll(List.of(
+                newMessage(OutboxENUM.TRANSFER_RECEIVED, receiver, sender.username(), amount),
+                newMessage(OutboxENUM.TRANSFER_SENT, sender, receiver.username(), amount)));
+    }
+
+    // Messages still to be delivered, including ones currently claimed
+    public long backlogSize() {
+        return mongoTemplate.count(new Query(Criteria.where("status").in(OutboxENUM.PENDING, OutboxENUM.PROCESSING)), OutboxMessage.class);
+    }
+
+    // Age of the oldest undelivered message, or zero when the queue is empty
+    public Duration oldestPendingAge() {
+        Query oldest = new Query(Criteria.where("status").in(OutboxENUM.PENDING, OutboxENUM.PROCESSING))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .limit(1);
+        oldest.fields().include("createdAt");
+        OutboxMessage message = mongoTemplate.findOne(oldest, OutboxMessage.class);
+        if (message == null || message.getCreatedAt() == null) {
+            return Duration.ZERO;
+        }
+        return Duration.between(message.getCreatedAt(), LocalDateTime.now());
+    }
+
+    static OutboxMessage newMessage(String type, ResolvedAccount recipient, String counterpartyUsername, long amount) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxMessage message = new OutboxMessage();
+        message.setType(type);
+        message.setRecipientEmail(recipient.email());
+        message.setRecipientUsername(recipient.username());
+        message.setCounterpartyUsername(counterpartyUsername);
+        message.setAmount(amount);
+        message.setStatus(OutboxENUM.PENDING);
+        message.setCreatedAt(now);
+        message.setNextAttemptAt(now);
+        return message;
+    }
+}
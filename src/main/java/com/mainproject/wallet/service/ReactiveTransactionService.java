@@ -0,0 +1,154 @@
+package com.mainproject.wallet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mainproject.wallet.constant.OutboxENUM;
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.dto.TransactionPageDTO;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.mapper.TransactionMapper;
+import com.mainproject.wallet.metrics.TimedOperation;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.model.WalletAggregate;
+import com.mainproject.wallet.utils.TransactionCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.mainproject.wallet.repository.TransactionRepositoryCustomImpl.NEWEST_FIRST_ORDER;
+import static com.mainproject.wallet.repository.TransactionRepositoryCustomImpl.historyQuery;
+import static com.mainproject.wallet.repository.TransactionRepositoryCustomImpl.mergeNewestFirst;
+import static com.mainproject.wallet.repository.TransactionRepositoryCustomImpl.pageQuery;
+import static com.mainproject.wallet.repository.TransactionRepositoryCustomImpl.transferHistoryQuery;
+import static com.mainproject.wallet.repository.TransactionRepositoryCustomImpl.transferPageQuery;
+
+/**
+ * Reactive counterpart of {@link TransactionService}: the same ledger rows, transfer entries,
+ * aggregate upserts and outbox messages, and the same merged keyset pages, written and read
+ * through ReactiveMongoTemplate.
+ * History streams are demand-driven: the driver fetches the next cursor batch only when the
+ * client has consumed the previous one, so a slow reader holds no thread and little memory.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransactionService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${wallet.history.default-page-size:20}")
+    int defaultPageSize;
+
+    @Value("${wallet.history.max-page-size:100}")
+    int maxPageSize;
+
+    public ReactiveTransactionService(ReactiveMongoTemplate mongoTemplate, ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // Joins the caller's reactive transaction when subscribed inside one
+    public Mono<TransactionDTO> recordTransaction(ResolvedAccount account, long amount, String type, ResolvedAccount receiver, long cashbackAmount) {
+        if (account == null) {
+            return Mono.error(new WalletException("User not found for transaction of type: " + type));
+        }
+        Transaction transaction = TransactionService.createTransaction(account, amount, type, receiver);
+        return mongoTemplate.insert(transaction)
+                .flatMap(saved -> mongoTemplate.upsert(WalletAggregateService.aggregateOf(saved.getUserId()),
+                                WalletAggregateService.totalsUpdate(saved), WalletAggregate.class)
+                        .then(enqueueNotifications(account, amount, type, receiver, cashbackAmount))
+                        .thenReturn(TransactionMapper.toDTO(saved)));
+    }
+
+    // One TransferEntry for both legs, as TransactionService.recordTransfer writes it
+    public Mono<TransactionDTO> recordTransfer(ResolvedAccount sender, ResolvedAccount receiver, long amount) {
+        TransferEntry transfer = TransactionService.createTransfer(sender, receiver, amount);
+        return mongoTemplate.insert(transfer)
+                .flatMap(saved -> Flux.just(saved.legOf(sender.id()), saved.legOf(receiver.id()))
+                        .concatMap(leg -> mongoTemplate.upsert(WalletAggregateService.aggregateOf(leg.getUserId()),
+                                WalletAggregateService.totalsUpdate(leg), WalletAggregate.class))
+                        .then(enqueueNotifications(sender, amount, TransactionENUM.SENT, receiver, 0))
+                        .thenReturn(TransactionMapper.toDTO(saved.legOf(sender.id()))));
+    }
+
+    // Same messages OutboxService writes; the OutboxDispatcher delivers them after commit
+    private Mono<Void> enqueueNotifications(ResolvedAccount account, long amount, String type, ResolvedAccount receiver, long cashbackAmount) {
+        if (type.equals(TransactionENUM.RECHARGE)) {
+            OutboxMessage message = OutboxService.newMessage(OutboxENUM.RECHARGE, account, null, amount);
+            message.setCashbackAmount(cashbackAmount);
+            return mongoTemplate.insert(message).then();
+        }
+        if (type.equals(TransactionENUM.SENT)) {
+            return mongoTemplate.insertAll(List.of(
+                    OutboxService.newMessage(OutboxENUM.TRANSFER_RECEIVED, receiver, account.username(), amount),
+                    OutboxService.newMessage(OutboxENUM.TRANSFER_SENT, account, receiver.username(), amount))).then();
+        }
+        return Mono.empty();
+    }
+
+    // Own rows and transfer legs arrive newest first from two cursors and are merged on the fly
+    public Flux<TransactionDTO> streamByUserId(String userId) {
+        return Flux.mergeComparing(NEWEST_FIRST_ORDER,
+                        mongoTemplate.find(historyQuery(userId), Transaction.class),
+                        mongoTemplate.find(transferHistoryQuery(userId), TransferEntry.class).map(transfer -> transfer.legOf(userId)))
+                .map(TransactionMapper::toDTO);
+    }
+
+    // One JSON document per line, as written by StatementExportService
+    public Flux<String> streamNdjsonByUserId(String userId) {
+        return streamByUserId(userId).handle((dto, sink) -> {
+            try {
+                sink.next(objectMapper.writeValueAsString(dto) + '\n');
+            } catch (JsonProcessingException e) {
+                sink.error(e);
+            }
+        });
+    }
+
+    // One CSV line per element, header first; same columns and escaping as StatementExportService
+    public Flux<String> streamCsvByUserId(String userId) {
+        return Flux.concat(Mono.just(StatementExportService.CSV_HEADER + '\n'), streamByUserId(userId).map(ReactiveTransactionService::csvLine));
+    }
+
+    @TimedOperation("transactions.page")
+    public Mono<TransactionPageDTO> getTransactionPageByUserId(String userId, String type, LocalDateTime from, LocalDateTime to, TransactionCursor cursor, Integer limit) {
+        return Mono.defer(() -> {
+            TransactionService.checkPageFilter(type, from, to);
+            int pageSize = TransactionService.pageSize(limit, defaultPageSize, maxPageSize);
+            // Read one extra row to learn whether another page exists without a separate count
+            Mono<List<Transaction>> rows = mongoTemplate.find(pageQuery(userId, type, from, to, cursor, pageSize + 1), Transaction.class)
+                    .collectList();
+            Query transfers = transferPageQuery(userId, type, from, to, cursor, pageSize + 1);
+            Mono<List<Transaction>> legs = transfers == null ? Mono.just(List.of())
+                    : mongoTemplate.find(transfers, TransferEntry.class).map(transfer -> transfer.legOf(userId)).collectList();
+            return Mono.zip(rows, legs)
+                    .map(both -> TransactionService.toPage(mergeNewestFirst(both.getT1(), both.getT2(), pageSize + 1), pageSize));
+        });
+    }
+
+    public Flux<TransactionDTO> getCashbackByUserId(String userId) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("type").is(TransactionENUM.CASHBACK));
+        return mongoTemplate.find(query, Transaction.class).map(TransactionMapper::toDTO);
+    }
+
+    private static String csvLine(TransactionDTO dto) {
+        return StatementExportService.csv(dto.getId()) + ',' + StatementExportService.csv(dto.getUserId()) + ',' + dto.getAmount() + ','
+                + (dto.getTimestamp() != null ? dto.getTimestamp().toString() : "") + ',' + StatementExportService.csv(dto.getType()) + ','
+                + StatementExportService.csv(dto.getSenderId()) + ',' + StatementExportService.csv(dto.getSenderUsername()) + ','
+                + StatementExportService.csv(dto.getReceiverId()) + ',' + StatementExportService.csv(dto.getReceiverUsername()) + '\n';
+    }
+}
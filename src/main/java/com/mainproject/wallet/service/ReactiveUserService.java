@@ -0,0 +1,98 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.dto.LoginDTO;
+import com.mainproject.wallet.dto.RegisterDTO;
+import com.mainproject.wallet.exception.AuthException;
+import com.mainproject.wallet.mapper.UserMapper;
+import com.mainproject.wallet.metrics.TimedOperation;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.security.PasswordHashingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link UserService}. Lookups use the same case-insensitive collation as
+ * UserRepository, and bcrypt runs on PasswordHashingService's pool through its future-based methods,
+ * so no event-loop thread ever waits for a hash.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    // Matches the username_ci_unique and email_ci_unique indexes
+    static final Collation CASE_INSENSITIVE = Collation.of("en").strength(2);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final PasswordHashingService passwordHashingService;
+
+    public ReactiveUserService(ReactiveMongoTemplate mongoTemplate, PasswordHashingService passwordHashingService) {
+        this.mongoTemplate = mongoTemplate;
+        this.passwordHashingService = passwordHashingService;
+    }
+
+    public Mono<User> register(RegisterDTO registerDTO) {
+        return findByField("username", registerDTO.getUsername()).hasElement()
+                .flatMap(usernameTaken -> usernameTaken
+                        ? Mono.<Boolean>error(new AuthException("Username already exists"))
+                        : findByField("email", registerDTO.getEmail()).hasElement())
+                .flatMap(emailTaken -> emailTaken
+                        ? Mono.<String>error(new AuthException("Email already exists"))
+                        : Mono.fromFuture(() -> passwordHashingService.encodeAsync(registerDTO.getPassword())))
+                .flatMap(encryptedPassword -> {
+                    User newUser = UserMapper.toEntity(registerDTO);
+                    newUser.setPassword(encryptedPassword);
+                    newUser.setWalletBalance(0);
+                    return mongoTemplate.insert(newUser);
+                })
+                .doOnNext(savedUser -> log.info("User registered with ID: " + savedUser.getId()));
+    }
+
+    @TimedOperation("login")
+    public Mono<User> login(LoginDTO loginDTO) {
+        return findByField("username", loginDTO.getUsername())
+                .filterWhen(user -> Mono.fromFuture(() -> passwordHashingService.matchesAsync(loginDTO.getPassword(), user.getPassword())))
+                .switchIfEmpty(Mono.error(() -> new AuthException("Invalid Credentials")))
+                .doOnNext(user -> {
+                    if (passwordHashingService.needsRehash(user.getPassword())) {
+                        rehash(user, loginDTO.getPassword());
+                    }
+                });
+    }
+
+    // Same as UserService: store a hash with the current cost without delaying the login; skipped when the pool is busy
+    private void rehash(User user, String rawPassword) {
+        String oldHash = user.getPassword();
+        Mono.fromFuture(() -> passwordHashingService.encodeInBackground(rawPassword))
+                .flatMap(newHash -> mongoTemplate.updateFirst(
+                        new Query(Criteria.where("id").is(user.getId()).and("password").is(oldHash)),
+                        new Update().set("password", newHash), User.class))
+                .subscribe(result -> {
+                    if (result.getModifiedCount() == 1) {
+                        log.info("Rehashed password for user {} with the current bcrypt cost", user.getId());
+                    }
+                }, error -> log.debug("Skipped password rehash for user {}: {}", user.getId(), error.getMessage()));
+    }
+
+    // Loads only id, username and email; empty when there is no such user
+    public Mono<ResolvedAccount> resolveAccount(String username) {
+        if (username == null) {
+            return Mono.empty();
+        }
+        Query query = new Query(Criteria.where("username").is(username)).collation(CASE_INSENSITIVE);
+        query.fields().include("id", "username", "email");
+        return mongoTemplate.findOne(query, User.class).map(ResolvedAccount::of);
+    }
+
+    private Mono<User> findByField(String field, String value) {
+        return mongoTemplate.findOne(new Query(Criteria.where(field).is(value)).collation(CASE_INSENSITIVE), User.class);
+    }
+}
@@ -0,0 +1,227 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.dto.RechargeResponseDTO;
+import com.mainproject.wallet.dto.WalletAggregateDTO;
+import com.mainproject.wallet.exception.UserNotFoundException;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.mapper.WalletAggregateMapper;
+import com.mainproject.wallet.metrics.TimedOperation;
+import com.mainproject.wallet.metrics.WalletMetrics;
+import com.mainproject.wallet.model.BalanceStripe;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.model.WalletAggregate;
+import com.mainproject.wallet.repository.BalanceStripeRepository;
+import com.mainproject.wallet.retry.ReactiveConflictRetry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.mainproject.wallet.repository.UserRepositoryCustomImpl.unstriped;
+
+/**
+ * Reactive counterpart of {@link WalletService}. Each operation runs in one reactive Mongo
+ * transaction, retried as a whole on write conflicts, and changes balances with the same
+ * conditional $inc updates as UserRepositoryCustomImpl, including its fallback to the balance
+ * stripes of hot accounts.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWalletService {
+
+    private static final String BALANCE = "walletBalance";
+    private static final String VERSION = "version";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ReactiveTransactionService transactionService;
+    private final ReactiveUserService userService;
+    private final TransactionalOperator transactionalOperator;
+    private final ReactiveConflictRetry conflictRetry;
+    private final WalletMetrics walletMetrics;
+    private final CashbackEngine cashbackEngine;
+
+    public ReactiveWalletService(ReactiveMongoTemplate mongoTemplate, ReactiveTransactionService transactionService,
+                                 ReactiveUserService userService, TransactionalOperator transactionalOperator, ReactiveConflictRetry conflictRetry,
+                                 WalletMetrics walletMetrics, CashbackEngine cashbackEngine) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionService = transactionService;
+        this.userService = userService;
+        this.transactionalOperator = transactionalOperator;
+        this.conflictRetry = conflictRetry;
+        this.walletMetrics = walletMetrics;
+        this.cashbackEngine = cashbackEngine;
+    }
+
+    @TimedOperation("recharge")
+    public Mono<RechargeResponseDTO> recharge(String username, long amount) {
+        return userService.resolveAccount(username)
+                .switchIfEmpty(Mono.error(() -> new WalletException("No user found for username: " + username)))
+                .flatMap(account -> Mono.fromCallable(() -> cashbackEngine.grant(account, amount))
+                        // Decided in memory; may read the user's cashback for the day once when a daily cap applies
+                        .subscribeOn(Schedulers.boundedElastic())
+                        // Reserved once for all conflict retries, and given back unless the transaction committed:
+                        // a failed commit or a cancellation arrives after the transactional body has completed
+                        .flatMap(grant -> {
+                            AtomicBoolean committed = new AtomicBoolean();
+                            return inTransaction(Mono.defer(() -> applyRecharge(account, amount, grant.amount())))
+                                    .doOnNext(response -> committed.set(true))
+                                    .doFinally(signal -> {
+                                        if (!committed.get()) {
+                                            cashbackEngine.release(grant);
+                                        }
+                                    });
+                        }))
+                // Counted once the transaction has committed, not per attempt
+                .doOnNext(response -> {
+                    if (response.getCashbackAmount() > 0) {
+                        walletMetrics.recordCashback(response.getCashbackAmount());
+                    }
+                });
+    }
+
+    private Mono<RechargeResponseDTO> applyRecharge(ResolvedAccount account, long amount, long cashbackAmount) {
+        // Recharge and cashback land in one $inc
+        return credit(account.id(), amount + cashbackAmount)
+                .switchIfEmpty(Mono.error(() -> new WalletException("No user found for userId: " + account.id())))
+                .flatMap(user -> {
+                    Mono<?> cashback = cashbackAmount > 0
+                            ? transactionService.recordTransaction(account, cashbackAmount, TransactionENUM.CASHBACK, account, cashbackAmount)
+                            : Mono.empty();
+                    return cashback
+                            .then(transactionService.recordTransaction(account, amount, TransactionENUM.RECHARGE, account, cashbackAmount))
+                            .doOnNext(transaction -> log.info("Transaction recorded: {}", transaction))
+                            .thenReturn(new RechargeResponseDTO(cashbackAmount, user.getWalletBalance()));
+                });
+    }
+
+    @TimedOperation("transfer")
+    public Mono<User> transfer(String fromUsername, String toUsername, long amount) {
+        if (fromUsername.equals(toUsername)) {
+            return Mono.error(new WalletException("Cannot transfer money to yourself"));
+        }
+        return inTransaction(Mono.defer(() -> Mono.zip(userService.resolveAccount(fromUsername), userService.resolveAccount(toUsername))
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("Wallet not found for username " + toUsername)))
+                .flatMap(accounts -> {
+                    ResolvedAccount fromAccount = accounts.getT1();
+                    ResolvedAccount toAccount = accounts.getT2();
+                    return debitIfSufficient(fromAccount.id(), amount)
+                            .flatMap(debited -> debited
+                                    ? credit(toAccount.id(), amount)
+                                    // Rolls back the debit together with the surrounding transaction
+                                    .switchIfEmpty(Mono.error(() -> new WalletException("User not found for userId: " + toAccount.id())))
+                                    : Mono.<User>error(insufficientFunds()))
+                            .flatMap(toUser -> transactionService.recordTransfer(fromAccount, toAccount, amount)
+                                    .doOnNext(transaction -> log.info("Transaction recorded for transfer: {}", transaction))
+                                    .thenReturn(toUser));
+                })));
+    }
+
+    @TimedOperation("statement")
+    public Mono<User> viewStatement(String username) {
+        return userService.resolveAccount(username)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("No user found for username: " + username)))
+                .flatMap(account -> mongoTemplate.findById(account.id(), User.class)
+                        .switchIfEmpty(Mono.error(() -> new WalletException("No user found for userId: " + account.id()))))
+                .flatMap(this::withCurrentBalance);
+    }
+
+    public Mono<WalletAggregateDTO> getAggregates(String userId) {
+        return mongoTemplate.findById(userId, WalletAggregate.class)
+                .defaultIfEmpty(emptyAggregate(userId)) // No activity yet
+                .map(WalletAggregateMapper::toDTO);
+    }
+
+    private <T> Mono<T> inTransaction(Mono<T> operation) {
+        return conflictRetry.apply(transactionalOperator.transactional(operation));
+    }
+
+    private WalletException insufficientFunds() {
+        walletMetrics.recordInsufficientFunds();
+        return new WalletException("Insufficient funds in the account");
+    }
+
+    private Mono<Boolean> debitIfSufficient(String userId, long amount) {
+        Query query = new Query(unstriped(userId).and(BALANCE).gte(amount));
+        Update update = new Update().inc(BALANCE, -amount).inc(VERSION, 1);
+        return mongoTemplate.updateFirst(query, update, User.class)
+                .flatMap(result -> result.getModifiedCount() == 1 ? Mono.just(true) : debitStripes(userId, amount));
+    }
+
+    private Mono<User> credit(String userId, long amount) {
+        Update update = new Update().inc(BALANCE, amount).inc(VERSION, 1);
+        return mongoTemplate.findAndModify(new Query(unstriped(userId)), update, FindAndModifyOptions.options().returnNew(true), User.class)
+                .switchIfEmpty(Mono.defer(() -> creditStripe(userId, amount)));
+    }
+
+    // Same draw as BalanceStripeRepository.debitIfSufficient; false for unknown and unstriped users
+    private Mono<Boolean> debitStripes(String userId, long amount) {
+        Query query = new Query(Criteria.where("id").is(userId));
+        query.fields().include("balanceStripes");
+        return mongoTemplate.findOne(query, User.class)
+                .filter(user -> user.getBalanceStripes() > 0)
+                .flatMap(user -> mongoTemplate.find(BalanceStripeRepository.stripesOf(userId), BalanceStripe.class).collectList())
+                .flatMap(stripes -> {
+                    List<BalanceStripeRepository.Draw> draws = BalanceStripeRepository.plan(stripes, amount, ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+                    if (draws == null) {
+                        return Mono.just(false);
+                    }
+                    return Flux.fromIterable(draws)
+                            .concatMap(draw -> mongoTemplate.updateFirst(BalanceStripeRepository.drawQuery(draw), BalanceStripeRepository.credit(-draw.amount()), BalanceStripe.class)
+                                    .filter(result -> result.getModifiedCount() == 1)
+                                    // Another debit got there first; the retry re-runs the whole transaction
+                                    .switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException("Balance stripe " + draw.stripeId() + " changed during a debit"))))
+                            .then(Mono.just(true));
+                })
+                .defaultIfEmpty(false);
+    }
+
+    // Empty for an unknown user; the user document itself is not written for a striped one
+    private Mono<User> creditStripe(String userId, long amount) {
+        return mongoTemplate.findById(userId, User.class)
+                .flatMap(user -> {
+                    if (user.getBalanceStripes() == 0) {
+                        return Mono.error(new OptimisticLockingFailureException("Balance layout of user " + userId + " changed during a credit"));
+                    }
+                    String stripeId = BalanceStripeRepository.stripeId(userId, ThreadLocalRandom.current().nextInt(user.getBalanceStripes()));
+                    return mongoTemplate.updateFirst(BalanceStripeRepository.stripe(stripeId), BalanceStripeRepository.credit(amount), BalanceStripe.class)
+                            .flatMap(result -> result.getMatchedCount() == 1
+                                    ? withCurrentBalance(user)
+                                    : Mono.error(new OptimisticLockingFailureException("Balance layout of user " + userId + " changed during a credit")));
+                });
+    }
+
+    // A hot account's balance is the sum of its stripes
+    private Mono<User> withCurrentBalance(User user) {
+        if (user.getBalanceStripes() == 0) {
+            return Mono.just(user);
+        }
+        return mongoTemplate.find(BalanceStripeRepository.stripesOf(user.getId()), BalanceStripe.class)
+                .collectList()
+                .map(stripes -> {
+                    user.setWalletBalance(BalanceStripeRepository.sum(stripes));
+                    return user;
+                });
+    }
+
+    private static WalletAggregate emptyAggregate(String userId) {
+        WalletAggregate aggregate = new WalletAggregate();
+        aggregate.setUserId(userId);
+        return aggregate;
+    }
+}
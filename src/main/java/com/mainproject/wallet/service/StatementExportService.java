@@ -0,0 +1,146 @@
+package com.mainproject.wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.mapper.TransactionMapper;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's full statement row by row from a Mongo cursor straight to the response. Nothing is
+ * collected in memory: the cursor fetches the next batch only when the writer has consumed the previous
+ * one, and a slow client simply blocks the write, which in turn stops the cursor.
+ */
+@Slf4j
+@Service
+public class StatementExportService {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    static final String CSV_HEADER = "id,userId,amount,timestamp,type,senderId,senderUsername,receiverId,receiverUsername";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    public StatementExportService(TransactionRepository transactionRepository, UserService userService, ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+    }
+
+    // Resolved before the response is committed so an unknown user still gets a normal error response
+    public ResolvedAccount resolveExportAccount(String username) {
+        ResolvedAccount account = userService.resolveAccount(username);
+        if (account == null) {
+            throw new WalletException("User not found for username: " + username);
+        }
+        return account;
+    }
+
+    public long export(ResolvedAccount account, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        long rows = 0;
+        try (Stream<Transaction> transactions = transactionRepository.streamByUserId(account.id())) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                TransactionDTO dto = TransactionMapper.toDTO(iterator.next());
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, dto);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush(); // Push finished rows to the client instead of holding them until the end
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} transactions for userId {} as {}", rows, account.id(), format);
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, TransactionDTO dto) throws IOException {
+        writer.write(csv(dto.getId()));
+        writer.write(',');
+        writer.write(csv(dto.getUserId()));
+        writer.write(',');
+        writer.write(String.valueOf(dto.getAmount()));
+        writer.write(',');
+        writer.write(dto.getTimestamp() != null ? dto.getTimestamp().toString() : "");
+        writer.write(',');
+        writer.write(csv(dto.getType()));
+        writer.write(',');
+        writer.write(csv(dto.getSenderId()));
+        writer.write(',');
+        writer.write(csv(dto.getSenderUsername()));
+        writer.write(',');
+        writer.write(csv(dto.getReceiverId()));
+        writer.write(',');
+        writer.write(csv(dto.getReceiverUsername()));
+        writer.write('\n');
+    }
+
+    static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        // Usernames are user-chosen: stop spreadsheets from evaluating them as formulas
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -2,11 +2,17 @@ package com.mainproject.wallet.service;
 
 import com.mainproject.wallet.constant.TransactionENUM;
 import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.dto.TransactionPageDTO;
 import com.mainproject.wallet.exception.WalletException;
 import com.mainproject.wallet.mapper.TransactionMapper;
+import com.mainproject.wallet.metrics.TimedOperation;
+import com.mainproject.wallet.model.ResolvedAccount;
 import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
 import com.mainproject.wallet.repository.TransactionRepository;
+import com.mainproject.wallet.utils.TransactionCursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,43 +26,71 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final UserService userService;
-    private final EmailService emailService;
+    private final OutboxService outboxService;
+    private final WalletAggregateService walletAggregateService;
 
-    public TransactionService(TransactionRepository transactionRepository, UserService userService, EmailService emailService) {
+    @Value("${wallet.history.default-page-size:20}")
+    int defaultPageSize;
+
+    @Value("${wallet.history.max-page-size:100}")
+    int maxPageSize;
+
+    public TransactionService(TransactionRepository transactionRepository, UserService userService, OutboxService outboxService,
+                              WalletAggregateService walletAggregateService) {
         this.transactionRepository = transactionRepository;
         this.userService = userService;
-        this.emailService = emailService;
+        this.outboxService = outboxService;
+        this.walletAggregateService = walletAggregateService;
     }
 
-    public TransactionDTO recordTransaction(String username, double amount, String type, String receiverId, String receiverUsername, double cashbackAmount) {
-        String userId = userService.getUserIdByUsername(username);
-        if (userId == null) {
-            throw new WalletException("User not found for username: " + username);
+    // Both accounts arrive pre-resolved by the caller, so recording a transaction does no user lookups
+    public TransactionDTO recordTransaction(ResolvedAccount account, long amount, String type, ResolvedAccount receiver, long cashbackAmount) {
+        if (account == null) {
+            throw new WalletException("User not found for transaction of type: " + type);
         }
 
         // Create and set up the transaction instance
-        Transaction transaction = createTransaction(username, userId, amount, type, receiverId, receiverUsername);
+        Transaction transaction = createTransaction(account, amount, type, receiver);
 
-        // Save the transaction
+        // Save the transaction and fold it into the owner's running totals
         transactionRepository.save(transaction);
+        walletAggregateService.record(transaction);
 
-        // Fetch email addresses
-        String userEmail = userService.getEmailByUsername(username);
-        String receiverEmail = userService.getEmailByUsername(receiverUsername);
-
-        // Send email notifications
+        // Queue email notifications in the outbox; they are sent after commit by the OutboxDispatcher
         if (type.equals(TransactionENUM.RECHARGE)) {
-            emailService.sendRechargeEmail(userEmail, amount, cashbackAmount);
+            outboxService.enqueueRecharge(account, amount, cashbackAmount);
         } else if (type.equals(TransactionENUM.SENT)) {
-            emailService.sendTransferEmail(receiverEmail, username, userEmail, receiverUsername, amount);
+            outboxService.enqueueTransfer(account, receiver, amount);
         }
 
         return TransactionMapper.toDTO(transaction);
     }
 
-    private Transaction createTransaction(String username, String userId, double amount, String type, String receiverId, String receiverUsername) {
+    // Both legs in one ledger document; the sender's and the receiver's histories are projections of it
+    public TransactionDTO recordTransfer(ResolvedAccount sender, ResolvedAccount receiver, long amount) {
+        TransferEntry transfer = createTransfer(sender, receiver, amount);
+
+        transactionRepository.insertTransfer(transfer);
+        walletAggregateService.record(transfer);
+        outboxService.enqueueTransfer(sender, receiver, amount);
+
+        return TransactionMapper.toDTO(transfer.legOf(sender.id()));
+    }
+
+    static TransferEntry createTransfer(ResolvedAccount sender, ResolvedAccount receiver, long amount) {
+        TransferEntry transfer = new TransferEntry();
+        transfer.setAmount(amount);
+        transfer.setTimestamp(LocalDateTime.now());
+        transfer.setSenderId(sender.id());
+        transfer.setSenderUsername(sender.username());
+        transfer.setReceiverId(receiver.id());
+        transfer.setReceiverUsername(receiver.username());
+        return transfer;
+    }
+
+    static Transaction createTransaction(ResolvedAccount account, long amount, String type, ResolvedAccount receiver) {
         Transaction transaction = new Transaction();
-        transaction.setUserId(userId);
+        transaction.setUserId(account.id());
 
         transaction.setAmount(amount);
         transaction.setTimestamp(LocalDateTime.now());
@@ -67,22 +101,25 @@ public class TransactionService {
             transaction.setSenderId(null);
             transaction.setSenderUsername(null);
         } else {
-            transaction.setSenderId(userId);
-            transaction.setSenderUsername(username);
+            transaction.setSenderId(account.id());
+            transaction.setSenderUsername(account.username());
         }
 
         if(TransactionENUM.RECEIVED.equals(type))
         {
-            transaction.setUserId(receiverId);
+            transaction.setUserId(receiver.id());
         }
 
         // Set receiver details
-        transaction.setReceiverId(receiverId);
-        transaction.setReceiverUsername(receiverUsername);
+        if (receiver != null) {
+            transaction.setReceiverId(receiver.id());
+            transaction.setReceiverUsername(receiver.username());
+        }
 
         return transaction;
     }
 
+    @TimedOperation("transactions.list")
     public List<TransactionDTO> getTransactionsByUserId(String userId) {
         List<Transaction> transactions = transactionRepository.findByUserId(userId);
         return transactions.stream()
@@ -91,34 +128,78 @@ public class TransactionService {
     }
 
     public List<TransactionDTO> getTransactionsByUsername(String username) {
-        String userId = userService.getUserIdByUsername(username);
-        if (userId == null) {
+        ResolvedAccount account = userService.resolveAccount(username);
+        if (account == null) {
             throw new WalletException("User not found for username: " + username);
         }
-        return getTransactionsByUserId(userId);
+        return getTransactionsByUserId(account.id());
+    }
+
+    @TimedOperation("transactions.page")
+    public TransactionPageDTO getTransactionPageByUserId(String userId, String type, LocalDateTime from, LocalDateTime to, TransactionCursor cursor, Integer limit) {
+        checkPageFilter(type, from, to);
+        int pageSize = pageSize(limit, defaultPageSize, maxPageSize);
+        // Read one extra row to learn whether another page exists without a separate count
+        List<Transaction> rows = transactionRepository.findPageByUserId(userId, type, from, to, cursor, pageSize + 1);
+        return toPage(rows, pageSize);
+    }
+
+    static void checkPageFilter(String type, LocalDateTime from, LocalDateTime to) {
+        if (type != null && !TransactionENUM.ALL.contains(type)) {
+            throw new IllegalArgumentException("Unknown transaction type: " + type);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+
+    static int pageSize(Integer limit, int defaultPageSize, int maxPageSize) {
+        if (limit == null) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    static TransactionPageDTO toPage(List<Transaction> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Transaction last = page.get(page.size() - 1);
+            nextCursor = new TransactionCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        List<TransactionDTO> transactions = page.stream()
+                .map(TransactionMapper::toDTO)
+                .collect(Collectors.toList());
+        return new TransactionPageDTO(transactions, nextCursor);
     }
 
     public TransactionDTO getTransactionById(String transactionId) {
-        Optional<Transaction> transaction = transactionRepository.findById(transactionId);
+        // A transfer stored as one TransferEntry is returned as its sender's leg
+        Optional<Transaction> transaction = transactionRepository.findById(transactionId)
+                .or(() -> transactionRepository.findTransferById(transactionId).map(transfer -> transfer.legOf(transfer.getSenderId())));
         if (transaction.isEmpty()) {
             throw new WalletException("Transaction not found for ID: " + transactionId);
         }
         return TransactionMapper.toDTO(transaction.orElse(null));
     }
 
+    @TimedOperation("cashbacks.list")
     public List<TransactionDTO> getCashbackByUserId(String userId) {
-        List<Transaction> transactions = transactionRepository.findByUserId(userId);
+        List<Transaction> transactions = transactionRepository.findByUserIdAndType(userId, TransactionENUM.CASHBACK);
         return transactions.stream()
-                .filter(transaction -> TransactionENUM.CASHBACK.equals(transaction.getType()))
                 .map(TransactionMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
     public List<TransactionDTO> getCashbackByUsername(String username) {
-        String userId = userService.getUserIdByUsername(username);
-        if (userId == null) {
+        ResolvedAccount account = userService.resolveAccount(username);
+        if (account == null) {
             throw new WalletException("User not found for username: " + username);
         }
-        return getCashbackByUserId(userId);
+        return getCashbackByUserId(account.id());
     }
 }
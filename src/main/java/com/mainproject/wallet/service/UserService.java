@@ -4,23 +4,33 @@ import com.mainproject.wallet.dto.LoginDTO;
 import com.mainproject.wallet.dto.RegisterDTO;
 import com.mainproject.wallet.exception.AuthException;
 import com.mainproject.wallet.mapper.UserMapper;
+import com.mainproject.wallet.metrics.TimedOperation;
+import com.mainproject.wallet.model.ResolvedAccount;
 import com.mainproject.wallet.model.User;
 import com.mainproject.wallet.repository.UserRepository;
+import com.mainproject.wallet.security.PasswordHashingService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 @Slf4j
 @Service
 public class UserService {
 
+    private static final String RESOLVED_ACCOUNTS_ATTRIBUTE = UserService.class.getName() + ".resolvedAccounts";
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     // Constructor injection
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
     }
 
     public User register(RegisterDTO registerDTO) {
@@ -34,10 +44,10 @@ public class UserService {
         }
 
         // Encrypt password and save user
-        String encryptedPassword = passwordEncoder.encode(registerDTO.getPassword());
+        String encryptedPassword = passwordHashingService.encode(registerDTO.getPassword());
         User newUser = UserMapper.toEntity(registerDTO);
         newUser.setPassword(encryptedPassword);
-        newUser.setWalletBalance(0.0);
+        newUser.setWalletBalance(0);
 
         User savedUser = userRepository.save(newUser);
         log.info("User registered with ID: " + savedUser.getId());
@@ -45,21 +55,72 @@ public class UserService {
         return savedUser;
     }
 
+    @TimedOperation("login")
     public User login(LoginDTO loginDTO) {
         User user = userRepository.findByUsernameIgnoreCase(loginDTO.getUsername());
-        if (user != null && passwordEncoder.matches(loginDTO.getPassword(), user.getPassword())) {
-            return user;
+        if (user != null && passwordHashingService.matches(loginDTO.getPassword(), user.getPassword())) {
+            if (passwordHashingService.needsRehash(user.getPassword())) {
+                rehash(user, loginDTO.getPassword());
+            }
+            // A hot account's balance is the sum of its stripes
+            return user.getBalanceStripes() > 0 ? userRepository.withCurrentBalance(user) : user;
         }
         throw new AuthException("Invalid Credentials");
     }
 
+    // The bcrypt cost changed since this hash was made; store a new hash without delaying the login
+    private void rehash(User user, String rawPassword) {
+        String oldHash = user.getPassword();
+        passwordHashingService.encodeInBackground(rawPassword).whenComplete((newHash, error) -> {
+            if (error != null) {
+                log.debug("Skipped password rehash for user {}: {}", user.getId(), error.getMessage()); // Retried on next login
+            } else if (userRepository.replacePasswordHash(user.getId(), oldHash, newHash)) {
+                log.info("Rehashed password for user {} with the current bcrypt cost", user.getId());
+            }
+        });
+    }
+
     public String getUserIdByUsername(String username) {
-        User user = userRepository.findByUsernameIgnoreCase(username);
-        return user != null ? user.getId() : null;
+        ResolvedAccount account = resolveAccount(username);
+        return account != null ? account.id() : null;
     }
 
     public String getEmailByUsername(String username) {
+        ResolvedAccount account = resolveAccount(username);
+        return account != null ? account.email() : null;
+    }
+
+    // Loads id, username and email once; repeat lookups within the same HTTP request are served from the request attributes
+    public ResolvedAccount resolveAccount(String username) {
+        if (username == null) {
+            return null;
+        }
+
+        Map<String, ResolvedAccount> resolved = requestScopedAccounts();
+        String key = username.toLowerCase(Locale.ROOT);
+        if (resolved != null && resolved.containsKey(key)) {
+            return resolved.get(key);
+        }
+
         User user = userRepository.findByUsernameIgnoreCase(username);
-        return user != null ? user.getEmail() : null;
+        ResolvedAccount account = user != null ? ResolvedAccount.of(user) : null;
+        if (resolved != null && account != null) {
+            resolved.put(key, account);
+        }
+        return account;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ResolvedAccount> requestScopedAccounts() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null; // Not inside a request (scheduled jobs, tests)
+        }
+        Map<String, ResolvedAccount> resolved = (Map<String, ResolvedAccount>) attributes.getAttribute(RESOLVED_ACCOUNTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved == null) {
+            resolved = new HashMap<>();
+            attributes.setAttribute(RESOLVED_ACCOUNTS_ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
+        }
+        return resolved;
     }
 }
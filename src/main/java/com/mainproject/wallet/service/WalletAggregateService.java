@@ -0,0 +1,142 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.dto.WalletAggregateDTO;
+import com.mainproject.wallet.mapper.WalletAggregateMapper;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.model.WalletAggregate;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class WalletAggregateService {
+
+    private final MongoTemplate mongoTemplate;
+
+    // This bean's proxy, so rebuildAll gets a transaction per user; a plain this.rebuild would skip @Transactional
+    @Lazy
+    @Autowired
+    WalletAggregateService self;
+
+    public WalletAggregateService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // One upsert per ledger row; runs inside the caller's wallet transaction so totals commit or roll back with it
+    public void record(Transaction transaction) {
+        mongoTemplate.upsert(aggregateOf(transaction.getUserId()), totalsUpdate(transaction), WalletAggregate.class);
+    }
+
+    // A transfer counts as Sent for the sender and Received for the receiver
+    public void record(TransferEntry transfer) {
+        record(transfer.legOf(transfer.getSenderId()));
+        record(transfer.legOf(transfer.getReceiverId()));
+    }
+
+    static Query aggregateOf(String userId) {
+        return new Query(Criteria.where("_id").is(userId));
+    }
+
+    static Update totalsUpdate(Transaction transaction) {
+        String type = transaction.getType();
+        Update update = new Update()
+                .inc("counts." + type, 1L)
+                .inc("sums." + type, transaction.getAmount())
+                .max("lastActivity", transaction.getTimestamp());
+        if (TransactionENUM.CASHBACK.equals(type)) {
+            update.inc("cashbackTotal", transaction.getAmount());
+        }
+        return update;
+    }
+
+    public WalletAggregateDTO getAggregate(String userId) {
+        WalletAggregate aggregate = mongoTemplate.findById(userId, WalletAggregate.class);
+        if (aggregate == null) {
+            aggregate = new WalletAggregate();
+            aggregate.setUserId(userId); // No activity yet
+        }
+        return WalletAggregateMapper.toDTO(aggregate);
+    }
+
+    // Recomputes the totals from the ledger; the transaction makes the read and the overwrite conflict with concurrent $inc writes
+    @Transactional
+    public WalletAggregateDTO rebuild(String userId) {
+        Aggregation totalsByType = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                Aggregation.group("type").count().as("count").sum("amount").as("total").max("timestamp").as("last"));
+
+        WalletAggregate aggregate = new WalletAggregate();
+        aggregate.setUserId(userId);
+        Map<String, Long> counts = new HashMap<>();
+        Map<String, Long> sums = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(totalsByType, Transaction.class, Document.class)) {
+            add(aggregate, counts, sums, row.getString("_id"), row);
+        }
+        // Transfers recorded as TransferEntry documents add to the Sent and Received rows written before them
+        for (Document row : mongoTemplate.aggregate(transferTotals("senderId", userId), TransferEntry.class, Document.class)) {
+            add(aggregate, counts, sums, TransactionENUM.SENT, row);
+        }
+        for (Document row : mongoTemplate.aggregate(transferTotals("receiverId", userId), TransferEntry.class, Document.class)) {
+            add(aggregate, counts, sums, TransactionENUM.RECEIVED, row);
+        }
+        aggregate.setCounts(counts);
+        aggregate.setSums(sums);
+        aggregate.setCashbackTotal(sums.getOrDefault(TransactionENUM.CASHBACK, 0L));
+
+        mongoTemplate.save(aggregate);
+        return WalletAggregateMapper.toDTO(aggregate);
+    }
+
+    private static Aggregation transferTotals(String party, String userId) {
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(party).is(userId)),
+                Aggregation.group().count().as("count").sum("amount").as("total").max("timestamp").as("last"));
+    }
+
+    private static void add(WalletAggregate aggregate, Map<String, Long> counts, Map<String, Long> sums, String type, Document row) {
+        if (type == null) {
+            return;
+        }
+        counts.merge(type, ((Number) row.get("count")).longValue(), Long::sum);
+        sums.merge(type, ((Number) row.get("total")).longValue(), Long::sum);
+        LocalDateTime last = toLocalDateTime(row.getDate("last"));
+        if (last != null && (aggregate.getLastActivity() == null || last.isAfter(aggregate.getLastActivity()))) {
+            aggregate.setLastActivity(last);
+        }
+    }
+
+    public int rebuildAll() {
+        Query idsOnly = new Query();
+        idsOnly.fields().include("id");
+        int rebuilt = 0;
+        for (User user : mongoTemplate.find(idsOnly, User.class)) {
+            self.rebuild(user.getId());
+            rebuilt++;
+        }
+        log.info("Rebuilt wallet aggregates for {} users", rebuilt);
+        return rebuilt;
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        // Same zone conversion Spring Data applies when mapping LocalDateTime fields
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+}
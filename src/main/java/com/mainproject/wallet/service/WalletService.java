@@ -3,13 +3,19 @@ package com.mainproject.wallet.service;
 import com.mainproject.wallet.constant.TransactionENUM;
 import com.mainproject.wallet.dto.RechargeResponseDTO;
 import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.dto.WalletAggregateDTO;
 import com.mainproject.wallet.exception.UserNotFoundException;
 import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.mapper.UserMapper;
+import com.mainproject.wallet.metrics.TimedOperation;
+import com.mainproject.wallet.metrics.WalletMetrics;
+import com.mainproject.wallet.model.IdempotencyKey;
+import com.mainproject.wallet.model.ResolvedAccount;
 import com.mainproject.wallet.model.User;
 import com.mainproject.wallet.repository.UserRepository;
+import com.mainproject.wallet.retry.RetryOnConflict;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,123 +26,146 @@ public class WalletService {
     private final UserRepository userRepository;
     private final TransactionService transactionService;
     private final UserService userService;
+    private final WalletAggregateService walletAggregateService;
+    private final WalletMetrics walletMetrics;
+    private final IdempotencyService idempotencyService;
+    private final CashbackEngine cashbackEngine;
 
-    @Value("${cashback.lower.percent}")
-    double cashbackLowerPercent;
+    // Present only with wallet.ledger.enabled=true; recharges and transfers then go through LedgerWalletService
+    @Autowired(required = false)
+    LedgerEngine ledgerEngine;
 
-    @Value("${cashback.upper.percent}")
-    double cashbackUpperPercent;
 
-
-    public WalletService(UserRepository userRepository, TransactionService transactionService, UserService userService) {
+    public WalletService(UserRepository userRepository, TransactionService transactionService, UserService userService,
+                         WalletAggregateService walletAggregateService, WalletMetrics walletMetrics,
+                         IdempotencyService idempotencyService, CashbackEngine cashbackEngine) {
         this.userRepository = userRepository;
         this.transactionService = transactionService;
         this.userService = userService;
+        this.walletAggregateService = walletAggregateService;
+        this.walletMetrics = walletMetrics;
+        this.idempotencyService = idempotencyService;
+        this.cashbackEngine = cashbackEngine;
     }
 
 
+    @TimedOperation("recharge")
+    @RetryOnConflict
     @Transactional
-    public ResponseEntity<RechargeResponseDTO> recharge(String username, double amount) {
-        String userId = userService.getUserIdByUsername(username);
-        if (userId == null) {
+    // With an idempotency key the result is stored in the same transaction, see IdempotencyService
+    public ResponseEntity<RechargeResponseDTO> recharge(String username, long amount, IdempotencyKey idempotencyKey) {
+        requireMongoBalances();
+        ResolvedAccount account = userService.resolveAccount(username);
+        if (account == null) {
             throw new WalletException("No user found for username: " + username);
         }
+        String userId = account.id();
 
-        User user = userRepository.findById(userId).orElseThrow(() -> new WalletException("No user found for userId: " + userId));
-        log.info("Current balance for userId {}: {}", userId, user.getWalletBalance());
-
-        // Recharge the user's wallet balance
-        user.setWalletBalance(user.getWalletBalance() + amount);
-        try {
-            userRepository.save(user); // Update the balance in the user collection
-        } catch (OptimisticLockingFailureException e) {
-            log.error("Optimistic locking failure when saving user with ID {}: {}", userId, e.getMessage());
-            throw new WalletException("Concurrency conflict occurred while updating the balance. Please try again.");
-        }
+        // Decided in memory from the current rules and counted against caps and budgets; given back if this rolls back
+        long cashback = cashbackEngine.grant(account, amount).amount();
 
-        // Calculate cashback within limits
-        double cashbackAmount = amount * (Math.random() * (cashbackUpperPercent - cashbackLowerPercent) + cashbackLowerPercent);
-        int roundedCashback = (int) Math.round(cashbackAmount / 100);
+        // Recharge and cashback land in one $inc (or one stripe of a hot account), never a read-modify-save
+        User user = userRepository.credit(userId, amount + cashback);
+        if (user == null) {
+            throw new WalletException("No user found for userId: " + userId);
+        }
 
         // Apply cashback if it's greater than 0
-        if (roundedCashback > 0) {
-            user.setWalletBalance(user.getWalletBalance() + roundedCashback);
-            try {
-                userRepository.save(user); // Update the balance in the user collection
-            } catch (OptimisticLockingFailureException e) {
-                log.error("Optimistic locking failure when saving user with ID {}: {}", userId, e.getMessage());
-                throw new WalletException("Concurrency conflict occurred while updating the balance. Please try again.");
-            }
-
+        if (cashback > 0) {
             // Record cashback transaction
-            transactionService.recordTransaction(username, roundedCashback, TransactionENUM.CASHBACK, userId, username,cashbackAmount);
-            log.info("Cashback of {} applied for userId {}", roundedCashback, userId);
+            transactionService.recordTransaction(account, cashback, TransactionENUM.CASHBACK, account, cashback);
+            walletMetrics.recordCashback(cashback);
+            log.info("Cashback of {} paise applied for userId {}", cashback, userId);
         } else {
             log.info("No cashback applied for userId {}", userId);
         }
 
         // Record recharge transaction
-        TransactionDTO transactionDTO = transactionService.recordTransaction(username, amount, TransactionENUM.RECHARGE, userId, username, roundedCashback);
+        TransactionDTO transactionDTO = transactionService.recordTransaction(account, amount, TransactionENUM.RECHARGE, account, cashback);
         log.info("Transaction recorded: {}", transactionDTO);
 
         // Create the response DTO
-        RechargeResponseDTO responseDTO = new RechargeResponseDTO(roundedCashback, user.getWalletBalance());
+        RechargeResponseDTO responseDTO = new RechargeResponseDTO(cashback, user.getWalletBalance());
+        idempotencyService.remember(idempotencyKey, responseDTO);
         return ResponseEntity.ok(responseDTO);
     }
 
+    @TimedOperation("transfer")
+    @RetryOnConflict
     @Transactional
-    public User transfer(String fromUsername, String toUsername, double amount) {
-        // Check if the sender and receiver are the same
+    public User transfer(String fromUsername, String toUsername, long amount, IdempotencyKey idempotencyKey) {
+        requireMongoBalances();
+        log.debug("Transfer of {} paise requested from {} to {}", amount, fromUsername, toUsername);
 
-        log.info("fromUsername"+fromUsername);
-        log.info("tousername"+toUsername);
+        // Check if the sender and receiver are the same
         if (fromUsername.equals(toUsername)) {
             throw new WalletException("Cannot transfer money to yourself");
         }
 
-        String fromUserId = userService.getUserIdByUsername(fromUsername);
-        String toUserId = userService.getUserIdByUsername(toUsername);
+        // Resolve both participants once; the ledger and notification steps below reuse them
+        ResolvedAccount fromAccount = userService.resolveAccount(fromUsername);
+        ResolvedAccount toAccount = userService.resolveAccount(toUsername);
 
-        if (fromUserId == null || toUserId == null) {
+        if (fromAccount == null || toAccount == null) {
             throw new UserNotFoundException("Wallet not found for username " + toUsername);
         }
+        String fromUserId = fromAccount.id();
+        String toUserId = toAccount.id();
 
-        User fromUser = userRepository.findById(fromUserId).orElseThrow(() -> new WalletException("User not found for userId: " + fromUserId));
-        User toUser = userRepository.findById(toUserId).orElseThrow(() -> new WalletException("User not found for userId: " + toUserId));
-
-        if (fromUser.getWalletBalance() >= amount) {
-            fromUser.setWalletBalance(fromUser.getWalletBalance() - amount);
-            toUser.setWalletBalance(toUser.getWalletBalance() + amount);
-            try {
-                userRepository.save(fromUser); // Update the balance in the user collection
-            } catch (OptimisticLockingFailureException e) {
-                log.error("Optimistic locking failure when saving user with ID {}: {}", fromUserId, e.getMessage());
-                throw new WalletException("Concurrency conflict occurred while updating the balance. Please try again.");
-            }
-            try {
-                userRepository.save(toUser); // Update the balance in the user collection
-            } catch (OptimisticLockingFailureException e) {
-                log.error("Optimistic locking failure when saving user with ID {}: {}", toUserId, e.getMessage());
-                throw new WalletException("Concurrency conflict occurred while updating the balance. Please try again.");
-            }
-
-            // Record transactions
-            transactionService.recordTransaction(fromUsername, amount, TransactionENUM.SENT, toUserId, toUsername, 0);
-            TransactionDTO transactionDTO = transactionService.recordTransaction(fromUsername, amount, TransactionENUM.RECEIVED, toUserId, toUsername, 0);
-            log.info("Transaction recorded for transfer: {}", transactionDTO);
-            return toUser;
+        // Debit only if the balance covers the amount; one conditional $inc replaces the read-modify-save cycle
+        if (!userRepository.debitIfSufficient(fromUserId, amount)) {
+            walletMetrics.recordInsufficientFunds();
+            throw new WalletException("Insufficient funds in the account");
         }
 
-        throw new WalletException("Insufficient funds in the account");
+        User toUser = userRepository.credit(toUserId, amount);
+        if (toUser == null) {
+            // Rolls back the debit together with the surrounding transaction
+            throw new WalletException("User not found for userId: " + toUserId);
+        }
+
+        // Record transactions
+        TransactionDTO transactionDTO = transactionService.recordTransfer(fromAccount, toAccount, amount);
+        log.info("Transaction recorded for transfer: {}", transactionDTO);
+        idempotencyService.remember(idempotencyKey, UserMapper.toDTO(toUser));
+        return toUser;
     }
 
+    @TimedOperation("statement")
     public User viewStatement(String username) {
-        String userId = userService.getUserIdByUsername(username);
-        if (userId == null) {
+        ResolvedAccount account = userService.resolveAccount(username);
+        if (account == null) {
             throw new UserNotFoundException("No user found for username: " + username);
         }
+        String userId = account.id();
 
         log.info("Retrieving statement for username: {}", username);
-        return userRepository.findById(userId).orElseThrow(() -> new WalletException("No user found for userId: " + userId));
+        User user = userRepository.findById(userId).orElseThrow(() -> new WalletException("No user found for userId: " + userId));
+        if (ledgerEngine != null) {
+            // Mongo trails the engine by the batches still being stored
+            user.setWalletBalance(ledgerEngine.balanceOf(userId));
+            return user;
+        }
+        // A hot account's balance is the sum of its stripes
+        return user.getBalanceStripes() > 0 ? userRepository.withCurrentBalance(user) : user;
+    }
+
+    public WalletAggregateDTO getAggregates(String username) {
+        return walletAggregateService.getAggregate(requireAccount(username).id());
+    }
+
+    // The engine owns the balances while enabled; a Mongo $inc here would bypass its in-memory balances
+    private void requireMongoBalances() {
+        if (ledgerEngine != null) {
+            throw new IllegalStateException("Balances are owned by the ledger engine; use LedgerWalletService");
+        }
+    }
+
+    private ResolvedAccount requireAccount(String username) {
+        ResolvedAccount account = userService.resolveAccount(username);
+        if (account == null) {
+            throw new UserNotFoundException("No user found for username: " + username);
+        }
+        return account;
     }
 }
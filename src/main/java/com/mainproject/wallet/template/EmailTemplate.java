@@ -0,0 +1,190 @@
+package com.mainproject.wallet.template;
+
+import com.mainproject.wallet.utils.Money;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An email body parsed once into literal fragments and typed placeholders.
+ * <p>
+ * Placeholder syntax: {@code {{name}}} (HTML-escaped text), {@code {{name:money}}} (paise, shown as rupees), and
+ * {@code {{#name}} ... {{/name}}} for a block that is only rendered when the value is present and,
+ * for numbers, positive. Values are passed to {@link #render(Object...)} in declared parameter order.
+ */
+public final class EmailTemplate {
+
+    private static final Pattern TAG = Pattern.compile("\\{\\{([#/]?)(\\w+)(?::(\\w+))?}}");
+
+    // Rendering reuses one buffer per platform thread; a buffer that grew unusually large is not kept around.
+    // Virtual threads are created per task, so a per-thread buffer would be allocated and dropped on every render
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    private final String name;
+    private final List<String> parameters;
+    private final Segment[] segments;
+    private final int sizeHint; // Literal text plus some room for the values
+
+    private EmailTemplate(String name, List<String> parameters, Segment[] segments) {
+        this.name = name;
+        this.parameters = parameters;
+        this.segments = segments;
+        this.sizeHint = literalLength(segments) + 256;
+    }
+
+    public static EmailTemplate compile(String name, String source, String... parameters) {
+        List<String> declared = List.of(parameters);
+        Deque<List<Segment>> open = new ArrayDeque<>();
+        Deque<String> openSections = new ArrayDeque<>();
+        open.push(new ArrayList<>());
+
+        Matcher matcher = TAG.matcher(source);
+        int position = 0;
+        while (matcher.find()) {
+            addLiteral(open.peek(), source.substring(position, matcher.start()));
+            position = matcher.end();
+
+            String marker = matcher.group(1);
+            String placeholder = matcher.group(2);
+            int slot = declared.indexOf(placeholder);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown placeholder '" + placeholder + "' in template " + name);
+            }
+
+            if (marker.equals("#")) {
+                open.push(new ArrayList<>());
+                openSections.push(placeholder);
+            } else if (marker.equals("/")) {
+                if (openSections.isEmpty() || !openSections.peek().equals(placeholder)) {
+                    throw new IllegalArgumentException("Unexpected {{/" + placeholder + "}} in template " + name);
+                }
+                openSections.pop();
+                Segment[] body = open.pop().toArray(Segment[]::new);
+                open.peek().add(new Section(slot, body));
+            } else {
+                open.peek().add(placeholder(name, slot, matcher.group(3)));
+            }
+        }
+        addLiteral(open.peek(), source.substring(position));
+
+        if (!openSections.isEmpty()) {
+            throw new IllegalArgumentException("Unclosed {{#" + openSections.peek() + "}} in template " + name);
+        }
+        return new EmailTemplate(name, declared, open.pop().toArray(Segment[]::new));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String render(Object... values) {
+        if (values.length != parameters.size()) {
+            throw new IllegalArgumentException("Template " + name + " expects " + parameters + " but got " + values.length + " value(s)");
+        }
+        if (Thread.currentThread().isVirtual()) {
+            StringBuilder buffer = new StringBuilder(sizeHint);
+            renderTo(buffer, segments, values);
+            return buffer.toString();
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        renderTo(buffer, segments, values);
+        String html = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return html;
+    }
+
+    private static void renderTo(StringBuilder out, Segment[] segments, Object[] values) {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Literal literal -> out.append(literal.chars());
+                case Text text -> escapeHtml(out, values[text.slot()]);
+                case MoneySlot money -> Money.appendTo(out, ((Number) values[money.slot()]).longValue());
+                case Section section -> {
+                    if (isPresent(values[section.slot()])) {
+                        renderTo(out, section.body(), values);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int literalLength(Segment[] segments) {
+        int length = 0;
+        for (Segment segment : segments) {
+            if (segment instanceof Literal literal) {
+                length += literal.chars().length;
+            } else if (segment instanceof Section section) {
+                length += literalLength(section.body());
+            }
+        }
+        return length;
+    }
+
+    private static boolean isPresent(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue() > 0;
+        }
+        if (value instanceof Boolean flag) {
+            return flag;
+        }
+        return value != null && !value.toString().isEmpty();
+    }
+
+    static void escapeHtml(StringBuilder out, Object value) {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static void addLiteral(List<Segment> segments, String text) {
+        if (!text.isEmpty()) {
+            segments.add(new Literal(text.toCharArray()));
+        }
+    }
+
+    private static Segment placeholder(String template, int slot, String format) {
+        if (format == null || format.equals("text")) {
+            return new Text(slot);
+        }
+        if (format.equals("money")) {
+            return new MoneySlot(slot);
+        }
+        throw new IllegalArgumentException("Unknown format '" + format + "' in template " + template);
+    }
+
+    private sealed interface Segment permits Literal, Text, MoneySlot, Section {
+    }
+
+    private record Literal(char[] chars) implements Segment {
+    }
+
+    private record Text(int slot) implements Segment {
+    }
+
+    private record MoneySlot(int slot) implements Segment {
+    }
+
+    private record Section(int slot, Segment[] body) implements Segment {
+    }
+}
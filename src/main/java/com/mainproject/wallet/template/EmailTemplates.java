@@ -0,0 +1,60 @@
+package com.mainproject.wallet.template;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The wallet notification emails. Each body is wrapped in the shared layout and compiled once at
+ * startup, so sending an email only fills in the amounts and usernames.
+ */
+@Component
+public class EmailTemplates {
+
+    static final String LOCATION = "email-templates/";
+    static final String CONTENT_MARKER = "<!-- content -->";
+
+    private final EmailTemplate recharge;
+    private final EmailTemplate transferReceived;
+    private final EmailTemplate transferSent;
+
+    public EmailTemplates() {
+        String layout = load("layout.html");
+        this.recharge = compile(layout, "recharge.html", "amount", "cashback");
+        this.transferReceived = compile(layout, "transfer-received.html", "amount", "from");
+        this.transferSent = compile(layout, "transfer-sent.html", "amount", "to");
+    }
+
+    public String recharge(long amount, long cashback) {
+        return recharge.render(amount, cashback);
+    }
+
+    public String transferReceived(long amount, String fromUsername) {
+        return transferReceived.render(amount, fromUsername);
+    }
+
+    public String transferSent(long amount, String toUsername) {
+        return transferSent.render(amount, toUsername);
+    }
+
+    private static EmailTemplate compile(String layout, String file, String... parameters) {
+        int marker = layout.indexOf(CONTENT_MARKER);
+        if (marker < 0) {
+            throw new IllegalStateException("Email layout has no " + CONTENT_MARKER + " marker");
+        }
+        String source = layout.substring(0, marker) + load(file) + layout.substring(marker + CONTENT_MARKER.length());
+        return EmailTemplate.compile(file, source, parameters);
+    }
+
+    private static String load(String file) {
+        try (InputStream in = new ClassPathResource(LOCATION + file).getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load email template " + LOCATION + file, e);
+        }
+    }
+}
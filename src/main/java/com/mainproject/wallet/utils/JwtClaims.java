@@ -0,0 +1,10 @@
+package com.mainproject.wallet.utils;
+
+import java.time.Instant;
+
+/**
+ * The claims of a token whose signature and expiry have been checked by {@link JwtUtil#verify(String)}.
+ * userId is null for tokens issued before the user id was added to the token.
+ */
+public record JwtClaims(String username, String userId, Instant issuedAt, Instant expiresAt) {
+}
@@ -4,9 +4,19 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtil {
@@ -14,38 +24,66 @@ public class JwtUtil {
     private final String SECRET_KEY = "1234xyz";
     private final long EXPIRATION_TIME = 1000 * 60 * 60; // 1 hour
     private final long CLOCK_SKEW = 1000 * 60; // Allow 1 minute skew
+    static final String USER_ID_CLAIM = "uid";
+
+    // Tokens that already passed verification, keyed by SHA-256 of the token; only valid tokens are cached
+    private final Map<ByteBuffer, JwtClaims> verifiedTokens = new ConcurrentHashMap<>();
+
+    @Value("${wallet.jwt.cache.max-entries:10000}")
+    int maxCachedTokens = 10000;
+
+    // Decides when a cached token has expired; the parser checks fresh tokens against the system clock
+    Clock clock = Clock.systemUTC();
 
     // Generate a token
     public String generateToken(String username) {
+        return generateToken(null, username);
+    }
+
+    // Generate a token that also carries the user id, so authenticated requests need no user lookup
+    public String generateToken(String userId, String username) {
         return Jwts.builder()
                 .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
                 .compact();
     }
 
+    // Verify a token (with or without the "Bearer " prefix) and return its claims, or null if it is invalid or expired.
+    // A token seen before is answered from the cache without parsing or checking the signature again.
+    public JwtClaims verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        String jwt = token.replace("Bearer ", ""); // Remove "Bearer " prefix
+        ByteBuffer key = digest(jwt);
+        JwtClaims cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (isUsable(cached, clock.millis())) {
+                return cached;
+            }
+            verifiedTokens.remove(key, cached);
+            return null;
+        }
+
+        JwtClaims claims = parse(jwt);
+        if (claims != null) {
+            cache(key, claims);
+        }
+        return claims;
+    }
+
     // Extract username from token
     public String extractUsername(String token) {
-        try {
-            return Jwts.parser()
-                    .setSigningKey(SECRET_KEY)
-                    .parseClaimsJws(token.replace("Bearer ", "")) // Remove "Bearer " prefix
-                    .getBody()
-                    .getSubject();
-        } catch (JwtException e) {
-            return null; // Invalid token
-        }
+        JwtClaims claims = verify(token);
+        return claims == null ? null : claims.username();
     }
 
     // Validate the token
     public boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        // Check if extractedUsername is null or if it doesn't match the provided username
-        if (extractedUsername == null) {
-            return false; // Invalid token
-        }
-        return !isTokenExpired(token);
+        return verify(token) != null;
     }
 
     // Check if the token is expired with clock skew
@@ -62,4 +100,62 @@ public class JwtUtil {
                 .getBody()
                 .getExpiration();
     }
+
+    int cachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
+    // The single signature check and JSON parse for a token; the parser rejects expired tokens
+    private JwtClaims parse(String jwt) {
+        try {
+            Claims body = Jwts.parser()
+                    .setSigningKey(SECRET_KEY)
+                    .parseClaimsJws(jwt)
+                    .getBody();
+            if (body.getExpiration() == null) {
+                return null; // Every token we issue expires; one that does not was not issued here
+            }
+            return new JwtClaims(body.getSubject(), body.get(USER_ID_CLAIM, String.class), toInstant(body.getIssuedAt()), body.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null; // Invalid token
+        }
+    }
+
+    // A cached entry lives exactly as long as the token itself would be accepted
+    private boolean isUsable(JwtClaims claims, long now) {
+        return claims.expiresAt().toEpochMilli() > now;
+    }
+
+    private void cache(ByteBuffer key, JwtClaims claims) {
+        if (verifiedTokens.size() >= maxCachedTokens) {
+            evict();
+        }
+        if (verifiedTokens.size() < maxCachedTokens) {
+            verifiedTokens.put(key, claims);
+        }
+    }
+
+    // Drop expired entries first; if the cache is still full, make room by dropping arbitrary entries
+    private void evict() {
+        long now = clock.millis();
+        verifiedTokens.values().removeIf(claims -> !isUsable(claims, now));
+        Iterator<ByteBuffer> keys = verifiedTokens.keySet().iterator();
+        int excess = verifiedTokens.size() - maxCachedTokens * 9 / 10;
+        while (excess-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static ByteBuffer digest(String jwt) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
+    }
 }
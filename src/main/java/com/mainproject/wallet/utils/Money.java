@@ -0,0 +1,44 @@
+package com.mainproject.wallet.utils;
+
+/**
+ * Amounts are a primitive {@code long} count of paise everywhere: in the model, in Mongo (NumberLong),
+ * in the JSON contract and in server-side $inc updates, so balance arithmetic is exact and allocates
+ * nothing. These helpers are only for the edges: legacy rupee doubles, percentages and display.
+ */
+public final class Money {
+
+    public static final long PAISE_PER_RUPEE = 100;
+    private static final long BASIS_POINTS_PER_WHOLE = 10_000;
+
+    private Money() {
+    }
+
+    // Legacy documents stored rupees as a double
+    public static long fromRupees(double rupees) {
+        return Math.round(rupees * PAISE_PER_RUPEE);
+    }
+
+    // 5.25 percent is 525 basis points
+    public static long basisPoints(double percent) {
+        return Math.round(percent * 100);
+    }
+
+    // The share of an amount given in basis points, rounded down to whole paise
+    public static long share(long paise, long basisPoints) {
+        return Math.multiplyExact(paise, basisPoints) / BASIS_POINTS_PER_WHOLE;
+    }
+
+    // "1234.05" for 123405 paise; for emails, exports and logs
+    public static String format(long paise) {
+        return appendTo(new StringBuilder(24), paise).toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder out, long paise) {
+        if (paise < 0) {
+            out.append('-');
+        }
+        long abs = Math.abs(paise);
+        long fraction = abs % PAISE_PER_RUPEE;
+        return out.append(abs / PAISE_PER_RUPEE).append(fraction < 10 ? ".0" : ".").append(fraction);
+    }
+}
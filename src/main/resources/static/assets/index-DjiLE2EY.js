@@ -324,4 +324,4 @@ html body {
         ${t}-collapse,
         ${t}-edit,
         ${t}-copy
-      `]:Object.assign(Object.assign({},Rw(e)),{marginInlineStart:e.marginXXS})}),$L(e)),OL(e)),RL()),{"&-rtl":{direction:"rtl"}})}},IL=()=>({titleMarginTop:"1.2em",titleMarginBottom:"0.5em"}),jE=Hn("Typography",e=>[PL(e)],IL),ML=e=>{const{prefixCls:t,"aria-label":n,className:r,style:o,direction:i,maxLength:a,autoSize:l=!0,value:s,onSave:u,onCancel:d,onEnd:f,component:m,enterIcon:y=c.createElement(SL,null)}=e,h=c.useRef(null),b=c.useRef(!1),S=c.useRef(),[g,v]=c.useState(s);c.useEffect(()=>{v(s)},[s]),c.useEffect(()=>{var z;if(!((z=h.current)===null||z===void 0)&&z.resizableTextArea){const{textArea:B}=h.current.resizableTextArea;B.focus();const{length:_}=B.value;B.setSelectionRange(_,_)}},[]);const p=z=>{let{target:B}=z;v(B.value.replace(/[\n\r]/g,""))},C=()=>{b.current=!0},w=()=>{b.current=!1},x=z=>{let{keyCode:B}=z;b.current||(S.current=B)},E=()=>{u(g.trim())},$=z=>{let{keyCode:B,ctrlKey:_,altKey:P,metaKey:O,shiftKey:M}=z;S.current!==B||b.current||_||P||O||M||(B===se.ENTER?(E(),f==null||f()):B===se.ESC&&d())},R=()=>{E()},[I,N,L]=jE(t),j=te(t,`${t}-edit-content`,{[`${t}-rtl`]:i==="rtl",[`${t}-${m}`]:!!m},r,N,L);return I(c.createElement("div",{className:j,style:o},c.createElement(vE,{ref:h,maxLength:a,value:g,onChange:p,onKeyDown:x,onKeyUp:$,onCompositionStart:C,onCompositionEnd:w,onBlur:R,"aria-label":n,rows:1,autoSize:l}),y!==null?Jo(y,{className:`${t}-edit-content-confirm`}):null))};var _L=function(){var e=document.getSelection();if(!e.rangeCount)return function(){};for(var t=document.activeElement,n=[],r=0;r<e.rangeCount;r++)n.push(e.getRangeAt(r));switch(t.tagName.toUpperCase()){case"INPUT":case"TEXTAREA":t.blur();break;default:t=null;break}return e.removeAllRanges(),function(){e.type==="Caret"&&e.removeAllRanges(),e.rangeCount||n.forEach(function(o){e.addRange(o)}),t&&t.focus()}},TL=_L,_b={"text/plain":"Text","text/html":"Url",default:"Text"},NL="Copy to clipboard: #{key}, Enter";function jL(e){var t=(/mac os x/i.test(navigator.userAgent)?"⌘":"Ctrl")+"+C";return e.replace(/#{\s*key\s*}/g,t)}function zL(e,t){var n,r,o,i,a,l,s=!1;t||(t={}),n=t.debug||!1;try{o=TL(),i=document.createRange(),a=document.getSelection(),l=document.createElement("span"),l.textContent=e,l.ariaHidden="true",l.style.all="unset",l.style.position="fixed",l.style.top=0,l.style.clip="rect(0, 0, 0, 0)",l.style.whiteSpace="pre",l.style.webkitUserSelect="text",l.style.MozUserSelect="text",l.style.msUserSelect="text",l.style.userSelect="text",l.addEventListener("copy",function(d){if(d.stopPropagation(),t.format)if(d.preventDefault(),typeof d.clipboardData>"u"){n&&console.warn("unable to use e.clipboardData"),n&&console.warn("trying IE specific stuff"),window.clipboardData.clearData();var f=_b[t.format]||_b.default;window.clipboardData.setData(f,e)}else d.clipboardData.clearData(),d.clipboardData.setData(t.format,e);t.onCopy&&(d.preventDefault(),t.onCopy(d.clipboardData))}),document.body.appendChild(l),i.selectNodeContents(l),a.addRange(i);var u=document.execCommand("copy");if(!u)throw new Error("copy command was unsuccessful");s=!0}catch(d){n&&console.error("unable to copy using execCommand: ",d),n&&console.warn("trying IE specific stuff");try{window.clipboardData.setData(t.format||"text",e),t.onCopy&&t.onCopy(window.clipboardData),s=!0}catch(f){n&&console.error("unable to copy using clipboardData: ",f),n&&console.error("falling back to prompt"),r=jL("message"in t?t.message:NL),window.prompt(r,e)}}finally{a&&(typeof a.removeRange=="function"?a.removeRange(i):a.removeAllRanges()),l&&document.body.removeChild(l),o()}return s}var FL=zL;const LL=$u(FL);var AL=function(e,t,n,r){function o(i){return i instanceof n?i:new n(function(a){a(i)})}return new(n||(n=Promise))(function(i,a){function l(d){try{u(r.next(d))}catch(f){a(f)}}function s(d){try{u(r.throw(d))}catch(f){a(f)}}function u(d){d.done?i(d.value):o(d.value).then(l,s)}u((r=r.apply(e,t||[])).next())})};const DL=e=>{let{copyConfig:t,children:n}=e;const[r,o]=c.useState(!1),[i,a]=c.useState(!1),l=c.useRef(null),s=()=>{l.current&&clearTimeout(l.current)},u={};t.format&&(u.format=t.format),c.useEffect(()=>s,[]);const d=en(f=>AL(void 0,void 0,void 0,function*(){var m;f==null||f.preventDefault(),f==null||f.stopPropagation(),a(!0);try{const y=typeof t.text=="function"?yield t.text():t.text;LL(y||rL(n,!0).join("")||"",u),a(!1),o(!0),s(),l.current=setTimeout(()=>{o(!1)},3e3),(m=t.onCopy)===null||m===void 0||m.call(t,f)}catch(y){throw a(!1),y}}));return{copied:r,copyLoading:i,onClick:d}};function Af(e,t){return c.useMemo(()=>{const n=!!e;return[n,Object.assign(Object.assign({},t),n&&typeof e=="object"?e:null)]},[e])}const BL=e=>{const t=c.useRef();return c.useEffect(()=>{t.current=e}),t.current},kL=(e,t,n)=>c.useMemo(()=>e===!0?{title:t??n}:c.isValidElement(e)?{title:e}:typeof e=="object"?Object.assign({title:t??n},e):{title:e},[e,t,n]);var HL=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};const zE=c.forwardRef((e,t)=>{const{prefixCls:n,component:r="article",className:o,rootClassName:i,setContentRef:a,children:l,direction:s,style:u}=e,d=HL(e,["prefixCls","component","className","rootClassName","setContentRef","children","direction","style"]),{getPrefixCls:f,direction:m,typography:y}=c.useContext(it),h=s??m,b=a?Rr(t,a):t,S=f("typography",n),[g,v,p]=jE(S),C=te(S,y==null?void 0:y.className,{[`${S}-rtl`]:h==="rtl"},o,i,v,p),w=Object.assign(Object.assign({},y==null?void 0:y.style),u);return g(c.createElement(r,Object.assign({className:C,style:w,ref:b},d),l))});function Tb(e){return e===!1?[!1,!1]:Array.isArray(e)?e:[e]}function Df(e,t,n){return e===!0||e===void 0?t:e||n&&t}function VL(e){const t=document.createElement("em");e.appendChild(t);const n=e.getBoundingClientRect(),r=t.getBoundingClientRect();return e.removeChild(t),n.left>r.left||r.right>n.right||n.top>r.top||r.bottom>n.bottom}const zg=e=>["string","number"].includes(typeof e),WL=e=>{let{prefixCls:t,copied:n,locale:r,iconOnly:o,tooltips:i,icon:a,tabIndex:l,onCopy:s,loading:u}=e;const d=Tb(i),f=Tb(a),{copied:m,copy:y}=r??{},h=n?m:y,b=Df(d[n?1:0],h),S=typeof b=="string"?b:h;return c.createElement(Ps,{title:b},c.createElement("button",{type:"button",className:te(`${t}-copy`,{[`${t}-copy-success`]:n,[`${t}-copy-icon-only`]:o}),onClick:s,"aria-label":S,tabIndex:l},n?Df(f[1],c.createElement(Yx,null),!0):Df(f[0],u?c.createElement(xs,null):c.createElement(vL,null),!0)))},dc=c.forwardRef((e,t)=>{let{style:n,children:r}=e;const o=c.useRef(null);return c.useImperativeHandle(t,()=>({isExceed:()=>{const i=o.current;return i.scrollHeight>i.clientHeight},getHeight:()=>o.current.clientHeight})),c.createElement("span",{"aria-hidden":!0,ref:o,style:Object.assign({position:"fixed",display:"block",left:0,top:0,pointerEvents:"none",backgroundColor:"rgba(255, 0, 0, 0.65)"},n)},r)}),UL=e=>e.reduce((t,n)=>t+(zg(n)?String(n).length:1),0);function Nb(e,t){let n=0;const r=[];for(let o=0;o<e.length;o+=1){if(n===t)return r;const i=e[o],l=zg(i)?String(i).length:1,s=n+l;if(s>t){const u=t-n;return r.push(String(i).slice(0,u)),r}r.push(i),n=s}return e}const Bf=0,kf=1,Hf=2,Vf=3,jb=4,fc={display:"-webkit-box",overflow:"hidden",WebkitBoxOrient:"vertical"};function GL(e){const{enableMeasure:t,width:n,text:r,children:o,rows:i,expanded:a,miscDeps:l,onEllipsis:s}=e,u=c.useMemo(()=>eo(r),[r]),d=c.useMemo(()=>UL(u),[r]),f=c.useMemo(()=>o(u,!1),[r]),[m,y]=c.useState(null),h=c.useRef(null),b=c.useRef(null),S=c.useRef(null),g=c.useRef(null),v=c.useRef(null),[p,C]=c.useState(!1),[w,x]=c.useState(Bf),[E,$]=c.useState(0),[R,I]=c.useState(null);st(()=>{x(t&&n&&d?kf:Bf)},[n,r,i,t,u]),st(()=>{var z,B,_,P;if(w===kf){x(Hf);const O=b.current&&getComputedStyle(b.current).whiteSpace;I(O)}else if(w===Hf){const O=!!(!((z=S.current)===null||z===void 0)&&z.isExceed());x(O?Vf:jb),y(O?[0,d]:null),C(O);const M=((B=S.current)===null||B===void 0?void 0:B.getHeight())||0,T=i===1?0:((_=g.current)===null||_===void 0?void 0:_.getHeight())||0,F=((P=v.current)===null||P===void 0?void 0:P.getHeight())||0,D=Math.max(M,T+F);$(D+1),s(O)}},[w]);const N=m?Math.ceil((m[0]+m[1])/2):0;st(()=>{var z;const[B,_]=m||[0,0];if(B!==_){const O=(((z=h.current)===null||z===void 0?void 0:z.getHeight())||0)>E;let M=N;_-B===1&&(M=O?B:_),y(O?[B,M]:[M,_])}},[m,N]);const L=c.useMemo(()=>{if(!t)return o(u,!1);if(w!==Vf||!m||m[0]!==m[1]){const z=o(u,!1);return[jb,Bf].includes(w)?z:c.createElement("span",{style:Object.assign(Object.assign({},fc),{WebkitLineClamp:i})},z)}return o(a?u:Nb(u,m[0]),p)},[a,w,m,u].concat(pe(l))),j={width:n,margin:0,padding:0,whiteSpace:R==="nowrap"?"normal":"inherit"};return c.createElement(c.Fragment,null,L,w===Hf&&c.createElement(c.Fragment,null,c.createElement(dc,{style:Object.assign(Object.assign(Object.assign({},j),fc),{WebkitLineClamp:i}),ref:S},f),c.createElement(dc,{style:Object.assign(Object.assign(Object.assign({},j),fc),{WebkitLineClamp:i-1}),ref:g},f),c.createElement(dc,{style:Object.assign(Object.assign(Object.assign({},j),fc),{WebkitLineClamp:1}),ref:v},o([],!0))),w===Vf&&m&&m[0]!==m[1]&&c.createElement(dc,{style:Object.assign(Object.assign({},j),{top:400}),ref:h},o(Nb(u,N),!0)),w===kf&&c.createElement("span",{style:{whiteSpace:"inherit"},ref:b}))}const KL=e=>{let{enableEllipsis:t,isEllipsis:n,children:r,tooltipProps:o}=e;return!(o!=null&&o.title)||!t?r:c.createElement(Ps,Object.assign({open:n?void 0:!1},o),r)};var qL=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};function XL(e,t){let{mark:n,code:r,underline:o,delete:i,strong:a,keyboard:l,italic:s}=e,u=t;function d(f,m){m&&(u=c.createElement(f,{},u))}return d("strong",a),d("u",o),d("del",i),d("code",r),d("mark",n),d("kbd",l),d("i",s),u}const QL="...",Ed=c.forwardRef((e,t)=>{var n;const{prefixCls:r,className:o,style:i,type:a,disabled:l,children:s,ellipsis:u,editable:d,copyable:f,component:m,title:y}=e,h=qL(e,["prefixCls","className","style","type","disabled","children","ellipsis","editable","copyable","component","title"]),{getPrefixCls:b,direction:S}=c.useContext(it),[g]=fd("Text"),v=c.useRef(null),p=c.useRef(null),C=b("typography",r),w=bo(h,["mark","code","delete","underline","strong","keyboard","italic"]),[x,E]=Af(d),[$,R]=$r(!1,{value:E.editing}),{triggerType:I=["icon"]}=E,N=ge=>{var Oe;ge&&((Oe=E.onStart)===null||Oe===void 0||Oe.call(E)),R(ge)},L=BL($);st(()=>{var ge;!$&&L&&((ge=p.current)===null||ge===void 0||ge.focus())},[$]);const j=ge=>{ge==null||ge.preventDefault(),N(!0)},z=ge=>{var Oe;(Oe=E.onChange)===null||Oe===void 0||Oe.call(E,ge),N(!1)},B=()=>{var ge;(ge=E.onCancel)===null||ge===void 0||ge.call(E),N(!1)},[_,P]=Af(f),{copied:O,copyLoading:M,onClick:T}=DL({copyConfig:P,children:s}),[F,D]=c.useState(!1),[V,k]=c.useState(!1),[W,J]=c.useState(!1),[U,re]=c.useState(!1),[ae,Y]=c.useState(!0),[G,q]=Af(u,{expandable:!1,symbol:ge=>ge?g==null?void 0:g.collapse:g==null?void 0:g.expand}),[oe,ee]=$r(q.defaultExpanded||!1,{value:q.expanded}),ne=G&&(!oe||q.expandable==="collapsible"),{rows:Z=1}=q,we=c.useMemo(()=>ne&&(q.suffix!==void 0||q.onEllipsis||q.expandable||x||_),[ne,q,x,_]);st(()=>{G&&!we&&(D(Dy("webkitLineClamp")),k(Dy("textOverflow")))},[we,G]);const[ce,je]=c.useState(ne),be=c.useMemo(()=>we?!1:Z===1?V:F,[we,V,F]);st(()=>{je(be&&ne)},[be,ne]);const he=ne&&(ce?U:W),De=ne&&Z===1&&ce,ie=ne&&Z>1&&ce,le=(ge,Oe)=>{var qe;ee(Oe.expanded),(qe=q.onExpand)===null||qe===void 0||qe.call(q,ge,Oe)},[Se,ye]=c.useState(0),ke=ge=>{let{offsetWidth:Oe}=ge;ye(Oe)},Be=ge=>{var Oe;J(ge),W!==ge&&((Oe=q.onEllipsis)===null||Oe===void 0||Oe.call(q,ge))};c.useEffect(()=>{const ge=v.current;if(G&&ce&&ge){const Oe=VL(ge);U!==Oe&&re(Oe)}},[G,ce,s,ie,ae,Se]),c.useEffect(()=>{const ge=v.current;if(typeof IntersectionObserver>"u"||!ge||!ce||!ne)return;const Oe=new IntersectionObserver(()=>{Y(!!ge.offsetParent)});return Oe.observe(ge),()=>{Oe.disconnect()}},[ce,ne]);const We=kL(q.tooltip,E.text,s),Ae=c.useMemo(()=>{if(!(!G||ce))return[E.text,s,y,We.title].find(zg)},[G,ce,y,We.title,he]);if($)return c.createElement(ML,{value:(n=E.text)!==null&&n!==void 0?n:typeof s=="string"?s:"",onSave:z,onCancel:B,onEnd:E.onEnd,prefixCls:C,className:o,style:i,direction:S,component:m,maxLength:E.maxLength,autoSize:E.autoSize,enterIcon:E.enterIcon});const Qe=()=>{const{expandable:ge,symbol:Oe}=q;return ge?c.createElement("button",{type:"button",key:"expand",className:`${C}-${oe?"collapse":"expand"}`,onClick:qe=>le(qe,{expanded:!oe}),"aria-label":oe?g.collapse:g==null?void 0:g.expand},typeof Oe=="function"?Oe(oe):Oe):null},Ve=()=>{if(!x)return;const{icon:ge,tooltip:Oe,tabIndex:qe}=E,St=eo(Oe)[0]||(g==null?void 0:g.edit),kt=typeof St=="string"?St:"";return I.includes("icon")?c.createElement(Ps,{key:"edit",title:Oe===!1?"":St},c.createElement("button",{type:"button",ref:p,className:`${C}-edit`,onClick:j,"aria-label":kt,tabIndex:qe},ge||c.createElement(hL,{role:"button"}))):null},Re=()=>_?c.createElement(WL,Object.assign({key:"copy"},P,{prefixCls:C,copied:O,locale:g,onCopy:T,loading:M,iconOnly:s==null})):null,Pe=ge=>[ge&&Qe(),Ve(),Re()],at=ge=>[ge&&!oe&&c.createElement("span",{"aria-hidden":!0,key:"ellipsis"},QL),q.suffix,Pe(ge)];return c.createElement(yo,{onResize:ke,disabled:!ne},ge=>c.createElement(KL,{tooltipProps:We,enableEllipsis:ne,isEllipsis:he},c.createElement(zE,Object.assign({className:te({[`${C}-${a}`]:a,[`${C}-disabled`]:l,[`${C}-ellipsis`]:G,[`${C}-ellipsis-single-line`]:De,[`${C}-ellipsis-multiple-line`]:ie},o),prefixCls:r,style:Object.assign(Object.assign({},i),{WebkitLineClamp:ie?Z:void 0}),component:m,ref:Rr(ge,v,t),direction:S,onClick:I.includes("text")?j:void 0,"aria-label":Ae==null?void 0:Ae.toString(),title:y},w),c.createElement(GL,{enableMeasure:ne&&!ce,text:s,rows:Z,width:Se,onEllipsis:Be,expanded:oe,miscDeps:[O,oe,M,x,_]},(Oe,qe)=>XL(e,c.createElement(c.Fragment,null,Oe.length>0&&qe&&!oe&&Ae?c.createElement("span",{key:"show-content","aria-hidden":!0},Oe):Oe,at(qe)))))))});var YL=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};const ZL=c.forwardRef((e,t)=>{var{ellipsis:n,rel:r}=e,o=YL(e,["ellipsis","rel"]);const i=Object.assign(Object.assign({},o),{rel:r===void 0&&o.target==="_blank"?"noopener noreferrer":r});return delete i.navigate,c.createElement(Ed,Object.assign({},i,{ref:t,ellipsis:!!n,component:"a"}))}),JL=c.forwardRef((e,t)=>c.createElement(Ed,Object.assign({ref:t},e,{component:"div"})));var eA=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};const tA=(e,t)=>{var{ellipsis:n}=e,r=eA(e,["ellipsis"]);const o=c.useMemo(()=>n&&typeof n=="object"?bo(n,["expandable","rows"]):n,[n]);return c.createElement(Ed,Object.assign({ref:t},r,{ellipsis:o,component:"span"}))},nA=c.forwardRef(tA);var rA=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};const oA=[1,2,3,4,5],iA=c.forwardRef((e,t)=>{const{level:n=1}=e,r=rA(e,["level"]),o=oA.includes(n)?`h${n}`:"h1";return c.createElement(Ed,Object.assign({ref:t},r,{component:o}))}),Vn=zE;Vn.Text=nA;Vn.Link=ZL;Vn.Title=iA;Vn.Paragraph=JL;const FE="/assets/icon-DKAXL3d_.png",{Title:aA}=Vn,Fg=()=>Q.jsxs("div",{style:{background:"linear-gradient(90deg, rgba(45, 85, 160, 1) 0%, rgba(103, 160, 211, 1) 100%)",padding:"0.5rem 1rem",display:"flex",alignItems:"center",borderRadius:"8px",boxShadow:"0 2px 5px rgba(0, 0, 0, 0.3)"},children:[Q.jsx("img",{src:FE,alt:"Logo",style:{width:"40px",height:"40px",marginRight:"10px"}}),Q.jsx(aA,{level:3,style:{margin:0,color:"white",fontSize:"18px",fontFamily:"Trebuchet MS, Arial, sans-serif",fontWeight:"600"},children:"Tuple Pay"})]}),lA="http://localhost:8080",{Title:sA}=Vn,cA=()=>{const[e,t]=c.useState(!1),n=ri(),r=Ku(),o=async i=>{n(bR()),t(!0);try{const a=await fetch(`${lA}/api/auth/login`,{method:"POST",headers:{"Content-Type":"application/json"},body:JSON.stringify(i)});if(console.log(a),!a.ok){const s=await a.text();throw new Error(s)}const l=await a.json();localStorage.setItem("token",l.token),n(SR(l)),Ut.success("Login successful!"),r("/mainmenu")}catch(a){n(CR(a.message)),Ut.error("Login failed: "+a.message)}finally{t(!1)}};return Q.jsxs("div",{children:[Q.jsx(Fg,{}),Q.jsxs("div",{style:{maxWidth:400,margin:"auto",padding:"2rem"},children:[Q.jsx(sA,{level:2,children:"Login"}),Q.jsxs(un,{name:"login",onFinish:o,layout:"vertical",initialValues:{username:"",password:""},children:[Q.jsx(un.Item,{label:"Username",name:"username",rules:[{required:!0,message:"Please input your username!"}],children:Q.jsx(Ln,{})}),Q.jsx(un.Item,{label:"Password",name:"password",rules:[{required:!0,message:"Please input your password!"}],children:Q.jsx(Ln.Password,{})}),Q.jsx(un.Item,{children:Q.jsx(Rn,{type:"primary",htmlType:"submit",loading:e,children:"Login"})})]})]})]})},{Title:uA,Text:Ji}=Vn,dA="http://localhost:8080",LE=()=>{ri();const{user:e,isAuthenticated:t}=Ba(h=>h.auth),[n,r]=c.useState([]),[o,i]=c.useState(!0),[a,l]=c.useState(1),s=5,u=async h=>{i(!0);const b=localStorage.getItem("token");try{const S=await fetch(`${dA}/api/wallet/transactions/${h}`,{headers:{Authorization:`Bearer ${b}`}});if(!S.ok)throw new Error("Failed to fetch transactions");const g=await S.json();r(g)}catch(S){Ut.error("Error fetching transactions: "+S.message)}finally{i(!1)}};c.useEffect(()=>{t&&e&&u(e.username)},[t,e]);const d=n.sort((h,b)=>new Date(b.timestamp)-new Date(h.timestamp)),f=a*s,m=f-s,y=d.slice(m,f);return Q.jsxs("div",{children:[Q.jsx(uA,{level:2,children:"Transactions"}),o?Q.jsx(Ka,{tip:"Loading transactions..."}):Q.jsxs("div",{className:"transaction-list",children:[y.length===0?Q.jsx(Ji,{children:"No transactions available."}):y.map(h=>Q.jsxs("div",{className:`transaction-box ${h.type==="Recharge"?"recharge":h.type==="Sent"?"sent":"received"}`,children:[Q.jsxs("div",{className:"transaction-details",children:[Q.jsxs(Ji,{className:"transaction-amount",strong:!0,children:["₹",h.amount]}),Q.jsx(Ji,{className:"transaction-type",children:h.type}),h.type==="Sent"&&Q.jsxs(Ji,{className:"transaction-user",children:[" to ",h.receiverUsername]}),h.type==="Received"&&Q.jsxs(Ji,{className:"transaction-user",children:[" from ",h.senderUsername]})]}),Q.jsx(Ji,{className:"transaction-date",style:{display:"block",marginTop:"5px",fontSize:"12px",color:"#888"},children:new Date(h.timestamp).toLocaleString()})]},h.id)),Q.jsx(ME,{current:a,pageSize:s,total:d.length,onChange:h=>l(h),style:{marginTop:"20px"}})]})]})},{Title:fA,Text:zb}=Vn,mA="http://localhost:8080",AE=()=>{ri();const{user:e}=Ba(s=>s.auth),[t,n]=c.useState(0),[r,o]=c.useState(""),[i,a]=c.useState(!1),l=async s=>{if(s.preventDefault(),t<=0){Ut.error("Amount must be greater than zero.");return}if(!r){Ut.error("Please enter a valid recipient ID.");return}a(!0);const u=localStorage.getItem("token");try{const d=await fetch(`${mA}/api/wallet/transfer?fromUsername=${e.username}&toUsername=${r}&amount=${t}`,{method:"POST",headers:{"Content-Type":"application/json",Authorization:`Bearer ${u}`}});if(!d.ok){const m=await d.text();throw new Error(m)}const f=await d.json();Ut.success(`Successfully transferred ₹${t} to user ${r}`),console.log(f),n(0),o("")}catch(d){Ut.error("Error transferring amount: "+d.message)}finally{a(!1)}};return Q.jsxs("div",{children:[Q.jsx(fA,{level:2,children:"Transfer Amount"}),Q.jsxs("form",{onSubmit:l,children:[Q.jsx("div",{children:Q.jsxs("label",{children:[Q.jsx(zb,{strong:!0,style:{fontSize:"18px"},children:"Amount:"}),Q.jsx(Ln,{type:"number",value:t,onChange:s=>n(Number(s.target.value)),min:"1",step:"1",required:!0,style:{fontSize:"16px",height:"40px"},prefix:"₹"})]})}),Q.jsx("div",{children:Q.jsxs("label",{children:[Q.jsx(zb,{strong:!0,style:{fontSize:"18px"},children:"Recipient User ID:"}),Q.jsx(Ln,{type:"text",value:r,onChange:s=>o(s.target.value),required:!0,style:{fontSize:"16px",height:"40px"}})]})}),Q.jsx(Rn,{type:"primary",htmlType:"submit",loading:i,style:{marginTop:"10px"},children:"Transfer"})]}),i&&Q.jsx(Ka,{tip:"Processing your transfer..."})," "]})},{Title:vA}=Vn,pA=()=>{const e=Ku(),t=()=>{e("/login")},n=()=>{e("/register")};return Q.jsxs("div",{style:{display:"flex",flexDirection:"column",alignItems:"center",justifyContent:"center",height:"100vh"},children:[Q.jsx("img",{src:FE,alt:"Tuple Pay",className:"pulse",style:{width:"200px",marginBottom:"20px"}}),Q.jsx(vA,{level:2,children:"Welcome to Tuple Pay!"}),Q.jsxs(gE,{direction:"vertical",size:"large",children:[Q.jsx(Rn,{type:"primary",onClick:t,style:{width:"200px"},children:"Login"}),Q.jsx(Rn,{type:"default",onClick:n,style:{width:"200px"},children:"Register"})]})]})},gA="http://localhost:8080",{Title:hA,Text:yA}=Vn,DE=()=>{ri();const{user:e}=Ba(a=>a.auth),[t,n]=c.useState(0),[r,o]=c.useState(!1),i=async a=>{if(a.preventDefault(),t<=0){Ut.error("Amount must be greater than zero.");return}o(!0);const l=localStorage.getItem("token");if(!l){Ut.error("Authentication token is missing. Please log in again."),o(!1);return}try{const s=await fetch(`${gA}/api/wallet/recharge?username=${e.username}&amount=${t}`,{method:"POST",headers:{"Content-Type":"application/json",Authorization:`Bearer ${l}`}});if(!s.ok){const d=await s.json();throw new Error(d.message)}const u=await s.json();Ut.success(`Successfully recharged ₹${t.toFixed(2)} to your wallet.`),u.cashbackAmount>0&&Ut.info(`You won ₹${u.cashbackAmount} cashback!`),n(0)}catch(s){Ut.error("Error recharging wallet: "+s.message)}finally{o(!1)}};return Q.jsxs("div",{children:[Q.jsx(hA,{level:2,children:"Recharge Your Wallet"}),Q.jsxs("form",{onSubmit:i,children:[Q.jsx("div",{children:Q.jsxs("label",{children:[Q.jsx(yA,{strong:!0,style:{fontSize:"18px"},children:"Amount:"}),Q.jsx(Ln,{type:"number",value:t,onChange:a=>n(Number(a.target.value)),min:"1",step:"1",required:!0,style:{fontSize:"16px",height:"40px"},prefix:"₹"})]})}),Q.jsx(Rn,{type:"primary",htmlType:"submit",loading:r,style:{marginTop:"10px"},children:"Recharge"})]}),r&&Q.jsx(Ka,{tip:"Processing your recharge..."})]})},mc=({children:e})=>{const{isAuthenticated:t}=Ba(n=>n.auth);return t?e:Q.jsx(fP,{to:"/"})},bA="http://localhost:8080",{Title:SA}=Vn,CA=()=>{const[e,t]=c.useState(!1),n=ri(),r=Ku(),o=async i=>{n(wR()),t(!0);try{const a=await fetch(`${bA}/api/auth/register`,{method:"POST",headers:{"Content-Type":"application/json"},body:JSON.stringify(i)});if(a.ok){const l=await a.json();n(xR(l)),Ut.success("Registration successful! Please log in."),r("/login")}else{const l=await a.text();Ut.error(l)}}catch(a){n(ER(a.message)),Ut.error("Registration failed: "+a.message)}finally{t(!1)}};return Q.jsxs("div",{children:[Q.jsx(Fg,{})," ",Q.jsxs("div",{style:{maxWidth:400,margin:"auto",padding:"2rem"},children:[Q.jsx(SA,{level:2,children:"Register"}),Q.jsxs(un,{name:"register",onFinish:o,layout:"vertical",initialValues:{username:"",email:"",password:"",confirmPassword:""},children:[Q.jsx(un.Item,{label:"Username",name:"username",rules:[{required:!0,message:"Please input your username!"}],children:Q.jsx(Ln,{})}),Q.jsx(un.Item,{label:"Email",name:"email",rules:[{required:!0,type:"email",message:"Please input a valid email!"}],children:Q.jsx(Ln,{})}),Q.jsx(un.Item,{label:"Password",name:"password",rules:[{required:!0,message:"Please input your password!"}],children:Q.jsx(Ln.Password,{})}),Q.jsx(un.Item,{label:"Confirm Password",name:"confirmPassword",rules:[{required:!0,message:"Please confirm your password!"},({getFieldValue:i})=>({validator(a,l){return!l||i("password")===l?Promise.resolve():Promise.reject(new Error("Passwords do not match!"))}})],children:Q.jsx(Ln.Password,{})}),Q.jsx(un.Item,{children:Q.jsx(Rn,{type:"primary",htmlType:"submit",loading:e,children:"Register"})})]})]})]})},wA="http://localhost:8080",{Title:xA,Text:Fb}=Vn,EA=({username:e})=>{const[t,n]=c.useState(null),[r,o]=c.useState(!0);return c.useEffect(()=>{(async()=>{if(!e){o(!1);return}const a=localStorage.getItem("token");try{const l=await fetch(`${wA}/api/wallet/statement?username=${e}`,{headers:{Authorization:`Bearer ${a}`}});if(!l.ok)throw new Error("Failed to fetch balance");const s=await l.json();n(s.walletBalance)}catch(l){Ut.error(l.message)}finally{o(!1)}})()},[e]),r?Q.jsx(Ka,{tip:"Loading..."}):Q.jsxs("div",{children:[Q.jsx(xA,{level:2,children:"Current Balance"}),t!==null?Q.jsxs(Fb,{strong:!0,style:{fontSize:"24px"},children:["₹",t.toFixed(2)]}):Q.jsx(Fb,{children:"No balance available"})]})},{Title:$A,Text:cl}=Vn,OA="http://localhost:8080",RA=()=>{ri();const{user:e,isAuthenticated:t}=Ba(b=>b.auth),[n,r]=c.useState([]),[o,i]=c.useState(!0),[a,l]=c.useState(1),s=5,u=async b=>{i(!0);const S=localStorage.getItem("token");try{const g=await fetch(`${OA}/api/wallet/cashbacks/${b}`,{headers:{Authorization:`Bearer ${S}`}});if(!g.ok)throw new Error("Failed to fetch cashbacks");const v=await g.json();r(v)}catch(g){Ut.error("Error fetching cashbacks: "+g.message)}finally{i(!1)}};c.useEffect(()=>{t&&e?u(e.username):Ut.error("Please log in to view your cashbacks.")},[t,e]);const d=n.reduce((b,S)=>b+S.amount,0),f=n.sort((b,S)=>new Date(S.timestamp)-new Date(b.timestamp)),m=a*s,y=m-s,h=f.slice(y,m);return Q.jsxs("div",{children:[Q.jsx($A,{level:2,children:"Cashbacks"}),o?Q.jsx(Ka,{tip:"Loading cashbacks..."}):Q.jsxs(Q.Fragment,{children:[Q.jsx("div",{style:{marginBottom:"1rem"},children:Q.jsxs(cl,{strong:!0,style:{fontSize:"24px"},children:["Total Cashbacks: ₹",d.toFixed(2)]})}),Q.jsx("div",{className:"transaction-list",children:h.length>0?h.map(b=>Q.jsxs("div",{className:"transaction-box recharge",children:[Q.jsxs("div",{className:"transaction-details",children:[Q.jsxs(cl,{className:"transaction-amount",strong:!0,children:["₹",b.amount]}),Q.jsx(cl,{className:"transaction-type",style:{margin:"0 5px"},children:"Cashback"})]}),Q.jsx(cl,{className:"transaction-date",style:{display:"block",marginTop:"5px",fontSize:"12px",color:"#888"},children:new Date(b.timestamp).toLocaleString()})]},b.id)):Q.jsx(cl,{children:"No cashbacks available."})}),Q.jsx(ME,{current:a,pageSize:s,total:f.length,onChange:b=>l(b),style:{marginTop:"20px"}})]})]})},PA="/assets/2918522-nwL030bV.png",{Title:IA,Text:Lb}=Vn,MA=()=>{const e=ri(),{user:t}=Ba(a=>a.auth),[n,r]=c.useState("");c.useEffect(()=>{localStorage.getItem("token")||(Ut.error("Session expired. Please log in again."),e(i0()))},[e]);const o=()=>{switch(n){case"transfer":return Q.jsx(AE,{});case"recharge":return Q.jsx(DE,{});case"transactions":return Q.jsx(LE,{});case"balance":return Q.jsx(EA,{username:t==null?void 0:t.username});case"cashbacks":return Q.jsx(RA,{});default:return Q.jsxs("div",{style:{textAlign:"center"},children:[Q.jsx("img",{src:PA,alt:"Select Option",style:{width:"100%",maxWidth:"400px",marginBottom:"1rem"}}),Q.jsx("br",{}),Q.jsx(Lb,{children:"Please select an option from the left."})]})}},i=()=>{localStorage.removeItem("token"),e(i0()),Ut.success("Logged out successfully")};return Q.jsxs("div",{className:"landing-page",children:[Q.jsx(Fg,{setActivePage:r}),Q.jsxs("div",{className:"main-content",children:[Q.jsxs("div",{className:"sidebar",children:[t?Q.jsxs(IA,{level:2,className:"welcome-message",children:["Hi ",t.username,", Welcome to Tuple Pay!"]}):Q.jsx(Lb,{className:"welcome-text",children:"Please log in to see your details."}),Q.jsxs("div",{className:"button-container",children:[Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("transfer"),children:"Transfer"}),Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("recharge"),children:"Recharge"}),Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("transactions"),children:"View Transactions"}),Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("cashbacks"),children:"View Cashbacks"}),Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("balance"),children:"Current Balance"}),Q.jsx(Rn,{type:"default",danger:!0,onClick:i,className:"sidebar-button",children:"Logout"})]})]}),Q.jsx("div",{className:"content",children:o()})]})]})},_A=()=>(ri(),Q.jsx(hP,{children:Q.jsxs(vP,{children:[Q.jsx(Po,{path:"/",element:Q.jsx(pA,{})})," ",Q.jsx(Po,{path:"/login",element:Q.jsx(cA,{})}),Q.jsx(Po,{path:"/register",element:Q.jsx(CA,{})}),Q.jsx(Po,{path:"/mainmenu",element:Q.jsx(mc,{children:Q.jsx(MA,{})})}),Q.jsx(Po,{path:"/transactions",element:Q.jsx(mc,{children:Q.jsx(LE,{})})}),Q.jsx(Po,{path:"/transfer",element:Q.jsx(mc,{children:Q.jsx(AE,{})})}),Q.jsx(Po,{path:"/recharge",element:Q.jsx(mc,{children:Q.jsx(DE,{})})})]})}));ou.render(Q.jsx(TO,{store:OR,children:Q.jsx(_A,{})}),document.getElementById("root"));
+      `]:Object.assign(Object.assign({},Rw(e)),{marginInlineStart:e.marginXXS})}),$L(e)),OL(e)),RL()),{"&-rtl":{direction:"rtl"}})}},IL=()=>({titleMarginTop:"1.2em",titleMarginBottom:"0.5em"}),jE=Hn("Typography",e=>[PL(e)],IL),ML=e=>{const{prefixCls:t,"aria-label":n,className:r,style:o,direction:i,maxLength:a,autoSize:l=!0,value:s,onSave:u,onCancel:d,onEnd:f,component:m,enterIcon:y=c.createElement(SL,null)}=e,h=c.useRef(null),b=c.useRef(!1),S=c.useRef(),[g,v]=c.useState(s);c.useEffect(()=>{v(s)},[s]),c.useEffect(()=>{var z;if(!((z=h.current)===null||z===void 0)&&z.resizableTextArea){const{textArea:B}=h.current.resizableTextArea;B.focus();const{length:_}=B.value;B.setSelectionRange(_,_)}},[]);const p=z=>{let{target:B}=z;v(B.value.replace(/[\n\r]/g,""))},C=()=>{b.current=!0},w=()=>{b.current=!1},x=z=>{let{keyCode:B}=z;b.current||(S.current=B)},E=()=>{u(g.trim())},$=z=>{let{keyCode:B,ctrlKey:_,altKey:P,metaKey:O,shiftKey:M}=z;S.current!==B||b.current||_||P||O||M||(B===se.ENTER?(E(),f==null||f()):B===se.ESC&&d())},R=()=>{E()},[I,N,L]=jE(t),j=te(t,`${t}-edit-content`,{[`${t}-rtl`]:i==="rtl",[`${t}-${m}`]:!!m},r,N,L);return I(c.createElement("div",{className:j,style:o},c.createElement(vE,{ref:h,maxLength:a,value:g,onChange:p,onKeyDown:x,onKeyUp:$,onCompositionStart:C,onCompositionEnd:w,onBlur:R,"aria-label":n,rows:1,autoSize:l}),y!==null?Jo(y,{className:`${t}-edit-content-confirm`}):null))};var _L=function(){var e=document.getSelection();if(!e.rangeCount)return function(){};for(var t=document.activeElement,n=[],r=0;r<e.rangeCount;r++)n.push(e.getRangeAt(r));switch(t.tagName.toUpperCase()){case"INPUT":case"TEXTAREA":t.blur();break;default:t=null;break}return e.removeAllRanges(),function(){e.type==="Caret"&&e.removeAllRanges(),e.rangeCount||n.forEach(function(o){e.addRange(o)}),t&&t.focus()}},TL=_L,_b={"text/plain":"Text","text/html":"Url",default:"Text"},NL="Copy to clipboard: #{key}, Enter";function jL(e){var t=(/mac os x/i.test(navigator.userAgent)?"⌘":"Ctrl")+"+C";return e.replace(/#{\s*key\s*}/g,t)}function zL(e,t){var n,r,o,i,a,l,s=!1;t||(t={}),n=t.debug||!1;try{o=TL(),i=document.createRange(),a=document.getSelection(),l=document.createElement("span"),l.textContent=e,l.ariaHidden="true",l.style.all="unset",l.style.position="fixed",l.style.top=0,l.style.clip="rect(0, 0, 0, 0)",l.style.whiteSpace="pre",l.style.webkitUserSelect="text",l.style.MozUserSelect="text",l.style.msUserSelect="text",l.style.userSelect="text",l.addEventListener("copy",function(d){if(d.stopPropagation(),t.format)if(d.preventDefault(),typeof d.clipboardData>"u"){n&&console.warn("unable to use e.clipboardData"),n&&console.warn("trying IE specific stuff"),window.clipboardData.clearData();var f=_b[t.format]||_b.default;window.clipboardData.setData(f,e)}else d.clipboardData.clearData(),d.clipboardData.setData(t.format,e);t.onCopy&&(d.preventDefault(),t.onCopy(d.clipboardData))}),document.body.appendChild(l),i.selectNodeContents(l),a.addRange(i);var u=document.execCommand("copy");if(!u)throw new Error("copy command was unsuccessful");s=!0}catch(d){n&&console.error("unable to copy using execCommand: ",d),n&&console.warn("trying IE specific stuff");try{window.clipboardData.setData(t.format||"text",e),t.onCopy&&t.onCopy(window.clipboardData),s=!0}catch(f){n&&console.error("unable to copy using clipboardData: ",f),n&&console.error("falling back to prompt"),r=jL("message"in t?t.message:NL),window.prompt(r,e)}}finally{a&&(typeof a.removeRange=="function"?a.removeRange(i):a.removeAllRanges()),l&&document.body.removeChild(l),o()}return s}var FL=zL;const LL=$u(FL);var AL=function(e,t,n,r){function o(i){return i instanceof n?i:new n(function(a){a(i)})}return new(n||(n=Promise))(function(i,a){function l(d){try{u(r.next(d))}catch(f){a(f)}}function s(d){try{u(r.throw(d))}catch(f){a(f)}}function u(d){d.done?i(d.value):o(d.value).then(l,s)}u((r=r.apply(e,t||[])).next())})};const DL=e=>{let{copyConfig:t,children:n}=e;const[r,o]=c.useState(!1),[i,a]=c.useState(!1),l=c.useRef(null),s=()=>{l.current&&clearTimeout(l.current)},u={};t.format&&(u.format=t.format),c.useEffect(()=>s,[]);const d=en(f=>AL(void 0,void 0,void 0,function*(){var m;f==null||f.preventDefault(),f==null||f.stopPropagation(),a(!0);try{const y=typeof t.text=="function"?yield t.text():t.text;LL(y||rL(n,!0).join("")||"",u),a(!1),o(!0),s(),l.current=setTimeout(()=>{o(!1)},3e3),(m=t.onCopy)===null||m===void 0||m.call(t,f)}catch(y){throw a(!1),y}}));return{copied:r,copyLoading:i,onClick:d}};function Af(e,t){return c.useMemo(()=>{const n=!!e;return[n,Object.assign(Object.assign({},t),n&&typeof e=="object"?e:null)]},[e])}const BL=e=>{const t=c.useRef();return c.useEffect(()=>{t.current=e}),t.current},kL=(e,t,n)=>c.useMemo(()=>e===!0?{title:t??n}:c.isValidElement(e)?{title:e}:typeof e=="object"?Object.assign({title:t??n},e):{title:e},[e,t,n]);var HL=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};const zE=c.forwardRef((e,t)=>{const{prefixCls:n,component:r="article",className:o,rootClassName:i,setContentRef:a,children:l,direction:s,style:u}=e,d=HL(e,["prefixCls","component","className","rootClassName","setContentRef","children","direction","style"]),{getPrefixCls:f,direction:m,typography:y}=c.useContext(it),h=s??m,b=a?Rr(t,a):t,S=f("typography",n),[g,v,p]=jE(S),C=te(S,y==null?void 0:y.className,{[`${S}-rtl`]:h==="rtl"},o,i,v,p),w=Object.assign(Object.assign({},y==null?void 0:y.style),u);return g(c.createElement(r,Object.assign({className:C,style:w,ref:b},d),l))});function Tb(e){return e===!1?[!1,!1]:Array.isArray(e)?e:[e]}function Df(e,t,n){return e===!0||e===void 0?t:e||n&&t}function VL(e){const t=document.createElement("em");e.appendChild(t);const n=e.getBoundingClientRect(),r=t.getBoundingClientRect();return e.removeChild(t),n.left>r.left||r.right>n.right||n.top>r.top||r.bottom>n.bottom}const zg=e=>["string","number"].includes(typeof e),WL=e=>{let{prefixCls:t,copied:n,locale:r,iconOnly:o,tooltips:i,icon:a,tabIndex:l,onCopy:s,loading:u}=e;const d=Tb(i),f=Tb(a),{copied:m,copy:y}=r??{},h=n?m:y,b=Df(d[n?1:0],h),S=typeof b=="string"?b:h;return c.createElement(Ps,{title:b},c.createElement("button",{type:"button",className:te(`${t}-copy`,{[`${t}-copy-success`]:n,[`${t}-copy-icon-only`]:o}),onClick:s,"aria-label":S,tabIndex:l},n?Df(f[1],c.createElement(Yx,null),!0):Df(f[0],u?c.createElement(xs,null):c.createElement(vL,null),!0)))},dc=c.forwardRef((e,t)=>{let{style:n,children:r}=e;const o=c.useRef(null);return c.useImperativeHandle(t,()=>({isExceed:()=>{const i=o.current;return i.scrollHeight>i.clientHeight},getHeight:()=>o.current.clientHeight})),c.createElement("span",{"aria-hidden":!0,ref:o,style:Object.assign({position:"fixed",display:"block",left:0,top:0,pointerEvents:"none",backgroundColor:"rgba(255, 0, 0, 0.65)"},n)},r)}),UL=e=>e.reduce((t,n)=>t+(zg(n)?String(n).length:1),0);function Nb(e,t){let n=0;const r=[];for(let o=0;o<e.length;o+=1){if(n===t)return r;const i=e[o],l=zg(i)?String(i).length:1,s=n+l;if(s>t){const u=t-n;return r.push(String(i).slice(0,u)),r}r.push(i),n=s}return e}const Bf=0,kf=1,Hf=2,Vf=3,jb=4,fc={display:"-webkit-box",overflow:"hidden",WebkitBoxOrient:"vertical"};function GL(e){const{enableMeasure:t,width:n,text:r,children:o,rows:i,expanded:a,miscDeps:l,onEllipsis:s}=e,u=c.useMemo(()=>eo(r),[r]),d=c.useMemo(()=>UL(u),[r]),f=c.useMemo(()=>o(u,!1),[r]),[m,y]=c.useState(null),h=c.useRef(null),b=c.useRef(null),S=c.useRef(null),g=c.useRef(null),v=c.useRef(null),[p,C]=c.useState(!1),[w,x]=c.useState(Bf),[E,$]=c.useState(0),[R,I]=c.useState(null);st(()=>{x(t&&n&&d?kf:Bf)},[n,r,i,t,u]),st(()=>{var z,B,_,P;if(w===kf){x(Hf);const O=b.current&&getComputedStyle(b.current).whiteSpace;I(O)}else if(w===Hf){const O=!!(!((z=S.current)===null||z===void 0)&&z.isExceed());x(O?Vf:jb),y(O?[0,d]:null),C(O);const M=((B=S.current)===null||B===void 0?void 0:B.getHeight())||0,T=i===1?0:((_=g.current)===null||_===void 0?void 0:_.getHeight())||0,F=((P=v.current)===null||P===void 0?void 0:P.getHeight())||0,D=Math.max(M,T+F);$(D+1),s(O)}},[w]);const N=m?Math.ceil((m[0]+m[1])/2):0;st(()=>{var z;const[B,_]=m||[0,0];if(B!==_){const O=(((z=h.current)===null||z===void 0?void 0:z.getHeight())||0)>E;let M=N;_-B===1&&(M=O?B:_),y(O?[B,M]:[M,_])}},[m,N]);const L=c.useMemo(()=>{if(!t)return o(u,!1);if(w!==Vf||!m||m[0]!==m[1]){const z=o(u,!1);return[jb,Bf].includes(w)?z:c.createElement("span",{style:Object.assign(Object.assign({},fc),{WebkitLineClamp:i})},z)}return o(a?u:Nb(u,m[0]),p)},[a,w,m,u].concat(pe(l))),j={width:n,margin:0,padding:0,whiteSpace:R==="nowrap"?"normal":"inherit"};return c.createElement(c.Fragment,null,L,w===Hf&&c.createElement(c.Fragment,null,c.createElement(dc,{style:Object.assign(Object.assign(Object.assign({},j),fc),{WebkitLineClamp:i}),ref:S},f),c.createElement(dc,{style:Object.assign(Object.assign(Object.assign({},j),fc),{WebkitLineClamp:i-1}),ref:g},f),c.createElement(dc,{style:Object.assign(Object.assign(Object.assign({},j),fc),{WebkitLineClamp:1}),ref:v},o([],!0))),w===Vf&&m&&m[0]!==m[1]&&c.createElement(dc,{style:Object.assign(Object.assign({},j),{top:400}),ref:h},o(Nb(u,N),!0)),w===kf&&c.createElement("span",{style:{whiteSpace:"inherit"},ref:b}))}const KL=e=>{let{enableEllipsis:t,isEllipsis:n,children:r,tooltipProps:o}=e;return!(o!=null&&o.title)||!t?r:c.createElement(Ps,Object.assign({open:n?void 0:!1},o),r)};var qL=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};function XL(e,t){let{mark:n,code:r,underline:o,delete:i,strong:a,keyboard:l,italic:s}=e,u=t;function d(f,m){m&&(u=c.createElement(f,{},u))}return d("strong",a),d("u",o),d("del",i),d("code",r),d("mark",n),d("kbd",l),d("i",s),u}const QL="...",Ed=c.forwardRef((e,t)=>{var n;const{prefixCls:r,className:o,style:i,type:a,disabled:l,children:s,ellipsis:u,editable:d,copyable:f,component:m,title:y}=e,h=qL(e,["prefixCls","className","style","type","disabled","children","ellipsis","editable","copyable","component","title"]),{getPrefixCls:b,direction:S}=c.useContext(it),[g]=fd("Text"),v=c.useRef(null),p=c.useRef(null),C=b("typography",r),w=bo(h,["mark","code","delete","underline","strong","keyboard","italic"]),[x,E]=Af(d),[$,R]=$r(!1,{value:E.editing}),{triggerType:I=["icon"]}=E,N=ge=>{var Oe;ge&&((Oe=E.onStart)===null||Oe===void 0||Oe.call(E)),R(ge)},L=BL($);st(()=>{var ge;!$&&L&&((ge=p.current)===null||ge===void 0||ge.focus())},[$]);const j=ge=>{ge==null||ge.preventDefault(),N(!0)},z=ge=>{var Oe;(Oe=E.onChange)===null||Oe===void 0||Oe.call(E,ge),N(!1)},B=()=>{var ge;(ge=E.onCancel)===null||ge===void 0||ge.call(E),N(!1)},[_,P]=Af(f),{copied:O,copyLoading:M,onClick:T}=DL({copyConfig:P,children:s}),[F,D]=c.useState(!1),[V,k]=c.useState(!1),[W,J]=c.useState(!1),[U,re]=c.useState(!1),[ae,Y]=c.useState(!0),[G,q]=Af(u,{expandable:!1,symbol:ge=>ge?g==null?void 0:g.collapse:g==null?void 0:g.expand}),[oe,ee]=$r(q.defaultExpanded||!1,{value:q.expanded}),ne=G&&(!oe||q.expandable==="collapsible"),{rows:Z=1}=q,we=c.useMemo(()=>ne&&(q.suffix!==void 0||q.onEllipsis||q.expandable||x||_),[ne,q,x,_]);st(()=>{G&&!we&&(D(Dy("webkitLineClamp")),k(Dy("textOverflow")))},[we,G]);const[ce,je]=c.useState(ne),be=c.useMemo(()=>we?!1:Z===1?V:F,[we,V,F]);st(()=>{je(be&&ne)},[be,ne]);const he=ne&&(ce?U:W),De=ne&&Z===1&&ce,ie=ne&&Z>1&&ce,le=(ge,Oe)=>{var qe;ee(Oe.expanded),(qe=q.onExpand)===null||qe===void 0||qe.call(q,ge,Oe)},[Se,ye]=c.useState(0),ke=ge=>{let{offsetWidth:Oe}=ge;ye(Oe)},Be=ge=>{var Oe;J(ge),W!==ge&&((Oe=q.onEllipsis)===null||Oe===void 0||Oe.call(q,ge))};c.useEffect(()=>{const ge=v.current;if(G&&ce&&ge){const Oe=VL(ge);U!==Oe&&re(Oe)}},[G,ce,s,ie,ae,Se]),c.useEffect(()=>{const ge=v.current;if(typeof IntersectionObserver>"u"||!ge||!ce||!ne)return;const Oe=new IntersectionObserver(()=>{Y(!!ge.offsetParent)});return Oe.observe(ge),()=>{Oe.disconnect()}},[ce,ne]);const We=kL(q.tooltip,E.text,s),Ae=c.useMemo(()=>{if(!(!G||ce))return[E.text,s,y,We.title].find(zg)},[G,ce,y,We.title,he]);if($)return c.createElement(ML,{value:(n=E.text)!==null&&n!==void 0?n:typeof s=="string"?s:"",onSave:z,onCancel:B,onEnd:E.onEnd,prefixCls:C,className:o,style:i,direction:S,component:m,maxLength:E.maxLength,autoSize:E.autoSize,enterIcon:E.enterIcon});const Qe=()=>{const{expandable:ge,symbol:Oe}=q;return ge?c.createElement("button",{type:"button",key:"expand",className:`${C}-${oe?"collapse":"expand"}`,onClick:qe=>le(qe,{expanded:!oe}),"aria-label":oe?g.collapse:g==null?void 0:g.expand},typeof Oe=="function"?Oe(oe):Oe):null},Ve=()=>{if(!x)return;const{icon:ge,tooltip:Oe,tabIndex:qe}=E,St=eo(Oe)[0]||(g==null?void 0:g.edit),kt=typeof St=="string"?St:"";return I.includes("icon")?c.createElement(Ps,{key:"edit",title:Oe===!1?"":St},c.createElement("button",{type:"button",ref:p,className:`${C}-edit`,onClick:j,"aria-label":kt,tabIndex:qe},ge||c.createElement(hL,{role:"button"}))):null},Re=()=>_?c.createElement(WL,Object.assign({key:"copy"},P,{prefixCls:C,copied:O,locale:g,onCopy:T,loading:M,iconOnly:s==null})):null,Pe=ge=>[ge&&Qe(),Ve(),Re()],at=ge=>[ge&&!oe&&c.createElement("span",{"aria-hidden":!0,key:"ellipsis"},QL),q.suffix,Pe(ge)];return c.createElement(yo,{onResize:ke,disabled:!ne},ge=>c.createElement(KL,{tooltipProps:We,enableEllipsis:ne,isEllipsis:he},c.createElement(zE,Object.assign({className:te({[`${C}-${a}`]:a,[`${C}-disabled`]:l,[`${C}-ellipsis`]:G,[`${C}-ellipsis-single-line`]:De,[`${C}-ellipsis-multiple-line`]:ie},o),prefixCls:r,style:Object.assign(Object.assign({},i),{WebkitLineClamp:ie?Z:void 0}),component:m,ref:Rr(ge,v,t),direction:S,onClick:I.includes("text")?j:void 0,"aria-label":Ae==null?void 0:Ae.toString(),title:y},w),c.createElement(GL,{enableMeasure:ne&&!ce,text:s,rows:Z,width:Se,onEllipsis:Be,expanded:oe,miscDeps:[O,oe,M,x,_]},(Oe,qe)=>XL(e,c.createElement(c.Fragment,null,Oe.length>0&&qe&&!oe&&Ae?c.createElement("span",{key:"show-content","aria-hidden":!0},Oe):Oe,at(qe)))))))});var YL=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};const ZL=c.forwardRef((e,t)=>{var{ellipsis:n,rel:r}=e,o=YL(e,["ellipsis","rel"]);const i=Object.assign(Object.assign({},o),{rel:r===void 0&&o.target==="_blank"?"noopener noreferrer":r});return delete i.navigate,c.createElement(Ed,Object.assign({},i,{ref:t,ellipsis:!!n,component:"a"}))}),JL=c.forwardRef((e,t)=>c.createElement(Ed,Object.assign({ref:t},e,{component:"div"})));var eA=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};const tA=(e,t)=>{var{ellipsis:n}=e,r=eA(e,["ellipsis"]);const o=c.useMemo(()=>n&&typeof n=="object"?bo(n,["expandable","rows"]):n,[n]);return c.createElement(Ed,Object.assign({ref:t},r,{ellipsis:o,component:"span"}))},nA=c.forwardRef(tA);var rA=function(e,t){var n={};for(var r in e)Object.prototype.hasOwnProperty.call(e,r)&&t.indexOf(r)<0&&(n[r]=e[r]);if(e!=null&&typeof Object.getOwnPropertySymbols=="function")for(var o=0,r=Object.getOwnPropertySymbols(e);o<r.length;o++)t.indexOf(r[o])<0&&Object.prototype.propertyIsEnumerable.call(e,r[o])&&(n[r[o]]=e[r[o]]);return n};const oA=[1,2,3,4,5],iA=c.forwardRef((e,t)=>{const{level:n=1}=e,r=rA(e,["level"]),o=oA.includes(n)?`h${n}`:"h1";return c.createElement(Ed,Object.assign({ref:t},r,{component:o}))}),Vn=zE;Vn.Text=nA;Vn.Link=ZL;Vn.Title=iA;Vn.Paragraph=JL;const FE="/assets/icon-DKAXL3d_.png",{Title:aA}=Vn,Fg=()=>Q.jsxs("div",{style:{background:"linear-gradient(90deg, rgba(45, 85, 160, 1) 0%, rgba(103, 160, 211, 1) 100%)",padding:"0.5rem 1rem",display:"flex",alignItems:"center",borderRadius:"8px",boxShadow:"0 2px 5px rgba(0, 0, 0, 0.3)"},children:[Q.jsx("img",{src:FE,alt:"Logo",style:{width:"40px",height:"40px",marginRight:"10px"}}),Q.jsx(aA,{level:3,style:{margin:0,color:"white",fontSize:"18px",fontFamily:"Trebuchet MS, Arial, sans-serif",fontWeight:"600"},children:"Tuple Pay"})]}),lA="http://localhost:8080",{Title:sA}=Vn,cA=()=>{const[e,t]=c.useState(!1),n=ri(),r=Ku(),o=async i=>{n(bR()),t(!0);try{const a=await fetch(`${lA}/api/auth/login`,{method:"POST",headers:{"Content-Type":"application/json"},body:JSON.stringify(i)});if(console.log(a),!a.ok){const s=await a.text();throw new Error(s)}const l=await a.json();localStorage.setItem("token",l.token),n(SR(l)),Ut.success("Login successful!"),r("/mainmenu")}catch(a){n(CR(a.message)),Ut.error("Login failed: "+a.message)}finally{t(!1)}};return Q.jsxs("div",{children:[Q.jsx(Fg,{}),Q.jsxs("div",{style:{maxWidth:400,margin:"auto",padding:"2rem"},children:[Q.jsx(sA,{level:2,children:"Login"}),Q.jsxs(un,{name:"login",onFinish:o,layout:"vertical",initialValues:{username:"",password:""},children:[Q.jsx(un.Item,{label:"Username",name:"username",rules:[{required:!0,message:"Please input your username!"}],children:Q.jsx(Ln,{})}),Q.jsx(un.Item,{label:"Password",name:"password",rules:[{required:!0,message:"Please input your password!"}],children:Q.jsx(Ln.Password,{})}),Q.jsx(un.Item,{children:Q.jsx(Rn,{type:"primary",htmlType:"submit",loading:e,children:"Login"})})]})]})]})},{Title:uA,Text:Ji}=Vn,dA="http://localhost:8080",LE=()=>{ri();const{user:e,isAuthenticated:t}=Ba(h=>h.auth),[n,r]=c.useState([]),[o,i]=c.useState(!0),[a,l]=c.useState(1),s=5,u=async h=>{i(!0);const b=localStorage.getItem("token");try{const S=await fetch(`${dA}/api/wallet/transactions/${h}`,{headers:{Authorization:`Bearer ${b}`}});if(!S.ok)throw new Error("Failed to fetch transactions");const g=await S.json();r(g)}catch(S){Ut.error("Error fetching transactions: "+S.message)}finally{i(!1)}};c.useEffect(()=>{t&&e&&u(e.username)},[t,e]);const d=n.sort((h,b)=>new Date(b.timestamp)-new Date(h.timestamp)),f=a*s,m=f-s,y=d.slice(m,f);return Q.jsxs("div",{children:[Q.jsx(uA,{level:2,children:"Transactions"}),o?Q.jsx(Ka,{tip:"Loading transactions..."}):Q.jsxs("div",{className:"transaction-list",children:[y.length===0?Q.jsx(Ji,{children:"No transactions available."}):y.map(h=>Q.jsxs("div",{className:`transaction-box ${h.type==="Recharge"?"recharge":h.type==="Sent"?"sent":"received"}`,children:[Q.jsxs("div",{className:"transaction-details",children:[Q.jsxs(Ji,{className:"transaction-amount",strong:!0,children:["₹",(h.amount/100).toFixed(2)]}),Q.jsx(Ji,{className:"transaction-type",children:h.type}),h.type==="Sent"&&Q.jsxs(Ji,{className:"transaction-user",children:[" to ",h.receiverUsername]}),h.type==="Received"&&Q.jsxs(Ji,{className:"transaction-user",children:[" from ",h.senderUsername]})]}),Q.jsx(Ji,{className:"transaction-date",style:{display:"block",marginTop:"5px",fontSize:"12px",color:"#888"},children:new Date(h.timestamp).toLocaleString()})]},h.id)),Q.jsx(ME,{current:a,pageSize:s,total:d.length,onChange:h=>l(h),style:{marginTop:"20px"}})]})]})},{Title:fA,Text:zb}=Vn,mA="http://localhost:8080",AE=()=>{ri();const{user:e}=Ba(s=>s.auth),[t,n]=c.useState(0),[r,o]=c.useState(""),[i,a]=c.useState(!1),l=async s=>{if(s.preventDefault(),t<=0){Ut.error("Amount must be greater than zero.");return}if(!r){Ut.error("Please enter a valid recipient ID.");return}a(!0);const u=localStorage.getItem("token");try{const d=await fetch(`${mA}/api/wallet/transfer?fromUsername=${e.username}&toUsername=${r}&amount=${Math.round(t*100)}`,{method:"POST",headers:{"Content-Type":"application/json",Authorization:`Bearer ${u}`}});if(!d.ok){const m=await d.text();throw new Error(m)}const f=await d.json();Ut.success(`Successfully transferred ₹${t} to user ${r}`),console.log(f),n(0),o("")}catch(d){Ut.error("Error transferring amount: "+d.message)}finally{a(!1)}};return Q.jsxs("div",{children:[Q.jsx(fA,{level:2,children:"Transfer Amount"}),Q.jsxs("form",{onSubmit:l,children:[Q.jsx("div",{children:Q.jsxs("label",{children:[Q.jsx(zb,{strong:!0,style:{fontSize:"18px"},children:"Amount:"}),Q.jsx(Ln,{type:"number",value:t,onChange:s=>n(Number(s.target.value)),min:"1",step:"1",required:!0,style:{fontSize:"16px",height:"40px"},prefix:"₹"})]})}),Q.jsx("div",{children:Q.jsxs("label",{children:[Q.jsx(zb,{strong:!0,style:{fontSize:"18px"},children:"Recipient User ID:"}),Q.jsx(Ln,{type:"text",value:r,onChange:s=>o(s.target.value),required:!0,style:{fontSize:"16px",height:"40px"}})]})}),Q.jsx(Rn,{type:"primary",htmlType:"submit",loading:i,style:{marginTop:"10px"},children:"Transfer"})]}),i&&Q.jsx(Ka,{tip:"Processing your transfer..."})," "]})},{Title:vA}=Vn,pA=()=>{const e=Ku(),t=()=>{e("/login")},n=()=>{e("/register")};return Q.jsxs("div",{style:{display:"flex",flexDirection:"column",alignItems:"center",justifyContent:"center",height:"100vh"},children:[Q.jsx("img",{src:FE,alt:"Tuple Pay",className:"pulse",style:{width:"200px",marginBottom:"20px"}}),Q.jsx(vA,{level:2,children:"Welcome to Tuple Pay!"}),Q.jsxs(gE,{direction:"vertical",size:"large",children:[Q.jsx(Rn,{type:"primary",onClick:t,style:{width:"200px"},children:"Login"}),Q.jsx(Rn,{type:"default",onClick:n,style:{width:"200px"},children:"Register"})]})]})},gA="http://localhost:8080",{Title:hA,Text:yA}=Vn,DE=()=>{ri();const{user:e}=Ba(a=>a.auth),[t,n]=c.useState(0),[r,o]=c.useState(!1),i=async a=>{if(a.preventDefault(),t<=0){Ut.error("Amount must be greater than zero.");return}o(!0);const l=localStorage.getItem("token");if(!l){Ut.error("Authentication token is missing. Please log in again."),o(!1);return}try{const s=await fetch(`${gA}/api/wallet/recharge?username=${e.username}&amount=${Math.round(t*100)}`,{method:"POST",headers:{"Content-Type":"application/json",Authorization:`Bearer ${l}`}});if(!s.ok){const d=await s.json();throw new Error(d.message)}const u=await s.json();Ut.success(`Successfully recharged ₹${t.toFixed(2)} to your wallet.`),u.cashbackAmount>0&&Ut.info(`You won ₹${(u.cashbackAmount/100).toFixed(2)} cashback!`),n(0)}catch(s){Ut.error("Error recharging wallet: "+s.message)}finally{o(!1)}};return Q.jsxs("div",{children:[Q.jsx(hA,{level:2,children:"Recharge Your Wallet"}),Q.jsxs("form",{onSubmit:i,children:[Q.jsx("div",{children:Q.jsxs("label",{children:[Q.jsx(yA,{strong:!0,style:{fontSize:"18px"},children:"Amount:"}),Q.jsx(Ln,{type:"number",value:t,onChange:a=>n(Number(a.target.value)),min:"1",step:"1",required:!0,style:{fontSize:"16px",height:"40px"},prefix:"₹"})]})}),Q.jsx(Rn,{type:"primary",htmlType:"submit",loading:r,style:{marginTop:"10px"},children:"Recharge"})]}),r&&Q.jsx(Ka,{tip:"Processing your recharge..."})]})},mc=({children:e})=>{const{isAuthenticated:t}=Ba(n=>n.auth);return t?e:Q.jsx(fP,{to:"/"})},bA="http://localhost:8080",{Title:SA}=Vn,CA=()=>{const[e,t]=c.useState(!1),n=ri(),r=Ku(),o=async i=>{n(wR()),t(!0);try{const a=await fetch(`${bA}/api/auth/register`,{method:"POST",headers:{"Content-Type":"application/json"},body:JSON.stringify(i)});if(a.ok){const l=await a.json();n(xR(l)),Ut.success("Registration successful! Please log in."),r("/login")}else{const l=await a.text();Ut.error(l)}}catch(a){n(ER(a.message)),Ut.error("Registration failed: "+a.message)}finally{t(!1)}};return Q.jsxs("div",{children:[Q.jsx(Fg,{})," ",Q.jsxs("div",{style:{maxWidth:400,margin:"auto",padding:"2rem"},children:[Q.jsx(SA,{level:2,children:"Register"}),Q.jsxs(un,{name:"register",onFinish:o,layout:"vertical",initialValues:{username:"",email:"",password:"",confirmPassword:""},children:[Q.jsx(un.Item,{label:"Username",name:"username",rules:[{required:!0,message:"Please input your username!"}],children:Q.jsx(Ln,{})}),Q.jsx(un.Item,{label:"Email",name:"email",rules:[{required:!0,type:"email",message:"Please input a valid email!"}],children:Q.jsx(Ln,{})}),Q.jsx(un.Item,{label:"Password",name:"password",rules:[{required:!0,message:"Please input your password!"}],children:Q.jsx(Ln.Password,{})}),Q.jsx(un.Item,{label:"Confirm Password",name:"confirmPassword",rules:[{required:!0,message:"Please confirm your password!"},({getFieldValue:i})=>({validator(a,l){return!l||i("password")===l?Promise.resolve():Promise.reject(new Error("Passwords do not match!"))}})],children:Q.jsx(Ln.Password,{})}),Q.jsx(un.Item,{children:Q.jsx(Rn,{type:"primary",htmlType:"submit",loading:e,children:"Register"})})]})]})]})},wA="http://localhost:8080",{Title:xA,Text:Fb}=Vn,EA=({username:e})=>{const[t,n]=c.useState(null),[r,o]=c.useState(!0);return c.useEffect(()=>{(async()=>{if(!e){o(!1);return}const a=localStorage.getItem("token");try{const l=await fetch(`${wA}/api/wallet/statement?username=${e}`,{headers:{Authorization:`Bearer ${a}`}});if(!l.ok)throw new Error("Failed to fetch balance");const s=await l.json();n(s.walletBalance/100)}catch(l){Ut.error(l.message)}finally{o(!1)}})()},[e]),r?Q.jsx(Ka,{tip:"Loading..."}):Q.jsxs("div",{children:[Q.jsx(xA,{level:2,children:"Current Balance"}),t!==null?Q.jsxs(Fb,{strong:!0,style:{fontSize:"24px"},children:["₹",t.toFixed(2)]}):Q.jsx(Fb,{children:"No balance available"})]})},{Title:$A,Text:cl}=Vn,OA="http://localhost:8080",RA=()=>{ri();const{user:e,isAuthenticated:t}=Ba(b=>b.auth),[n,r]=c.useState([]),[o,i]=c.useState(!0),[a,l]=c.useState(1),s=5,u=async b=>{i(!0);const S=localStorage.getItem("token");try{const g=await fetch(`${OA}/api/wallet/cashbacks/${b}`,{headers:{Authorization:`Bearer ${S}`}});if(!g.ok)throw new Error("Failed to fetch cashbacks");const v=await g.json();r(v)}catch(g){Ut.error("Error fetching cashbacks: "+g.message)}finally{i(!1)}};c.useEffect(()=>{t&&e?u(e.username):Ut.error("Please log in to view your cashbacks.")},[t,e]);const d=n.reduce((b,S)=>b+S.amount,0)/100,f=n.sort((b,S)=>new Date(S.timestamp)-new Date(b.timestamp)),m=a*s,y=m-s,h=f.slice(y,m);return Q.jsxs("div",{children:[Q.jsx($A,{level:2,children:"Cashbacks"}),o?Q.jsx(Ka,{tip:"Loading cashbacks..."}):Q.jsxs(Q.Fragment,{children:[Q.jsx("div",{style:{marginBottom:"1rem"},children:Q.jsxs(cl,{strong:!0,style:{fontSize:"24px"},children:["Total Cashbacks: ₹",d.toFixed(2)]})}),Q.jsx("div",{className:"transaction-list",children:h.length>0?h.map(b=>Q.jsxs("div",{className:"transaction-box recharge",children:[Q.jsxs("div",{className:"transaction-details",children:[Q.jsxs(cl,{className:"transaction-amount",strong:!0,children:["₹",(b.amount/100).toFixed(2)]}),Q.jsx(cl,{className:"transaction-type",style:{margin:"0 5px"},children:"Cashback"})]}),Q.jsx(cl,{className:"transaction-date",style:{display:"block",marginTop:"5px",fontSize:"12px",color:"#888"},children:new Date(b.timestamp).toLocaleString()})]},b.id)):Q.jsx(cl,{children:"No cashbacks available."})}),Q.jsx(ME,{current:a,pageSize:s,total:f.length,onChange:b=>l(b),style:{marginTop:"20px"}})]})]})},PA="/assets/2918522-nwL030bV.png",{Title:IA,Text:Lb}=Vn,MA=()=>{const e=ri(),{user:t}=Ba(a=>a.auth),[n,r]=c.useState("");c.useEffect(()=>{localStorage.getItem("token")||(Ut.error("Session expired. Please log in again."),e(i0()))},[e]);const o=()=>{switch(n){case"transfer":return Q.jsx(AE,{});case"recharge":return Q.jsx(DE,{});case"transactions":return Q.jsx(LE,{});case"balance":return Q.jsx(EA,{username:t==null?void 0:t.username});case"cashbacks":return Q.jsx(RA,{});default:return Q.jsxs("div",{style:{textAlign:"center"},children:[Q.jsx("img",{src:PA,alt:"Select Option",style:{width:"100%",maxWidth:"400px",marginBottom:"1rem"}}),Q.jsx("br",{}),Q.jsx(Lb,{children:"Please select an option from the left."})]})}},i=()=>{localStorage.removeItem("token"),e(i0()),Ut.success("Logged out successfully")};return Q.jsxs("div",{className:"landing-page",children:[Q.jsx(Fg,{setActivePage:r}),Q.jsxs("div",{className:"main-content",children:[Q.jsxs("div",{className:"sidebar",children:[t?Q.jsxs(IA,{level:2,className:"welcome-message",children:["Hi ",t.username,", Welcome to Tuple Pay!"]}):Q.jsx(Lb,{className:"welcome-text",children:"Please log in to see your details."}),Q.jsxs("div",{className:"button-container",children:[Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("transfer"),children:"Transfer"}),Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("recharge"),children:"Recharge"}),Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("transactions"),children:"View Transactions"}),Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("cashbacks"),children:"View Cashbacks"}),Q.jsx(Rn,{type:"default",className:"sidebar-button",onClick:()=>r("balance"),children:"Current Balance"}),Q.jsx(Rn,{type:"default",danger:!0,onClick:i,className:"sidebar-button",children:"Logout"})]})]}),Q.jsx("div",{className:"content",children:o()})]})]})},_A=()=>(ri(),Q.jsx(hP,{children:Q.jsxs(vP,{children:[Q.jsx(Po,{path:"/",element:Q.jsx(pA,{})})," ",Q.jsx(Po,{path:"/login",element:Q.jsx(cA,{})}),Q.jsx(Po,{path:"/register",element:Q.jsx(CA,{})}),Q.jsx(Po,{path:"/mainmenu",element:Q.jsx(mc,{children:Q.jsx(MA,{})})}),Q.jsx(Po,{path:"/transactions",element:Q.jsx(mc,{children:Q.jsx(LE,{})})}),Q.jsx(Po,{path:"/transfer",element:Q.jsx(mc,{children:Q.jsx(AE,{})})}),Q.jsx(Po,{path:"/recharge",element:Q.jsx(mc,{children:Q.jsx(DE,{})})})]})}));ou.render(Q.jsx(TO,{store:OR,children:Q.jsx(_A,{})}),document.getElementById("root"));
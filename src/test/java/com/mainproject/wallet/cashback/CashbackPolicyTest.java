@@ -0,0 +1,84 @@
+package com.mainproject.wallet.cashback;
+
+import com.mainproject.wallet.model.CashbackRuleSet;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashbackPolicyTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 15, 12, 0);
+
+    @Test
+    void testUniform_DrawsWithinTheRangeInEitherOrder() {
+        CashbackPolicy policy = CashbackPolicy.uniform(10, 5); // As in application.properties
+        for (int i = 0; i < 100; i++) {
+            CashbackPolicy.Offer offer = policy.offer(10_000, NOW);
+            assertEquals(CashbackPolicy.DEFAULT_CAMPAIGN, offer.campaignId());
+            assertTrue(offer.cashback() >= 500 && offer.cashback() <= 1_000);
+        }
+        assertEquals(0, policy.dailyCapPerUser());
+        assertTrue(policy.budgetedCampaigns().isEmpty());
+    }
+
+    @Test
+    void testOffer_HighestTierReachedAndItsCapApply() {
+        CashbackPolicy policy = CashbackPolicy.of(new CashbackRuleSet(CashbackRuleSet.ACTIVE, 0, List.of(
+                campaign("tiers", null, null, new CashbackRuleSet.Tier(0, 1, 1, 0), new CashbackRuleSet.Tier(50_000, 10, 10, 2_000)))));
+
+        assertEquals(100, policy.offer(10_000, NOW).cashback());
+        assertEquals(2_000, policy.offer(100_000, NOW).cashback()); // 10% would be 10000
+    }
+
+    @Test
+    void testOffer_NoTierForTheAmount_isNull() {
+        CashbackPolicy policy = CashbackPolicy.of(new CashbackRuleSet(CashbackRuleSet.ACTIVE, 0, List.of(
+                campaign("big", null, null, new CashbackRuleSet.Tier(50_000, 5, 5, 0)))));
+
+        assertNull(policy.offer(10_000, NOW));
+    }
+
+    @Test
+    void testOffer_CampaignWindowStartsInclusiveEndsExclusive() {
+        CashbackPolicy policy = CashbackPolicy.of(new CashbackRuleSet(CashbackRuleSet.ACTIVE, 0, List.of(
+                campaign("sale", NOW, NOW.plusDays(1), new CashbackRuleSet.Tier(0, 10, 10, 0)),
+                campaign("base", null, null, new CashbackRuleSet.Tier(0, 1, 1, 0)))));
+
+        assertEquals("base", policy.offer(10_000, NOW.minusSeconds(1)).campaignId());
+        assertEquals("sale", policy.offer(10_000, NOW).campaignId());
+        assertEquals("base", policy.offer(10_000, NOW.plusDays(1)).campaignId());
+    }
+
+    @Test
+    void testOf_InvalidRules_throwIllegalArgumentException() {
+        CashbackRuleSet.Tier tier = new CashbackRuleSet.Tier(0, 5, 5, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> CashbackPolicy.of(new CashbackRuleSet(CashbackRuleSet.ACTIVE, -1, List.of())));
+        assertThrows(IllegalArgumentException.class, () -> CashbackPolicy.of(new CashbackRuleSet(CashbackRuleSet.ACTIVE, 0, List.of(
+                campaign("a", null, null, new CashbackRuleSet.Tier(0, 5, 150, 0))))));
+        assertThrows(IllegalArgumentException.class, () -> CashbackPolicy.of(new CashbackRuleSet(CashbackRuleSet.ACTIVE, 0, List.of(
+                campaign("a", NOW, NOW, tier)))));
+        assertThrows(IllegalArgumentException.class, () -> CashbackPolicy.of(new CashbackRuleSet(CashbackRuleSet.ACTIVE, 0, List.of(
+                campaign("a", null, null, tier), campaign("a", null, null, tier)))));
+        assertThrows(IllegalArgumentException.class, () -> CashbackPolicy.of(new CashbackRuleSet(CashbackRuleSet.ACTIVE, 0, List.of(
+                campaign("a", null, null)))));
+    }
+
+    @Test
+    void testBudgetedCampaigns_OnlyThoseWithABudget() {
+        CashbackRuleSet.Campaign budgeted = campaign("budgeted", null, null, new CashbackRuleSet.Tier(0, 5, 5, 0));
+        budgeted.setBudget(1_000_000);
+        CashbackPolicy policy = CashbackPolicy.of(new CashbackRuleSet(CashbackRuleSet.ACTIVE, 0, List.of(
+                budgeted, campaign("open", null, null, new CashbackRuleSet.Tier(0, 5, 5, 0)))));
+
+        assertEquals(Set.of("budgeted"), policy.budgetedCampaigns());
+    }
+
+    private static CashbackRuleSet.Campaign campaign(String id, LocalDateTime startsAt, LocalDateTime endsAt, CashbackRuleSet.Tier... tiers) {
+        return new CashbackRuleSet.Campaign(id, startsAt, endsAt, 0, List.of(tiers));
+    }
+}
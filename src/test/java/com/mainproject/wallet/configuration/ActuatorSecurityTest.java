@@ -0,0 +1,82 @@
+package com.mainproject.wallet.configuration;
+
+import com.mainproject.wallet.service.UserService;
+import com.mainproject.wallet.utils.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ActuatorSecurityTest.StubActuator.class, properties = "wallet.actuator.scrape-password=scrape-secret")
+@Import(SecurityConfig.class)
+class ActuatorSecurityTest {
+
+    // Stands in for the actuator endpoints, which a web slice does not start; the security rules only look at the path
+    @RestController
+    static class StubActuator {
+
+        @GetMapping("/actuator/prometheus")
+        String prometheus() {
+            return "wallet_recharge_seconds_count 1";
+        }
+
+        @GetMapping("/actuator/health")
+        String health() {
+            return "UP";
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserService userService;
+
+    @Test
+    void testPrometheus_WithScrapeCredential_returnsOk() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", basic("prometheus", "scrape-secret")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testPrometheus_WithoutCredential_returnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testPrometheus_WithWrongPassword_returnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", basic("prometheus", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testPrometheus_WithUserBearerToken_returnsUnauthorized() throws Exception {
+        // A wallet user's token is not a scrape credential
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer user-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testHealth_WithoutCredential_returnsOk() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,130 @@
+package com.mainproject.wallet.configuration;
+
+import com.mainproject.wallet.model.BalanceStripe;
+import com.mainproject.wallet.model.IdempotencyRecord;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MongoIndexInitializerTest {
+
+    private MongoTemplate mongoTemplate;
+    private IndexOperations transactionIndexes;
+    private IndexOperations transferIndexes;
+    private IndexOperations userIndexes;
+    private IndexOperations outboxIndexes;
+    private IndexOperations stripeIndexes;
+    private IndexOperations idempotencyIndexes;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        transactionIndexes = mock(IndexOperations.class);
+        transferIndexes = mock(IndexOperations.class);
+        userIndexes = mock(IndexOperations.class);
+        outboxIndexes = mock(IndexOperations.class);
+        stripeIndexes = mock(IndexOperations.class);
+        idempotencyIndexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(Transaction.class)).thenReturn(transactionIndexes);
+        when(mongoTemplate.indexOps(TransferEntry.class)).thenReturn(transferIndexes);
+        when(mongoTemplate.indexOps(User.class)).thenReturn(userIndexes);
+        when(mongoTemplate.indexOps(OutboxMessage.class)).thenReturn(outboxIndexes);
+        when(mongoTemplate.indexOps(BalanceStripe.class)).thenReturn(stripeIndexes);
+        when(mongoTemplate.indexOps(IdempotencyRecord.class)).thenReturn(idempotencyIndexes);
+    }
+
+    @Test
+    void testRun_AllIndexesPresent_ensuresEachAndPasses() {
+        stubExistingIndexes();
+        MongoIndexInitializer initializer = new MongoIndexInitializer(mongoTemplate, true);
+
+        assertDoesNotThrow(() -> initializer.run(null));
+
+        verify(transactionIndexes, times(countFor(Transaction.class))).ensureIndex(any(IndexDefinition.class));
+        verify(transferIndexes, times(countFor(TransferEntry.class))).ensureIndex(any(IndexDefinition.class));
+        verify(userIndexes, times(countFor(User.class))).ensureIndex(any(IndexDefinition.class));
+        verify(outboxIndexes, times(countFor(OutboxMessage.class))).ensureIndex(any(IndexDefinition.class));
+        verify(stripeIndexes, times(countFor(BalanceStripe.class))).ensureIndex(any(IndexDefinition.class));
+        verify(idempotencyIndexes, times(countFor(IdempotencyRecord.class))).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void testRun_IndexMissing_failsStartup() {
+        when(transactionIndexes.getIndexInfo()).thenReturn(List.of());
+        when(userIndexes.getIndexInfo()).thenReturn(List.of());
+        MongoIndexInitializer initializer = new MongoIndexInitializer(mongoTemplate, true);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> initializer.run(null));
+        assertTrue(exception.getMessage().contains("username_ci_unique"));
+    }
+
+    @Test
+    void testRun_IndexMissingWithWarnOnly_doesNotFail() {
+        when(transactionIndexes.getIndexInfo()).thenReturn(List.of());
+        when(userIndexes.getIndexInfo()).thenReturn(List.of());
+        MongoIndexInitializer initializer = new MongoIndexInitializer(mongoTemplate, false);
+
+        assertDoesNotThrow(() -> initializer.run(null));
+    }
+
+    @Test
+    void testRun_CreationFails_isReportedByVerification() {
+        doThrow(new RuntimeException("E11000 duplicate key")).when(userIndexes).ensureIndex(any(IndexDefinition.class));
+        when(transactionIndexes.getIndexInfo()).thenReturn(List.of());
+        when(userIndexes.getIndexInfo()).thenReturn(List.of());
+        MongoIndexInitializer initializer = new MongoIndexInitializer(mongoTemplate, true);
+
+        assertThrows(IllegalStateException.class, () -> initializer.run(null));
+    }
+
+    private void stubExistingIndexes() {
+        List<IndexInfo> transactionInfo = new ArrayList<>();
+        List<IndexInfo> transferInfo = new ArrayList<>();
+        List<IndexInfo> userInfo = new ArrayList<>();
+        List<IndexInfo> outboxInfo = new ArrayList<>();
+        List<IndexInfo> stripeInfo = new ArrayList<>();
+        List<IndexInfo> idempotencyInfo = new ArrayList<>();
+        for (MongoIndexInitializer.RequiredIndex index : MongoIndexInitializer.requiredIndexes()) {
+            IndexInfo info = new IndexInfo(List.of(IndexField.create("field", Sort.Direction.ASC)), index.name(), index.unique(), false, null);
+            if (index.entity() == User.class) {
+                userInfo.add(info);
+            } else if (index.entity() == OutboxMessage.class) {
+                outboxInfo.add(info);
+            } else if (index.entity() == BalanceStripe.class) {
+                stripeInfo.add(info);
+            } else if (index.entity() == IdempotencyRecord.class) {
+                idempotencyInfo.add(info);
+            } else if (index.entity() == TransferEntry.class) {
+                transferInfo.add(info);
+            } else {
+                transactionInfo.add(info);
+            }
+        }
+        when(transactionIndexes.getIndexInfo()).thenReturn(transactionInfo);
+        when(transferIndexes.getIndexInfo()).thenReturn(transferInfo);
+        when(userIndexes.getIndexInfo()).thenReturn(userInfo);
+        when(outboxIndexes.getIndexInfo()).thenReturn(outboxInfo);
+        when(stripeIndexes.getIndexInfo()).thenReturn(stripeInfo);
+        when(idempotencyIndexes.getIndexInfo()).thenReturn(idempotencyInfo);
+    }
+
+    private static int countFor(Class<?> entity) {
+        return (int) MongoIndexInitializer.requiredIndexes().stream().filter(index -> index.entity() == entity).count();
+    }
+}
@@ -42,8 +42,8 @@ class AuthControllerTest {
 
         // Initialize reused variables
         registerDTO = new RegisterDTO("username", "email@example.com", "password");
-        user = new User("1", "username", "hashedPassword", "email@example.com", 0.0, 0L);
-        userDTO = new UserDTO("1", "username", "email@example.com", 0.0, null);
+        user = new User("1", "username", "hashedPassword", "email@example.com", 0, 0, 0L);
+        userDTO = new UserDTO("1", "username", "email@example.com", 0, null);
         token = "generatedToken";
         loginDTO = new LoginDTO("username", "password");
     }
@@ -66,7 +66,7 @@ class AuthControllerTest {
     void testLogin_ShouldReturnUserDTO_WithToken_WhenLoginIsSuccessful() {
         // Arrange
         when(userService.login(loginDTO)).thenReturn(user);
-        when(jwtUtil.generateToken(user.getUsername())).thenReturn(token);
+        when(jwtUtil.generateToken(user.getId(), user.getUsername())).thenReturn(token);
 
         // Act
         ResponseEntity<?> response = authController.login(loginDTO);
@@ -91,6 +91,6 @@ class AuthControllerTest {
         // Assert
         assertEquals(400, response.getStatusCodeValue());
         verify(userService, times(1)).login(invalidLoginDTO);
-        verify(jwtUtil, never()).generateToken(anyString());
+        verify(jwtUtil, never()).generateToken(any(), anyString());
     }
 }
@@ -3,23 +3,32 @@ package com.mainproject.wallet.controller;
 import com.mainproject.wallet.dto.ErrorResponseDTO;
 import com.mainproject.wallet.dto.RechargeResponseDTO;
 import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.dto.TransactionPageDTO;
 import com.mainproject.wallet.dto.UserDTO;
 import com.mainproject.wallet.mapper.UserMapper;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.security.WalletPrincipal;
+import com.mainproject.wallet.service.IdempotencyService;
+import com.mainproject.wallet.service.LedgerWalletService;
+import com.mainproject.wallet.service.StatementExportService;
 import com.mainproject.wallet.service.TransactionService;
 import com.mainproject.wallet.service.WalletService;
-import com.mainproject.wallet.utils.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class WalletControllerTest {
@@ -34,13 +43,18 @@ class WalletControllerTest {
     private TransactionService transactionService;
 
     @Mock
-    private JwtUtil jwtUtil;
+    private StatementExportService statementExportService;
+
+    @Spy
+    private IdempotencyService idempotencyService = new IdempotencyService(null); // Only used without a key here
 
     // Reused variables
     private final String token = "Bearer validToken";
     private final String username = "testUser";
-    private final double validAmount = 100.0;
-    private final double zeroAmount = 0.0;
+    private final String userId = "1";
+    private final WalletPrincipal principal = new WalletPrincipal(userId, username);
+    private final long validAmount = 100;
+    private final long zeroAmount = 0;
     private final String receiverUsername = "receiverUser";
     private UserDTO expectedUserDTO;
     private RechargeResponseDTO rechargeResponse;
@@ -52,8 +66,8 @@ class WalletControllerTest {
         MockitoAnnotations.openMocks(this);
 
         // Initialize reused variables
-        expectedUserDTO = new UserDTO("1", username, "email@example.com", 0.0, token);
-        rechargeResponse = new RechargeResponseDTO(10.0, validAmount);
+        expectedUserDTO = new UserDTO("1", username, "email@example.com", 0, token);
+        rechargeResponse = new RechargeResponseDTO(10, validAmount);
 
         transactions = new ArrayList<>();
         TransactionDTO transactionDTO = new TransactionDTO();
@@ -66,29 +80,42 @@ class WalletControllerTest {
         TransactionDTO cashbackDTO = new TransactionDTO();
         cashbackDTO.setId("2");
         cashbackDTO.setUserId(username);
-        cashbackDTO.setAmount(20.0);
+        cashbackDTO.setAmount(20);
         cashbacks.add(cashbackDTO);
     }
 
     @Test
     void testRecharge_ShouldReturnRechargeResponse_WhenAmountIsValid() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(username);
-        when(jwtUtil.isTokenValid(any(String.class),any(String.class))).thenReturn(true);
-        when(walletService.recharge(username, validAmount)).thenReturn(ResponseEntity.ok(rechargeResponse));
+        when(walletService.recharge(username, validAmount, null)).thenReturn(ResponseEntity.ok(rechargeResponse));
 
         // Act
-        ResponseEntity<?> response = walletController.recharge(token, validAmount);
+        ResponseEntity<?> response = walletController.recharge(principal, null, validAmount);
 
         // Assert
         assertEquals(200, response.getStatusCodeValue());
         assertEquals(rechargeResponse, response.getBody());
     }
 
+    @Test
+    void testRecharge_LedgerEnabled_ShouldUseLedgerWalletService() {
+        // Arrange
+        LedgerWalletService ledgerWalletService = mock(LedgerWalletService.class);
+        walletController.ledgerWalletService = ledgerWalletService;
+        when(ledgerWalletService.recharge(username, validAmount, null)).thenReturn(ResponseEntity.ok(rechargeResponse));
+
+        // Act
+        ResponseEntity<?> response = walletController.recharge(principal, null, validAmount);
+
+        // Assert
+        assertEquals(rechargeResponse, response.getBody());
+        verifyNoInteractions(walletService);
+    }
+
     @Test
     void testRecharge_ShouldReturnBadRequest_WhenAmountIsZeroOrNegative() {
         // Act
-        ResponseEntity<?> response = walletController.recharge(token, zeroAmount);
+        ResponseEntity<?> response = walletController.recharge(null, null, zeroAmount);
 
         // Assert
         assertEquals(401, response.getStatusCodeValue());
@@ -98,10 +125,10 @@ class WalletControllerTest {
     @Test
     void testRecharge_ShouldReturnUnauthorized_WhenTokenIsInvalid() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(null); // Simulate invalid token
+        // No principal: the request did not pass JwtAuthenticationFilter
 
         // Act
-        ResponseEntity<?> response = walletController.recharge(token, validAmount);
+        ResponseEntity<?> response = walletController.recharge(null, null, validAmount);
 
         // Assert
         assertEquals(401, response.getStatusCodeValue());
@@ -111,12 +138,10 @@ class WalletControllerTest {
     @Test
     void testTransfer_ShouldReturnUserDTO_WhenTransferIsSuccessful() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(username);
-        when(jwtUtil.isTokenValid(any(String.class),any(String.class))).thenReturn(true);
-        when(walletService.transfer(username, receiverUsername, validAmount)).thenReturn(UserMapper.toEntity(expectedUserDTO));
+        when(walletService.transfer(username, receiverUsername, validAmount, null)).thenReturn(UserMapper.toEntity(expectedUserDTO));
 
         // Act
-        ResponseEntity<?> response = walletController.transfer(token, receiverUsername, validAmount);
+        ResponseEntity<?> response = walletController.transfer(principal, token, null, receiverUsername, validAmount);
 
         // Assert
         assertEquals(200, response.getStatusCodeValue());
@@ -126,7 +151,7 @@ class WalletControllerTest {
     @Test
     void testTransfer_ShouldReturnBadRequest_WhenAmountIsZeroOrNegative() {
         // Act
-        ResponseEntity<?> response = walletController.transfer(token, receiverUsername, zeroAmount);
+        ResponseEntity<?> response = walletController.transfer(null, token, null, receiverUsername, zeroAmount);
 
         // Assert
         assertEquals(401, response.getStatusCodeValue());
@@ -136,10 +161,10 @@ class WalletControllerTest {
     @Test
     void testTransfer_ShouldReturnUnauthorized_WhenTokenIsInvalid() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(null); // Simulate invalid token
+        // No principal: the request did not pass JwtAuthenticationFilter
 
         // Act
-        ResponseEntity<?> response = walletController.transfer(token, receiverUsername, validAmount);
+        ResponseEntity<?> response = walletController.transfer(null, token, null, receiverUsername, validAmount);
 
         // Assert
         assertEquals(401, response.getStatusCodeValue());
@@ -149,12 +174,10 @@ class WalletControllerTest {
     @Test
     void testViewStatement_ShouldReturnUserDTO_WhenSuccessful() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(username);
-        when(jwtUtil.isTokenValid(any(String.class),any(String.class))).thenReturn(true);
         when(walletService.viewStatement(username)).thenReturn(UserMapper.toEntity(expectedUserDTO));
 
         // Act
-        ResponseEntity<?> response = walletController.viewStatement(token);
+        ResponseEntity<?> response = walletController.viewStatement(principal, token);
 
         // Assert
         assertEquals(200, response.getStatusCodeValue());
@@ -164,10 +187,10 @@ class WalletControllerTest {
     @Test
     void testViewStatement_ShouldReturnUnauthorized_WhenTokenIsInvalid() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(null); // Simulate invalid token
+        // No principal: the request did not pass JwtAuthenticationFilter
 
         // Act
-        ResponseEntity<?> response = walletController.viewStatement(token);
+        ResponseEntity<?> response = walletController.viewStatement(null, token);
 
         // Assert
         assertEquals(401, response.getStatusCodeValue());
@@ -177,12 +200,10 @@ class WalletControllerTest {
     @Test
     void testGetTransactions_ShouldReturnTransactionList() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(username);
-        when(jwtUtil.isTokenValid(any(String.class),any(String.class))).thenReturn(true);
-        when(transactionService.getTransactionsByUsername(username)).thenReturn(transactions);
+        when(transactionService.getTransactionsByUserId(userId)).thenReturn(transactions);
 
         // Act
-        ResponseEntity<?> response = walletController.getTransactions(token, username);
+        ResponseEntity<?> response = walletController.getTransactions(principal, username);
 
         // Assert
         assertEquals(200, response.getStatusCodeValue());
@@ -192,25 +213,77 @@ class WalletControllerTest {
     @Test
     void testGetTransactions_ShouldReturnUnauthorized_WhenTokenIsInvalid() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(null); // Simulate invalid token
+        // No principal: the request did not pass JwtAuthenticationFilter
 
         // Act
-        ResponseEntity<?> response = walletController.getTransactions(token, username);
+        ResponseEntity<?> response = walletController.getTransactions(null, username);
 
         // Assert
         assertEquals(401, response.getStatusCodeValue());
         assertEquals(new ErrorResponseDTO("Unauthorized access"), response.getBody());
     }
 
+    @Test
+    void testGetTransactionPage_ShouldReturnPage() {
+        // Arrange
+        TransactionPageDTO page = new TransactionPageDTO(transactions, "nextCursor");
+        when(transactionService.getTransactionPageByUserId(userId, null, null, null, null, 10)).thenReturn(page);
+
+        // Act
+        ResponseEntity<?> response = walletController.getTransactionPage(principal, username, null, null, null, null, 10);
+
+        // Assert
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    void testGetTransactionPage_ShouldReturnForbidden_ForOtherUser() {
+        // Arrange
+
+        // Act
+        ResponseEntity<?> response = walletController.getTransactionPage(principal, receiverUsername, null, null, null, null, 10);
+
+        // Assert
+        assertEquals(403, response.getStatusCodeValue());
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    void testExportTransactions_ShouldStreamNdjson() throws Exception {
+        // Arrange
+        ResolvedAccount account = new ResolvedAccount("1", username, "email@example.com");
+        when(statementExportService.resolveExportAccount(username)).thenReturn(account);
+
+        // Act
+        ResponseEntity<?> response = walletController.exportTransactions(principal, username, "ndjson");
+        ((StreamingResponseBody) response.getBody()).writeTo(new ByteArrayOutputStream());
+
+        // Assert
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        verify(statementExportService).export(eq(account), eq(StatementExportService.Format.NDJSON), any());
+    }
+
+    @Test
+    void testExportTransactions_ShouldReturnForbidden_ForOtherUser() {
+        // Arrange
+
+        // Act
+        ResponseEntity<?> response = walletController.exportTransactions(principal, receiverUsername, "csv");
+
+        // Assert
+        assertEquals(403, response.getStatusCodeValue());
+        verifyNoInteractions(statementExportService);
+    }
+
     @Test
     void testGetAllCashbacks_ShouldReturnCashbackList() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(username);
-        when(jwtUtil.isTokenValid(any(String.class),any(String.class))).thenReturn(true);
-        when(transactionService.getCashbackByUsername(username)).thenReturn(cashbacks);
+        when(transactionService.getCashbackByUserId(userId)).thenReturn(cashbacks);
 
         // Act
-        ResponseEntity<?> response = walletController.getAllCashbacks(token, username);
+        ResponseEntity<?> response = walletController.getAllCashbacks(principal, username);
 
         // Assert
         assertEquals(200, response.getStatusCodeValue());
@@ -220,10 +293,10 @@ class WalletControllerTest {
     @Test
     void testGetAllCashbacks_ShouldReturnUnauthorized_WhenTokenIsInvalid() {
         // Arrange
-        when(jwtUtil.extractUsername(any(String.class))).thenReturn(null); // Simulate invalid token
+        // No principal: the request did not pass JwtAuthenticationFilter
 
         // Act
-        ResponseEntity<?> response = walletController.getAllCashbacks(token, username);
+        ResponseEntity<?> response = walletController.getAllCashbacks(null, username);
 
         // Assert
         assertEquals(401, response.getStatusCodeValue());
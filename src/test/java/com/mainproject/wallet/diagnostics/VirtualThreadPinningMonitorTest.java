@@ -0,0 +1,84 @@
+package com.mainproject.wallet.diagnostics;
+
+import jdk.jfr.consumer.EventStream;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(10, 16);
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void testSite_PrefersApplicationFrame() {
+        String site = VirtualThreadPinningMonitor.site(List.of(
+                "java.lang.VirtualThread.parkOnCarrierThread:675",
+                "java.lang.VirtualThread.sleepNanos:840",
+                "java.lang.Thread.sleep:507",
+                "org.example.Library.call:12",
+                "com.mainproject.wallet.service.EmailService.send:80"));
+
+        assertEquals("com.mainproject.wallet.service.EmailService.send:80", site);
+    }
+
+    @Test
+    void testSite_FallsBackToFirstFrameOutsideParkingCode() {
+        String site = VirtualThreadPinningMonitor.site(List.of(
+                "jdk.internal.misc.Unsafe.park:-1",
+                "java.util.concurrent.locks.LockSupport.park:371",
+                "org.example.Library.call:12"));
+
+        assertEquals("org.example.Library.call:12", site);
+        assertEquals("unknown", VirtualThreadPinningMonitor.site(List.of()));
+    }
+
+    @Test
+    void testRecord_CountsBySite() {
+        List<String> emailFrames = List.of("com.mainproject.wallet.service.EmailService.send:80");
+        monitor.record(Duration.ofMillis(30), "worker-1", emailFrames);
+        monitor.record(Duration.ofMillis(40), "worker-2", emailFrames);
+        monitor.record(Duration.ofMillis(25), "worker-3", List.of("org.example.Library.call:12"));
+
+        assertEquals(3, monitor.getPinnedEvents());
+        assertEquals(List.of("com.mainproject.wallet.service.EmailService.send:80", "org.example.Library.call:12"),
+                List.copyOf(monitor.getPinningSites().keySet()));
+        assertEquals(2L, monitor.getPinningSites().get("com.mainproject.wallet.service.EmailService.send:80"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStart_RecordsPinnedEventsFromTheStream() {
+        EventStream stream = mock(EventStream.class);
+        VirtualThreadPinningMonitor streamed = new VirtualThreadPinningMonitor(10, 16, () -> stream);
+        streamed.start();
+
+        ArgumentCaptor<Consumer<RecordedEvent>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(stream).onEvent(eq(VirtualThreadPinningMonitor.PINNED_EVENT), handler.capture());
+        verify(stream).startAsync();
+
+        RecordedEvent event = mock(RecordedEvent.class);
+        when(event.getDuration()).thenReturn(Duration.ofMillis(50));
+        handler.getValue().accept(event);
+
+        assertEquals(1, streamed.getPinnedEvents());
+        assertEquals(Map.of("unknown", 1L), streamed.getPinningSites());
+
+        streamed.stop();
+        verify(stream).close();
+    }
+}
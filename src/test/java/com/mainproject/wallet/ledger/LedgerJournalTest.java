@@ -0,0 +1,74 @@
+package com.mainproject.wallet.ledger;
+
+import com.mainproject.wallet.model.ResolvedAccount;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerJournalTest {
+
+    private static final ResolvedAccount ALICE = new ResolvedAccount("1", "alice", "alice@example.com");
+    private static final ResolvedAccount BOB = new ResolvedAccount("2", "bob", null);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndRead_RoundTripsEveryField() throws IOException {
+        LedgerEntry recharge = LedgerEntry.recharge(1, ALICE, 100, 7);
+        LedgerEntry transfer = LedgerEntry.transfer(2, ALICE, BOB, 40);
+        try (LedgerJournal journal = new LedgerJournal(directory, "shard-0", 1 << 20)) {
+            journal.append(List.of(recharge));
+            journal.append(List.of(transfer));
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, "shard-0", 1 << 20)) {
+            assertEquals(List.of(recharge, transfer), journal.read());
+        }
+    }
+
+    @Test
+    void testRead_TornTailIsCutOff() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, "shard-0", 1 << 20)) {
+            journal.append(List.of(LedgerEntry.recharge(1, ALICE, 100, 0)));
+        }
+        Path segment = segments().get(0);
+        long intact = Files.size(segment);
+        // A crash in the middle of the next record: a length prefix and half a payload
+        Files.write(segment, new byte[]{0, 0, 0, 64, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (LedgerJournal journal = new LedgerJournal(directory, "shard-0", 1 << 20)) {
+            assertEquals(1, journal.read().size());
+        }
+        assertEquals(intact, Files.size(segment));
+    }
+
+    @Test
+    void testRelease_DeletesOnlyFullyStoredSegments() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, "shard-0", 1)) { // Every batch fills a segment
+            journal.append(List.of(LedgerEntry.recharge(1, ALICE, 10, 0), LedgerEntry.recharge(2, ALICE, 10, 0)));
+            journal.append(List.of(LedgerEntry.recharge(3, ALICE, 10, 0)));
+            assertEquals(2, segments().size());
+
+            journal.release(2);
+
+            assertEquals(List.of(3L), journal.read().stream().map(LedgerEntry::sequence).toList());
+            journal.reset();
+            assertTrue(segments().isEmpty());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
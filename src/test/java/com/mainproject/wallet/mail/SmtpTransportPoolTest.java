@@ -0,0 +1,150 @@
+package com.mainproject.wallet.mail;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpTransportPoolTest {
+
+    private FakeSmtpServer server;
+    private JavaMailSenderImpl mailSender;
+    private SmtpTransportPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeSmtpServer();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.port());
+        Properties properties = new Properties();
+        properties.put("mail.smtp.connectiontimeout", "5000");
+        properties.put("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (pool != null) {
+            pool.close();
+        }
+        server.close();
+    }
+
+    @Test
+    void testSendAll_BatchReusesPooledConnections() throws MessagingException {
+        pool = new SmtpTransportPool(mailSender, 2, 100, 60000, 5000, false);
+
+        List<MailException> failures = pool.sendAll(messages(10));
+        List<MailException> secondBatch = pool.sendAll(messages(10));
+
+        assertTrue(failures.stream().allMatch(Objects::isNull));
+        assertTrue(secondBatch.stream().allMatch(Objects::isNull));
+        assertEquals(20, server.messages());
+        assertTrue(server.connections() <= 2); // One handshake per pooled connection, not per email
+    }
+
+    @Test
+    void testSendAll_VirtualSenderThreads_stillBoundedByPoolSize() throws MessagingException {
+        pool = new SmtpTransportPool(mailSender, 2, 100, 60000, 5000, true);
+
+        List<MailException> failures = pool.sendAll(messages(10));
+
+        assertTrue(failures.stream().allMatch(Objects::isNull));
+        assertEquals(10, server.messages());
+        assertTrue(server.connections() <= 2);
+    }
+
+    @Test
+    void testSendAll_ConnectionRecycledAfterMessageCap() throws MessagingException {
+        pool = new SmtpTransportPool(mailSender, 1, 3, 60000, 5000, false);
+
+        pool.sendAll(messages(7));
+
+        assertEquals(7, server.messages());
+        assertEquals(3, server.connections());
+    }
+
+    @Test
+    void testSendAll_ServerDropsConnection_reconnectsAndContinues() throws MessagingException {
+        server.dropConnectionsAfter(2);
+        pool = new SmtpTransportPool(mailSender, 1, 100, 60000, 5000, false);
+
+        List<MailException> failures = pool.sendAll(messages(5));
+
+        assertTrue(failures.stream().allMatch(Objects::isNull));
+        assertEquals(5, server.messages());
+        assertEquals(3, server.connections());
+    }
+
+    @Test
+    void testSendAll_NullEntriesAreSkipped() throws MessagingException {
+        pool = new SmtpTransportPool(mailSender, 1, 100, 60000, 5000, false);
+        List<MimeMessage> batch = messages(2);
+        batch.add(1, null);
+
+        List<MailException> failures = pool.sendAll(batch);
+
+        assertEquals(3, failures.size());
+        assertTrue(failures.stream().allMatch(Objects::isNull));
+        assertEquals(2, server.messages());
+    }
+
+    @Test
+    void testSendAll_ServerDown_reportsEveryMessage() throws IOException, MessagingException {
+        List<MimeMessage> batch = messages(3);
+        server.close();
+        pool = new SmtpTransportPool(mailSender, 2, 100, 60000, 1000, false);
+
+        List<MailException> failures = pool.sendAll(batch);
+
+        assertTrue(failures.stream().allMatch(Objects::nonNull));
+        assertEquals(0, pool.openConnections());
+    }
+
+    @Test
+    void testEvictIdle_ClosesConnectionsPastIdleTimeout() throws Exception {
+        pool = new SmtpTransportPool(mailSender, 1, 100, 0, 5000, false);
+        pool.sendAll(messages(1));
+        assertEquals(1, pool.openConnections());
+
+        pool.evictIdle();
+
+        assertEquals(0, pool.openConnections());
+        waitFor(() -> server.quits() == 1);
+    }
+
+    private List<MimeMessage> messages(int count) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = mailSender.createMimeMessage();
+            message.setFrom(new InternetAddress("wallet@example.com"));
+            message.setRecipient(Message.RecipientType.TO, new InternetAddress("user" + i + "@example.com"));
+            message.setSubject("Test " + i);
+            message.setText("Hello " + i);
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,79 @@
+package com.mainproject.wallet.metrics;
+
+import com.mainproject.wallet.exception.WalletException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OperationTimingAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private OperationTimingAspect aspect;
+    private ProceedingJoinPoint joinPoint;
+    private TimedOperation transfer;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        registry = new SimpleMeterRegistry();
+        aspect = new OperationTimingAspect(new WalletMetrics(registry));
+        joinPoint = mock(ProceedingJoinPoint.class);
+        transfer = Annotated.class.getDeclaredMethod("transfer").getAnnotation(TimedOperation.class);
+    }
+
+    @Test
+    void testTime_Success_recordsUnderOperationAndOutcome() throws Throwable {
+        when(joinPoint.proceed()).thenReturn("done");
+
+        assertEquals("done", aspect.time(joinPoint, transfer));
+
+        assertEquals(1, timer("transfer", "success").count());
+    }
+
+    @Test
+    void testTime_Failure_recordsExceptionTypeAndRethrows() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new WalletException("Insufficient funds in the account"));
+
+        assertThrows(WalletException.class, () -> aspect.time(joinPoint, transfer));
+
+        assertEquals(1, timer("transfer", "WalletException").count());
+    }
+
+    @Test
+    void testTime_Mono_isTimedWhenSubscribedNotWhenReturned() throws Throwable {
+        AtomicInteger subscriptions = new AtomicInteger();
+        when(joinPoint.proceed()).thenReturn(Mono.fromCallable(subscriptions::incrementAndGet));
+
+        Mono<?> result = (Mono<?>) aspect.time(joinPoint, transfer);
+        assertNull(registry.find(WalletMetrics.OPERATION_TIMER).timer()); // Nothing ran yet
+
+        StepVerifier.create(result).expectNext(1).verifyComplete();
+        assertEquals(1, timer("transfer", "success").count());
+    }
+
+    @Test
+    void testOutcome_ForeignExceptions_shareOneTagValue() {
+        assertEquals("success", WalletMetrics.outcome(null));
+        assertEquals("WalletException", WalletMetrics.outcome(new WalletException("x")));
+        assertEquals("error", WalletMetrics.outcome(new IllegalStateException("x")));
+        assertEquals("error", WalletMetrics.outcome(new RuntimeException("x")));
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return registry.get(WalletMetrics.OPERATION_TIMER).tag("operation", operation).tag("outcome", outcome).timer();
+    }
+
+    private static class Annotated {
+        @TimedOperation("transfer")
+        void transfer() {
+        }
+    }
+}
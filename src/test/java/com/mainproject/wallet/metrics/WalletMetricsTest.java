@@ -0,0 +1,54 @@
+package com.mainproject.wallet.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WalletMetrics metrics = new WalletMetrics(registry);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRecordCashback_OutsideTransaction_recordsImmediately() {
+        metrics.recordCashback(12);
+
+        assertEquals(1, registry.get("wallet.cashback.amount").summary().count());
+        assertEquals(12, registry.get("wallet.cashback.amount").summary().totalAmount());
+    }
+
+    @Test
+    void testRecordCashback_InsideTransaction_recordsOnlyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        metrics.recordCashback(12); // Rolled back attempt
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        metrics.recordCashback(7); // Committed retry
+        assertEquals(0, registry.get("wallet.cashback.amount").summary().count());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, registry.get("wallet.cashback.amount").summary().count());
+        assertEquals(7, registry.get("wallet.cashback.amount").summary().totalAmount());
+    }
+
+    @Test
+    void testRecordInsufficientFunds_incrementsCounter() {
+        metrics.recordInsufficientFunds();
+        metrics.recordInsufficientFunds();
+
+        assertEquals(2, registry.get("wallet.transfer.insufficient.funds").counter().count());
+    }
+}
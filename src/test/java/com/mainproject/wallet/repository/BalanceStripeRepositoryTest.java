@@ -0,0 +1,107 @@
+package com.mainproject.wallet.repository;
+
+import com.mainproject.wallet.model.BalanceStripe;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BalanceStripeRepositoryTest {
+
+    @InjectMocks
+    private BalanceStripeRepository balanceStripeRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private static final String USER_ID = "1";
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testPlan_OneStripeCovers_drawsFromTheFirstCoveringStripeAfterStart() {
+        List<BalanceStripe> stripes = stripes(10, 80, 60);
+
+        assertEquals(List.of(new BalanceStripeRepository.Draw("1:2", 50)), BalanceStripeRepository.plan(stripes, 50, 2));
+        assertEquals(List.of(new BalanceStripeRepository.Draw("1:1", 50)), BalanceStripeRepository.plan(stripes, 50, 3));
+    }
+
+    @Test
+    void testPlan_NoSingleStripeCovers_drawsAcrossStripes() {
+        List<BalanceStripeRepository.Draw> draws = BalanceStripeRepository.plan(stripes(30, 30, 30), 70, 0);
+
+        assertEquals(List.of(new BalanceStripeRepository.Draw("1:0", 30), new BalanceStripeRepository.Draw("1:1", 30),
+                new BalanceStripeRepository.Draw("1:2", 10)), draws);
+    }
+
+    @Test
+    void testPlan_StripesHoldTooLittle_returnsNull() {
+        assertNull(BalanceStripeRepository.plan(stripes(30, 30), 70, 0));
+        assertNull(BalanceStripeRepository.plan(List.of(), 1, 0));
+    }
+
+    @Test
+    void testSlices_SplitInWholePaiseWithRemainderOnLastStripe() {
+        List<BalanceStripe> slices = BalanceStripeRepository.slices(USER_ID, 3, 10_000);
+
+        assertEquals(List.of(3_333L, 3_333L, 3_334L), slices.stream().map(BalanceStripe::getBalance).toList());
+        assertEquals(List.of("1:0", "1:1", "1:2"), slices.stream().map(BalanceStripe::getId).toList());
+        assertEquals(10_000, BalanceStripeRepository.sum(slices));
+    }
+
+    @Test
+    void testCreditAnyStripe_IncrementsOneExistingStripe() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(BalanceStripe.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(balanceStripeRepository.creditAnyStripe(USER_ID, 4, 25));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(BalanceStripe.class));
+        assertTrue(List.of("1:0", "1:1", "1:2", "1:3").contains((String) query.getValue().getQueryObject().get("_id")));
+        assertEquals(new Document("balance", 25L), update.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    void testDebitIfSufficient_StripeDrainedMeanwhile_throwsOptimisticLockingFailure() {
+        when(mongoTemplate.find(any(Query.class), eq(BalanceStripe.class))).thenReturn(stripes(100));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(BalanceStripe.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> balanceStripeRepository.debitIfSufficient(USER_ID, 50));
+    }
+
+    @Test
+    void testDebitIfSufficient_TooLittle_returnsFalseWithoutWriting() {
+        when(mongoTemplate.find(any(Query.class), eq(BalanceStripe.class))).thenReturn(stripes(20, 20));
+
+        assertFalse(balanceStripeRepository.debitIfSufficient(USER_ID, 50));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(BalanceStripe.class));
+    }
+
+    private static List<BalanceStripe> stripes(long... balances) {
+        return IntStream.range(0, balances.length)
+                .mapToObj(i -> new BalanceStripe(BalanceStripeRepository.stripeId(USER_ID, i), USER_ID, i, balances[i]))
+                .toList();
+    }
+}
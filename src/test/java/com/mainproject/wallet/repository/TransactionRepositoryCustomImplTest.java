@@ -0,0 +1,128 @@
+package com.mainproject.wallet.repository;
+
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.utils.TransactionCursor;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionRepositoryCustomImplTest {
+
+    @InjectMocks
+    private TransactionRepositoryCustomImpl transactionRepositoryCustom;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testFindPageByUserId_FirstPage_filtersOnUserOnly() {
+        transactionRepositoryCustom.findPageByUserId("user1", null, null, null, null, 21);
+
+        Query query = captureQuery();
+        assertEquals(new Document("userId", "user1"), query.getQueryObject());
+        assertEquals(21, query.getLimit());
+        assertEquals(new Document("timestamp", -1).append("id", -1), query.getSortObject());
+    }
+
+    @Test
+    void testFindPageByUserId_WithCursor_seeksPastLastRow() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 12, 0);
+        transactionRepositoryCustom.findPageByUserId("user1", null, null, null, new TransactionCursor(timestamp, "abc"), 11);
+
+        Document queryObject = captureQuery().getQueryObject();
+        assertEquals("user1", queryObject.get("userId"));
+        List<?> or = (List<?>) queryObject.get("$or");
+        assertEquals(new Document("timestamp", new Document("$lt", timestamp)), or.get(0));
+        assertEquals(new Document("timestamp", timestamp).append("id", new Document("$lt", "abc")), or.get(1));
+    }
+
+    @Test
+    void testFindPageByUserId_WithTypeAndWindow_filtersAndProjectsOnServer() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        transactionRepositoryCustom.findPageByUserId("user1", "cashback", from, to, null, 5);
+
+        Query query = captureQuery();
+        Document queryObject = query.getQueryObject();
+        assertEquals("cashback", queryObject.get("type"));
+        assertEquals(new Document("$gte", from).append("$lt", to), queryObject.get("timestamp"));
+        assertEquals(1, query.getFieldsObject().get("amount"));
+        assertFalse(query.getFieldsObject().containsKey("_class"));
+    }
+
+    @Test
+    void testFindPageByUserId_MergesTransferLegsNewestFirst() {
+        LocalDateTime t = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(List.of(
+                new Transaction("03", "user1", 100, t.plusMinutes(3), TransactionENUM.RECHARGE, null, null, "user1", "alice"),
+                new Transaction("01", "user1", 5, t.plusMinutes(1), TransactionENUM.CASHBACK, null, null, "user1", "alice")));
+        when(mongoTemplate.find(any(Query.class), eq(TransferEntry.class))).thenReturn(List.of(
+                new TransferEntry("04", 40, t.plusMinutes(4), "user2", "bob", "user1", "alice"),
+                new TransferEntry("02", 20, t.plusMinutes(2), "user1", "alice", "user2", "bob")));
+
+        List<Transaction> page = transactionRepositoryCustom.findPageByUserId("user1", null, null, null, null, 3);
+
+        assertEquals(List.of("04", "03", "02"), page.stream().map(Transaction::getId).toList());
+        assertEquals(TransactionENUM.RECEIVED, page.get(0).getType());
+        assertEquals(TransactionENUM.SENT, page.get(2).getType());
+        assertEquals("user1", page.get(0).getUserId());
+    }
+
+    @Test
+    void testFindPageByUserId_TransferQueryReadsBothLegsWithTheCursorInEachBranch() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 12, 0);
+        transactionRepositoryCustom.findPageByUserId("user1", null, null, null, new TransactionCursor(timestamp, "abc"), 11);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(TransferEntry.class));
+        List<?> legs = (List<?>) query.getValue().getQueryObject().get("$or");
+        assertEquals(2, legs.size());
+        assertEquals("user1", ((Document) legs.get(0)).get("senderId"));
+        assertEquals("user1", ((Document) legs.get(1)).get("receiverId"));
+        assertTrue(((Document) legs.get(1)).containsKey("$or"));
+        assertEquals(11, query.getValue().getLimit());
+    }
+
+    @Test
+    void testFindPageByUserId_TypeFilter_readsOnlyMatchingLeg() {
+        transactionRepositoryCustom.findPageByUserId("user1", TransactionENUM.RECEIVED, null, null, null, 5);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(TransferEntry.class));
+        assertEquals(new Document("receiverId", "user1"), query.getValue().getQueryObject());
+    }
+
+    @Test
+    void testFindPageByUserId_CashbackFilter_skipsTransfers() {
+        transactionRepositoryCustom.findPageByUserId("user1", TransactionENUM.CASHBACK, null, null, null, 5);
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(TransferEntry.class));
+    }
+
+    private Query captureQuery() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Transaction.class));
+        return query.getValue();
+    }
+}
@@ -0,0 +1,143 @@
+package com.mainproject.wallet.repository;
+
+import com.mainproject.wallet.model.User;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserRepositoryCustomImplTest {
+
+    @InjectMocks
+    private UserRepositoryCustomImpl userRepositoryCustom;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BalanceStripeRepository balanceStripeRepository;
+
+    private static final String USER_ID = "1";
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testDebitIfSufficient_BalanceCovers_returnsTrue() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(userRepositoryCustom.debitIfSufficient(USER_ID, 50));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(User.class));
+        assertEquals(new Document("$gte", 50L), query.getValue().getQueryObject().get("walletBalance"));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(-50L, inc.get("walletBalance"));
+        assertEquals(1, inc.get("version"));
+    }
+
+    @Test
+    void testDebitIfSufficient_BalanceTooLow_returnsFalse() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertFalse(userRepositoryCustom.debitIfSufficient(USER_ID, 50));
+    }
+
+    @Test
+    void testCredit_returnsUpdatedUser() {
+        User updated = new User();
+        updated.setId(USER_ID);
+        updated.setWalletBalance(150);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(updated);
+
+        User result = userRepositoryCustom.credit(USER_ID, 50);
+
+        assertEquals(150, result.getWalletBalance());
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class), options.capture(), eq(User.class));
+        assertTrue(options.getValue().isReturnNew());
+    }
+
+    @Test
+    void testDebitIfSufficient_StripedAccount_drawsFromStripes() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(striped(4));
+        when(balanceStripeRepository.debitIfSufficient(USER_ID, 50)).thenReturn(true);
+
+        assertTrue(userRepositoryCustom.debitIfSufficient(USER_ID, 50));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(User.class));
+        // The $inc on the user document only applies while the account is unstriped
+        assertEquals(new Document("$not", new Document("$gt", 0)), query.getValue().getQueryObject().get("balanceStripes"));
+    }
+
+    @Test
+    void testCredit_StripedAccount_incrementsAStripeAndLeavesTheUserUntouched() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(null);
+        when(mongoTemplate.findById(USER_ID, User.class)).thenReturn(striped(4));
+        when(balanceStripeRepository.creditAnyStripe(USER_ID, 4, 50)).thenReturn(true);
+        when(balanceStripeRepository.total(USER_ID)).thenReturn(450L);
+
+        User result = userRepositoryCustom.credit(USER_ID, 50);
+
+        assertEquals(450, result.getWalletBalance());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(User.class));
+    }
+
+    @Test
+    void testCredit_UnknownUser_returnsNull() {
+        assertNull(userRepositoryCustom.credit(USER_ID, 50));
+        verifyNoInteractions(balanceStripeRepository);
+    }
+
+    @Test
+    void testCredit_AccountUnstripedMeanwhile_throwsOptimisticLockingFailure() {
+        when(mongoTemplate.findById(USER_ID, User.class)).thenReturn(striped(0));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> userRepositoryCustom.credit(USER_ID, 50));
+    }
+
+    @Test
+    void testReplacePasswordHash_OnlyWhenHashUnchanged() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(userRepositoryCustom.replacePasswordHash(USER_ID, "oldHash", "newHash"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(User.class));
+        assertEquals("oldHash", query.getValue().getQueryObject().get("password"));
+        assertEquals(new Document("password", "newHash"), update.getValue().getUpdateObject().get("$set"));
+    }
+
+    private static User striped(int stripes) {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setBalanceStripes(stripes);
+        return user;
+    }
+}
@@ -0,0 +1,98 @@
+package com.mainproject.wallet.retry;
+
+import com.mainproject.wallet.exception.WalletException;
+import com.mongodb.MongoException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConflictRetryAspectTest {
+
+    private RetryStatistics statistics;
+    private ConflictRetryAspect aspect;
+    private ProceedingJoinPoint joinPoint;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new RetryStatistics();
+        aspect = new ConflictRetryAspect(statistics, 3, 1, 2, 1000);
+        joinPoint = mock(ProceedingJoinPoint.class);
+        Signature signature = mock(Signature.class);
+        when(signature.getName()).thenReturn("transfer");
+        when(joinPoint.getSignature()).thenReturn(signature);
+    }
+
+    @Test
+    void testRetry_ConflictThenSuccess_returnsResult() throws Throwable {
+        when(joinPoint.proceed())
+                .thenThrow(new OptimisticLockingFailureException("version mismatch"))
+                .thenReturn("done");
+
+        assertEquals("done", aspect.retry(joinPoint));
+        verify(joinPoint, times(2)).proceed();
+        assertEquals(1, statistics.getConflicts());
+        assertEquals(1, statistics.getRetries());
+        assertEquals(0, statistics.getGiveUps());
+    }
+
+    @Test
+    void testRetry_TransientTransactionError_isRetried() throws Throwable {
+        MongoException transientError = new MongoException(112, "WriteConflict");
+        transientError.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+        when(joinPoint.proceed())
+                .thenThrow(new UncategorizedMongoDbException("write conflict", transientError))
+                .thenReturn("done");
+
+        assertEquals("done", aspect.retry(joinPoint));
+        assertEquals(1, statistics.getRetries());
+    }
+
+    @Test
+    void testRetry_AttemptsExhausted_throwsWalletException() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new OptimisticLockingFailureException("version mismatch"));
+
+        WalletException exception = assertThrows(WalletException.class, () -> aspect.retry(joinPoint));
+        assertEquals(ConflictRetryAspect.CONFLICT_MESSAGE, exception.getMessage());
+        verify(joinPoint, times(3)).proceed();
+        assertEquals(3, statistics.getConflicts());
+        assertEquals(2, statistics.getRetries());
+        assertEquals(1, statistics.getGiveUps());
+    }
+
+    @Test
+    void testRetry_BudgetExhausted_givesUpEarly() throws Throwable {
+        aspect = new ConflictRetryAspect(statistics, 10, 50, 50, 10);
+        when(joinPoint.proceed()).thenThrow(new OptimisticLockingFailureException("version mismatch"));
+
+        assertThrows(WalletException.class, () -> aspect.retry(joinPoint));
+        verify(joinPoint, times(1)).proceed();
+        assertEquals(1, statistics.getGiveUps());
+    }
+
+    @Test
+    void testRetry_NonRetryableError_isRethrownImmediately() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> aspect.retry(joinPoint));
+        verify(joinPoint, times(1)).proceed();
+        assertEquals(0, statistics.getConflicts());
+    }
+
+    @Test
+    void testBackoff_StaysWithinJitterBounds() {
+        aspect = new ConflictRetryAspect(statistics, 5, 10, 40, 1000);
+        for (int i = 0; i < 100; i++) {
+            long first = aspect.backoffMillis(1);
+            long capped = aspect.backoffMillis(5);
+            assertTrue(first >= 5 && first <= 10);
+            assertTrue(capped >= 20 && capped <= 40);
+        }
+    }
+}
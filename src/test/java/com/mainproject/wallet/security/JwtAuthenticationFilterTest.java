@@ -0,0 +1,109 @@
+package com.mainproject.wallet.security;
+
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.service.UserService;
+import com.mainproject.wallet.utils.JwtClaims;
+import com.mainproject.wallet.utils.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private UserService userService;
+
+    private JwtAuthenticationFilter filter;
+    private MockFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        filter = new JwtAuthenticationFilter(jwtUtil, userService);
+        chain = new MockFilterChain();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testValidToken_putsPrincipalWithUserIdInContext() throws Exception {
+        when(jwtUtil.verify("Bearer good")).thenReturn(claims("alice", "u1"));
+
+        filter.doFilter(request("/api/wallet/statement", "Bearer good"), new MockHttpServletResponse(), chain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(new WalletPrincipal("u1", "alice"), authentication.getPrincipal());
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testTokenWithoutUserId_resolvesUserOnce() throws Exception {
+        when(jwtUtil.verify("Bearer old")).thenReturn(claims("alice", null));
+        when(userService.resolveAccount("alice")).thenReturn(new ResolvedAccount("u1", "alice", "alice@example.com"));
+
+        filter.doFilter(request("/api/wallet/statement", "Bearer old"), new MockHttpServletResponse(), chain);
+
+        assertEquals(new WalletPrincipal("u1", "alice"), SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userService, times(1)).resolveAccount("alice");
+    }
+
+    @Test
+    void testInvalidToken_leavesRequestUnauthenticated() throws Exception {
+        when(jwtUtil.verify("Bearer bad")).thenReturn(null);
+
+        filter.doFilter(request("/api/wallet/statement", "Bearer bad"), new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest()); // The chain's authorization rule answers 401
+    }
+
+    @Test
+    void testMissingOrNonBearerHeader_isNotVerified() throws Exception {
+        filter.doFilter(request("/api/wallet/statement", null), new MockHttpServletResponse(), chain);
+        filter.doFilter(request("/api/wallet/statement", "Basic abc"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(jwtUtil);
+    }
+
+    @Test
+    void testNonWalletPath_isSkipped() throws Exception {
+        filter.doFilter(request("/api/auth/login", "Bearer good"), new MockHttpServletResponse(), chain);
+
+        verifyNoInteractions(jwtUtil);
+        assertNotNull(chain.getRequest());
+    }
+
+    private static MockHttpServletRequest request(String uri, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        return request;
+    }
+
+    private static JwtClaims claims(String username, String userId) {
+        return new JwtClaims(username, userId, Instant.now(), Instant.now().plusSeconds(3600));
+    }
+}
@@ -0,0 +1,126 @@
+package com.mainproject.wallet.security;
+
+import com.mainproject.wallet.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceTest {
+
+    private final PasswordHashingStatistics statistics = new PasswordHashingStatistics();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testEncodeAndMatches_RunOnPoolAndRecordTimings() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(4), statistics, 2, 4, 5000, 1, 4);
+
+        String hash = service.encode("secret");
+
+        assertTrue(service.matches("secret", hash));
+        assertFalse(service.matches("wrong", hash));
+        assertEquals(3, statistics.getOperations());
+    }
+
+    @Test
+    void testNeedsRehash_OnlyWhenCostDiffers() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(4), statistics, 1, 1, 5000, 1, 5);
+
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(service.needsRehash(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(service.needsRehash("not-a-bcrypt-hash"));
+        assertFalse(service.needsRehash(null));
+    }
+
+    @Test
+    void testSaturatedPool_rejectsWithRetryAfter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        service = new PasswordHashingService(slowEncoder, statistics, 1, 1, 5000, 2, 4);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("a")); // Occupies the worker
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("b")); // Fills the queue
+        waitForQueueDepth(1);
+
+        ServiceUnavailableException rejected = assertThrows(ServiceUnavailableException.class, () -> service.encode("c"));
+        assertEquals(2, rejected.getRetryAfterSeconds());
+        assertEquals(1, statistics.getRejections());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSlowHash_timesOutWithServiceUnavailable() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+        service = new PasswordHashingService(slowEncoder, statistics, 1, 1, 50, 1, 4);
+
+        assertThrows(ServiceUnavailableException.class, () -> service.matches("a", "b"));
+        assertEquals(1, statistics.getTimeouts());
+        release.countDown();
+    }
+
+    @Test
+    void testAsyncVariants_CompleteWithoutBlockingCaller() throws Exception {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(4), statistics, 2, 4, 5000, 1, 4);
+
+        String hash = service.encodeAsync("secret").get(5, TimeUnit.SECONDS);
+
+        assertTrue(service.matchesAsync("secret", hash).get(5, TimeUnit.SECONDS));
+        assertFalse(service.matchesAsync("wrong", hash).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testAsyncSlowHash_failsWithServiceUnavailable() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+        service = new PasswordHashingService(slowEncoder, statistics, 1, 1, 50, 1, 4);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> service.matchesAsync("a", "b").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, failure.getCause());
+        assertEquals(1, statistics.getTimeouts());
+        release.countDown();
+    }
+
+    @Test
+    void testEncoderFailure_isRethrownAsIs() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(4), statistics, 1, 1, 5000, 1, 4);
+
+        assertThrows(IllegalArgumentException.class, () -> service.encode(null));
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getQueueDepth() < depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(depth, service.getQueueDepth());
+    }
+}
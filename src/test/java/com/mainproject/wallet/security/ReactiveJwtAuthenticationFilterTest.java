@@ -0,0 +1,106 @@
+package com.mainproject.wallet.security;
+
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.service.ReactiveUserService;
+import com.mainproject.wallet.utils.JwtClaims;
+import com.mainproject.wallet.utils.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveJwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private ReactiveUserService userService;
+
+    private ReactiveJwtAuthenticationFilter filter;
+    private final AtomicReference<Authentication> seen = new AtomicReference<>();
+    private boolean chainCalled;
+
+    // Records what the rest of the chain would see in the reactive security context
+    private final WebFilterChain chain = exchange -> {
+        chainCalled = true;
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .doOnNext(seen::set)
+                .then();
+    };
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        filter = new ReactiveJwtAuthenticationFilter(jwtUtil, userService);
+    }
+
+    @Test
+    void testValidToken_putsPrincipalInReactiveContext() {
+        when(jwtUtil.verify("Bearer good")).thenReturn(claims("alice", "u1"));
+
+        filter.filter(exchange("/api/wallet/statement", "Bearer good"), chain).block();
+
+        assertNotNull(seen.get());
+        assertEquals(new WalletPrincipal("u1", "alice"), seen.get().getPrincipal());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testTokenWithoutUserId_resolvesUser() {
+        when(jwtUtil.verify("Bearer old")).thenReturn(claims("alice", null));
+        when(userService.resolveAccount("alice")).thenReturn(Mono.just(new ResolvedAccount("u1", "alice", "alice@example.com")));
+
+        filter.filter(exchange("/api/wallet/statement", "Bearer old"), chain).block();
+
+        assertEquals(new WalletPrincipal("u1", "alice"), seen.get().getPrincipal());
+    }
+
+    @Test
+    void testInvalidTokenOrUnknownUser_continuesUnauthenticated() {
+        when(jwtUtil.verify("Bearer bad")).thenReturn(null);
+        when(jwtUtil.verify("Bearer gone")).thenReturn(claims("ghost", null));
+        when(userService.resolveAccount("ghost")).thenReturn(Mono.empty());
+
+        filter.filter(exchange("/api/wallet/statement", "Bearer bad"), chain).block();
+        filter.filter(exchange("/api/wallet/statement", "Bearer gone"), chain).block();
+
+        assertTrue(chainCalled); // The chain's authorization rule answers 401
+        assertNull(seen.get());
+    }
+
+    @Test
+    void testNonWalletPathOrMissingHeader_isNotVerified() {
+        filter.filter(exchange("/api/auth/login", "Bearer good"), chain).block();
+        filter.filter(exchange("/api/wallet/statement", null), chain).block();
+
+        assertTrue(chainCalled);
+        verifyNoInteractions(jwtUtil);
+    }
+
+    private static MockServerWebExchange exchange(String path, String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private static JwtClaims claims(String username, String userId) {
+        return new JwtClaims(username, userId, Instant.now(), Instant.now().plusSeconds(3600));
+    }
+}
@@ -0,0 +1,143 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.cashback.CashbackGrant;
+import com.mainproject.wallet.cashback.CashbackPolicy;
+import com.mainproject.wallet.model.CashbackBudget;
+import com.mainproject.wallet.model.CashbackRuleSet;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.Transaction;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CashbackEngineTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private CashbackEngine cashbackEngine;
+
+    private static final String CAMPAIGN = "summer";
+    private static final ResolvedAccount ACCOUNT = new ResolvedAccount("1", "testUser", "test@example.com");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cashbackEngine = new CashbackEngine(mongoTemplate, 5, 10);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Transaction.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+    }
+
+    @Test
+    void testGrant_WithoutRuleSet_usesConfiguredRange() {
+        cashbackEngine.reload();
+
+        long cashback = cashbackEngine.grant(ACCOUNT, 10_000).amount();
+
+        assertTrue(cashback >= 500 && cashback <= 1_000);
+        verify(mongoTemplate).findById(CashbackRuleSet.ACTIVE, CashbackRuleSet.class);
+        verifyNoMoreInteractions(mongoTemplate); // No per-recharge reads without a daily cap
+    }
+
+    @Test
+    void testGrant_DailyCap_seededFromTodaysCashback() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Transaction.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("total", 60L)), new Document()));
+        load(rules(100, 0));
+
+        assertEquals(40, cashbackEngine.grant(ACCOUNT, 1_000).amount()); // 10% is 100, 60 already earned today
+        assertEquals(0, cashbackEngine.grant(ACCOUNT, 1_000).amount());
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Transaction.class), eq(Document.class));
+    }
+
+    @Test
+    void testGrant_CampaignBudget_clampsToWhatIsLeft() {
+        when(mongoTemplate.findById(CAMPAIGN, CashbackBudget.class)).thenReturn(new CashbackBudget(CAMPAIGN, 100));
+        load(rules(0, 150));
+
+        CashbackGrant first = cashbackEngine.grant(ACCOUNT, 1_000);
+
+        assertEquals(50, first.amount());
+        assertEquals(0, cashbackEngine.grant(ACCOUNT, 1_000).amount());
+
+        cashbackEngine.release(first);
+        assertEquals(50, cashbackEngine.grant(ACCOUNT, 1_000).amount());
+    }
+
+    @Test
+    void testGrant_RolledBack_givesTheBudgetBack() {
+        when(mongoTemplate.findById(CAMPAIGN, CashbackBudget.class)).thenReturn(new CashbackBudget(CAMPAIGN, 0));
+        load(rules(0, 100));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(100, cashbackEngine.grant(ACCOUNT, 1_000).amount());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(100, cashbackEngine.grant(ACCOUNT, 1_000).amount());
+    }
+
+    @Test
+    void testReconcile_IncrementsByGrantsSinceLastRun() {
+        when(mongoTemplate.findById(CAMPAIGN, CashbackBudget.class)).thenReturn(new CashbackBudget(CAMPAIGN, 0));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(CashbackBudget.class)))
+                .thenReturn(new CashbackBudget(CAMPAIGN, 900)); // Another instance granted 800 meanwhile
+        load(rules(0, 1_000));
+        cashbackEngine.grant(ACCOUNT, 1_000);
+
+        cashbackEngine.reconcile();
+        cashbackEngine.reconcile();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(CashbackBudget.class));
+        assertEquals(100L, update.getValue().getUpdateObject().get("$inc", Document.class).get("spent"));
+        verify(mongoTemplate, times(2)).findById(CAMPAIGN, CashbackBudget.class); // Loaded on reload, read back when nothing is pending
+    }
+
+    @Test
+    void testReload_InvalidRules_keepCurrentSnapshot() {
+        load(rules(0, 0));
+        CashbackPolicy loaded = cashbackEngine.policy();
+
+        CashbackRuleSet invalid = rules(0, 0);
+        invalid.getCampaigns().get(0).getTiers().get(0).setUpperPercent(150);
+        load(invalid);
+
+        assertSame(loaded, cashbackEngine.policy());
+    }
+
+    private void load(CashbackRuleSet rules) {
+        when(mongoTemplate.findById(CashbackRuleSet.ACTIVE, CashbackRuleSet.class)).thenReturn(rules);
+        cashbackEngine.reload();
+    }
+
+    // One always-running campaign paying exactly 10%
+    private static CashbackRuleSet rules(long dailyCap, long budget) {
+        CashbackRuleSet.Tier tier = new CashbackRuleSet.Tier(0, 10, 10, 0);
+        CashbackRuleSet.Campaign campaign = new CashbackRuleSet.Campaign(CAMPAIGN, null, null, budget, List.of(tier));
+        return new CashbackRuleSet(CashbackRuleSet.ACTIVE, dailyCap, List.of(campaign));
+    }
+}
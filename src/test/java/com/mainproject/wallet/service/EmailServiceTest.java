@@ -1,19 +1,28 @@
 package com.mainproject.wallet.service;
 
+import com.mainproject.wallet.constant.OutboxENUM;
+import com.mainproject.wallet.mail.SmtpTransportPool;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.template.EmailTemplates;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.contains;
-import static org.mockito.ArgumentMatchers.eq;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 class EmailServiceTest {
@@ -24,38 +33,76 @@ class EmailServiceTest {
     @Mock
     private JavaMailSender mailSender;
 
+    @Spy
+    private EmailTemplates emailTemplates = new EmailTemplates();
+
     @Mock
-    private MimeMessage mimeMessage;
+    private SmtpTransportPool smtpTransportPool;
 
     @Mock
-    private MimeMessageHelper mimeMessageHelper;
+    private MimeMessage mimeMessage;
 
     @BeforeEach
     void setUp() throws MessagingException {
         MockitoAnnotations.openMocks(this);
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(mimeMessageHelper.getMimeMessage()).thenReturn(mimeMessage);
     }
 
     @Test
-    void testSend_WhenSendingRechargeRechargeEmail_Success() throws MessagingException {
-        String to = "user@example.com";
-        double amount = 100.0;
-        double cashback = 10.0;
+    void testDeliverAll_RechargeMessage_sendsOneEmail() {
+        OutboxMessage message = message(OutboxENUM.RECHARGE, null);
+        message.setCashbackAmount(10);
+        when(smtpTransportPool.sendAll(anyList())).thenReturn(Collections.singletonList(null));
+
+        List<RuntimeException> failures = emailService.deliverAll(List.of(message));
+
+        assertNull(failures.get(0));
+        verify(emailTemplates).recharge(50, 10);
+        verify(smtpTransportPool).sendAll(List.of(mimeMessage));
+    }
+
+    @Test
+    void testDeliverAll_TransferMessages_sentAsOneBatch() {
+        when(smtpTransportPool.sendAll(anyList())).thenReturn(Arrays.asList(null, null));
+
+        emailService.deliverAll(List.of(message(OutboxENUM.TRANSFER_RECEIVED, "sender"), message(OutboxENUM.TRANSFER_SENT, "recipient")));
+
+        verify(emailTemplates).transferReceived(50, "sender");
+        verify(emailTemplates).transferSent(50, "recipient");
+        verify(smtpTransportPool, times(1)).sendAll(List.of(mimeMessage, mimeMessage));
+    }
+
+    @Test
+    void testDeliverAll_SendFails_isReportedForThatMessage() {
+        MailException refused = new MailSendException("connection refused");
+        when(smtpTransportPool.sendAll(anyList())).thenReturn(Arrays.asList(null, refused));
 
-        emailService.sendRechargeEmail(to, amount, cashback);
+        List<RuntimeException> failures = emailService.deliverAll(List.of(message(OutboxENUM.RECHARGE, null), message(OutboxENUM.RECHARGE, null)));
 
-        verify(mailSender).send(mimeMessage);
+        assertNull(failures.get(0));
+        assertSame(refused, failures.get(1));
     }
 
     @Test
-    void testSend_WhenTransferEmail_Success() throws MessagingException {
-        String recipient = "recipient@example.com";
-        String sender = "sender@example.com";
-        double amount = 50.0;
+    @SuppressWarnings("unchecked")
+    void testDeliverAll_UnknownType_isNotSent() {
+        when(smtpTransportPool.sendAll(anyList())).thenReturn(Arrays.asList(null, null));
 
-        emailService.sendTransferEmail(recipient, sender, sender, recipient, amount);
+        List<RuntimeException> failures = emailService.deliverAll(List.of(message("Bogus", null), message(OutboxENUM.RECHARGE, null)));
+
+        assertInstanceOf(IllegalArgumentException.class, failures.get(0));
+        assertNull(failures.get(1));
+        ArgumentCaptor<List<MimeMessage>> sent = ArgumentCaptor.forClass(List.class);
+        verify(smtpTransportPool).sendAll(sent.capture());
+        assertNull(sent.getValue().get(0));
+    }
 
-        verify(mailSender, times(2)).send(mimeMessage);
+    private static OutboxMessage message(String type, String counterparty) {
+        OutboxMessage message = new OutboxMessage();
+        message.setType(type);
+        message.setRecipientEmail("user@example.com");
+        message.setCounterpartyUsername(counterparty);
+        message.setAmount(50);
+        return message;
     }
-}
\ No newline at end of file
+}
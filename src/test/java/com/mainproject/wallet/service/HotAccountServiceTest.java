@@ -0,0 +1,103 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.exception.UserNotFoundException;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.repository.BalanceStripeRepository;
+import com.mainproject.wallet.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class HotAccountServiceTest {
+
+    @InjectMocks
+    private HotAccountService hotAccountService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BalanceStripeRepository balanceStripeRepository;
+
+    private static final String USER_ID = "1";
+    private static final String USERNAME = "merchant";
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testStripe_MovesTheBalanceIntoStripes() {
+        when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(user(500, 0));
+
+        User result = hotAccountService.stripe(USERNAME, 4);
+
+        verify(balanceStripeRepository).split(USER_ID, 4, 500);
+        verify(balanceStripeRepository, never()).collapse(anyString());
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        assertEquals(4, saved.getValue().getBalanceStripes());
+        assertEquals(500, result.getWalletBalance());
+    }
+
+    @Test
+    void testStripe_AlreadyStriped_collapsesBeforeSplittingAgain() {
+        when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(user(0, 4));
+        when(balanceStripeRepository.collapse(USER_ID)).thenReturn(320L);
+
+        hotAccountService.stripe(USERNAME, 16);
+
+        verify(balanceStripeRepository).split(USER_ID, 16, 320);
+    }
+
+    @Test
+    void testStripe_FewerThanTwoStripes_isRejected() {
+        WalletException exception = assertThrows(WalletException.class, () -> hotAccountService.stripe(USERNAME, 1));
+        assertEquals("A hot account needs at least 2 balance stripes", exception.getMessage());
+        verifyNoInteractions(balanceStripeRepository);
+    }
+
+    @Test
+    void testUnstripe_CollectsTheStripesOntoTheUser() {
+        when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(user(0, 4));
+        when(balanceStripeRepository.collapse(USER_ID)).thenReturn(320L);
+
+        User result = hotAccountService.unstripe(USERNAME);
+
+        assertEquals(320, result.getWalletBalance());
+        assertEquals(0, result.getBalanceStripes());
+        verify(userRepository).save(result);
+    }
+
+    @Test
+    void testUnstripe_UnstripedOrUnknownAccount() {
+        when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(user(75, 0));
+
+        assertEquals(75, hotAccountService.unstripe(USERNAME).getWalletBalance());
+        verify(userRepository, never()).save(any());
+        verify(balanceStripeRepository, never()).split(anyString(), anyInt(), anyLong());
+        assertThrows(UserNotFoundException.class, () -> hotAccountService.unstripe("ghost"));
+    }
+
+    private static User user(long balance, int stripes) {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername(USERNAME);
+        user.setWalletBalance(balance);
+        user.setBalanceStripes(stripes);
+        return user;
+    }
+}
@@ -0,0 +1,185 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.dto.RechargeResponseDTO;
+import com.mainproject.wallet.exception.OutcomeUnknownException;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.model.IdempotencyKey;
+import com.mainproject.wallet.model.IdempotencyRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private IdempotencyService idempotencyService;
+
+    private static final String USER_ID = "1";
+    private static final IdempotencyKey KEY = IdempotencyKey.forRecharge(USER_ID, "abc", 100);
+    private static final RechargeResponseDTO RESPONSE = new RechargeResponseDTO(5, 105);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyService(mongoTemplate);
+    }
+
+    @Test
+    void testExecute_WithoutKey_runsEveryTime() {
+        AtomicInteger runs = new AtomicInteger();
+
+        idempotencyService.execute(null, RechargeResponseDTO.class, key -> run(runs));
+        idempotencyService.execute(null, RechargeResponseDTO.class, key -> run(runs));
+
+        assertEquals(2, runs.get());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testExecute_RepeatedKey_runsOnceAndReplays() {
+        AtomicInteger runs = new AtomicInteger();
+
+        RechargeResponseDTO first = idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> run(runs));
+        RechargeResponseDTO second = idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> run(runs));
+
+        assertEquals(1, runs.get());
+        assertSame(first, second);
+        verify(mongoTemplate, times(1)).findById(KEY.id(), IdempotencyRecord.class);
+    }
+
+    @Test
+    void testExecute_StoredRecord_replaysWithoutRunning() {
+        when(mongoTemplate.findById(KEY.id(), IdempotencyRecord.class))
+                .thenReturn(new IdempotencyRecord(KEY.id(), KEY.fingerprint(), RESPONSE, LocalDateTime.now()));
+
+        RechargeResponseDTO result = idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> fail("must not run"));
+
+        assertEquals(RESPONSE, result);
+    }
+
+    @Test
+    void testExecute_KeyReusedForDifferentRequest_throwsWalletException() {
+        idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> RESPONSE);
+        IdempotencyKey otherAmount = IdempotencyKey.forRecharge(USER_ID, "abc", 200);
+
+        WalletException exception = assertThrows(WalletException.class,
+                () -> idempotencyService.execute(otherAmount, RechargeResponseDTO.class, key -> fail("must not run")));
+
+        assertEquals(IdempotencyService.REUSED_KEY_MESSAGE, exception.getMessage());
+    }
+
+    @Test
+    void testExecute_FailedOperation_leavesKeyFree() {
+        assertThrows(WalletException.class, () -> idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> {
+            throw new WalletException("Insufficient balance");
+        }));
+
+        RechargeResponseDTO result = idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> RESPONSE);
+
+        assertEquals(RESPONSE, result);
+        assertEquals(1, idempotencyService.cachedKeyCount());
+    }
+
+    @Test
+    void testExecute_UnknownOutcome_keepsKeyAndNeverRunsAgain() {
+        OutcomeUnknownException unconfirmed = new OutcomeUnknownException("not confirmed in time");
+        assertThrows(OutcomeUnknownException.class, () -> idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> {
+            throw unconfirmed;
+        }));
+
+        OutcomeUnknownException retried = assertThrows(OutcomeUnknownException.class,
+                () -> idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> fail("must not run")));
+
+        assertSame(unconfirmed, retried);
+        assertEquals(1, idempotencyService.cachedKeyCount());
+    }
+
+    @Test
+    void testExecute_DuplicateKeyOnInsert_replaysTheOtherInstancesResult() {
+        IdempotencyRecord stored = new IdempotencyRecord(KEY.id(), KEY.fingerprint(), RESPONSE, LocalDateTime.now());
+        when(mongoTemplate.findById(KEY.id(), IdempotencyRecord.class)).thenReturn(null, stored);
+
+        RechargeResponseDTO result = idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> {
+            throw new DuplicateKeyException("E11000 duplicate key");
+        });
+
+        assertEquals(RESPONSE, result);
+    }
+
+    @Test
+    void testExecute_ConcurrentDuplicate_waitsForTheFirstResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<RechargeResponseDTO> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> {
+                    started.countDown();
+                    await(release);
+                    return run(runs);
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<RechargeResponseDTO> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(KEY, RechargeResponseDTO.class, key -> run(runs)));
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testRemember_InsertsRecordForKey() {
+        idempotencyService.remember(KEY, RESPONSE);
+        idempotencyService.remember(null, RESPONSE);
+
+        ArgumentCaptor<IdempotencyRecord> inserted = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(mongoTemplate, times(1)).insert(inserted.capture());
+        assertEquals(KEY.id(), inserted.getValue().getId());
+        assertEquals(KEY.fingerprint(), inserted.getValue().getFingerprint());
+        assertEquals(RESPONSE, inserted.getValue().getResponse());
+    }
+
+    @Test
+    void testExecute_FullCache_evictsCompletedKeys() {
+        idempotencyService.maxCachedKeys = 10;
+
+        for (int i = 0; i < 25; i++) {
+            IdempotencyKey key = IdempotencyKey.forRecharge(USER_ID, "key-" + i, 100);
+            idempotencyService.execute(key, RechargeResponseDTO.class, k -> RESPONSE);
+        }
+
+        assertTrue(idempotencyService.cachedKeyCount() <= 11);
+        verify(mongoTemplate, never()).insert(any(IdempotencyRecord.class));
+        verify(mongoTemplate, times(25)).findById(any(), eq(IdempotencyRecord.class));
+    }
+
+    private static RechargeResponseDTO run(AtomicInteger runs) {
+        runs.incrementAndGet();
+        return new RechargeResponseDTO(5, 105);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
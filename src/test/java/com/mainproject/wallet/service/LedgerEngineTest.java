@@ -0,0 +1,120 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.ledger.LedgerEntry;
+import com.mainproject.wallet.ledger.LedgerJournal;
+import com.mainproject.wallet.metrics.WalletMetrics;
+import com.mainproject.wallet.model.ResolvedAccount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LedgerEngineTest {
+
+    // "a" and "b" hash to different shards when there are two
+    private static final ResolvedAccount ALICE = new ResolvedAccount("a", "alice", "alice@example.com");
+    private static final ResolvedAccount BOB = new ResolvedAccount("b", "bob", "bob@example.com");
+
+    @TempDir
+    Path journalDir;
+
+    private final LedgerStore store = mock(LedgerStore.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LedgerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        when(store.loadBalance("a")).thenReturn(100L);
+        when(store.loadBalance("b")).thenReturn(0L);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    @Test
+    void testRecharge_AppliedInMemoryAndStoredAsABatch() throws IOException {
+        engine = start(1);
+
+        LedgerEngine.Result result = engine.recharge(ALICE, 50, 5);
+
+        assertEquals(155, result.balance());
+        verify(store, timeout(2000)).write(eq(0), argThat((List<LedgerEntry> entries) ->
+                entries.size() == 1 && entries.get(0).kind() == LedgerEntry.Kind.RECHARGE && entries.get(0).credited() == 55));
+    }
+
+    @Test
+    void testTransfer_InsufficientFunds_isRejectedAndNothingIsStored() throws IOException {
+        engine = start(1);
+
+        WalletException exception = assertThrows(WalletException.class, () -> engine.transfer(BOB, ALICE, 10));
+
+        assertEquals("Insufficient funds in the account", exception.getMessage());
+        assertEquals(0, engine.balanceOf("b"));
+        verify(store, after(200).never()).write(anyInt(), anyList());
+        assertEquals(1, meterRegistry.get("wallet.transfer.insufficient.funds").counter().count());
+    }
+
+    @Test
+    void testTransfer_AcrossShards_creditsTheReceiverOnceStored() throws Exception {
+        engine = start(2);
+
+        LedgerEngine.Result result = engine.transfer(ALICE, BOB, 40);
+
+        assertEquals(60, result.balance());
+        verify(store, timeout(2000)).write(eq(Math.floorMod("a".hashCode(), 2)), anyList());
+        long deadline = System.currentTimeMillis() + 2000;
+        while (engine.balanceOf("b") != 40 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(40, engine.balanceOf("b"));
+    }
+
+    @Test
+    void testStart_StoresJournaledEntriesAfterTheCheckpointAndContinuesTheSequence() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(journalDir, "shard-0", 1 << 20)) {
+            journal.append(List.of(LedgerEntry.recharge(1, ALICE, 10, 0), LedgerEntry.recharge(2, ALICE, 20, 0),
+                    LedgerEntry.transfer(3, ALICE, BOB, 5)));
+        }
+        when(store.checkpoint(0)).thenReturn(1L);
+
+        engine = start(1);
+
+        verify(store).write(eq(0), argThat((List<LedgerEntry> entries) ->
+                entries.stream().map(LedgerEntry::sequence).toList().equals(List.of(2L, 3L))));
+        engine.recharge(ALICE, 10, 0);
+        verify(store, timeout(2000)).write(eq(0), argThat((List<LedgerEntry> entries) ->
+                entries.size() == 1 && entries.get(0).sequence() == 4));
+    }
+
+    @Test
+    void testStop_WithoutStart_closesJournals() throws IOException {
+        LedgerEngine notStarted = new LedgerEngine(store, new WalletMetrics(meterRegistry), 2, journalDir.toString(),
+                1 << 20, 64, 256, 1000, 1000, 5000);
+
+        assertDoesNotThrow(notStarted::stop);
+    }
+
+    private LedgerEngine start(int shards) throws IOException {
+        LedgerEngine ledgerEngine = new LedgerEngine(store, new WalletMetrics(meterRegistry), shards, journalDir.toString(),
+                1 << 20, 64, 256, 1000, 1000, 5000);
+        ledgerEngine.start();
+        return ledgerEngine;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.ledger.LedgerEntry;
+import com.mainproject.wallet.model.LedgerCheckpoint;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.model.WalletAggregate;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LedgerStoreTest {
+
+    private static final ResolvedAccount ALICE = new ResolvedAccount("a", "alice", "alice@example.com");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private LedgerStore store;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new LedgerStore(mongoTemplate);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(User.class))).thenReturn(bulkOperations);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(WalletAggregate.class))).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void testWrite_BatchAlreadyCoveredByCheckpoint_writesNothing() {
+        when(mongoTemplate.findById(LedgerCheckpoint.idOf(0), LedgerCheckpoint.class)).thenReturn(new LedgerCheckpoint("shard-0", 2));
+
+        store.write(0, List.of(LedgerEntry.recharge(1, ALICE, 10, 0), LedgerEntry.recharge(2, ALICE, 20, 0)));
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(User.class));
+        verify(mongoTemplate, never()).insertAll(any());
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(LedgerCheckpoint.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWrite_PartlyStoredBatch_writesOnlyEntriesAfterCheckpoint() {
+        when(mongoTemplate.findById(LedgerCheckpoint.idOf(0), LedgerCheckpoint.class)).thenReturn(new LedgerCheckpoint("shard-0", 1));
+
+        store.write(0, List.of(LedgerEntry.recharge(1, ALICE, 10, 0), LedgerEntry.recharge(2, ALICE, 20, 0)));
+
+        verify(bulkOperations).updateOne(any(Query.class), argThat((Update update) ->
+                Long.valueOf(20).equals(update.getUpdateObject().get("$inc", Document.class).get("walletBalance"))));
+        verify(mongoTemplate).insertAll(argThat((Collection<Object> rows) -> rows.size() == 1
+                && rows.iterator().next() instanceof Transaction transaction && transaction.getAmount() == 20));
+        verify(mongoTemplate).upsert(any(Query.class), argThat((Update update) ->
+                Long.valueOf(2).equals(update.getUpdateObject().get("$set", Document.class).get("sequence"))), eq(LedgerCheckpoint.class));
+    }
+}
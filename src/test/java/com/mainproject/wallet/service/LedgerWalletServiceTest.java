@@ -0,0 +1,107 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.cashback.CashbackGrant;
+import com.mainproject.wallet.dto.RechargeResponseDTO;
+import com.mainproject.wallet.exception.OutcomeUnknownException;
+import com.mainproject.wallet.exception.ServiceUnavailableException;
+import com.mainproject.wallet.metrics.WalletMetrics;
+import com.mainproject.wallet.model.IdempotencyKey;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LedgerWalletServiceTest {
+
+    @InjectMocks
+    private LedgerWalletService ledgerWalletService;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private WalletMetrics walletMetrics;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private CashbackEngine cashbackEngine;
+
+    private static final ResolvedAccount SENDER = new ResolvedAccount("1", "testUser", "test@example.com");
+    private static final ResolvedAccount RECEIVER = new ResolvedAccount("2", "receiverUser", "receiver@example.com");
+    private static final CashbackGrant GRANT = new CashbackGrant("1", null, null, 5);
+    private static final IdempotencyKey KEY = IdempotencyKey.forRecharge("1", "abc", 100);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(userService.resolveAccount("testUser")).thenReturn(SENDER);
+        when(userService.resolveAccount("receiverUser")).thenReturn(RECEIVER);
+        when(cashbackEngine.grant(SENDER, 100)).thenReturn(GRANT);
+    }
+
+    @Test
+    void testRecharge_AppliedByTheEngineAndRemembered() {
+        when(ledgerEngine.recharge(SENDER, 100, 5)).thenReturn(new LedgerEngine.Result(305, 0));
+
+        RechargeResponseDTO response = ledgerWalletService.recharge("testUser", 100, KEY).getBody();
+
+        assertEquals(5, response.getCashbackAmount());
+        assertEquals(305, response.getNewBalance());
+        verify(idempotencyService).remember(KEY, response);
+        verify(walletMetrics).recordCashback(5);
+    }
+
+    @Test
+    void testRecharge_Rejected_givesCashbackBack() {
+        when(ledgerEngine.recharge(SENDER, 100, 5)).thenThrow(new ServiceUnavailableException("busy", 1));
+
+        assertThrows(ServiceUnavailableException.class, () -> ledgerWalletService.recharge("testUser", 100, KEY));
+
+        verify(cashbackEngine).release(GRANT);
+        verify(idempotencyService, never()).remember(any(), any());
+    }
+
+    @Test
+    void testRecharge_Unconfirmed_keepsCashbackCounted() {
+        when(ledgerEngine.recharge(SENDER, 100, 5)).thenThrow(new OutcomeUnknownException("not confirmed"));
+
+        assertThrows(OutcomeUnknownException.class, () -> ledgerWalletService.recharge("testUser", 100, KEY));
+
+        verify(cashbackEngine, never()).release(any());
+    }
+
+    @Test
+    void testRecharge_RememberFails_stillReturnsTheAppliedResult() {
+        when(ledgerEngine.recharge(SENDER, 100, 5)).thenReturn(new LedgerEngine.Result(305, 0));
+        doThrow(new DataAccessResourceFailureException("down")).when(idempotencyService).remember(any(), any());
+
+        RechargeResponseDTO response = ledgerWalletService.recharge("testUser", 100, KEY).getBody();
+
+        assertEquals(305, response.getNewBalance());
+        verify(ledgerEngine, times(1)).recharge(SENDER, 100, 5);
+    }
+
+    @Test
+    void testTransfer_RoutesThroughTheEngine() {
+        when(ledgerEngine.transfer(SENDER, RECEIVER, 50)).thenReturn(new LedgerEngine.Result(150, 250));
+
+        User resultUser = ledgerWalletService.transfer("testUser", "receiverUser", 50, null);
+
+        assertEquals("2", resultUser.getId());
+        assertEquals(250, resultUser.getWalletBalance());
+        verify(ledgerEngine, times(1)).transfer(SENDER, RECEIVER, 50);
+    }
+}
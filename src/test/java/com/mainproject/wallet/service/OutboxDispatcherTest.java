@@ -0,0 +1,152 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.constant.OutboxENUM;
+import com.mainproject.wallet.model.OutboxMessage;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailSendException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxDispatcherTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        dispatcher = new OutboxDispatcher(mongoTemplate, emailService, outboxService);
+        dispatcher.batchSize = 10;
+        dispatcher.maxAttempts = 3;
+        dispatcher.initialBackoffMillis = 1000;
+        dispatcher.maxBackoffMillis = 8000;
+        dispatcher.leaseMillis = 60000;
+    }
+
+    @Test
+    void testDispatch_DeliveredMessage_isMarkedSent() {
+        OutboxMessage message = claimed(1);
+        stubClaims(message);
+        when(emailService.deliverAll(List.of(message))).thenReturn(Collections.singletonList(null));
+
+        assertEquals(1, dispatcher.dispatch());
+
+        verify(emailService).deliverAll(List.of(message));
+        assertEquals(OutboxENUM.SENT, settledUpdate().getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void testDispatch_FailedMessage_isRescheduled() {
+        OutboxMessage message = claimed(1);
+        stubClaims(message);
+        when(emailService.deliverAll(List.of(message))).thenReturn(List.of(new MailSendException("connection refused")));
+
+        dispatcher.dispatch();
+
+        Document set = settledUpdate().getUpdateObject().get("$set", Document.class);
+        assertEquals(OutboxENUM.PENDING, set.get("status"));
+        assertNotNull(set.get("nextAttemptAt"));
+        assertEquals("connection refused", set.get("lastError"));
+    }
+
+    @Test
+    void testDispatch_FailedOnLastAttempt_isMarkedDead() {
+        OutboxMessage message = claimed(3);
+        stubClaims(message);
+        when(emailService.deliverAll(List.of(message))).thenReturn(List.of(new MailSendException("mailbox unavailable")));
+
+        dispatcher.dispatch();
+
+        assertEquals(OutboxENUM.DEAD, settledUpdate().getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void testDispatch_MixedBatch_settlesEachMessageByItsOwnOutcome() {
+        OutboxMessage delivered = claimed(1);
+        OutboxMessage rejected = claimed(1);
+        rejected.setId("outbox-2");
+        stubClaims(delivered, rejected);
+        when(emailService.deliverAll(List.of(delivered, rejected))).thenReturn(Arrays.asList(null, new MailSendException("rejected")));
+
+        assertEquals(2, dispatcher.dispatch());
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq(OutboxMessage.class));
+        assertEquals(OutboxENUM.SENT, updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class).get("status"));
+        assertEquals(OutboxENUM.PENDING, updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void testDispatch_EmptyOutbox_sendsNothing() {
+        stubClaims();
+
+        assertEquals(0, dispatcher.dispatch());
+
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void testClaimBatch_StopsAtBatchSize() {
+        dispatcher.batchSize = 2;
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(OutboxMessage.class)))
+                .thenReturn(claimed(1));
+
+        assertEquals(2, dispatcher.claimBatch().size());
+    }
+
+    @Test
+    void testBackoff_GrowsAndIsCapped() {
+        assertTrue(dispatcher.backoffMillis(1) >= 1000 && dispatcher.backoffMillis(1) <= 1200);
+        assertTrue(dispatcher.backoffMillis(3) >= 4000 && dispatcher.backoffMillis(3) <= 4800);
+        assertTrue(dispatcher.backoffMillis(30) >= 8000 && dispatcher.backoffMillis(30) <= 9600);
+    }
+
+    private void stubClaims(OutboxMessage... messages) {
+        var stubbing = when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(OutboxMessage.class)));
+        for (OutboxMessage message : messages) {
+            stubbing = stubbing.thenReturn(message);
+        }
+        stubbing.thenReturn(null);
+    }
+
+    private Update settledUpdate() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(OutboxMessage.class));
+        return update.getValue();
+    }
+
+    private static OutboxMessage claimed(int attempts) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId("outbox-1");
+        message.setType(OutboxENUM.RECHARGE);
+        message.setRecipientEmail("user@example.com");
+        message.setAmount(100);
+        message.setStatus(OutboxENUM.PROCESSING);
+        message.setAttempts(attempts);
+        return message;
+    }
+}
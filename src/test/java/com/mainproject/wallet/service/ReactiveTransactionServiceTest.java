@@ -0,0 +1,160 @@
+package com.mainproject.wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.model.OutboxMessage;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.model.WalletAggregate;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveTransactionServiceTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private ReactiveTransactionService transactionService;
+
+    private static final ResolvedAccount SENDER = new ResolvedAccount("1", "sender", "sender@example.com");
+    private static final ResolvedAccount RECEIVER = new ResolvedAccount("2", "receiver", "receiver@example.com");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transactionService = new ReactiveTransactionService(mongoTemplate, new ObjectMapper().registerModule(new JavaTimeModule()));
+        transactionService.defaultPageSize = 2;
+        transactionService.maxPageSize = 5;
+        when(mongoTemplate.find(any(Query.class), eq(TransferEntry.class))).thenReturn(Flux.empty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordTransaction_SentWritesLedgerAggregateAndBothNotifications() {
+        when(mongoTemplate.insert(any(Transaction.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(WalletAggregate.class))).thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+        when(mongoTemplate.insertAll(anyCollection())).thenAnswer(invocation -> Flux.fromIterable((Collection<Object>) invocation.getArgument(0)));
+
+        StepVerifier.create(transactionService.recordTransaction(SENDER, 50, TransactionENUM.SENT, RECEIVER, 0))
+                .assertNext(dto -> {
+                    assertEquals(TransactionENUM.SENT, dto.getType());
+                    assertEquals("receiver", dto.getReceiverUsername());
+                })
+                .verifyComplete();
+
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(WalletAggregate.class));
+        verify(mongoTemplate).insertAll(argThat((Collection<OutboxMessage> messages) -> messages.size() == 2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordTransfer_OneEntryAggregatesForBothSidesAndBothNotifications() {
+        when(mongoTemplate.insert(any(TransferEntry.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(WalletAggregate.class))).thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+        when(mongoTemplate.insertAll(anyCollection())).thenAnswer(invocation -> Flux.fromIterable((Collection<Object>) invocation.getArgument(0)));
+
+        StepVerifier.create(transactionService.recordTransfer(SENDER, RECEIVER, 50))
+                .assertNext(dto -> {
+                    assertEquals(TransactionENUM.SENT, dto.getType());
+                    assertEquals("1", dto.getUserId());
+                })
+                .verifyComplete();
+
+        verify(mongoTemplate, never()).insert(any(Transaction.class));
+        verify(mongoTemplate, times(2)).upsert(any(Query.class), any(Update.class), eq(WalletAggregate.class));
+        verify(mongoTemplate).insertAll(argThat((Collection<OutboxMessage> messages) -> messages.size() == 2));
+    }
+
+    @Test
+    void testGetTransactionPage_ReadsOneExtraRowForNextCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(Flux.just(row("t3", 3), row("t2", 2), row("t1", 1)));
+
+        StepVerifier.create(transactionService.getTransactionPageByUserId("1", null, null, null, null, null))
+                .assertNext(page -> {
+                    assertEquals(2, page.getTransactions().size());
+                    assertNotNull(page.getNextCursor());
+                })
+                .verifyComplete();
+
+        verify(mongoTemplate).find(argThat(query -> query.getLimit() == 3), eq(Transaction.class));
+    }
+
+    @Test
+    void testGetTransactionPage_InvalidFilter_isAnErrorSignal() {
+        StepVerifier.create(transactionService.getTransactionPageByUserId("1", "Bogus", null, null, null, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testStreamCsv_HeaderThenOneLinePerRow() {
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(Flux.just(row("t2", 2), row("t1", 1)));
+
+        List<String> lines = transactionService.streamCsvByUserId("1").collectList().block();
+
+        assertEquals(3, lines.size());
+        assertEquals(StatementExportService.CSV_HEADER + "\n", lines.get(0));
+        assertTrue(lines.get(1).startsWith("t2,1,"));
+    }
+
+    @Test
+    void testStreamByUserId_MergesTransferLegsNewestFirst() {
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(Flux.just(row("t3", 3), row("t1", 1)));
+        when(mongoTemplate.find(any(Query.class), eq(TransferEntry.class))).thenReturn(Flux.just(
+                new TransferEntry("t2", 20, LocalDateTime.of(2024, 1, 1, 0, 2), "2", "receiver", "1", "sender")));
+
+        StepVerifier.create(transactionService.streamByUserId("1"))
+                .assertNext(dto -> assertEquals("t3", dto.getId()))
+                .assertNext(dto -> {
+                    assertEquals("t2", dto.getId());
+                    assertEquals(TransactionENUM.RECEIVED, dto.getType());
+                })
+                .assertNext(dto -> assertEquals("t1", dto.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testStreamNdjson_OneDocumentPerLine() {
+        when(mongoTemplate.find(any(Query.class), eq(Transaction.class))).thenReturn(Flux.just(row("t1", 1)));
+
+        StepVerifier.create(transactionService.streamNdjsonByUserId("1"))
+                .assertNext(line -> {
+                    assertTrue(line.startsWith("{") && line.endsWith("}\n"));
+                    assertTrue(line.contains("\"id\":\"t1\""));
+                })
+                .verifyComplete();
+    }
+
+    private static Transaction row(String id, int minute) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setUserId("1");
+        transaction.setAmount(10);
+        transaction.setType(TransactionENUM.RECHARGE);
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, minute));
+        return transaction;
+    }
+}
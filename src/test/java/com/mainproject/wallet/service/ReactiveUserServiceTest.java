@@ -0,0 +1,105 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.dto.LoginDTO;
+import com.mainproject.wallet.dto.RegisterDTO;
+import com.mainproject.wallet.exception.AuthException;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.security.PasswordHashingService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveUserServiceTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    private ReactiveUserService userService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userService = new ReactiveUserService(mongoTemplate, passwordHashingService);
+    }
+
+    @Test
+    void testRegister_HashesOnPoolAndInsertsUser() {
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(Mono.empty());
+        when(passwordHashingService.encodeAsync("secret")).thenReturn(CompletableFuture.completedFuture("hash"));
+        when(mongoTemplate.insert(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(userService.register(new RegisterDTO("alice", "alice@example.com", "secret")))
+                .assertNext(user -> {
+                    assertEquals("hash", user.getPassword());
+                    assertEquals(0, user.getWalletBalance());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testRegister_TakenUsername_isRejectedWithoutHashing() {
+        when(mongoTemplate.findOne(argThat(query -> query.getQueryObject().containsKey("username")), eq(User.class)))
+                .thenReturn(Mono.just(user("secret-hash")));
+
+        StepVerifier.create(userService.register(new RegisterDTO("alice", "alice@example.com", "secret")))
+                .expectErrorSatisfies(error -> {
+                    assertInstanceOf(AuthException.class, error);
+                    assertEquals("Username already exists", error.getMessage());
+                })
+                .verify();
+
+        verifyNoInteractions(passwordHashingService);
+    }
+
+    @Test
+    void testLogin_WrongPassword_failsWithAuthException() {
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(Mono.just(user("hash")));
+        when(passwordHashingService.matchesAsync("wrong", "hash")).thenReturn(CompletableFuture.completedFuture(false));
+
+        StepVerifier.create(userService.login(new LoginDTO("alice", "wrong")))
+                .expectError(AuthException.class)
+                .verify();
+    }
+
+    @Test
+    void testLogin_OutdatedCost_rehashesInBackground() {
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(Mono.just(user("old-hash")));
+        when(passwordHashingService.matchesAsync("secret", "old-hash")).thenReturn(CompletableFuture.completedFuture(true));
+        when(passwordHashingService.needsRehash("old-hash")).thenReturn(true);
+        when(passwordHashingService.encodeInBackground("secret")).thenReturn(CompletableFuture.completedFuture("new-hash"));
+        when(mongoTemplate.updateFirst(any(Query.class), any(), eq(User.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.login(new LoginDTO("alice", "secret")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(mongoTemplate).updateFirst(argThat(query -> "old-hash".equals(query.getQueryObject().get("password"))),
+                argThat(update -> "new-hash".equals(update.getUpdateObject().get("$set", Document.class).get("password"))), eq(User.class));
+    }
+
+    private static User user(String passwordHash) {
+        User user = new User();
+        user.setId("u1");
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setPassword(passwordHash);
+        return user;
+    }
+}
@@ -0,0 +1,253 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.cashback.CashbackGrant;
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.exception.UserNotFoundException;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.metrics.WalletMetrics;
+import com.mainproject.wallet.model.BalanceStripe;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.model.WalletAggregate;
+import com.mainproject.wallet.retry.ReactiveConflictRetry;
+import com.mainproject.wallet.retry.RetryStatistics;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveWalletServiceTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveTransactionService transactionService;
+
+    @Mock
+    private ReactiveUserService userService;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private final RetryStatistics retryStatistics = new RetryStatistics();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReactiveWalletService walletService;
+
+    private static final ResolvedAccount SENDER = new ResolvedAccount("1", "testUser", "test@example.com");
+    private static final ResolvedAccount RECEIVER = new ResolvedAccount("2", "receiverUser", "receiver@example.com");
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionService.recordTransaction(any(), anyLong(), anyString(), any(), anyLong())).thenReturn(Mono.just(new TransactionDTO()));
+        when(transactionService.recordTransfer(any(), any(), anyLong())).thenReturn(Mono.just(new TransactionDTO()));
+        // Stripe lookups after a missed $inc find an unstriped or unknown user unless a test says otherwise
+        when(mongoTemplate.findOne(any(Query.class), eq(User.class))).thenReturn(Mono.empty());
+        walletService = newWalletService(new CashbackEngine(null, 5, 10));
+    }
+
+    private ReactiveWalletService newWalletService(CashbackEngine cashbackEngine) {
+        return new ReactiveWalletService(mongoTemplate, transactionService, userService,
+                transactionalOperator, new ReactiveConflictRetry(retryStatistics, 3, 1, 2), new WalletMetrics(meterRegistry),
+                cashbackEngine);
+    }
+
+    @Test
+    void testRecharge_CreditsAmountAndCashbackInOneUpdate() {
+        when(userService.resolveAccount("testUser")).thenReturn(Mono.just(SENDER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(Mono.just(user("1", 300)));
+
+        StepVerifier.create(walletService.recharge("testUser", 100))
+                .assertNext(response -> {
+                    assertEquals(300, response.getNewBalance());
+                    assertTrue(response.getCashbackAmount() >= 0);
+                })
+                .verifyComplete();
+
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class));
+        verify(transactionService).recordTransaction(eq(SENDER), eq(100L), eq(TransactionENUM.RECHARGE), eq(SENDER), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecharge_CommitFails_releasesTheCashbackGrant() {
+        CashbackEngine cashbackEngine = mock(CashbackEngine.class);
+        CashbackGrant grant = new CashbackGrant("1", "campaign", null, 5);
+        when(cashbackEngine.grant(SENDER, 100L)).thenReturn(grant);
+        when(userService.resolveAccount("testUser")).thenReturn(Mono.just(SENDER));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(Mono.just(user("1", 305)));
+        // The body completes, then the commit itself fails
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation ->
+                ((Mono<?>) invocation.getArgument(0)).then(Mono.error(new TransactionSystemException("commit failed"))));
+
+        StepVerifier.create(newWalletService(cashbackEngine).recharge("testUser", 100))
+                .expectError(TransactionSystemException.class)
+                .verify();
+
+        verify(cashbackEngine).release(grant);
+    }
+
+    @Test
+    void testRecharge_WriteConflict_retriesWithTheSameGrantAndKeepsIt() {
+        CashbackEngine cashbackEngine = mock(CashbackEngine.class);
+        CashbackGrant grant = new CashbackGrant("1", "campaign", null, 5);
+        when(cashbackEngine.grant(SENDER, 100L)).thenReturn(grant);
+        when(userService.resolveAccount("testUser")).thenReturn(Mono.just(SENDER));
+        AtomicInteger attempts = new AtomicInteger();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenAnswer(invocation -> attempts.incrementAndGet() == 1
+                        ? Mono.error(new OptimisticLockingFailureException("write conflict"))
+                        : Mono.just(user("1", 305)));
+
+        StepVerifier.create(newWalletService(cashbackEngine).recharge("testUser", 100))
+                .assertNext(response -> assertEquals(5, response.getCashbackAmount()))
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        verify(cashbackEngine, times(1)).grant(SENDER, 100L);
+        verify(cashbackEngine, never()).release(any());
+    }
+
+    @Test
+    void testRecharge_UnknownUser_failsWithWalletException() {
+        when(userService.resolveAccount("ghost")).thenReturn(Mono.empty());
+
+        StepVerifier.create(walletService.recharge("ghost", 100))
+                .expectErrorSatisfies(error -> {
+                    assertInstanceOf(WalletException.class, error);
+                    assertEquals("No user found for username: ghost", error.getMessage());
+                })
+                .verify();
+    }
+
+    @Test
+    void testTransfer_DebitsCreditsAndRecordsOneTransferEntry() {
+        when(userService.resolveAccount("testUser")).thenReturn(Mono.just(SENDER));
+        when(userService.resolveAccount("receiverUser")).thenReturn(Mono.just(RECEIVER));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class))).thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(Mono.just(user("2", 150)));
+
+        StepVerifier.create(walletService.transfer("testUser", "receiverUser", 50))
+                .assertNext(toUser -> assertEquals(150, toUser.getWalletBalance()))
+                .verifyComplete();
+
+        verify(transactionService).recordTransfer(SENDER, RECEIVER, 50);
+        verify(transactionService, never()).recordTransaction(any(), anyLong(), anyString(), any(), anyLong());
+    }
+
+    @Test
+    void testTransfer_InsufficientFunds_doesNotCredit() {
+        when(userService.resolveAccount("testUser")).thenReturn(Mono.just(SENDER));
+        when(userService.resolveAccount("receiverUser")).thenReturn(Mono.just(RECEIVER));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class))).thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+        StepVerifier.create(walletService.transfer("testUser", "receiverUser", 500))
+                .expectErrorMessage("Insufficient funds in the account")
+                .verify();
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class));
+        verifyNoInteractions(transactionService);
+        assertEquals(1, meterRegistry.get("wallet.transfer.insufficient.funds").counter().count());
+    }
+
+    @Test
+    void testTransfer_ToSelfOrUnknownUser_isRejected() {
+        StepVerifier.create(walletService.transfer("testUser", "testUser", 10))
+                .expectErrorMessage("Cannot transfer money to yourself")
+                .verify();
+
+        when(userService.resolveAccount("testUser")).thenReturn(Mono.just(SENDER));
+        when(userService.resolveAccount("ghost")).thenReturn(Mono.empty());
+        StepVerifier.create(walletService.transfer("testUser", "ghost", 10))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void testTransfer_WriteConflict_isRetriedInAFreshTransaction() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(userService.resolveAccount("testUser")).thenReturn(Mono.just(SENDER));
+        when(userService.resolveAccount("receiverUser")).thenReturn(Mono.just(RECEIVER));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class))).thenAnswer(invocation ->
+                attempts.incrementAndGet() == 1
+                        ? Mono.error(new OptimisticLockingFailureException("write conflict"))
+                        : Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class)))
+                .thenReturn(Mono.just(user("2", 150)));
+
+        StepVerifier.create(walletService.transfer("testUser", "receiverUser", 50))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, retryStatistics.getRetries());
+    }
+
+    @Test
+    void testTransfer_ToStripedAccount_creditsAStripeInsteadOfTheUser() {
+        User merchant = user("2", 0);
+        merchant.setBalanceStripes(2);
+        when(userService.resolveAccount("testUser")).thenReturn(Mono.just(SENDER));
+        when(userService.resolveAccount("receiverUser")).thenReturn(Mono.just(RECEIVER));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class))).thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(User.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.findById("2", User.class)).thenReturn(Mono.just(merchant));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(BalanceStripe.class))).thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mongoTemplate.find(any(Query.class), eq(BalanceStripe.class))).thenReturn(Flux.just(
+                new BalanceStripe("2:0", "2", 0, 100), new BalanceStripe("2:1", "2", 1, 150)));
+
+        StepVerifier.create(walletService.transfer("testUser", "receiverUser", 50))
+                .assertNext(toUser -> assertEquals(250, toUser.getWalletBalance()))
+                .verifyComplete();
+
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(BalanceStripe.class));
+        verify(transactionService).recordTransfer(SENDER, RECEIVER, 50);
+    }
+
+    @Test
+    void testGetAggregates_NoActivity_returnsEmptyTotals() {
+        when(mongoTemplate.findById("1", WalletAggregate.class)).thenReturn(Mono.empty());
+
+        StepVerifier.create(walletService.getAggregates("1"))
+                .assertNext(aggregate -> {
+                    assertEquals("1", aggregate.getUserId());
+                    assertTrue(aggregate.getCounts().isEmpty());
+                })
+                .verifyComplete();
+    }
+
+    private static User user(String id, long balance) {
+        User user = new User();
+        user.setId(id);
+        user.setWalletBalance(balance);
+        return user;
+    }
+}
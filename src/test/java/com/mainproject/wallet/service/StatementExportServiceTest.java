@@ -0,0 +1,100 @@
+package com.mainproject.wallet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.model.ResolvedAccount;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StatementExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private UserService userService;
+
+    private StatementExportService statementExportService;
+
+    private final ResolvedAccount account = new ResolvedAccount("userId", "testUser", "test@example.com");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        statementExportService = new StatementExportService(transactionRepository, userService, objectMapper);
+    }
+
+    @Test
+    void testExport_Ndjson_writesOneObjectPerLineAndClosesCursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionRepository.streamByUserId("userId"))
+                .thenReturn(Stream.of(transaction("t2", 50, TransactionENUM.SENT), transaction("t1", 100, TransactionENUM.RECHARGE))
+                        .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = statementExportService.export(account, StatementExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains("\"id\":\"t2\""));
+        assertTrue(lines[1].contains("\"timestamp\":\"2024-01-01T10:00:00\""));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testExport_Csv_writesHeaderAndEscapesFields() throws Exception {
+        Transaction sent = transaction("t1", 50, TransactionENUM.SENT);
+        sent.setReceiverUsername("=cmd,\"x\"");
+        when(transactionRepository.streamByUserId("userId")).thenReturn(Stream.of(sent));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        statementExportService.export(account, StatementExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id,userId,amount,timestamp,type,senderId,senderUsername,receiverId,receiverUsername", lines[0]);
+        assertEquals("t1,userId,50,2024-01-01T10:00,Sent,,,,\"'=cmd,\"\"x\"\"\"", lines[1]);
+    }
+
+    @Test
+    void testResolveExportAccount_UnknownUser_throwsWalletException() {
+        when(userService.resolveAccount("ghost")).thenReturn(null);
+
+        assertThrows(WalletException.class, () -> statementExportService.resolveExportAccount("ghost"));
+    }
+
+    @Test
+    void testFormatParse_Unsupported_throwsIllegalArgumentException() {
+        assertEquals(StatementExportService.Format.CSV, StatementExportService.Format.parse("csv"));
+        assertThrows(IllegalArgumentException.class, () -> StatementExportService.Format.parse("xml"));
+    }
+
+    private Transaction transaction(String id, long amount, String type) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setUserId("userId");
+        transaction.setAmount(amount);
+        transaction.setType(type);
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 10, 0));
+        return transaction;
+    }
+}
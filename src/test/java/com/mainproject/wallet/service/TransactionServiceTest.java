@@ -2,17 +2,23 @@ package com.mainproject.wallet.service;
 
 import com.mainproject.wallet.constant.TransactionENUM;
 import com.mainproject.wallet.dto.TransactionDTO;
+import com.mainproject.wallet.dto.TransactionPageDTO;
 import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.model.ResolvedAccount;
 import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
 import com.mainproject.wallet.repository.TransactionRepository;
+import com.mainproject.wallet.utils.TransactionCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -31,7 +37,10 @@ class TransactionServiceTest {
     private UserService userService;
 
     @Mock
-    private EmailService emailService;
+    private OutboxService outboxService;
+
+    @Mock
+    private WalletAggregateService walletAggregateService;
 
     @InjectMocks
     private TransactionService transactionService;
@@ -41,9 +50,11 @@ class TransactionServiceTest {
     private final String receiverUsername = "receiverUser";
     private final String userId = "userId";
     private final String receiverId = "receiverId";
-    private final double rechargeAmount = 100.0;
-    private final double transferAmount = 50.0;
+    private final long rechargeAmount = 100;
+    private final long transferAmount = 50;
     private final String transactionId = "transactionId";
+    private final ResolvedAccount account = new ResolvedAccount(userId, testUsername, "test@example.com");
+    private final ResolvedAccount receiverAccount = new ResolvedAccount(receiverId, receiverUsername, "receiver@example.com");
 
     private Transaction transaction;
     private Transaction transactionSent;
@@ -52,6 +63,8 @@ class TransactionServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        transactionService.defaultPageSize = 2;
+        transactionService.maxPageSize = 3;
 
         // Initialize transactions
         transaction = new Transaction();
@@ -73,53 +86,95 @@ class TransactionServiceTest {
     @Test
     void testRecordTransactionRecharge() {
         // Arrange
-        when(userService.getUserIdByUsername(testUsername)).thenReturn(userId);
-        when(userService.getEmailByUsername(testUsername)).thenReturn("test@example.com");
         when(transactionRepository.save(transaction)).thenReturn(transaction);
 
         // Act
-        TransactionDTO transactionDTO = transactionService.recordTransaction(testUsername, rechargeAmount, TransactionENUM.RECHARGE, null, null, 0);
+        TransactionDTO transactionDTO = transactionService.recordTransaction(account, rechargeAmount, TransactionENUM.RECHARGE, account, 0);
 
         // Assert
         assertNotNull(transactionDTO);
         assertEquals(transaction.getAmount(), transactionDTO.getAmount());
-        verify(emailService).sendRechargeEmail("test@example.com", rechargeAmount, 0.0);
+        verify(outboxService).enqueueRecharge(account, rechargeAmount, 0);
+        verify(walletAggregateService).record(any(Transaction.class));
+        verifyNoInteractions(userService);
     }
 
     @Test
     void testRecordTransactionSent() {
         // Arrange
-        when(userService.getUserIdByUsername(testUsername)).thenReturn(userId);
-        when(userService.getEmailByUsername(testUsername)).thenReturn("test@example.com");
-        when(userService.getEmailByUsername(receiverUsername)).thenReturn("receiver@example.com");
         when(transactionRepository.save(transactionSent)).thenReturn(transactionSent);
 
         // Act
-        TransactionDTO transactionDTO = transactionService.recordTransaction(testUsername, transferAmount, TransactionENUM.SENT, receiverId, receiverUsername, 0);
+        TransactionDTO transactionDTO = transactionService.recordTransaction(account, transferAmount, TransactionENUM.SENT, receiverAccount, 0);
 
         // Assert
         assertNotNull(transactionDTO);
         assertEquals(transactionDTO.getAmount(), transactionSent.getAmount());
-        verify(emailService).sendTransferEmail("receiver@example.com", testUsername, "test@example.com", receiverUsername, transferAmount);
+        assertEquals(userId, transactionDTO.getSenderId());
+        assertEquals(receiverUsername, transactionDTO.getReceiverUsername());
+        verify(outboxService).enqueueTransfer(account, receiverAccount, transferAmount);
+        verifyNoInteractions(userService);
     }
 
     @Test
-    void testRecordTransactionUserNotFound() {
-        // Arrange
-        when(userService.getUserIdByUsername(testUsername)).thenReturn(null);
+    void testRecordTransactionReceived_isOwnedByReceiver() {
+        // Act
+        TransactionDTO transactionDTO = transactionService.recordTransaction(account, transferAmount, TransactionENUM.RECEIVED, receiverAccount, 0);
+
+        // Assert
+        assertEquals(receiverId, transactionDTO.getUserId());
+        assertEquals(userId, transactionDTO.getSenderId());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void testRecordTransfer_InsertsOneEntryWithBothLegs() {
+        // Act
+        TransactionDTO transactionDTO = transactionService.recordTransfer(account, receiverAccount, transferAmount);
+
+        // Assert
+        ArgumentCaptor<TransferEntry> inserted = ArgumentCaptor.forClass(TransferEntry.class);
+        verify(transactionRepository).insertTransfer(inserted.capture());
+        assertEquals(userId, inserted.getValue().getSenderId());
+        assertEquals(receiverId, inserted.getValue().getReceiverId());
+        assertEquals(transferAmount, inserted.getValue().getAmount());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(walletAggregateService).record(inserted.getValue());
+        verify(outboxService).enqueueTransfer(account, receiverAccount, transferAmount);
+        assertEquals(TransactionENUM.SENT, transactionDTO.getType());
+        assertEquals(userId, transactionDTO.getUserId());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testTransferEntryLegOf_ProjectsEachPartysSide() {
+        TransferEntry transfer = TransactionService.createTransfer(account, receiverAccount, transferAmount);
 
+        Transaction sent = transfer.legOf(userId);
+        Transaction received = transfer.legOf(receiverId);
+
+        assertEquals(TransactionENUM.SENT, sent.getType());
+        assertEquals(userId, sent.getUserId());
+        assertEquals(TransactionENUM.RECEIVED, received.getType());
+        assertEquals(receiverId, received.getUserId());
+        assertEquals(testUsername, received.getSenderUsername());
+    }
+
+    @Test
+    void testRecordTransactionUserNotFound() {
         // Act & Assert
         WalletException exception = assertThrows(WalletException.class, () -> {
-            transactionService.recordTransaction(testUsername, rechargeAmount, TransactionENUM.RECHARGE, null, null, 0);
+            transactionService.recordTransaction(null, rechargeAmount, TransactionENUM.RECHARGE, null, 0);
         });
-        assertEquals("User not found for username: " + testUsername, exception.getMessage());
+        assertEquals("User not found for transaction of type: " + TransactionENUM.RECHARGE, exception.getMessage());
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
     void testGetTransactionsByUserId() {
         // Arrange
         when(transactionRepository.findByUserId(userId)).thenReturn(Collections.singletonList(transaction));
-        when(userService.getUserIdByUsername(testUsername)).thenReturn(userId);
+        when(userService.resolveAccount(testUsername)).thenReturn(account);
 
         // Act
         List<TransactionDTO> transactions = transactionService.getTransactionsByUsername(testUsername);
@@ -142,10 +197,28 @@ class TransactionServiceTest {
         assertEquals(transaction.getAmount(), transactionDTO.getAmount());
     }
 
+    @Test
+    void testGetTransactionById_TransferEntry_returnsSenderLeg() {
+        // Arrange
+        TransferEntry transfer = new TransferEntry(transactionId, 50, LocalDateTime.of(2024, 1, 1, 10, 0), "sender", "alice", "receiver", "bob");
+        when(transactionRepository.findById(transactionId)).thenReturn(Optional.empty());
+        when(transactionRepository.findTransferById(transactionId)).thenReturn(Optional.of(transfer));
+
+        // Act
+        TransactionDTO transactionDTO = transactionService.getTransactionById(transactionId);
+
+        // Assert
+        assertEquals(transactionId, transactionDTO.getId());
+        assertEquals(50, transactionDTO.getAmount());
+        assertEquals(TransactionENUM.SENT, transactionDTO.getType());
+        assertEquals("sender", transactionDTO.getUserId());
+    }
+
     @Test
     void testGetTransactionByIdNotFound() {
         // Arrange
         when(transactionRepository.findById(transactionId)).thenReturn(Optional.empty());
+        when(transactionRepository.findTransferById(transactionId)).thenReturn(Optional.empty());
 
         // Act & Assert
         WalletException exception = assertThrows(WalletException.class, () -> {
@@ -157,8 +230,8 @@ class TransactionServiceTest {
     @Test
     void testGetCashbackByUsername() {
         // Arrange
-        when(userService.getUserIdByUsername(testUsername)).thenReturn(userId);
-        when(transactionRepository.findByUserId(userId)).thenReturn(Collections.singletonList(transactionCashback));
+        when(userService.resolveAccount(testUsername)).thenReturn(account);
+        when(transactionRepository.findByUserIdAndType(userId, TransactionENUM.CASHBACK)).thenReturn(Collections.singletonList(transactionCashback));
 
         // Act
         List<TransactionDTO> cashbacks = transactionService.getCashbackByUsername(testUsername);
@@ -171,7 +244,7 @@ class TransactionServiceTest {
     @Test
     void testGetCashbackByUsernameUserNotFound() {
         // Arrange
-        when(userService.getUserIdByUsername(testUsername)).thenReturn(null);
+        when(userService.resolveAccount(testUsername)).thenReturn(null);
 
         // Act & Assert
         WalletException exception = assertThrows(WalletException.class, () -> {
@@ -179,4 +252,73 @@ class TransactionServiceTest {
         });
         assertEquals("User not found for username: " + testUsername, exception.getMessage());
     }
+
+    @Test
+    void testGetTransactionPage_MoreRowsThanPage_returnsNextCursor() {
+        // Arrange
+        Transaction newest = pagedTransaction("t3", LocalDateTime.of(2024, 1, 3, 0, 0));
+        Transaction middle = pagedTransaction("t2", LocalDateTime.of(2024, 1, 2, 0, 0));
+        Transaction oldest = pagedTransaction("t1", LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(transactionRepository.findPageByUserId(userId, null, null, null, null, 3)).thenReturn(List.of(newest, middle, oldest));
+
+        // Act
+        TransactionPageDTO page = transactionService.getTransactionPageByUserId(userId, null, null, null, null, null);
+
+        // Assert
+        assertEquals(2, page.getTransactions().size());
+        assertEquals("t2", page.getTransactions().get(1).getId());
+        assertEquals(new TransactionCursor(middle.getTimestamp(), "t2"), TransactionCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void testGetTransactionPage_LastPage_hasNoCursor() {
+        // Arrange
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 1, 2, 0, 0), "t2");
+        Transaction oldest = pagedTransaction("t1", LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(transactionRepository.findPageByUserId(userId, null, null, null, cursor, 4)).thenReturn(List.of(oldest));
+
+        // Act: the requested limit is capped at the configured maximum of 3
+        TransactionPageDTO page = transactionService.getTransactionPageByUserId(userId, null, null, null, cursor, 50);
+
+        // Assert
+        assertEquals(1, page.getTransactions().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionPage_InvalidLimit_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> transactionService.getTransactionPageByUserId(userId, null, null, null, null, 0));
+    }
+
+    @Test
+    void testGetCashbackPage_FiltersByTypeAndWindowInRepository() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(transactionRepository.findPageByUserId(userId, TransactionENUM.CASHBACK, from, to, null, 3)).thenReturn(List.of(transactionCashback));
+
+        // Act
+        TransactionPageDTO page = transactionService.getTransactionPageByUserId(userId, TransactionENUM.CASHBACK, from, to, null, null);
+
+        // Assert
+        assertEquals(1, page.getTransactions().size());
+        assertEquals(TransactionENUM.CASHBACK, page.getTransactions().get(0).getType());
+        verify(transactionRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    void testGetTransactionPage_UnknownType_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getTransactionPageByUserId(userId, "bogus", null, null, null, null));
+    }
+
+    private Transaction pagedTransaction(String id, LocalDateTime timestamp) {
+        Transaction paged = new Transaction();
+        paged.setId(id);
+        paged.setUserId(userId);
+        paged.setAmount(rechargeAmount);
+        paged.setTimestamp(timestamp);
+        paged.setType(TransactionENUM.RECHARGE);
+        return paged;
+    }
 }
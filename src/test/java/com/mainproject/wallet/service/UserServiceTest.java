@@ -3,18 +3,26 @@ package com.mainproject.wallet.service.impl;
 import com.mainproject.wallet.dto.LoginDTO;
 import com.mainproject.wallet.dto.RegisterDTO;
 import com.mainproject.wallet.exception.AuthException;
+import com.mainproject.wallet.model.ResolvedAccount;
 import com.mainproject.wallet.model.User;
 import com.mainproject.wallet.repository.UserRepository;
+import com.mainproject.wallet.security.PasswordHashingService;
 import com.mainproject.wallet.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 class UserServiceTest {
@@ -26,7 +34,7 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     // Constants for tests
     private static final String USERNAME = "testUser";
@@ -88,7 +96,7 @@ class UserServiceTest {
     @Test
     void testLogin_InvalidPassword_throwsAuthException() {
         when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(user);
-        when(passwordEncoder.matches("wrongPassword", user.getPassword())).thenReturn(false);
+        when(passwordHashingService.matches("wrongPassword", user.getPassword())).thenReturn(false);
 
         loginDTO.setPassword("wrongPassword");
         AuthException exception = assertThrows(AuthException.class, () -> userService.login(loginDTO));
@@ -118,18 +126,18 @@ class UserServiceTest {
     void testRegister_PasswordEncoding_verifiesEncodedPassword() {
         when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(null);
         when(userRepository.findByEmail(EMAIL)).thenReturn(null);
-        when(passwordEncoder.encode(PASSWORD)).thenReturn("encryptedPassword");
+        when(passwordHashingService.encode(PASSWORD)).thenReturn("encryptedPassword");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         userService.register(registerDTO);
-        verify(passwordEncoder).encode(PASSWORD);
+        verify(passwordHashingService).encode(PASSWORD);
     }
 
     @Test
     void testRegister_Success_returnsUser() {
         when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(null);
         when(userRepository.findByEmail(EMAIL)).thenReturn(null);
-        when(passwordEncoder.encode(PASSWORD)).thenReturn("encryptedPassword");
+        when(passwordHashingService.encode(PASSWORD)).thenReturn("encryptedPassword");
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         User registeredUser = userService.register(registerDTO);
@@ -143,13 +151,37 @@ class UserServiceTest {
     @Test
     void testLogin_Success_returnsUser() {
         when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(user);
-        when(passwordEncoder.matches(PASSWORD, user.getPassword())).thenReturn(true);
+        when(passwordHashingService.matches(PASSWORD, user.getPassword())).thenReturn(true);
 
         User loggedInUser = userService.login(loginDTO);
         assertNotNull(loggedInUser);
         assertEquals(USERNAME, loggedInUser.getUsername());
     }
 
+    @Test
+    void testLogin_HashWithOldCost_isRehashedInBackground() {
+        when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(user);
+        when(passwordHashingService.matches(PASSWORD, user.getPassword())).thenReturn(true);
+        when(passwordHashingService.needsRehash(user.getPassword())).thenReturn(true);
+        when(passwordHashingService.encodeInBackground(PASSWORD)).thenReturn(CompletableFuture.completedFuture("rehashedPassword"));
+
+        assertNotNull(userService.login(loginDTO));
+
+        verify(userRepository).replacePasswordHash(USER_ID, "encryptedPassword", "rehashedPassword");
+    }
+
+    @Test
+    void testLogin_RehashRejected_stillLogsIn() {
+        when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(user);
+        when(passwordHashingService.matches(PASSWORD, user.getPassword())).thenReturn(true);
+        when(passwordHashingService.needsRehash(user.getPassword())).thenReturn(true);
+        when(passwordHashingService.encodeInBackground(PASSWORD)).thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException()));
+
+        assertNotNull(userService.login(loginDTO));
+
+        verify(userRepository, never()).replacePasswordHash(anyString(), anyString(), anyString());
+    }
+
     @Test
     void testRegister_EmailExists_throwsAuthException() {
         when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(null);
@@ -172,4 +204,29 @@ class UserServiceTest {
         String email = userService.getEmailByUsername(USERNAME);
         assertEquals(EMAIL, email);
     }
+
+    @Test
+    void testResolveAccount_UserExists_returnsIdUsernameAndEmail() {
+        when(userRepository.findByUsernameIgnoreCase(USERNAME)).thenReturn(user);
+
+        ResolvedAccount account = userService.resolveAccount(USERNAME);
+
+        assertEquals(new ResolvedAccount(USER_ID, USERNAME, EMAIL), account);
+    }
+
+    @Test
+    void testResolveAccount_WithinRequest_queriesOnce() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            when(userRepository.findByUsernameIgnoreCase(anyString())).thenReturn(user);
+
+            userService.resolveAccount(USERNAME);
+            userService.getUserIdByUsername(USERNAME.toUpperCase());
+            userService.getEmailByUsername(USERNAME);
+
+            verify(userRepository, times(1)).findByUsernameIgnoreCase(anyString());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package com.mainproject.wallet.service;
+
+import com.mainproject.wallet.constant.TransactionENUM;
+import com.mainproject.wallet.dto.WalletAggregateDTO;
+import com.mainproject.wallet.model.Transaction;
+import com.mainproject.wallet.model.TransferEntry;
+import com.mainproject.wallet.model.User;
+import com.mainproject.wallet.model.WalletAggregate;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WalletAggregateServiceTest {
+
+    @InjectMocks
+    private WalletAggregateService walletAggregateService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private static final String USER_ID = "userId";
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testRecord_Cashback_incrementsTypeTotalsAndCashback() {
+        Transaction cashback = transaction(TransactionENUM.CASHBACK, 7);
+
+        walletAggregateService.record(cashback);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(WalletAggregate.class));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(1L, inc.get("counts.cashback"));
+        assertEquals(7L, inc.get("sums.cashback"));
+        assertEquals(7L, inc.get("cashbackTotal"));
+        assertEquals(cashback.getTimestamp(), ((Document) update.getValue().getUpdateObject().get("$max")).get("lastActivity"));
+    }
+
+    @Test
+    void testRecord_Sent_doesNotTouchCashbackTotal() {
+        walletAggregateService.record(transaction(TransactionENUM.SENT, 50));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(WalletAggregate.class));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(50L, inc.get("sums.Sent"));
+        assertFalse(inc.containsKey("cashbackTotal"));
+    }
+
+    @Test
+    void testGetAggregate_NoActivity_returnsEmptyTotals() {
+        when(mongoTemplate.findById(USER_ID, WalletAggregate.class)).thenReturn(null);
+
+        WalletAggregateDTO dto = walletAggregateService.getAggregate(USER_ID);
+
+        assertEquals(USER_ID, dto.getUserId());
+        assertTrue(dto.getCounts().isEmpty());
+        assertEquals(0, dto.getCashbackTotal());
+    }
+
+    @Test
+    void testRebuild_RecomputesFromLedgerAndOverwrites() {
+        LocalDateTime last = LocalDateTime.of(2024, 5, 1, 9, 30);
+        Date lastDate = Date.from(last.atZone(ZoneId.systemDefault()).toInstant());
+        List<Document> rows = List.of(
+                new Document("_id", TransactionENUM.RECHARGE).append("count", 2).append("total", 300L).append("last", lastDate),
+                new Document("_id", TransactionENUM.CASHBACK).append("count", 1).append("total", 12L).append("last", lastDate));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Transaction.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(rows, new Document()));
+        // Sender side first, then receiver side
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(TransferEntry.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", null).append("count", 3).append("total", 90L).append("last", lastDate)), new Document()))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        WalletAggregateDTO dto = walletAggregateService.rebuild(USER_ID);
+
+        assertEquals(2L, dto.getCounts().get(TransactionENUM.RECHARGE));
+        assertEquals(300L, dto.getSums().get(TransactionENUM.RECHARGE));
+        assertEquals(3L, dto.getCounts().get(TransactionENUM.SENT));
+        assertEquals(90L, dto.getSums().get(TransactionENUM.SENT));
+        assertFalse(dto.getCounts().containsKey(TransactionENUM.RECEIVED));
+        assertEquals(12, dto.getCashbackTotal());
+        assertEquals(last, dto.getLastActivity());
+        verify(mongoTemplate).save(any(WalletAggregate.class));
+    }
+
+    @Test
+    void testRecord_Transfer_updatesSenderAndReceiver() {
+        TransferEntry transfer = new TransferEntry("t1", 50, LocalDateTime.of(2024, 1, 1, 10, 0), "sender", "alice", "receiver", "bob");
+
+        walletAggregateService.record(transfer);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).upsert(query.capture(), update.capture(), eq(WalletAggregate.class));
+        assertEquals("sender", query.getAllValues().get(0).getQueryObject().get("_id"));
+        assertEquals(50L, ((Document) update.getAllValues().get(0).getUpdateObject().get("$inc")).get("sums." + TransactionENUM.SENT));
+        assertEquals("receiver", query.getAllValues().get(1).getQueryObject().get("_id"));
+        assertEquals(50L, ((Document) update.getAllValues().get(1).getUpdateObject().get("$inc")).get("sums." + TransactionENUM.RECEIVED));
+    }
+
+    @Test
+    void testRebuildAll_RebuildsEachUserThroughTheProxy() {
+        WalletAggregateService proxy = mock(WalletAggregateService.class);
+        walletAggregateService.self = proxy;
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(user("a"), user("b")));
+
+        assertEquals(2, walletAggregateService.rebuildAll());
+
+        verify(proxy).rebuild("a");
+        verify(proxy).rebuild("b");
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private Transaction transaction(String type, long amount) {
+        Transaction transaction = new Transaction();
+        transaction.setUserId(USER_ID);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 10, 0));
+        return transaction;
+    }
+}
@@ -1,8 +1,11 @@
 package com.mainproject.wallet.service;
 
 import com.mainproject.wallet.dto.RechargeResponseDTO;
+import com.mainproject.wallet.dto.WalletAggregateDTO;
 import com.mainproject.wallet.exception.UserNotFoundException;
 import com.mainproject.wallet.exception.WalletException;
+import com.mainproject.wallet.metrics.WalletMetrics;
+import com.mainproject.wallet.model.ResolvedAccount;
 import com.mainproject.wallet.model.User;
 import com.mainproject.wallet.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,11 +13,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.ResponseEntity;
 
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class WalletServiceTest {
@@ -31,96 +40,139 @@ class WalletServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private WalletAggregateService walletAggregateService;
+
+    @Mock
+    private WalletMetrics walletMetrics;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Spy
+    private CashbackEngine cashbackEngine = new CashbackEngine(null, 5, 10);
+
     // Constants for test values
     private static final String USERNAME = "testUser";
     private static final String USER_ID = "1";
-    private static final double INITIAL_BALANCE = 200.0;
-    private static final double RECHARGE_AMOUNT = 100.0;
-    private static final double INSUFFICIENT_AMOUNT = 500.0;
+    private static final long INITIAL_BALANCE = 200;
+    private static final long RECHARGE_AMOUNT = 100;
+    private static final long INSUFFICIENT_AMOUNT = 500;
     private static final String TO_USERNAME = "receiverUser";
+    private static final ResolvedAccount SENDER_ACCOUNT = new ResolvedAccount(USER_ID, USERNAME, "test@example.com");
+    private static final ResolvedAccount RECEIVER_ACCOUNT = new ResolvedAccount("2", TO_USERNAME, "receiver@example.com");
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        walletService.cashbackLowerPercent = 5.0;
-        walletService.cashbackUpperPercent = 10.0;
     }
 
     @Test
     void testRecharge_Success_returnsRechargeResponse() {
         User user = createUser(USER_ID, INITIAL_BALANCE);
 
-        when(userService.getUserIdByUsername(USERNAME)).thenReturn(USER_ID);
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(userService.resolveAccount(USERNAME)).thenReturn(SENDER_ACCOUNT);
+        when(userRepository.credit(eq(USER_ID), anyLong())).thenAnswer(invocation -> {
+            user.setWalletBalance(user.getWalletBalance() + invocation.<Long>getArgument(1));
+            return user;
+        });
 
-        ResponseEntity<RechargeResponseDTO> response = walletService.recharge(USERNAME, RECHARGE_AMOUNT);
+        ResponseEntity<RechargeResponseDTO> response = walletService.recharge(USERNAME, RECHARGE_AMOUNT, null);
 
         assertNotNull(response);
         RechargeResponseDTO responseBody = response.getBody();
         assertNotNull(responseBody);
         assertEquals(INITIAL_BALANCE + RECHARGE_AMOUNT + responseBody.getCashbackAmount(), user.getWalletBalance());
+        assertEquals(user.getWalletBalance(), responseBody.getNewBalance());
         assertTrue(responseBody.getCashbackAmount() >= 0); // Ensure cashback is calculated
+        verify(userRepository).credit(eq(USER_ID), anyLong()); // One $inc for recharge and cashback
+        verify(userRepository, never()).save(any());
     }
 
     @Test
     void testRecharge_UserNotFound_throwsWalletException() {
-        when(userService.getUserIdByUsername(USERNAME)).thenReturn(null);
+        when(userService.resolveAccount(USERNAME)).thenReturn(null);
 
-        WalletException exception = assertThrows(WalletException.class, () -> walletService.recharge(USERNAME, RECHARGE_AMOUNT));
+        WalletException exception = assertThrows(WalletException.class, () -> walletService.recharge(USERNAME, RECHARGE_AMOUNT, null));
         assertEquals("No user found for username: " + USERNAME, exception.getMessage());
     }
 
     @Test
     void testTransfer_Success_returnsUser() {
-        User fromUser = createUser(USER_ID, INITIAL_BALANCE);
-        User toUser = createUser("2", INITIAL_BALANCE, "receiverUser");
+        User toUser = createUser("2", INITIAL_BALANCE + 50, "receiverUser");
 
-        when(userService.getUserIdByUsername(USERNAME)).thenReturn(USER_ID);
-        when(userService.getUserIdByUsername(TO_USERNAME)).thenReturn("2");
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(fromUser));
-        when(userRepository.findById("2")).thenReturn(Optional.of(toUser));
+        when(userService.resolveAccount(USERNAME)).thenReturn(SENDER_ACCOUNT);
+        when(userService.resolveAccount(TO_USERNAME)).thenReturn(RECEIVER_ACCOUNT);
+        when(userRepository.debitIfSufficient(USER_ID, 50)).thenReturn(true);
+        when(userRepository.credit("2", 50)).thenReturn(toUser);
 
-        User resultUser = walletService.transfer(USERNAME, TO_USERNAME, 50.0);
+        User resultUser = walletService.transfer(USERNAME, TO_USERNAME, 50, null);
 
         assertEquals(TO_USERNAME, resultUser.getUsername());
-        assertEquals(INITIAL_BALANCE - 50.0, fromUser.getWalletBalance());
-        assertEquals(INITIAL_BALANCE + 50.0, toUser.getWalletBalance());
+        assertEquals(INITIAL_BALANCE + 50, resultUser.getWalletBalance());
+        verify(userRepository).debitIfSufficient(USER_ID, 50);
+        verify(userRepository).credit("2", 50);
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).save(any());
+        verify(userService, times(1)).resolveAccount(USERNAME);
+        verify(userService, times(1)).resolveAccount(TO_USERNAME);
+        verify(transactionService).recordTransfer(SENDER_ACCOUNT, RECEIVER_ACCOUNT, 50);
+        verify(transactionService, never()).recordTransaction(any(), anyLong(), anyString(), any(), anyLong());
+    }
+
+    @Test
+    void testTransfer_LedgerEngineEnabled_isRejected() {
+        walletService.ledgerEngine = mock(LedgerEngine.class);
+
+        assertThrows(IllegalStateException.class, () -> walletService.transfer(USERNAME, TO_USERNAME, 50, null));
+
+        verifyNoInteractions(userRepository, transactionService); // LedgerWalletService owns this path
     }
 
     @Test
     void testTransfer_SameUser_throwsWalletException() {
-        WalletException exception = assertThrows(WalletException.class, () -> walletService.transfer(USERNAME, USERNAME, 50.0));
+        WalletException exception = assertThrows(WalletException.class, () -> walletService.transfer(USERNAME, USERNAME, 50, null));
         assertEquals("Cannot transfer money to yourself", exception.getMessage());
     }
 
     @Test
     void testTransfer_UserNotFound_throwsUserNotFoundException() {
-        when(userService.getUserIdByUsername(USERNAME)).thenReturn(USER_ID);
-        when(userService.getUserIdByUsername(TO_USERNAME)).thenReturn(null);
+        when(userService.resolveAccount(USERNAME)).thenReturn(SENDER_ACCOUNT);
+        when(userService.resolveAccount(TO_USERNAME)).thenReturn(null);
 
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> walletService.transfer(USERNAME, TO_USERNAME, 50.0));
+        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> walletService.transfer(USERNAME, TO_USERNAME, 50, null));
         assertEquals("Wallet not found for username " + TO_USERNAME, exception.getMessage());
     }
 
     @Test
     void testTransfer_InsufficientFunds_throwsWalletException() {
-        User fromUser = createUser(USER_ID, INITIAL_BALANCE);
-        User toUser = createUser("2", INITIAL_BALANCE);
-
-        when(userService.getUserIdByUsername(USERNAME)).thenReturn(USER_ID);
-        when(userService.getUserIdByUsername(TO_USERNAME)).thenReturn("2");
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(fromUser));
-        when(userRepository.findById("2")).thenReturn(Optional.of(toUser));
+        when(userService.resolveAccount(USERNAME)).thenReturn(SENDER_ACCOUNT);
+        when(userService.resolveAccount(TO_USERNAME)).thenReturn(RECEIVER_ACCOUNT);
+        when(userRepository.debitIfSufficient(USER_ID, INSUFFICIENT_AMOUNT)).thenReturn(false);
 
-        WalletException exception = assertThrows(WalletException.class, () -> walletService.transfer(USERNAME, TO_USERNAME, INSUFFICIENT_AMOUNT));
+        WalletException exception = assertThrows(WalletException.class, () -> walletService.transfer(USERNAME, TO_USERNAME, INSUFFICIENT_AMOUNT, null));
         assertEquals("Insufficient funds in the account", exception.getMessage());
+        verify(walletMetrics).recordInsufficientFunds();
+        verify(userRepository, never()).credit(any(), anyLong());
+    }
+
+    @Test
+    void testTransfer_ReceiverMissingOnCredit_throwsWalletException() {
+        when(userService.resolveAccount(USERNAME)).thenReturn(SENDER_ACCOUNT);
+        when(userService.resolveAccount(TO_USERNAME)).thenReturn(RECEIVER_ACCOUNT);
+        when(userRepository.debitIfSufficient(USER_ID, 50)).thenReturn(true);
+        when(userRepository.credit("2", 50)).thenReturn(null);
+
+        WalletException exception = assertThrows(WalletException.class, () -> walletService.transfer(USERNAME, TO_USERNAME, 50, null));
+        assertEquals("User not found for userId: 2", exception.getMessage());
+        verifyNoInteractions(transactionService);
     }
 
     @Test
     void testViewStatement_Success_returnsUser() {
         User user = createUser(USER_ID, INITIAL_BALANCE);
 
-        when(userService.getUserIdByUsername(USERNAME)).thenReturn(USER_ID);
+        when(userService.resolveAccount(USERNAME)).thenReturn(SENDER_ACCOUNT);
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
 
         User resultUser = walletService.viewStatement(USERNAME);
@@ -129,14 +181,23 @@ class WalletServiceTest {
 
     @Test
     void testViewStatement_UserNotFound_throwsUserNotFoundException() {
-        when(userService.getUserIdByUsername(USERNAME)).thenReturn(null);
+        when(userService.resolveAccount(USERNAME)).thenReturn(null);
 
         UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> walletService.viewStatement(USERNAME));
         assertEquals("No user found for username: " + USERNAME, exception.getMessage());
     }
 
+    @Test
+    void testGetAggregates_returnsAggregateForResolvedUser() {
+        WalletAggregateDTO aggregate = new WalletAggregateDTO(USER_ID, Map.of(), Map.of(), 0, null);
+        when(userService.resolveAccount(USERNAME)).thenReturn(SENDER_ACCOUNT);
+        when(walletAggregateService.getAggregate(USER_ID)).thenReturn(aggregate);
+
+        assertEquals(aggregate, walletService.getAggregates(USERNAME));
+    }
+
     // Helper method to create a User object
-    private User createUser(String id, double walletBalance) {
+    private User createUser(String id, long walletBalance) {
         User user = new User();
         user.setId(id);
         user.setWalletBalance(walletBalance);
@@ -144,7 +205,7 @@ class WalletServiceTest {
     }
 
     // Overloaded helper method for creating a User with a username
-    private User createUser(String id, double walletBalance, String username) {
+    private User createUser(String id, long walletBalance, String username) {
         User user = createUser(id, walletBalance);
         user.setUsername(username);
         return user;
@@ -0,0 +1,72 @@
+package com.mainproject.wallet.template;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateTest {
+
+    @Test
+    void testRender_FillsPlaceholdersBetweenLiterals() {
+        EmailTemplate template = EmailTemplate.compile("t", "<p>{{name}} paid ₹{{amount:money}}</p>", "name", "amount");
+
+        assertEquals("<p>alice paid ₹12.50</p>", template.render("alice", 1_250L));
+    }
+
+    @Test
+    void testRender_EscapesText() {
+        EmailTemplate template = EmailTemplate.compile("t", "<strong>{{name}}</strong>", "name");
+
+        assertEquals("<strong>&lt;script&gt;&amp;&quot;&#39;</strong>", template.render("<script>&\"'"));
+    }
+
+    @Test
+    void testRender_SectionOnlyForPositiveValues() {
+        EmailTemplate template = EmailTemplate.compile("t", "a{{#cashback}}[{{cashback:money}}]{{/cashback}}b", "cashback");
+
+        assertEquals("a[5.00]b", template.render(500L));
+        assertEquals("ab", template.render(0L));
+    }
+
+    @Test
+    void testRender_ReusedBufferDoesNotLeakPreviousOutput() {
+        EmailTemplate template = EmailTemplate.compile("t", "{{name}}", "name");
+
+        template.render("a much longer first value");
+
+        assertEquals("b", template.render("b"));
+    }
+
+    @Test
+    void testRender_OnVirtualThread_rendersWithoutThreadBuffer() throws Exception {
+        EmailTemplate template = EmailTemplate.compile("t", "<p>{{name}} paid ₹{{amount:money}}</p>", "name", "amount");
+        String[] html = new String[1];
+
+        Thread.ofVirtual().start(() -> html[0] = template.render("alice", 1_250L)).join();
+
+        assertEquals("<p>alice paid ₹12.50</p>", html[0]);
+    }
+
+    @Test
+    void testRender_WrongNumberOfValues_isRejected() {
+        EmailTemplate template = EmailTemplate.compile("t", "{{name}}", "name");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render("a", "b"));
+    }
+
+    @Test
+    void testCompile_UnknownPlaceholder_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("t", "{{missing}}", "name"));
+    }
+
+    @Test
+    void testCompile_UnbalancedSection_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("t", "{{#name}}x", "name"));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("t", "x{{/name}}", "name"));
+    }
+
+    @Test
+    void testCompile_UnknownFormat_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("t", "{{name:date}}", "name"));
+    }
+}
@@ -0,0 +1,33 @@
+package com.mainproject.wallet.template;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplatesTest {
+
+    private final EmailTemplates templates = new EmailTemplates();
+
+    @Test
+    void testRecharge_WithCashback() {
+        String html = templates.recharge(10_000, 1_000);
+
+        assertTrue(html.startsWith("<html>"));
+        assertTrue(html.contains("<h2>Tuple Pay</h2>"));
+        assertTrue(html.contains("recharged with <strong>₹100.00</strong>"));
+        assertTrue(html.contains("cashback of <strong>₹10.00</strong>"));
+        assertFalse(html.contains("<!-- content -->"));
+        assertTrue(html.trim().endsWith("</html>"));
+    }
+
+    @Test
+    void testRecharge_WithoutCashback_omitsCashbackLine() {
+        assertFalse(templates.recharge(10_000, 0).contains("cashback of"));
+    }
+
+    @Test
+    void testTransferEmails_NameCounterpartyEscaped() {
+        assertTrue(templates.transferReceived(5_000, "a<b").contains("₹50.00</strong> from <strong>a&lt;b</strong>"));
+        assertTrue(templates.transferSent(5_000, "bob").contains("sent <strong>₹50.00</strong> to <strong>bob</strong>"));
+    }
+}
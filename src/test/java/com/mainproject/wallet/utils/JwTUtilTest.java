@@ -8,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -95,6 +97,81 @@ class JwtUtilTest {
         assertThrows(JwtException.class, () -> jwtUtil.extractExpiration(invalidToken));
     }
 
+    @Test
+    void testVerify_ValidToken_returnsClaims() {
+        String token = jwtUtil.generateToken(USERNAME);
+
+        JwtClaims claims = jwtUtil.verify("Bearer " + token);
+
+        assertNotNull(claims);
+        assertEquals(USERNAME, claims.username());
+        assertTrue(claims.expiresAt().isAfter(claims.issuedAt()));
+    }
+
+    @Test
+    void testVerify_TokenWithUserId_carriesUserId() {
+        String token = jwtUtil.generateToken("user-1", USERNAME);
+
+        JwtClaims claims = jwtUtil.verify(token);
+
+        assertEquals("user-1", claims.userId());
+        assertEquals(USERNAME, claims.username());
+        assertNull(jwtUtil.verify(jwtUtil.generateToken(USERNAME)).userId());
+    }
+
+    @Test
+    void testVerify_RepeatedToken_isServedFromCache() {
+        String token = jwtUtil.generateToken(USERNAME);
+
+        JwtClaims first = jwtUtil.verify(token);
+        JwtClaims second = jwtUtil.verify("Bearer " + token);
+
+        assertSame(first, second);
+        assertEquals(1, jwtUtil.cachedTokenCount());
+    }
+
+    @Test
+    void testVerify_InvalidOrExpiredToken_returnsNullAndIsNotCached() {
+        String token = jwtUtil.generateToken(USERNAME);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(jwtUtil.verify("invalidToken"));
+        assertNull(jwtUtil.verify(tampered));
+        assertNull(jwtUtil.verify(createExpiredToken(USERNAME)));
+        assertNull(jwtUtil.verify(null));
+        assertEquals(0, jwtUtil.cachedTokenCount());
+    }
+
+    @Test
+    void testVerify_ExpiredToken_returnsNull() {
+        assertNull(jwtUtil.verify("Bearer " + createExpiredToken(USERNAME)));
+        assertEquals(0, jwtUtil.cachedTokenCount());
+    }
+
+    @Test
+    void testVerify_CachedTokenThatHasSinceExpired_returnsNullAndIsDropped() {
+        String token = jwtUtil.generateToken(USERNAME);
+        assertNotNull(jwtUtil.verify(token));
+        assertEquals(1, jwtUtil.cachedTokenCount());
+
+        // Two hours later the one-hour token is past its exp claim
+        jwtUtil.clock = Clock.offset(Clock.systemUTC(), Duration.ofHours(2));
+
+        assertNull(jwtUtil.verify(token));
+        assertEquals(0, jwtUtil.cachedTokenCount());
+    }
+
+    @Test
+    void testVerify_CacheIsBounded() {
+        jwtUtil.maxCachedTokens = 2;
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(jwtUtil.verify(jwtUtil.generateToken(USERNAME + i)));
+        }
+
+        assertTrue(jwtUtil.cachedTokenCount() <= 2);
+    }
+
     // Helper method to create an expired token
     private String createExpiredToken(String username) {
         return Jwts.builder()
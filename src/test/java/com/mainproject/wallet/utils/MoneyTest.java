@@ -0,0 +1,33 @@
+package com.mainproject.wallet.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testFromRupees_RoundsToWholePaise() {
+        assertEquals(1_999, Money.fromRupees(19.99)); // 19.99 * 100 is 1998.9999999999998 as a double
+        assertEquals(30, Money.fromRupees(0.1 + 0.2));
+        assertEquals(0, Money.fromRupees(0));
+    }
+
+    @Test
+    void testShare_RoundsDownToWholePaise() {
+        assertEquals(525, Money.share(10_000, Money.basisPoints(5.25)));
+        assertEquals(0, Money.share(19, Money.basisPoints(5)));
+    }
+
+    @Test
+    void testShare_Overflow_throwsArithmeticException() {
+        assertThrows(ArithmeticException.class, () -> Money.share(Long.MAX_VALUE, 2));
+    }
+
+    @Test
+    void testFormat_ShowsRupeesWithTwoDecimals() {
+        assertEquals("1234.05", Money.format(123_405));
+        assertEquals("0.50", Money.format(50));
+        assertEquals("-10.00", Money.format(-1_000));
+    }
+}
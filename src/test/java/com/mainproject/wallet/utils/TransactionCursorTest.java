@@ -0,0 +1,32 @@
+package com.mainproject.wallet.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCursorTest {
+
+    @Test
+    void testEncodeDecode_roundTrips() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000), "65f1c0ffee");
+
+        String token = cursor.encode();
+
+        assertFalse(token.contains("|"));
+        assertEquals(cursor, TransactionCursor.decode(token));
+    }
+
+    @Test
+    void testDecode_NullOrBlank_returnsNull() {
+        assertNull(TransactionCursor.decode(null));
+        assertNull(TransactionCursor.decode(" "));
+    }
+
+    @Test
+    void testDecode_Garbage_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("bm8tc2VwYXJhdG9y")); // "no-separator"
+    }
+}